@@ -0,0 +1,109 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic ARC responses as they arrive in the source data of a transformation:
+ * {@code source.<system>.<arc>} holding an object with a flat block of numeric {@code metrics}
+ * and an {@code items} array of records of configurable length.
+ * <p>
+ * Payloads are deterministic for a given seed, so runs stay comparable with a baseline.
+ */
+public final class ArcPayloads {
+
+    public static final String SYSTEM = "benchSystem";
+    public static final String ARC = "benchArc";
+
+    /** The path prefix of the generated ARC, as used by ProviderNodes. */
+    public static final String ARC_PATH = "source." + SYSTEM + "." + ARC;
+
+    /** The number of entries in the {@code metrics} block, {@code m0} to {@code m63}. */
+    public static final int METRIC_COUNT = 64;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] TAGS = {"new", "sale", "eco", "bulk", "import", "limited"};
+
+    private ArcPayloads() {
+    }
+
+    /**
+     * Generates the response of one ARC.
+     *
+     * @param items The number of records in the {@code items} array.
+     * @param seed  The seed of the random values.
+     * @return The generated response.
+     */
+    public static ObjectNode arcResponse(int items, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ObjectNode response = MAPPER.createObjectNode();
+
+        ObjectNode metrics = response.putObject("metrics");
+        for (int i = 0; i < METRIC_COUNT; i++) {
+            metrics.put("m" + i, random.nextInt(100));
+        }
+
+        ArrayNode records = response.putArray("items");
+        long baseEpochSecond = Instant.parse("2025-01-01T00:00:00Z").getEpochSecond();
+        for (int i = 0; i < items; i++) {
+            ObjectNode record = records.addObject();
+            record.put("id", i);
+            record.put("sku", "SKU-" + (100000 + i));
+            record.put("name", "Product " + i);
+            record.put("price", Math.round(random.nextDouble(1, 500) * 100) / 100.0);
+            record.put("stock", random.nextInt(1000));
+            record.put("active", random.nextBoolean());
+            record.put("updatedAt", Instant.ofEpochSecond(baseEpochSecond + random.nextInt(31_536_000)).toString());
+            ArrayNode tags = record.putArray("tags");
+            for (int t = random.nextInt(4); t > 0; t--) {
+                tags.add(TAGS[random.nextInt(TAGS.length)]);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Returns a copy of an ARC response with one metric changed, to simulate a partial update.
+     *
+     * @param response The response to copy.
+     * @param metric   The index of the metric to change.
+     * @return The changed copy.
+     */
+    public static ObjectNode withChangedMetric(ObjectNode response, int metric) {
+        ObjectNode copy = response.deepCopy();
+        ObjectNode metrics = (ObjectNode) copy.get("metrics");
+        String field = "m" + metric;
+        metrics.put(field, metrics.get(field).intValue() + 1);
+        return copy;
+    }
+
+    /**
+     * Wraps an ARC response into the {@code "source"} entry of a graph data context.
+     *
+     * @param response The ARC response.
+     * @return The source tree, i.e. {@code {"benchSystem": {"benchArc": response}}}.
+     */
+    public static JsonNode sourceTree(JsonNode response) {
+        ObjectNode source = MAPPER.createObjectNode();
+        source.putObject(SYSTEM).set(ARC, response);
+        return source;
+    }
+
+    /**
+     * Converts an ARC response into the plain-map source data a TransformJob carries.
+     *
+     * @param response The ARC response.
+     * @return The source data, i.e. {@code {"source": {"benchSystem": {"benchArc": {...}}}}}.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> scriptSourceData(JsonNode response) {
+        Map<String, Object> arcData = MAPPER.convertValue(response, Map.class);
+        return Map.of("source", Map.of(SYSTEM, Map.of(ARC, arcData)));
+    }
+}
@@ -0,0 +1,202 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH result file in JSON format with a baseline file of an earlier run.
+ * <p>
+ * Benchmarks are matched by their name, mode and parameters. A benchmark regressed if its score
+ * is worse than the baseline score by more than the threshold, even when both scores are taken at
+ * the favourable end of their confidence intervals ({@code scoreError}): lower for throughput,
+ * higher for the time-based modes. A difference within the noise of either run is therefore not a
+ * regression. Benchmarks present in only one of the files are reported, but are not regressions.
+ */
+public final class BaselineComparison {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * The comparison of one benchmark.
+     *
+     * @param key           The benchmark name, mode and parameters.
+     * @param baselineScore The score of the baseline run.
+     * @param baselineError The half-width of the confidence interval of the baseline score.
+     * @param score         The score of the current run.
+     * @param scoreError    The half-width of the confidence interval of the current score.
+     * @param unit          The unit of both scores.
+     * @param change        The relative change, positive meaning worse.
+     * @param regressed     Whether the confidence intervals are further apart than the threshold.
+     */
+    public record Entry(String key, double baselineScore, double baselineError, double score, double scoreError,
+                        String unit, double change, boolean regressed) {
+    }
+
+    private final List<Entry> entries;
+    private final List<String> missing;
+    private final List<String> added;
+
+    private BaselineComparison(List<Entry> entries, List<String> missing, List<String> added) {
+        this.entries = entries;
+        this.missing = missing;
+        this.added = added;
+    }
+
+    /**
+     * Compares two JMH result files.
+     *
+     * @param baselineFile The result file of the baseline run.
+     * @param resultFile   The result file of the current run.
+     * @param threshold    The tolerated relative change, e.g. {@code 0.10} for 10%.
+     * @return The comparison.
+     * @throws IOException if a file cannot be read or is not a JMH result file.
+     */
+    public static BaselineComparison compare(Path baselineFile, Path resultFile, double threshold) throws IOException {
+        return compare(MAPPER.readTree(baselineFile.toFile()), MAPPER.readTree(resultFile.toFile()), threshold);
+    }
+
+    /**
+     * Compares two parsed JMH result files.
+     *
+     * @param baseline  The results of the baseline run.
+     * @param results   The results of the current run.
+     * @param threshold The tolerated relative change, e.g. {@code 0.10} for 10%.
+     * @return The comparison.
+     */
+    public static BaselineComparison compare(JsonNode baseline, JsonNode results, double threshold) {
+        Map<String, JsonNode> baselineByKey = byKey(baseline);
+        Map<String, JsonNode> resultsByKey = byKey(results);
+
+        List<Entry> entries = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> result : resultsByKey.entrySet()) {
+            JsonNode baselineResult = baselineByKey.remove(result.getKey());
+            if (baselineResult == null) {
+                added.add(result.getKey());
+                continue;
+            }
+            String mode = result.getValue().path("mode").asText();
+            JsonNode baselineMetric = baselineResult.path("primaryMetric");
+            JsonNode metric = result.getValue().path("primaryMetric");
+            double baselineScore = baselineMetric.path("score").asDouble();
+            double baselineError = scoreError(baselineMetric);
+            double score = metric.path("score").asDouble();
+            double scoreError = scoreError(metric);
+            double change = relativeChange(mode, baselineScore, score);
+            entries.add(new Entry(result.getKey(), baselineScore, baselineError, score, scoreError,
+                    metric.path("scoreUnit").asText(), change,
+                    regressed(mode, baselineScore, baselineError, score, scoreError, threshold)));
+        }
+        return new BaselineComparison(entries, new ArrayList<>(baselineByKey.keySet()), added);
+    }
+
+    /**
+     * Returns the relative change of a score, positive if it got worse. Throughput ("thrpt") is
+     * better when higher; average time, sample time and single-shot time are better when lower.
+     */
+    static double relativeChange(String mode, double baselineScore, double score) {
+        if (baselineScore == 0.0) {
+            return 0.0;
+        }
+        double change = (score - baselineScore) / baselineScore;
+        return "thrpt".equals(mode) ? -change : change;
+    }
+
+    /**
+     * Tells whether a score is worse than the baseline by more than the threshold, comparing the
+     * favourable ends of both confidence intervals. For throughput the best current score must stay
+     * below the worst baseline score reduced by the threshold; for the time-based modes the best
+     * current score must exceed the worst baseline score increased by the threshold.
+     */
+    static boolean regressed(String mode, double baselineScore, double baselineError, double score,
+                             double scoreError, double threshold) {
+        if (baselineScore == 0.0) {
+            return false;
+        }
+        if ("thrpt".equals(mode)) {
+            return score + scoreError < (baselineScore - baselineError) * (1 - threshold);
+        }
+        return score - scoreError > (baselineScore + baselineError) * (1 + threshold);
+    }
+
+    /**
+     * Returns the score error of a metric; JMH reports {@code NaN} if it had too few samples, which
+     * is treated as an exact score.
+     */
+    private static double scoreError(JsonNode metric) {
+        double error = Math.abs(metric.path("scoreError").asDouble());
+        return Double.isFinite(error) ? error : 0.0;
+    }
+
+    private static Map<String, JsonNode> byKey(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            byKey.put(key(result), result);
+        }
+        return byKey;
+    }
+
+    private static String key(JsonNode result) {
+        StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                .append(" [").append(result.path("mode").asText()).append(']');
+        JsonNode params = result.path("params");
+        if (params.isObject() && !params.isEmpty()) {
+            Map<String, String> sorted = new TreeMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = it.next();
+                sorted.put(param.getKey(), param.getValue().asText());
+            }
+            key.append(' ').append(sorted);
+        }
+        return key.toString();
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public List<Entry> getRegressions() {
+        return entries.stream().filter(Entry::regressed).toList();
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public List<String> getAdded() {
+        return added;
+    }
+
+    public boolean hasRegressions() {
+        return entries.stream().anyMatch(Entry::regressed);
+    }
+
+    /**
+     * Formats the comparison as a human-readable report, one line per benchmark.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Entry entry : entries) {
+            report.append(String.format("%s %-100s %14.3f ± %-10.3f -> %14.3f ± %-10.3f %-8s %+7.1f%%%n",
+                    entry.regressed() ? "REGRESSED" : "ok       ", entry.key(),
+                    entry.baselineScore(), entry.baselineError(), entry.score(), entry.scoreError(),
+                    entry.unit(), entry.change() * 100));
+        }
+        for (String key : added) {
+            report.append("new       ").append(key).append(System.lineSeparator());
+        }
+        for (String key : missing) {
+            report.append("missing   ").append(key).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import de.unistuttgart.graphengine.exception.GraphEvaluationException;
+import de.unistuttgart.graphengine.logic_engine.BatchGraphEvaluator;
+import de.unistuttgart.graphengine.logic_engine.LogicGraphEvaluator;
+import de.unistuttgart.graphengine.nodes.Node;
+import de.unistuttgart.graphengine.nodes.SnapshotEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluation of one generated graph (see {@link GraphFixtures}) for many records, each an ARC
+ * response with different metrics: once per record through {@link LogicGraphEvaluator}, and as one
+ * batch through {@link BatchGraphEvaluator}.
+ */
+@State(Scope.Thread)
+public class BatchEvaluationBenchmark {
+
+    @Param({"100", "1000"})
+    public int records;
+
+    @Param({"4"})
+    public int depth;
+
+    @Param({"32"})
+    public int width;
+
+    private LogicGraphEvaluator evaluator;
+    private BatchGraphEvaluator batchEvaluator;
+    private List<Node> graph;
+    private List<Map<String, Object>> dataContexts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        evaluator = new LogicGraphEvaluator();
+        batchEvaluator = new BatchGraphEvaluator();
+        graph = GraphFixtures.layeredGraph(depth, width);
+        dataContexts = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            Map<String, Object> dataContext = new HashMap<>();
+            dataContext.put("source", ArcPayloads.sourceTree(ArcPayloads.arcResponse(0, i)));
+            dataContext.put("__snapshot", Map.<String, SnapshotEntry>of());
+            dataContexts.add(dataContext);
+        }
+    }
+
+    @Benchmark
+    public boolean[] evaluatePerRecord() throws GraphEvaluationException {
+        boolean[] results = new boolean[records];
+        for (int i = 0; i < records; i++) {
+            results[i] = evaluator.evaluateGraph(graph, dataContexts.get(i));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public boolean[] evaluateBatch() throws GraphEvaluationException {
+        return batchEvaluator.evaluateBatch(graph, dataContexts);
+    }
+}
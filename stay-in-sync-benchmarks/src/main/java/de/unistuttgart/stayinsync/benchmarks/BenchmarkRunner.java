@@ -0,0 +1,59 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the benchmarks with the GC profiler and writes the results as JSON.
+ * <p>
+ * Options are read from system properties, which the exec-maven-plugin sets from the
+ * {@code benchmark.*} properties of the module's pom. If {@code benchmark.baseline} names an
+ * earlier result file, the results are compared with it and the run fails with exit code 1 if
+ * any benchmark regressed by more than {@code benchmark.threshold}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path result = Path.of(System.getProperty("benchmark.result", "target/jmh-result.json"));
+        Files.createDirectories(result.toAbsolutePath().getParent());
+
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("benchmark.include", ".*"))
+                .forks(Integer.getInteger("benchmark.forks", 1))
+                .warmupIterations(Integer.getInteger("benchmark.warmup-iterations", 3))
+                .measurementIterations(Integer.getInteger("benchmark.measurement-iterations", 5))
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Djava.util.logging.manager=org.jboss.logmanager.LogManager")
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+        new Runner(options).run();
+
+        String baseline = System.getProperty("benchmark.baseline", "");
+        if (baseline.isBlank()) {
+            return;
+        }
+        double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", "0.10"));
+        BaselineComparison comparison = BaselineComparison.compare(Path.of(baseline), result, threshold);
+        System.out.println();
+        System.out.printf("Comparison with baseline %s (threshold %.0f%%):%n", baseline, threshold * 100);
+        System.out.print(comparison.report());
+        if (comparison.hasRegressions()) {
+            System.out.printf("%d benchmark(s) regressed.%n", comparison.getRegressions().size());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import de.unistuttgart.graphengine.nodes.Node;
+
+import java.util.Map;
+
+/**
+ * An input node with a fixed result, standing in for a ProviderNode in operator benchmarks.
+ */
+public class FixedValueNode extends Node {
+
+    public FixedValueNode(Object value) {
+        setName("value");
+        setCalculatedResult(value);
+    }
+
+    @Override
+    public void calculate(Map<String, Object> dataContext) {
+        // The result is fixed.
+    }
+
+    @Override
+    public Class<?> getOutputType() {
+        return Object.class;
+    }
+}
@@ -0,0 +1,54 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.graphengine.cache.GraphHasher;
+import de.unistuttgart.graphengine.dto.transformationrule.GraphDTO;
+import de.unistuttgart.graphengine.nodes.Node;
+import de.unistuttgart.graphengine.service.GraphMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * The per-message graph preparation of the sync node: mapping the persisted graph of a
+ * transformation rule to nodes with {@link GraphMapper#toNodeGraph(GraphDTO)} and hashing
+ * the node graph with {@link GraphHasher#hash(List)} to look up its cached instance.
+ */
+@State(Scope.Thread)
+public class GraphConstructionBenchmark {
+
+    @Param({"4", "16"})
+    public int depth;
+
+    @Param({"4", "32"})
+    public int width;
+
+    private GraphMapper mapper;
+    private GraphHasher hasher;
+    private GraphDTO graphDto;
+    private List<Node> graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = new GraphMapper();
+        hasher = new GraphHasher();
+        hasher.setObjectMapper(new ObjectMapper());
+        graphDto = GraphFixtures.layeredGraphDto(depth, width);
+        graph = GraphFixtures.layeredGraph(depth, width);
+    }
+
+    @Benchmark
+    public GraphMapper.MappingResult toNodeGraph() {
+        return mapper.toNodeGraph(graphDto);
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.hash(graph);
+    }
+}
@@ -0,0 +1,133 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import de.unistuttgart.graphengine.dto.transformationrule.GraphDTO;
+import de.unistuttgart.graphengine.dto.transformationrule.InputDTO;
+import de.unistuttgart.graphengine.dto.transformationrule.NodeDTO;
+import de.unistuttgart.graphengine.nodes.Node;
+import de.unistuttgart.graphengine.service.GraphMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates layered transformation-rule graphs of a given depth and width.
+ * <p>
+ * Layer 0 compares {@code width} provider values of an {@link ArcPayloads} response against
+ * constants. Each of the following {@code depth - 1} layers combines pairs of neighbours of
+ * the layer below with alternating AND/OR nodes. The last layer and the ConfigNode, which
+ * watches all providers, feed an AND node connected to the FinalNode.
+ */
+public final class GraphFixtures {
+
+    private static final GraphMapper MAPPER = new GraphMapper();
+
+    private GraphFixtures() {
+    }
+
+    /**
+     * Generates the persisted form of a layered graph.
+     *
+     * @param depth The number of logic layers, at least 1.
+     * @param width The number of nodes per layer, between 2 and {@link ArcPayloads#METRIC_COUNT}.
+     * @return The graph as it is stored with a transformation rule.
+     */
+    public static GraphDTO layeredGraphDto(int depth, int width) {
+        if (depth < 1 || width < 2 || width > ArcPayloads.METRIC_COUNT) {
+            throw new IllegalArgumentException("Unsupported graph shape: depth " + depth + ", width " + width);
+        }
+        List<NodeDTO> nodes = new ArrayList<>();
+        int nextId = 0;
+
+        int finalId = nextId++;
+        int configId = nextId++;
+        int thresholdId = nextId++;
+        NodeDTO threshold = node(thresholdId, "threshold", "CONSTANT");
+        threshold.setValue(50);
+        nodes.add(threshold);
+
+        List<Integer> providerIds = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            NodeDTO provider = node(nextId++, "metric" + i, "PROVIDER");
+            provider.setArcId(1);
+            provider.setJsonPath(ArcPayloads.ARC_PATH + ".metrics.m" + i);
+            nodes.add(provider);
+            providerIds.add(provider.getId());
+        }
+
+        NodeDTO config = node(configId, "config", "CONFIG");
+        config.setChangeDetectionActive(true);
+        config.setChangeDetectionMode("OR");
+        config.setInputNodes(inputs(providerIds));
+        nodes.add(config);
+
+        List<Integer> layer = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            NodeDTO comparison = node(nextId++, "greater" + i, "LOGIC");
+            comparison.setOperatorType("GREATER_THAN");
+            comparison.setInputNodes(inputs(List.of(providerIds.get(i), thresholdId)));
+            nodes.add(comparison);
+            layer.add(comparison.getId());
+        }
+
+        for (int level = 1; level < depth; level++) {
+            List<Integer> nextLayer = new ArrayList<>();
+            for (int i = 0; i < width; i++) {
+                NodeDTO combination = node(nextId++, "l" + level + "n" + i, "LOGIC");
+                combination.setOperatorType(i % 2 == 0 ? "AND" : "OR");
+                combination.setInputNodes(inputs(List.of(layer.get(i), layer.get((i + 1) % width))));
+                nodes.add(combination);
+                nextLayer.add(combination.getId());
+            }
+            layer = nextLayer;
+        }
+
+        List<Integer> rootInputs = new ArrayList<>(layer);
+        rootInputs.add(configId);
+        NodeDTO root = node(nextId, "root", "LOGIC");
+        root.setOperatorType("AND");
+        root.setInputNodes(inputs(rootInputs));
+        nodes.add(root);
+
+        NodeDTO finalNode = node(finalId, "final", "FINAL");
+        finalNode.setInputNodes(inputs(List.of(root.getId())));
+        nodes.add(finalNode);
+
+        GraphDTO graph = new GraphDTO();
+        graph.setNodes(nodes);
+        return graph;
+    }
+
+    /**
+     * Generates a layered graph and maps it to connected nodes.
+     *
+     * @param depth The number of logic layers.
+     * @param width The number of nodes per layer.
+     * @return The nodes of the graph, ready for evaluation.
+     */
+    public static List<Node> layeredGraph(int depth, int width) {
+        GraphMapper.MappingResult result = MAPPER.toNodeGraph(layeredGraphDto(depth, width));
+        if (!result.mappingErrors().isEmpty()) {
+            throw new IllegalStateException("Generated graph is invalid: " + result.mappingErrors());
+        }
+        return result.nodes();
+    }
+
+    private static NodeDTO node(int id, String name, String nodeType) {
+        NodeDTO node = new NodeDTO();
+        node.setId(id);
+        node.setName(name);
+        node.setNodeType(nodeType);
+        return node;
+    }
+
+    private static List<InputDTO> inputs(List<Integer> ids) {
+        List<InputDTO> inputs = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            InputDTO input = new InputDTO();
+            input.setId(ids.get(i));
+            input.setOrderIndex(i);
+            inputs.add(input);
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,61 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.unistuttgart.graphengine.nodes.CompiledJsonPath;
+import de.unistuttgart.graphengine.nodes.JsonPathValueExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Optional;
+
+/**
+ * Value extraction from ARC payloads of configurable size, by path string as before and by
+ * path compiled once as ProviderNodes do. The {@code items} array is extracted as a whole,
+ * which converts every record, so its cost grows with the payload size.
+ */
+@State(Scope.Thread)
+public class JsonPathValueExtractorBenchmark {
+
+    private static final String SCALAR_PATH = ArcPayloads.SYSTEM + "." + ArcPayloads.ARC + ".items[5].name";
+    private static final String ARRAY_PATH = ArcPayloads.SYSTEM + "." + ArcPayloads.ARC + ".items";
+
+    @Param({"10", "1000"})
+    public int items;
+
+    private JsonPathValueExtractor extractor;
+    private JsonNode source;
+    private CompiledJsonPath compiledScalarPath;
+    private CompiledJsonPath compiledArrayPath;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        extractor = new JsonPathValueExtractor();
+        source = ArcPayloads.sourceTree(ArcPayloads.arcResponse(items, 42));
+        compiledScalarPath = CompiledJsonPath.compile(SCALAR_PATH);
+        compiledArrayPath = CompiledJsonPath.compile(ARRAY_PATH);
+    }
+
+    @Benchmark
+    public Optional<Object> scalarByString() {
+        return extractor.extractValue(source, SCALAR_PATH);
+    }
+
+    @Benchmark
+    public Optional<Object> scalarCompiled() {
+        return extractor.extractValue(source, compiledScalarPath);
+    }
+
+    @Benchmark
+    public Optional<Object> arrayCompiled() {
+        return extractor.extractValue(source, compiledArrayPath);
+    }
+
+    @Benchmark
+    public boolean pathExistsCompiled() {
+        return extractor.pathExists(source, compiledScalarPath);
+    }
+}
@@ -0,0 +1,87 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.unistuttgart.graphengine.cache.StatefulLogicGraph;
+import de.unistuttgart.graphengine.exception.GraphEvaluationException;
+import de.unistuttgart.graphengine.logic_engine.LogicGraphEvaluator;
+import de.unistuttgart.graphengine.nodes.Node;
+import de.unistuttgart.graphengine.nodes.SnapshotEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluation of generated graphs (see {@link GraphFixtures}) of varying depth and width.
+ * <p>
+ * {@link #evaluateFull()} runs {@link LogicGraphEvaluator} over every node, as a one-off
+ * evaluation does. The stateful benchmarks go through {@link StatefulLogicGraph}, as the sync
+ * node does, alternating between two payloads that differ in one metric or in none. The compiled
+ * variants use a graph instance that compiled its graph after the first evaluation.
+ */
+@State(Scope.Thread)
+public class LogicGraphEvaluatorBenchmark {
+
+    @Param({"4", "16"})
+    public int depth;
+
+    @Param({"4", "32"})
+    public int width;
+
+    private LogicGraphEvaluator evaluator;
+    private List<Node> graph;
+    private Map<String, Object> dataContext;
+
+    private StatefulLogicGraph statefulGraph;
+    private StatefulLogicGraph compiledGraph;
+    private Map<String, JsonNode> sourceData;
+    private Map<String, JsonNode> changedSourceData;
+    private boolean useChanged;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectNode response = ArcPayloads.arcResponse(10, 42);
+        JsonNode source = ArcPayloads.sourceTree(response);
+        JsonNode changedSource = ArcPayloads.sourceTree(ArcPayloads.withChangedMetric(response, 0));
+
+        evaluator = new LogicGraphEvaluator();
+        graph = GraphFixtures.layeredGraph(depth, width);
+        dataContext = new HashMap<>();
+        dataContext.put("source", source);
+        dataContext.put("__snapshot", Map.<String, SnapshotEntry>of());
+
+        statefulGraph = new StatefulLogicGraph(GraphFixtures.layeredGraph(depth, width));
+        compiledGraph = new StatefulLogicGraph(GraphFixtures.layeredGraph(depth, width), false, 1);
+        sourceData = Map.of("source", source);
+        changedSourceData = Map.of("source", changedSource);
+    }
+
+    @Benchmark
+    public boolean evaluateFull() throws GraphEvaluationException {
+        return evaluator.evaluateGraph(graph, dataContext);
+    }
+
+    @Benchmark
+    public boolean evaluateStatefulUnchanged() throws GraphEvaluationException {
+        return statefulGraph.evaluate(sourceData);
+    }
+
+    @Benchmark
+    public boolean evaluateStatefulOneProviderChanged() throws GraphEvaluationException {
+        useChanged = !useChanged;
+        return statefulGraph.evaluate(useChanged ? changedSourceData : sourceData);
+    }
+
+    @Benchmark
+    public boolean evaluateCompiledOneProviderChanged() throws GraphEvaluationException {
+        useChanged = !useChanged;
+        return compiledGraph.evaluate(useChanged ? changedSourceData : sourceData);
+    }
+}
@@ -0,0 +1,103 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import de.unistuttgart.graphengine.exception.GraphEvaluationException;
+import de.unistuttgart.graphengine.logic_operator.LogicOperator;
+import de.unistuttgart.graphengine.nodes.ConstantNode;
+import de.unistuttgart.graphengine.nodes.LogicNode;
+import de.unistuttgart.graphengine.nodes.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single operator evaluations with a constant operand, with and without the state operators
+ * derive from it once when a graph is built ({@code Operation#prepare}).
+ */
+@State(Scope.Thread)
+public class OperatorBenchmark {
+
+    @Param({"true", "false"})
+    public boolean prepared;
+
+    private LogicNode regexMatch;
+    private LogicNode inSet;
+    private LogicNode containsAll;
+    private LogicNode before;
+    private LogicNode sum;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        regexMatch = node(LogicOperator.REGEX_MATCH,
+                new FixedValueNode("SKU-104711"), constant("^SKU-[0-9]{6}$"));
+
+        List<String> allowedSkus = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            allowedSkus.add("SKU-" + (100000 + i * 7));
+        }
+        inSet = node(LogicOperator.IN_SET,
+                new FixedValueNode("SKU-101785"), constant(allowedSkus.toArray()));
+
+        containsAll = node(LogicOperator.CONTAINS_ALL,
+                new FixedValueNode(allowedSkus), constant(allowedSkus.subList(0, 64)));
+
+        before = node(LogicOperator.BEFORE,
+                new FixedValueNode("2025-06-30"), constant("2025-10-02T14:30:00Z"));
+
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.add(i);
+        }
+        sum = node(LogicOperator.SUM, new FixedValueNode(numbers));
+    }
+
+    private LogicNode node(LogicOperator operator, Node... inputs) {
+        LogicNode node = new LogicNode(operator.name(), operator, inputs);
+        if (prepared) {
+            node.prepare();
+        }
+        return node;
+    }
+
+    private static ConstantNode constant(Object value) throws GraphEvaluationException {
+        ConstantNode node = new ConstantNode("constant", value);
+        node.calculate(Map.of());
+        return node;
+    }
+
+    private static Object evaluate(LogicNode node) throws GraphEvaluationException {
+        node.calculate(Map.of());
+        return node.getCalculatedResult();
+    }
+
+    @Benchmark
+    public Object regexMatch() throws GraphEvaluationException {
+        return evaluate(regexMatch);
+    }
+
+    @Benchmark
+    public Object inSet() throws GraphEvaluationException {
+        return evaluate(inSet);
+    }
+
+    @Benchmark
+    public Object containsAll() throws GraphEvaluationException {
+        return evaluate(containsAll);
+    }
+
+    @Benchmark
+    public Object before() throws GraphEvaluationException {
+        return evaluate(before);
+    }
+
+    @Benchmark
+    public Object sum() throws GraphEvaluationException {
+        return evaluate(sum);
+    }
+}
@@ -0,0 +1,100 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import de.unistuttgart.stayinsync.exception.ScriptEngineException;
+import de.unistuttgart.stayinsync.scriptengine.ContextPool;
+import de.unistuttgart.stayinsync.scriptengine.ContextPoolFactory;
+import de.unistuttgart.stayinsync.scriptengine.ScriptBudgetWatchdog;
+import de.unistuttgart.stayinsync.scriptengine.ScriptCache;
+import de.unistuttgart.stayinsync.scriptengine.ScriptEngineService;
+import de.unistuttgart.stayinsync.scriptengine.ScriptMetricsService;
+import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
+import de.unistuttgart.stayinsync.syncnode.domain.TransformJob;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineStageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A complete transformation through {@link ScriptEngineService#transformAsync(TransformJob)}:
+ * borrowing a pooled context, binding the source data, running a cached user script that
+ * aggregates the {@code items} of an {@link ArcPayloads} response and extracting its result.
+ * <p>
+ * The service is wired by hand instead of through CDI, with a single pooled context.
+ */
+@State(Scope.Benchmark)
+public class ScriptEngineBenchmark {
+
+    private static final String SCRIPT = """
+            function transform() {
+              const items = source.benchSystem.benchArc.items;
+              let total = 0;
+              let active = 0;
+              for (let i = 0; i < items.length; i++) {
+                total += items[i].price * items[i].stock;
+                if (items[i].active) {
+                  active++;
+                }
+              }
+              return { stockValue: total, activeItems: active };
+            }
+            """;
+
+    @Param({"10", "1000"})
+    public int items;
+
+    private ManagedExecutor executor;
+    private ContextPool contextPool;
+    private ScriptEngineService scriptEngine;
+    private TransformJob job;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ScriptEngineException {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        executor = ManagedExecutor.builder().build();
+        contextPool = new ContextPool("js", 1);
+        ContextPoolFactory poolFactory = new ContextPoolFactory() {
+            @Override
+            public ContextPool getPool(String languageId) {
+                return contextPool;
+            }
+        };
+        scriptEngine = new ScriptEngineService(
+                new ScriptCache(33_554_432L, registry),
+                poolFactory,
+                executor,
+                new ScriptMetricsService(registry),
+                new PipelineStageMetrics(registry, List.of(0.5, 0.99), Duration.ofSeconds(60), 100),
+                new ScriptBudgetWatchdog(Duration.ofSeconds(5), 268_435_456L, Duration.ofMillis(10)));
+
+        Map<String, Object> sourceData = ArcPayloads.scriptSourceData(ArcPayloads.arcResponse(items, 42));
+        job = new TransformJob(1L, "benchmark", "job-1", "script-1", SCRIPT, "js",
+                Integer.toHexString(SCRIPT.hashCode()), null, null, sourceData, null, null);
+
+        TransformationResult warmup = transform();
+        if (!warmup.isValidExecution()) {
+            throw new IllegalStateException("Benchmark script failed: " + warmup.getErrorInfo());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contextPool.closeAllContexts();
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public TransformationResult transform() {
+        return scriptEngine.transformAsync(job).await().indefinitely();
+    }
+}
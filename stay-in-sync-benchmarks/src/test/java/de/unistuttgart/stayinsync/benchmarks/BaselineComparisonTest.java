@@ -0,0 +1,125 @@
+package de.unistuttgart.stayinsync.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaselineComparisonTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode results(String json) throws Exception {
+        return mapper.readTree(json.replace('\'', '"'));
+    }
+
+    private String result(String benchmark, String mode, double score, String params) {
+        return "{'benchmark': '" + benchmark + "', 'mode': '" + mode + "', 'params': " + params
+                + ", 'primaryMetric': {'score': " + score + ", 'scoreUnit': 'us/op'}}";
+    }
+
+    private String resultWithError(String benchmark, String mode, double score, String scoreError) {
+        return "{'benchmark': '" + benchmark + "', 'mode': '" + mode + "', 'params': {}"
+                + ", 'primaryMetric': {'score': " + score + ", 'scoreError': " + scoreError + ", 'scoreUnit': 'us/op'}}";
+    }
+
+    @Test
+    void shouldDetectSlowerAverageTimeAsRegression() throws Exception {
+        JsonNode baseline = results("[" + result("a.B.evaluate", "avgt", 100.0, "{}") + "]");
+        JsonNode current = results("[" + result("a.B.evaluate", "avgt", 115.0, "{}") + "]");
+
+        BaselineComparison comparison = BaselineComparison.compare(baseline, current, 0.10);
+
+        assertTrue(comparison.hasRegressions());
+        assertEquals(0.15, comparison.getEntries().get(0).change(), 1e-9);
+    }
+
+    @Test
+    void shouldDetectLowerThroughputAsRegression() throws Exception {
+        JsonNode baseline = results("[" + result("a.B.evaluate", "thrpt", 100.0, "{}") + "]");
+        JsonNode faster = results("[" + result("a.B.evaluate", "thrpt", 150.0, "{}") + "]");
+        JsonNode slower = results("[" + result("a.B.evaluate", "thrpt", 80.0, "{}") + "]");
+
+        assertFalse(BaselineComparison.compare(baseline, faster, 0.10).hasRegressions());
+        assertTrue(BaselineComparison.compare(baseline, slower, 0.10).hasRegressions());
+    }
+
+    @Test
+    void shouldTolerateChangesWithinThreshold() throws Exception {
+        JsonNode baseline = results("[" + result("a.B.evaluate", "avgt", 100.0, "{}") + "]");
+        JsonNode current = results("[" + result("a.B.evaluate", "avgt", 105.0, "{}") + "]");
+
+        assertFalse(BaselineComparison.compare(baseline, current, 0.10).hasRegressions());
+    }
+
+    @Test
+    void shouldMatchBenchmarksByParametersRegardlessOfOrder() throws Exception {
+        JsonNode baseline = results("["
+                + result("a.B.evaluate", "avgt", 100.0, "{'depth': '4', 'width': '32'}") + ","
+                + result("a.B.evaluate", "avgt", 10.0, "{'depth': '4', 'width': '4'}") + "]");
+        JsonNode current = results("["
+                + result("a.B.evaluate", "avgt", 10.0, "{'width': '4', 'depth': '4'}") + ","
+                + result("a.B.evaluate", "avgt", 100.0, "{'width': '32', 'depth': '4'}") + "]");
+
+        BaselineComparison comparison = BaselineComparison.compare(baseline, current, 0.10);
+
+        assertEquals(2, comparison.getEntries().size());
+        assertFalse(comparison.hasRegressions());
+    }
+
+    @Test
+    void shouldReportAddedAndMissingBenchmarksWithoutFailing() throws Exception {
+        JsonNode baseline = results("[" + result("a.B.removed", "avgt", 100.0, "{}") + "]");
+        JsonNode current = results("[" + result("a.B.added", "avgt", 100.0, "{}") + "]");
+
+        BaselineComparison comparison = BaselineComparison.compare(baseline, current, 0.10);
+
+        assertFalse(comparison.hasRegressions());
+        assertEquals(List.of("a.B.added [avgt]"), comparison.getAdded());
+        assertEquals(List.of("a.B.removed [avgt]"), comparison.getMissing());
+    }
+
+    @Test
+    void shouldNotReportRegressionWhenConfidenceIntervalsOverlap() throws Exception {
+        // 100 ± 5 against 118 ± 4: the best current score (114) is within 10% of the worst baseline score (105).
+        JsonNode baseline = results("[" + resultWithError("a.B.evaluate", "avgt", 100.0, "5.0") + "]");
+        JsonNode current = results("[" + resultWithError("a.B.evaluate", "avgt", 118.0, "4.0") + "]");
+
+        BaselineComparison comparison = BaselineComparison.compare(baseline, current, 0.10);
+
+        assertFalse(comparison.hasRegressions());
+        assertEquals(0.18, comparison.getEntries().get(0).change(), 1e-9);
+    }
+
+    @Test
+    void shouldReportRegressionWhenConfidenceIntervalsAreApart() throws Exception {
+        // 100 ± 2 against 120 ± 3: the best current score (117) is more than 10% above the worst baseline score (102).
+        JsonNode baseline = results("[" + resultWithError("a.B.evaluate", "avgt", 100.0, "2.0") + "]");
+        JsonNode current = results("[" + resultWithError("a.B.evaluate", "avgt", 120.0, "3.0") + "]");
+
+        assertTrue(BaselineComparison.compare(baseline, current, 0.10).hasRegressions());
+    }
+
+    @Test
+    void shouldApplyConfidenceIntervalsToThroughput() throws Exception {
+        JsonNode baseline = results("[" + resultWithError("a.B.evaluate", "thrpt", 100.0, "5.0") + "]");
+        JsonNode noisy = results("[" + resultWithError("a.B.evaluate", "thrpt", 82.0, "5.0") + "]");
+        JsonNode slower = results("[" + resultWithError("a.B.evaluate", "thrpt", 75.0, "5.0") + "]");
+
+        assertFalse(BaselineComparison.compare(baseline, noisy, 0.10).hasRegressions());
+        assertTrue(BaselineComparison.compare(baseline, slower, 0.10).hasRegressions());
+    }
+
+    @Test
+    void shouldTreatMissingScoreErrorAsExactScore() throws Exception {
+        JsonNode baseline = results("[" + resultWithError("a.B.evaluate", "avgt", 100.0, "'NaN'") + "]");
+        JsonNode current = results("[" + resultWithError("a.B.evaluate", "avgt", 115.0, "'NaN'") + "]");
+
+        assertTrue(BaselineComparison.compare(baseline, current, 0.10).hasRegressions());
+    }
+}
@@ -23,6 +23,14 @@ public class TransformationScript extends PanacheEntity {
 
     public String generatedSdkHash;
 
+    /**
+     * The CPU time and heap allocation budgets of one execution of the script; {@code null} uses the
+     * defaults of the sync node.
+     */
+    public Long maxCpuTimeMillis;
+
+    public Long maxHeapAllocationBytes;
+
     @Enumerated(EnumType.STRING)
     public ScriptStatus status = ScriptStatus.DRAFT;
 
@@ -13,5 +13,7 @@ public record TransformationScriptDTO(
                 ScriptStatus status,
                 Set<Long> restTargetArcIds,
                 Set<Long> aasTargetArcIds,
-                String generatedSdkCode) {
+                String generatedSdkCode,
+                Long maxCpuTimeMillis,
+                Long maxHeapAllocationBytes) {
 }
@@ -0,0 +1,26 @@
+package de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing a bulk replay request.
+ * <p>
+ * Replays a script against the source data of many stored snapshots, e.g. to
+ * check a new script version against recent failures before deploying it.
+ * When no script is given, every snapshot is replayed with the current script
+ * of its own transformation.
+ * </p>
+ *
+ * @param snapshotIds      The snapshots whose source data is replayed.
+ * @param javascriptCode   Optional JavaScript source code containing the
+ *                         <code>transform()</code> function; defaults to the
+ *                         stored script of each snapshot's transformation.
+ * @param generatedSdkCode Optional sdk code for the context of the graalJs
+ *                         instance; defaults to the stored sdk code of each
+ *                         snapshot's transformation.
+ */
+public record ReplayBulkRequestDTO(
+        List<String> snapshotIds,
+        String javascriptCode,
+        String generatedSdkCode) {
+}
@@ -0,0 +1,37 @@
+package de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) representing the replay of one snapshot within a
+ * bulk replay.
+ * <p>
+ * Results are streamed in the order the replays complete, so they carry the
+ * snapshot they belong to.
+ * </p>
+ *
+ * @param snapshotId        the replayed snapshot
+ * @param transformationId  the transformation the snapshot was taken for; may
+ *                          be {@code null} if the snapshot could not be loaded
+ * @param succeeded         whether {@code transform()} returned without error
+ * @param outputData        the value returned by {@code transform()}, if
+ *                          successful; may be {@code null}
+ * @param variables         a map of variable names to their captured values at
+ *                          the replay breakpoint
+ * @param errorInfo         details about the error of the replay;
+ *                          {@code null} when it succeeded
+ * @param originalErrorInfo the error recorded in the snapshot, to compare
+ *                          with the replay; may be {@code null}
+ * @param durationMillis    the time the replay took, including loading the
+ *                          snapshot
+ */
+public record ReplayBulkResultDTO(
+        String snapshotId,
+        Long transformationId,
+        boolean succeeded,
+        Object outputData,
+        Map<String, Object> variables,
+        String errorInfo,
+        String originalErrorInfo,
+        long durationMillis) {
+}
@@ -138,6 +138,8 @@ public class TransformationScriptService {
         script.javascriptCode = dto.javascriptCode();
         script.status = dto.status();
         script.hash = generateSha256Hash(dto.javascriptCode());
+        script.maxCpuTimeMillis = dto.maxCpuTimeMillis();
+        script.maxHeapAllocationBytes = dto.maxHeapAllocationBytes();
     }
 
     /**
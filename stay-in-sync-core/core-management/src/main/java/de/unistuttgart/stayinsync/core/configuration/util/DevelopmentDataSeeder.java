@@ -287,6 +287,8 @@ public class DevelopmentDataSeeder {
                 ScriptStatus.VALIDATED,
                 Set.of(targetArcId),
                 Set.of(),
-                "The Code !!!!");
+                "The Code !!!!",
+                null,
+                null);
     }
 }
@@ -2,14 +2,19 @@
 package de.unistuttgart.stayinsync.monitoring.core.configuration.rest;
 
 import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.resteasy.reactive.RestStreamElementType;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayBulkRequestDTO;
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayBulkResultDTO;
 import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayExecuteRequestDTO;
 import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayExecuteResponseDTO;
 import de.unistuttgart.stayinsync.monitoring.core.configuration.clients.SnapshotClient;
 import de.unistuttgart.stayinsync.monitoring.core.configuration.clients.TransformationScriptClient;
+import de.unistuttgart.stayinsync.monitoring.core.configuration.service.BulkReplayService;
 import de.unistuttgart.stayinsync.monitoring.core.configuration.service.ReplayExecutor;
+import io.smallrye.mutiny.Multi;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.POST;
@@ -26,6 +31,8 @@ import jakarta.ws.rs.core.Response;
  * <ul>
  * <li><code>POST /api/replay/execute</code> — Execute a provided script and
  * source payload.</li>
+ * <li><code>POST /api/replay/bulk</code> — Replay many stored snapshots in
+ * parallel and stream the results as server-sent events.</li>
  * </ul>
  * This resource coordinates with {@link ReplayExecutor} to run code in a
  * sandboxed GraalJS context and
@@ -43,6 +50,10 @@ public class ReplayResource {
     @Inject
     ReplayExecutor executor;
 
+    // Replays many snapshots in parallel with bounded concurrency.
+    @Inject
+    BulkReplayService bulkReplayService;
+
     // Used to create/handle JSON nodes passed to the executor.
     @Inject
     ObjectMapper objectMapper;
@@ -79,4 +90,24 @@ public class ReplayResource {
         var resp = new ReplayExecuteResponseDTO(result.outputData(), result.variables(), result.errorInfo());
         return Response.ok(resp).build();
     }
+
+    /**
+     * Replay many stored snapshots, e.g. to check a new script version against
+     * recent failures before deploying it.
+     *
+     * @endpoint POST /api/replay/bulk
+     * @param req contains the snapshot ids and optionally the JavaScript code and
+     *            generatedSdkCode to replay them with; without code, each
+     *            snapshot is replayed with the stored script of its
+     *            transformation
+     * @return a stream of {@link ReplayBulkResultDTO}, one per snapshot, emitted
+     *         as the replays complete
+     */
+    @POST
+    @Path("/bulk")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<ReplayBulkResultDTO> bulk(ReplayBulkRequestDTO req) {
+        return bulkReplayService.replay(req);
+    }
 }
@@ -0,0 +1,200 @@
+package de.unistuttgart.stayinsync.monitoring.core.configuration.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import de.unistuttgart.stayinsync.core.configuration.exception.CoreManagementException;
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.TransformationScriptDTO;
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayBulkRequestDTO;
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayBulkResultDTO;
+import de.unistuttgart.stayinsync.monitoring.core.configuration.clients.SnapshotClient;
+import de.unistuttgart.stayinsync.monitoring.core.configuration.clients.TransformationScriptClient;
+import de.unistuttgart.stayinsync.transport.dto.Snapshot.SnapshotDTO;
+import de.unistuttgart.stayinsync.transport.dto.Snapshot.TransformationResultDTO;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Replays a script against many stored snapshots in parallel.
+ * <p>
+ * Every snapshot is loaded from the snapshot service and replayed with
+ * {@link ReplayExecutor} on a worker thread. At most
+ * {@code replay.bulk.max-concurrency} snapshots are replayed at once; the
+ * replays additionally share the executor's pooled contexts with single
+ * replays. Results are emitted as the replays complete, not in request order.
+ * </p>
+ *
+ * <p>
+ * A snapshot that cannot be loaded or replayed yields a failed result instead
+ * of ending the stream, so a bulk replay always reports every snapshot.
+ * </p>
+ */
+@ApplicationScoped
+public class BulkReplayService {
+
+    private final ReplayExecutor executor;
+    private final SnapshotClient snapshotClient;
+    private final TransformationScriptClient transformationScriptClient;
+    private final ManagedExecutor managedExecutor;
+    private final int maxConcurrency;
+    private final int maxSnapshots;
+
+    /**
+     * Construct a new bulk replay service.
+     *
+     * @param executor                   runs the single replays
+     * @param snapshotClient             loads the snapshots to replay
+     * @param transformationScriptClient loads the stored script of a
+     *                                   transformation if the request has none
+     * @param managedExecutor            worker threads the replays run on
+     * @param maxConcurrency             maximum number of snapshots replayed at
+     *                                   once
+     * @param maxSnapshots               maximum number of snapshots per request
+     */
+    @Inject
+    public BulkReplayService(ReplayExecutor executor,
+            @RestClient SnapshotClient snapshotClient,
+            @RestClient TransformationScriptClient transformationScriptClient,
+            ManagedExecutor managedExecutor,
+            @ConfigProperty(name = "replay.bulk.max-concurrency", defaultValue = "4") int maxConcurrency,
+            @ConfigProperty(name = "replay.bulk.max-snapshots", defaultValue = "500") int maxSnapshots) {
+        this.executor = executor;
+        this.snapshotClient = snapshotClient;
+        this.transformationScriptClient = transformationScriptClient;
+        this.managedExecutor = managedExecutor;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxSnapshots = maxSnapshots;
+    }
+
+    /**
+     * Replay the snapshots of a request.
+     *
+     * @param request the snapshots to replay and an optional script to replay
+     *                them with
+     * @return the results, one per distinct snapshot id, in completion order
+     * @throws CoreManagementException if the request contains more snapshots
+     *                                 than allowed
+     */
+    public Multi<ReplayBulkResultDTO> replay(ReplayBulkRequestDTO request) {
+        List<String> snapshotIds = request.snapshotIds() == null
+                ? List.of()
+                : request.snapshotIds().stream().filter(Objects::nonNull).distinct().toList();
+        if (snapshotIds.size() > maxSnapshots) {
+            throw new CoreManagementException(Response.Status.BAD_REQUEST, "Too many snapshots",
+                    "A bulk replay accepts at most %d snapshots, but %d were requested.", maxSnapshots,
+                    snapshotIds.size());
+        }
+        Log.infof("Bulk replay of %d snapshots with up to %d in parallel", snapshotIds.size(), maxConcurrency);
+
+        // Stored scripts are loaded once per transformation and request.
+        Map<Long, CompletableFuture<Optional<TransformationScriptDTO>>> storedScripts = new ConcurrentHashMap<>();
+        return Multi.createFrom().iterable(snapshotIds)
+                .onItem().transformToUni(snapshotId -> Uni.createFrom()
+                        .item(() -> replaySnapshot(snapshotId, request, storedScripts))
+                        .runSubscriptionOn(managedExecutor))
+                .merge(maxConcurrency);
+    }
+
+    private ReplayBulkResultDTO replaySnapshot(String snapshotId, ReplayBulkRequestDTO request,
+            Map<Long, CompletableFuture<Optional<TransformationScriptDTO>>> storedScripts) {
+        long startedNanos = System.nanoTime();
+        SnapshotDTO snapshot;
+        try {
+            snapshot = snapshotClient.byId(snapshotId);
+        } catch (RuntimeException e) {
+            Log.warnf(e, "Snapshot %s could not be loaded for a bulk replay", snapshotId);
+            return failed(snapshotId, null, "Snapshot could not be loaded: " + e.getMessage(), null, startedNanos);
+        }
+        if (snapshot == null || snapshot.getTransformationResult() == null) {
+            return failed(snapshotId, null, "Snapshot not found", null, startedNanos);
+        }
+
+        TransformationResultDTO original = snapshot.getTransformationResult();
+        Long transformationId = original.getTransformationId();
+        String javascriptCode = request.javascriptCode();
+        String generatedSdkCode = request.generatedSdkCode();
+        if ((javascriptCode == null || generatedSdkCode == null) && transformationId != null) {
+            TransformationScriptDTO storedScript = storedScript(transformationId, storedScripts).orElse(null);
+            if (storedScript != null) {
+                javascriptCode = javascriptCode != null ? javascriptCode : storedScript.javascriptCode();
+                generatedSdkCode = generatedSdkCode != null ? generatedSdkCode : storedScript.generatedSdkCode();
+            }
+        }
+        if (javascriptCode == null) {
+            return failed(snapshotId, transformationId, "No script to replay: the request contains none and the "
+                    + "script of the transformation could not be loaded", original.getErrorInfo(), startedNanos);
+        }
+
+        JsonNode sourceData = original.getSourceData() != null && original.getSourceData().isObject()
+                ? original.getSourceData()
+                : JsonNodeFactory.instance.objectNode();
+        try {
+            ReplayExecutor.Result result = executor.execute("replay.js", javascriptCode, sourceData,
+                    generatedSdkCode);
+            return new ReplayBulkResultDTO(snapshotId, transformationId, result.errorInfo() == null,
+                    result.outputData(), result.variables(), result.errorInfo(), original.getErrorInfo(),
+                    elapsedMillis(startedNanos));
+        } catch (RuntimeException e) {
+            Log.warnf(e, "Bulk replay of snapshot %s failed", snapshotId);
+            return failed(snapshotId, transformationId, "Replay failed: " + e.getMessage(), original.getErrorInfo(),
+                    startedNanos);
+        }
+    }
+
+    /**
+     * Returns the stored script of a transformation. The first replay that needs it
+     * loads it, outside of the map so that the REST call does not block the map;
+     * concurrent replays of the same transformation wait for that load.
+     */
+    private Optional<TransformationScriptDTO> storedScript(Long transformationId,
+            Map<Long, CompletableFuture<Optional<TransformationScriptDTO>>> storedScripts) {
+        CompletableFuture<Optional<TransformationScriptDTO>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<TransformationScriptDTO>> stored = storedScripts.putIfAbsent(transformationId,
+                loading);
+        if (stored != null) {
+            return stored.join();
+        }
+        Optional<TransformationScriptDTO> script = Optional.empty();
+        try {
+            script = loadScript(transformationId);
+        } finally {
+            loading.complete(script);
+        }
+        return script;
+    }
+
+    private Optional<TransformationScriptDTO> loadScript(Long transformationId) {
+        try {
+            return Optional.ofNullable(transformationScriptClient.findByTransformationId(transformationId));
+        } catch (RuntimeException e) {
+            Log.warnf(e, "Script of transformation %d could not be loaded for a bulk replay", transformationId);
+            return Optional.empty();
+        }
+    }
+
+    private static ReplayBulkResultDTO failed(String snapshotId, Long transformationId, String errorInfo,
+            String originalErrorInfo, long startedNanos) {
+        return new ReplayBulkResultDTO(snapshotId, transformationId, false, null, Map.of(), errorInfo,
+                originalErrorInfo, elapsedMillis(startedNanos));
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+}
@@ -0,0 +1,265 @@
+package de.unistuttgart.stayinsync.monitoring.core.configuration.service;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.ResourceLimits;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+
+import de.unistuttgart.stayinsync.transport.scripting.GlobalScopeSnapshot;
+import io.quarkus.logging.Log;
+
+/**
+ * A bounded set of reusable GraalJS contexts for replays.
+ * <p>
+ * Contexts are created on demand on the shared {@link Engine}, up to the pool
+ * size, and kept between replays. The replay helpers ({@code stayinsync.log}
+ * and {@code __capture}) are installed before the {@link GlobalScopeSnapshot}
+ * of a new context is taken, and the {@code stayinsync} object is frozen, so a
+ * replay that rebinds them or tries to replace {@code stayinsync.log} cannot
+ * break the next one. Releasing a context restores its global scope from the
+ * snapshot and resets its statement limit.
+ * </p>
+ *
+ * <p>
+ * The snapshot only undoes rebinding or adding globals. Nested mutations of
+ * other objects that exist when the snapshot is taken, e.g. patching a
+ * built-in prototype, survive the release and are seen by later replays.
+ * </p>
+ *
+ * <p>
+ * A context whose global scope cannot be restored, or that a replay marks as
+ * corrupted (e.g. because it was cancelled by the statement limit), is closed
+ * instead; its slot is refilled by the next replay that needs a context.
+ * </p>
+ */
+public class ReplayContextPool implements AutoCloseable {
+
+    /**
+     * The statement limit of a replay, guarding against runaway scripts.
+     */
+    public static final long DEFAULT_STATEMENT_LIMIT = 1_000_000L;
+
+    /**
+     * Minimal replay helpers: a no-op {@code stayinsync.log} for scripts that
+     * log, and {@code __capture} to collect locals into
+     * {@code globalThis.__capturedLocals}, which every replay creates anew.
+     * The {@code stayinsync} object is frozen, since the global scope snapshot
+     * does not restore its properties.
+     */
+    private static final Source REPLAY_HELPERS = Source.create("js", """
+            var stayinsync = (typeof stayinsync !== 'undefined') ? stayinsync : {};
+            if (typeof stayinsync.log !== 'function') {
+              stayinsync.log = function(msg, level) { /* no-op */ };
+            }
+            Object.freeze(stayinsync);
+            function __capture(name, value) { globalThis.__capturedLocals[name] = value; }
+            """);
+
+    private static final Source GLOBAL_SCOPE_SNAPSHOT = Source.newBuilder("js", GlobalScopeSnapshot.SCRIPT,
+            GlobalScopeSnapshot.NAME).buildLiteral();
+
+    /**
+     * A context of the pool with the function restoring its global scope.
+     */
+    private record PooledContext(Context context, Value globalScopeReset) {
+    }
+
+    private final Engine engine;
+    // Contexts sharing an engine must use the same resource limits.
+    private final ResourceLimits resourceLimits;
+    private final int size;
+    // One permit per context that may be leased; bounds the number of contexts.
+    private final Semaphore permits;
+    private final Queue<PooledContext> idle = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool; contexts are created when they are first needed.
+     *
+     * @param engine         the shared engine the contexts are created on
+     * @param size           the maximum number of contexts, i.e. of concurrent
+     *                       replays
+     * @param statementLimit the number of statements a replay may execute
+     */
+    public ReplayContextPool(Engine engine, int size, long statementLimit) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The replay context pool size must be positive: " + size);
+        }
+        this.engine = engine;
+        this.size = size;
+        this.permits = new Semaphore(size, true);
+        this.resourceLimits = ResourceLimits.newBuilder()
+                .statementLimit(statementLimit, null) // execution guard
+                .build();
+    }
+
+    /**
+     * Leases a context, waiting until one is available.
+     *
+     * @param timeout the maximum time to wait
+     * @return the lease, or {@code null} if no context became available in time
+     * @throws InterruptedException  if the thread is interrupted while waiting
+     * @throws IllegalStateException if the pool is closed
+     */
+    public Lease acquire(Duration timeout) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("The replay context pool is closed.");
+        }
+        if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            return null;
+        }
+        try {
+            PooledContext pooled = idle.poll();
+            return new Lease(pooled != null ? pooled : createContext());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the maximum number of contexts.
+     *
+     * @return the pool size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of created contexts that are not leased.
+     *
+     * @return the number of idle contexts
+     */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Closes the idle contexts; leased contexts are closed when they are
+     * released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        closeIdleContexts();
+    }
+
+    /**
+     * Creates a context on the shared engine with the same restrictions a
+     * replay has always had: no host access, no native access, no threads.
+     */
+    private PooledContext createContext() {
+        Context context = Context.newBuilder("js")
+                .engine(engine)
+                .allowHostAccess(HostAccess.NONE) // no host access for safety
+                .allowCreateThread(false)
+                // IO is allowed here; adjust as needed depending on replay security policy.
+                .allowIO(true)
+                .allowNativeAccess(false)
+                .resourceLimits(resourceLimits)
+                .build();
+        try {
+            context.eval(REPLAY_HELPERS);
+            Value globalScopeReset = context.eval(GLOBAL_SCOPE_SNAPSHOT);
+            context.resetLimits();
+            return new PooledContext(context, globalScopeReset);
+        } catch (RuntimeException e) {
+            closeQuietly(context);
+            throw e;
+        }
+    }
+
+    private void release(PooledContext pooled, boolean discard) {
+        try {
+            if (!closed && !discard && reset(pooled)) {
+                idle.offer(pooled);
+            } else {
+                closeQuietly(pooled.context());
+            }
+        } finally {
+            permits.release();
+        }
+        if (closed) {
+            closeIdleContexts();
+        }
+    }
+
+    private boolean reset(PooledContext pooled) {
+        try {
+            pooled.context().resetLimits();
+            boolean restored = pooled.globalScopeReset().execute().asBoolean();
+            pooled.context().resetLimits();
+            if (!restored) {
+                Log.warn("Global scope of a replay context could not be restored, closing the context.");
+            }
+            return restored;
+        } catch (Exception e) {
+            Log.warnf(e, "Resetting a replay context failed, closing the context.");
+            return false;
+        }
+    }
+
+    private void closeIdleContexts() {
+        PooledContext pooled;
+        while ((pooled = idle.poll()) != null) {
+            closeQuietly(pooled.context());
+        }
+    }
+
+    private static void closeQuietly(Context context) {
+        try {
+            context.close();
+        } catch (Exception e) {
+            Log.debugf(e, "Closing a replay context failed.");
+        }
+    }
+
+    /**
+     * A context leased for one replay. Closing the lease returns the context to
+     * the pool, or closes it if it was {@linkplain #discard() discarded}.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final PooledContext pooled;
+        private boolean discarded;
+        private boolean released;
+
+        private Lease(PooledContext pooled) {
+            this.pooled = pooled;
+        }
+
+        /**
+         * Returns the leased context.
+         *
+         * @return the context to run the replay in
+         */
+        public Context context() {
+            return pooled.context();
+        }
+
+        /**
+         * Marks the context as corrupted, so it is closed instead of reused.
+         */
+        public void discard() {
+            discarded = true;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            release(pooled, discarded);
+        }
+    }
+}
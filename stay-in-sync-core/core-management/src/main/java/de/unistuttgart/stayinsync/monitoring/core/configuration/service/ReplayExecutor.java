@@ -1,13 +1,13 @@
 package de.unistuttgart.stayinsync.monitoring.core.configuration.service;
 
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
-import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.PolyglotException;
-import org.graalvm.polyglot.ResourceLimits;
 import org.graalvm.polyglot.Value;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -16,6 +16,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.oracle.truffle.api.debug.DebugValue;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -44,6 +45,13 @@ import jakarta.inject.Inject;
  * </p>
  *
  * <p>
+ * Contexts are not created per replay but leased from a
+ * {@link ReplayContextPool} on the shared engine, which bounds the number of
+ * concurrent replays ({@code replay.context-pool.size}) and resets each
+ * context before it is reused.
+ * </p>
+ *
+ * <p>
  * This class is part of the Snapshot/Replay subsystem: it re-runs
  * transformation code
  * using snapshot input to reproduce issues users observed during normal
@@ -72,24 +80,55 @@ public class ReplayExecutor {
     ) {
     }
 
-    // Shared GraalVM engine instance; reused for performance across contexts.
-    private final Engine graalEngine;
+    /**
+     * Default number of pooled replay contexts, i.e. of concurrent replays.
+     */
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    /**
+     * Default time a replay waits for a pooled context.
+     */
+    public static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofSeconds(30);
+
+    // Reusable contexts on the shared GraalVM engine; reset between replays.
+    private final ReplayContextPool contextPool;
+    // Maximum time a replay waits for a free context.
+    private final Duration acquireTimeout;
     // Jackson mapper for (de)serializing the source JSON and pretty debugging
     // output.
     private final ObjectMapper om;
 
     /**
-     * Construct a new replay executor.
+     * Construct a new replay executor with the default pool size and acquire
+     * timeout.
      *
      * @param om          Jackson {@link ObjectMapper} used to serialize input into
      *                    the JS context
-     * @param graalEngine pre-configured GraalVM {@link Engine} used to build
-     *                    per-run contexts
+     * @param graalEngine pre-configured GraalVM {@link Engine} the pooled
+     *                    contexts are created on
      */
-    @Inject
     public ReplayExecutor(ObjectMapper om, Engine graalEngine) {
-        this.graalEngine = graalEngine;
+        this(om, graalEngine, DEFAULT_POOL_SIZE, DEFAULT_ACQUIRE_TIMEOUT);
+    }
+
+    /**
+     * Construct a new replay executor.
+     *
+     * @param om             Jackson {@link ObjectMapper} used to serialize input
+     *                       into the JS context
+     * @param graalEngine    pre-configured GraalVM {@link Engine} the pooled
+     *                       contexts are created on
+     * @param poolSize       maximum number of contexts, i.e. of concurrent
+     *                       replays
+     * @param acquireTimeout maximum time a replay waits for a free context
+     */
+    @Inject
+    public ReplayExecutor(ObjectMapper om, Engine graalEngine,
+            @ConfigProperty(name = "replay.context-pool.size", defaultValue = "4") int poolSize,
+            @ConfigProperty(name = "replay.context-pool.acquire-timeout", defaultValue = "30s") Duration acquireTimeout) {
         this.om = om;
+        this.contextPool = new ReplayContextPool(graalEngine, poolSize, ReplayContextPool.DEFAULT_STATEMENT_LIMIT);
+        this.acquireTimeout = acquireTimeout;
     }
 
     /**
@@ -101,6 +140,11 @@ public class ReplayExecutor {
      * generated SDK
      * helpers so user scripts can interact with {@code targets.*} APIs during
      * replay.
+     * <p>
+     * The context is leased from a {@link ReplayContextPool} and reset
+     * afterwards. The user code is evaluated inside a function scope, as on the
+     * sync node, so its top-level declarations do not outlive the replay.
+     * </p>
      *
      * @param scriptName       optional logical name for the script (used as
      *                         sourceURL for stack traces)
@@ -123,14 +167,14 @@ public class ReplayExecutor {
         // Provide a stable sourceURL to improve stack traces and debugging in GraalJS.
         final String SOURCE_URL = scriptName == null ? "replay.js" : scriptName;
 
-        // Wrap user code to call transform() and set debugger breakpoints for success
-        // and error.
+        // Wrap user code in a function scope that returns the entry point; the entry
+        // calls transform() and sets debugger breakpoints for success and error.
         String wrapped = """
-                // --- user code start ---
+                (function __replayScript() { // --- user code start ---
                 %s
 
                 // --- driver ---
-                (function __replayEntry() {
+                return function __replayEntry() {
                     try {
                         var result = transform();
                         debugger; // snapshot on success
@@ -139,46 +183,38 @@ public class ReplayExecutor {
                         debugger; // snapshot on error
                         return { ok: false, error: String(e && e.stack ? e.stack : e) };
                     }
-                })
+                };
+                })()
                 //# sourceURL=%s
                 """.formatted(javascriptCode, SOURCE_URL);
 
-        // Build a restricted JS context: no host access, no native, statement limit as
+        // Serialize the provided source data before a context is leased.
+        String sourceJson;
+        try {
+            sourceJson = om.writeValueAsString(sourceData);
+        } catch (JsonProcessingException e) {
+            return new Result(null, capturedVars, "JSON serialization error: " + e.getMessage());
+        }
+
+        // Lease a restricted JS context: no host access, no native, statement limit as
         // guard.
-        try (Context context = Context.newBuilder("js")
-                .engine(graalEngine)
-                .allowHostAccess(HostAccess.NONE) // no host access for safety
-                .allowCreateThread(false)
-                // IO is allowed here; adjust as needed depending on replay security policy.
-                .allowIO(true)
-                .allowNativeAccess(false)
-                .resourceLimits(
-                        ResourceLimits.newBuilder()
-                                .statementLimit(1_000_000L, src -> true) // execution guard
-                                .build())
-                .build()) {
-
-            // Provide a minimal 'stayinsync.log' to satisfy scripts that log during
-            // execution.
-            context.eval("js",
-                    "var stayinsync = (typeof stayinsync !== 'undefined') ? stayinsync : {};\n" +
-                            "if (typeof stayinsync.log !== 'function') {\n" +
-                            "  stayinsync.log = function(msg, level) { /* no-op */ };\n" +
-                            "}\n");
+        ReplayContextPool.Lease lease;
+        try {
+            lease = contextPool.acquire(acquireTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(null, capturedVars, "Replay interrupted while waiting for a context");
+        }
+        if (lease == null) {
+            return new Result(null, capturedVars,
+                    "No replay context available within " + acquireTimeout.toMillis() + " ms");
+        }
 
-            // Define a global capture helper to collect locals into a JS object during
-            // replay.
-            context.eval("js",
-                    "if (typeof globalThis.__capturedLocals === 'undefined') { globalThis.__capturedLocals = {}; }\n" +
-                            "function __capture(name, value) { globalThis.__capturedLocals[name] = value; }\n");
+        try {
+            Context context = lease.context();
 
-            // Serialize the provided source data into the JS global scope.
-            String sourceJson;
-            try {
-                sourceJson = om.writeValueAsString(sourceData);
-            } catch (JsonProcessingException e) {
-                return new Result(null, capturedVars, "JSON serialization error: " + e.getMessage());
-            }
+            // Start every replay with an empty set of captured locals.
+            context.eval("js", "globalThis.__capturedLocals = {};");
 
             // Expose serialized source and optional SDK string to the JS global scope.
             var bindings = context.getBindings("js");
@@ -204,7 +240,7 @@ public class ReplayExecutor {
                             "    }} }" +
                             "  };" +
                             "}");
-            // Load user code + wrapper; this defines the __replayEntry function.
+            // Load user code + wrapper; this returns the __replayEntry function.
             Value entry = context.eval("js", wrapped);
 
             // Invoke the wrapper, which calls transform() and returns a status object.
@@ -240,12 +276,30 @@ public class ReplayExecutor {
             return new Result(output, capturedVars, errorInfo);
 
         } catch (PolyglotException pe) {
+            // A cancelled or exhausted context (e.g. statement limit) must not be reused.
+            if (pe.isCancelled() || pe.isExit() || pe.isInternalError() || pe.isResourceExhausted()) {
+                lease.discard();
+            }
             // Catch failures outside JS try/catch (e.g., resource limits) and surface
             // message.
             return new Result(null, capturedVars, "PolyglotException: " + pe.getMessage());
+        } catch (RuntimeException e) {
+            lease.discard();
+            throw e;
+        } finally {
+            // Reset the context and hand it to the next replay.
+            lease.close();
         }
     }
 
+    /**
+     * Closes the pooled replay contexts.
+     */
+    @PreDestroy
+    void shutdown() {
+        contextPool.close();
+    }
+
     /**
      * Recursively convert GraalVM {@link Value} and Truffle {@link DebugValue}
      * instances
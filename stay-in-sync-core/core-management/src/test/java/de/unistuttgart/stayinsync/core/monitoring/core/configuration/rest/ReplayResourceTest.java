@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -15,12 +16,16 @@ import org.mockito.MockitoAnnotations;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayBulkRequestDTO;
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayBulkResultDTO;
 import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayExecuteRequestDTO;
 import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayExecuteResponseDTO;
 import de.unistuttgart.stayinsync.monitoring.core.configuration.clients.SnapshotClient;
 import de.unistuttgart.stayinsync.monitoring.core.configuration.clients.TransformationScriptClient;
 import de.unistuttgart.stayinsync.monitoring.core.configuration.rest.ReplayResource;
+import de.unistuttgart.stayinsync.monitoring.core.configuration.service.BulkReplayService;
 import de.unistuttgart.stayinsync.monitoring.core.configuration.service.ReplayExecutor;
+import io.smallrye.mutiny.Multi;
 import jakarta.ws.rs.core.Response;
 
 /**
@@ -40,6 +45,9 @@ public class ReplayResourceTest {
     @Mock
     private ReplayExecutor executor;
 
+    @Mock
+    private BulkReplayService bulkReplayService;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -101,4 +109,21 @@ public class ReplayResourceTest {
         assertTrue(body.variables().isEmpty());
         verify(executor).execute(eq("replay.js"), anyString(), any(), isNull());
     }
+
+    @Test
+    @DisplayName("bulk(): delegates to BulkReplayService and streams its results")
+    void bulk_delegatesToBulkReplayService() {
+        // arrange
+        var request = new ReplayBulkRequestDTO(List.of("s1"), null, null);
+        var result = new ReplayBulkResultDTO("s1", 1L, true, 42, Map.of(), null, "before", 3);
+        when(bulkReplayService.replay(request)).thenReturn(Multi.createFrom().item(result));
+
+        // act
+        List<ReplayBulkResultDTO> results = resource.bulk(request).collect().asList().await().indefinitely();
+
+        // assert
+        assertEquals(List.of(result), results);
+        verify(bulkReplayService).replay(request);
+        verifyNoInteractions(executor);
+    }
 }
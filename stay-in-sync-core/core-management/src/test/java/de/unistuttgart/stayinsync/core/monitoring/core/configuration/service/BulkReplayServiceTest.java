@@ -0,0 +1,190 @@
+package de.unistuttgart.stayinsync.core.monitoring.core.configuration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.graalvm.polyglot.Engine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import de.unistuttgart.stayinsync.core.configuration.exception.CoreManagementException;
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.TransformationScriptDTO;
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayBulkRequestDTO;
+import de.unistuttgart.stayinsync.core.configuration.rest.dtos.replay.ReplayBulkResultDTO;
+import de.unistuttgart.stayinsync.monitoring.core.configuration.clients.SnapshotClient;
+import de.unistuttgart.stayinsync.monitoring.core.configuration.clients.TransformationScriptClient;
+import de.unistuttgart.stayinsync.monitoring.core.configuration.service.BulkReplayService;
+import de.unistuttgart.stayinsync.monitoring.core.configuration.service.ReplayExecutor;
+import de.unistuttgart.stayinsync.transport.dto.Snapshot.SnapshotDTO;
+import de.unistuttgart.stayinsync.transport.dto.Snapshot.TransformationResultDTO;
+
+/**
+ * Unit tests for {@link BulkReplayService}.
+ * <p>
+ * The snapshot and script clients are mocked; the replays run in a real
+ * {@link ReplayExecutor}. The managed executor runs tasks on the calling
+ * thread.
+ * </p>
+ */
+public class BulkReplayServiceTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final ReplayExecutor executor = new ReplayExecutor(om, Engine.newBuilder().build(), 2,
+            Duration.ofSeconds(5));
+    private SnapshotClient snapshotClient;
+    private TransformationScriptClient transformationScriptClient;
+    private BulkReplayService sut;
+
+    @BeforeEach
+    void setup() {
+        snapshotClient = mock(SnapshotClient.class);
+        transformationScriptClient = mock(TransformationScriptClient.class);
+        ManagedExecutor managedExecutor = mock(ManagedExecutor.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(managedExecutor).execute(any(Runnable.class));
+        sut = new BulkReplayService(executor, snapshotClient, transformationScriptClient, managedExecutor, 2, 3);
+    }
+
+    private SnapshotDTO snapshot(String id, Long transformationId, int value, String errorInfo) {
+        ObjectNode sourceData = om.createObjectNode();
+        sourceData.putObject("source").put("value", value);
+        TransformationResultDTO result = new TransformationResultDTO();
+        result.setTransformationId(transformationId);
+        result.setSourceData(sourceData);
+        result.setErrorInfo(errorInfo);
+        SnapshotDTO snapshot = new SnapshotDTO();
+        snapshot.setSnapshotId(id);
+        snapshot.setTransformationResult(result);
+        return snapshot;
+    }
+
+    private List<ReplayBulkResultDTO> collect(ReplayBulkRequestDTO request) {
+        return sut.replay(request).collect().asList().await().atMost(Duration.ofSeconds(10)).stream()
+                .sorted(Comparator.comparing(ReplayBulkResultDTO::snapshotId))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("replay(): replays every snapshot with the given script and reports the original error")
+    void replay_withGivenScript_returnsOneResultPerSnapshot() {
+        // arrange
+        when(snapshotClient.byId("s1")).thenReturn(snapshot("s1", 1L, 2, "TypeError"));
+        when(snapshotClient.byId("s2")).thenReturn(snapshot("s2", 1L, 5, null));
+        var request = new ReplayBulkRequestDTO(List.of("s1", "s2", "s1"),
+                "function transform(){ return source.value * 10; }", "");
+
+        // act
+        List<ReplayBulkResultDTO> results = collect(request);
+
+        // assert
+        assertEquals(2, results.size(), "Duplicate snapshot ids should be replayed once");
+        assertTrue(results.get(0).succeeded());
+        assertEquals(20, ((Number) results.get(0).outputData()).intValue());
+        assertEquals("TypeError", results.get(0).originalErrorInfo());
+        assertEquals(50, ((Number) results.get(1).outputData()).intValue());
+        verifyNoInteractions(transformationScriptClient);
+    }
+
+    @Test
+    @DisplayName("replay(): falls back to the stored script of the transformation, loaded once")
+    void replay_withoutScript_usesStoredScript() {
+        // arrange
+        when(snapshotClient.byId("s1")).thenReturn(snapshot("s1", 7L, 1, null));
+        when(snapshotClient.byId("s2")).thenReturn(snapshot("s2", 7L, 2, null));
+        when(transformationScriptClient.findByTransformationId(7L)).thenReturn(new TransformationScriptDTO(
+                7L, "script", null, "function transform(){ return targets.math.inc(source.value); }", null, null,
+                null, null, "var targets = { math: { inc: function(v){ return v + 1; } } };", null, null));
+
+        // act
+        List<ReplayBulkResultDTO> results = collect(new ReplayBulkRequestDTO(List.of("s1", "s2"), null, null));
+
+        // assert
+        assertEquals(2, ((Number) results.get(0).outputData()).intValue());
+        assertEquals(3, ((Number) results.get(1).outputData()).intValue());
+        verify(transformationScriptClient, times(1)).findByTransformationId(7L);
+    }
+
+    @Test
+    @DisplayName("replay(): loads the stored script once when snapshots of a transformation are replayed in parallel")
+    void replay_parallelReplays_loadStoredScriptOnce() {
+        // arrange
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        ManagedExecutor managedExecutor = mock(ManagedExecutor.class);
+        doAnswer(invocation -> {
+            threads.execute(invocation.<Runnable>getArgument(0));
+            return null;
+        }).when(managedExecutor).execute(any(Runnable.class));
+        sut = new BulkReplayService(executor, snapshotClient, transformationScriptClient, managedExecutor, 2, 3);
+        when(snapshotClient.byId("s1")).thenReturn(snapshot("s1", 7L, 1, null));
+        when(snapshotClient.byId("s2")).thenReturn(snapshot("s2", 7L, 2, null));
+        when(snapshotClient.byId("s3")).thenReturn(snapshot("s3", 7L, 3, null));
+        when(transformationScriptClient.findByTransformationId(7L)).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return new TransformationScriptDTO(7L, "script", null, "function transform(){ return source.value; }",
+                    null, null, null, null, "", null, null);
+        });
+
+        try {
+            // act
+            List<ReplayBulkResultDTO> results = collect(new ReplayBulkRequestDTO(List.of("s1", "s2", "s3"), null,
+                    null));
+
+            // assert
+            assertEquals(3, results.size());
+            assertTrue(results.stream().allMatch(ReplayBulkResultDTO::succeeded));
+            verify(transformationScriptClient, times(1)).findByTransformationId(7L);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("replay(): reports snapshots that cannot be loaded or replayed without ending the stream")
+    void replay_failures_yieldFailedResults() {
+        // arrange
+        when(snapshotClient.byId("missing")).thenReturn(null);
+        when(snapshotClient.byId("broken")).thenThrow(new IllegalStateException("unreachable"));
+        when(snapshotClient.byId("throws")).thenReturn(snapshot("throws", 1L, 1, null));
+        var request = new ReplayBulkRequestDTO(List.of("missing", "broken", "throws"),
+                "function transform(){ throw new Error('still broken'); }", "");
+
+        // act
+        List<ReplayBulkResultDTO> results = collect(request);
+
+        // assert
+        assertEquals(3, results.size());
+        assertTrue(results.stream().noneMatch(ReplayBulkResultDTO::succeeded));
+        assertTrue(results.get(0).errorInfo().contains("unreachable"));
+        assertEquals("Snapshot not found", results.get(1).errorInfo());
+        assertTrue(results.get(2).errorInfo().contains("still broken"));
+    }
+
+    @Test
+    @DisplayName("replay(): rejects requests with more snapshots than allowed")
+    void replay_tooManySnapshots_throws() {
+        var request = new ReplayBulkRequestDTO(List.of("a", "b", "c", "d"), "function transform(){}", "");
+
+        assertThrows(CoreManagementException.class, () -> sut.replay(request));
+        verify(snapshotClient, never()).byId(anyString());
+    }
+
+    @Test
+    @DisplayName("replay(): completes immediately without snapshots")
+    void replay_noSnapshots_emptyStream() {
+        assertTrue(collect(new ReplayBulkRequestDTO(null, null, null)).isEmpty());
+    }
+}
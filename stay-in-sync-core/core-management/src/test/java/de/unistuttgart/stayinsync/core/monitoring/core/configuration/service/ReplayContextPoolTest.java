@@ -0,0 +1,132 @@
+package de.unistuttgart.stayinsync.core.monitoring.core.configuration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.unistuttgart.stayinsync.monitoring.core.configuration.service.ReplayContextPool;
+
+/**
+ * Unit tests for {@link ReplayContextPool}.
+ * <p>
+ * These tests verify that contexts are reused and reset between replays, that
+ * discarded contexts are replaced, and that the pool size bounds the number of
+ * leased contexts.
+ * </p>
+ */
+public class ReplayContextPoolTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final Engine engine = Engine.newBuilder().build();
+    private ReplayContextPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        engine.close();
+    }
+
+    @Test
+    @DisplayName("acquire(): reuses the context and removes globals of the previous replay")
+    void acquire_reusesContextWithRestoredGlobalScope() throws InterruptedException {
+        // arrange
+        pool = new ReplayContextPool(engine, 1, ReplayContextPool.DEFAULT_STATEMENT_LIMIT);
+        Context first;
+        try (ReplayContextPool.Lease lease = pool.acquire(TIMEOUT)) {
+            first = lease.context();
+            first.eval("js", "globalThis.leaked = 42; var declared = 1; stayinsync = 'overwritten';");
+        }
+
+        // act
+        try (ReplayContextPool.Lease lease = pool.acquire(TIMEOUT)) {
+            // assert
+            assertSame(first, lease.context(), "The idle context should be reused");
+            assertEquals("undefined", lease.context().eval("js", "typeof leaked").asString());
+            assertTrue(lease.context().eval("js", "typeof declared === 'undefined' || declared === undefined")
+                    .asBoolean());
+            assertEquals("function", lease.context().eval("js", "typeof stayinsync.log").asString(),
+                    "Overwritten replay helpers should be restored");
+        }
+    }
+
+    @Test
+    @DisplayName("acquire(): a replay cannot replace the members of the replay helper object")
+    void acquire_protectsNestedHelperProperties() throws InterruptedException {
+        // arrange
+        pool = new ReplayContextPool(engine, 1, ReplayContextPool.DEFAULT_STATEMENT_LIMIT);
+        try (ReplayContextPool.Lease lease = pool.acquire(TIMEOUT)) {
+            lease.context().eval("js", "stayinsync.log = null; delete stayinsync.log; stayinsync.extra = 1;");
+        }
+
+        // act
+        try (ReplayContextPool.Lease lease = pool.acquire(TIMEOUT)) {
+            // assert
+            assertEquals("function", lease.context().eval("js", "typeof stayinsync.log").asString(),
+                    "A nested helper property should survive a replay that overwrites it");
+            assertEquals("undefined", lease.context().eval("js", "typeof stayinsync.extra").asString());
+        }
+    }
+
+    @Test
+    @DisplayName("acquire(): returns null when all contexts are leased until one is released")
+    void acquire_boundedByPoolSize() throws InterruptedException {
+        // arrange
+        pool = new ReplayContextPool(engine, 1, ReplayContextPool.DEFAULT_STATEMENT_LIMIT);
+        ReplayContextPool.Lease lease = pool.acquire(TIMEOUT);
+
+        // act + assert
+        assertNull(pool.acquire(Duration.ofMillis(50)), "No second context should be leased");
+        lease.close();
+        try (ReplayContextPool.Lease next = pool.acquire(TIMEOUT)) {
+            assertNotNull(next);
+        }
+    }
+
+    @Test
+    @DisplayName("discard(): closes a context that hit the statement limit and creates a new one on demand")
+    void discard_replacesExhaustedContext() throws InterruptedException {
+        // arrange
+        pool = new ReplayContextPool(engine, 1, 1_000);
+        Context exhausted;
+        try (ReplayContextPool.Lease lease = pool.acquire(TIMEOUT)) {
+            exhausted = lease.context();
+            PolyglotException e = assertThrows(PolyglotException.class,
+                    () -> lease.context().eval("js", "while (true) {}"));
+            assertTrue(e.isResourceExhausted() || e.isCancelled());
+            lease.discard();
+        }
+        assertEquals(0, pool.idleCount(), "A discarded context must not be reused");
+
+        // act
+        try (ReplayContextPool.Lease lease = pool.acquire(TIMEOUT)) {
+            // assert
+            assertNotSame(exhausted, lease.context());
+            assertEquals(3, lease.context().eval("js", "1 + 2").asInt());
+        }
+    }
+
+    @Test
+    @DisplayName("release: resets the statement limit so every replay gets its full budget")
+    void release_resetsStatementLimit() throws InterruptedException {
+        // arrange
+        pool = new ReplayContextPool(engine, 1, 1_000);
+        String loop = "var sum = 0; for (var i = 0; i < 300; i++) { sum += i; } sum";
+
+        // act + assert: each run alone stays below the limit, together they exceed it
+        for (int run = 0; run < 5; run++) {
+            try (ReplayContextPool.Lease lease = pool.acquire(TIMEOUT)) {
+                assertEquals(44_850, lease.context().eval("js", loop).asInt());
+            }
+        }
+    }
+}
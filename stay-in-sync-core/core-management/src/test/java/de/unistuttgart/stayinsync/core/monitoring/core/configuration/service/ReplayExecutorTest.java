@@ -2,6 +2,7 @@ package de.unistuttgart.stayinsync.core.monitoring.core.configuration.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
 import java.util.Map;
 
 import org.graalvm.polyglot.Engine;
@@ -151,4 +152,53 @@ public class ReplayExecutorTest {
         assertNotNull(res.errorInfo());
         assertTrue(res.errorInfo().startsWith("JSON serialization error"));
     }
+
+    @Test
+    @DisplayName("execute(): reuses pooled contexts without leaking declarations between replays")
+    void execute_repeatedReplays_doNotShareState() {
+        // arrange: a single context, so both replays run in the same one
+        ReplayExecutor sut = new ReplayExecutor(om, engine, 1, Duration.ofSeconds(5));
+        String first = "const factor = 2; var counter = 1; globalThis.leaked = 'x';\n" +
+                "function transform(){ __capture('factor', factor); return factor * source.value; }";
+        String second = "const factor = 3;\n" +
+                "function transform(){ return { product: factor * source.value, " +
+                "leaked: typeof leaked, counter: typeof counter, captured: Object.keys(__capturedLocals).length }; }";
+
+        // act
+        ReplayExecutor.Result firstRes = sut.execute("first.js", first, makeSource(om, Map.of("value", 5)), "");
+        ReplayExecutor.Result secondRes = sut.execute("second.js", second, makeSource(om, Map.of("value", 5)),
+                "");
+
+        // assert
+        assertNull(firstRes.errorInfo());
+        assertEquals(10, ((Number) firstRes.outputData()).intValue());
+        assertNull(secondRes.errorInfo(), "Top-level declarations must not collide with the previous replay");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> out = (Map<String, Object>) secondRes.outputData();
+        assertEquals(15, ((Number) out.get("product")).intValue());
+        assertEquals("undefined", out.get("leaked"));
+        assertEquals("undefined", out.get("counter"));
+        assertEquals(0, ((Number) out.get("captured")).intValue());
+        assertTrue(secondRes.variables().isEmpty(), "Captured variables must not carry over");
+    }
+
+    @Test
+    @DisplayName("execute(): replaces the context after the statement limit was exceeded")
+    void execute_statementLimitExceeded_nextReplaySucceeds() {
+        // arrange
+        ReplayExecutor sut = new ReplayExecutor(om, engine, 1, Duration.ofSeconds(5));
+        JsonNode source = makeSource(om, Map.of());
+
+        // act
+        ReplayExecutor.Result runaway = sut.execute("loop.js", "function transform(){ while(true){} }", source,
+                "");
+        ReplayExecutor.Result next = sut.execute("next.js", "function transform(){ return 7; }",
+                makeSource(om, Map.of()), "");
+
+        // assert
+        assertNotNull(runaway.errorInfo());
+        assertTrue(runaway.errorInfo().startsWith("PolyglotException"));
+        assertNull(next.errorInfo());
+        assertEquals(7, ((Number) next.outputData()).intValue());
+    }
 }
@@ -21,6 +21,9 @@ import java.util.concurrent.ExecutionException;
 @ApplicationScoped
 public class RestClient {
 
+    // Polled bodies can be large; debug logs only show their beginning.
+    private static final int MAX_LOGGED_BODY_BYTES = 512;
+
     /**
      * Polls Rest API Data with a prebuilt request and returns a JsonObject when poll is done.
      *
@@ -54,10 +57,27 @@ public class RestClient {
      */
     private Uni<HttpResponse<Buffer>> executeRequest(final HttpRequest<Buffer> request) {
         return request.send()
-                .onItem().transform(response -> {
-                    Log.info(response.bodyAsString());
-                    return response;
-                });
+                .onItem().invoke(this::logResponseBody);
+    }
+
+    /**
+     * Logs a truncated preview of the response body at debug level. The body is only decoded if debug logging is enabled.
+     *
+     * @param response the polled response
+     */
+    private void logResponseBody(final HttpResponse<Buffer> response) {
+        if (!Log.isDebugEnabled()) {
+            return;
+        }
+        final Buffer body = response.body();
+        if (body == null) {
+            Log.debugf("Polled response with status %d and no body", response.statusCode());
+        } else if (body.length() <= MAX_LOGGED_BODY_BYTES) {
+            Log.debugf("Polled response with status %d: %s", response.statusCode(), body.toString());
+        } else {
+            Log.debugf("Polled response with status %d (%d bytes): %s... (truncated)", response.statusCode(), body.length(),
+                    body.getString(0, MAX_LOGGED_BODY_BYTES));
+        }
     }
 
     /**
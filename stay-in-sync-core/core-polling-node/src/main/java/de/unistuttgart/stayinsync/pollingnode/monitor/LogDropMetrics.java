@@ -0,0 +1,40 @@
+package de.unistuttgart.stayinsync.pollingnode.monitor;
+
+import de.unistuttgart.stayinsync.transport.logging.CountingAsyncHandler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+
+/**
+ * Puts the Fluent Bit socket handler behind a {@link CountingAsyncHandler} at startup and publishes the number
+ * of log records it discarded because its queue was full ({@code stayinsync.logging.dropped}).
+ */
+@ApplicationScoped
+public class LogDropMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final int queueLength;
+
+    public LogDropMetrics(MeterRegistry meterRegistry,
+                          @ConfigProperty(name = "stayinsync.logging.socket.queue-length", defaultValue = "4096") int queueLength) {
+        this.meterRegistry = meterRegistry;
+        this.queueLength = queueLength;
+    }
+
+    void onStart(@Observes StartupEvent startupEvent) {
+        List<CountingAsyncHandler> handlers = CountingAsyncHandler.wrapSocketHandlers(queueLength);
+        if (handlers.isEmpty()) {
+            Log.debug("No log socket handler configured, log drops are not counted.");
+        }
+        FunctionCounter.builder("stayinsync.logging.dropped", handlers,
+                        installed -> installed.stream().mapToLong(CountingAsyncHandler::getDroppedCount).sum())
+                .description("Log records discarded because the queue of the log socket handler was full")
+                .register(meterRegistry);
+    }
+}
@@ -65,6 +65,8 @@ public class SyncDataProducer {
             AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
                     .contentType("application/json")
                     .deliveryMode(2) // persistent
+                    // Lets the sync node measure how long the message waited in the broker.
+                    .headers(Map.of(SyncDataMessageDTO.PUBLISHED_AT_HEADER, System.currentTimeMillis()))
                     .build();
 
             channel.basicPublish("sync-data-exchange", "request-config-" + syncDataMessageDTO.requestConfigId(), properties,
@@ -0,0 +1,46 @@
+package de.unistuttgart.stayinsync.exception;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Signals that element updates of an AAS batch were not written. Updates rejected because the circuit breaker of
+ * the target is open are reported separately from updates that failed otherwise, so that only the rejected ones
+ * are parked for replay.
+ */
+public class AasBatchUpdateException extends SyncNodeException {
+
+    private final List<String> unavailableElementPaths;
+    private final List<String> failedElementPaths;
+    private final TargetUnavailableException unavailable;
+
+    public AasBatchUpdateException(String message, List<String> unavailableElementPaths, List<String> failedElementPaths,
+                                   TargetUnavailableException unavailable) {
+        super("AAS Batch Update Failed", message, unavailable);
+        this.unavailableElementPaths = Collections.unmodifiableList(new ArrayList<>(unavailableElementPaths));
+        this.failedElementPaths = Collections.unmodifiableList(new ArrayList<>(failedElementPaths));
+        this.unavailable = unavailable;
+    }
+
+    /**
+     * @return The ID-short paths of the elements rejected because the target is unavailable.
+     */
+    public List<String> getUnavailableElementPaths() {
+        return unavailableElementPaths;
+    }
+
+    /**
+     * @return The ID-short paths of the elements whose update failed for another reason.
+     */
+    public List<String> getFailedElementPaths() {
+        return failedElementPaths;
+    }
+
+    /**
+     * @return The rejection of the target's circuit breaker, or {@code null} if no update was rejected.
+     */
+    public TargetUnavailableException getUnavailable() {
+        return unavailable;
+    }
+}
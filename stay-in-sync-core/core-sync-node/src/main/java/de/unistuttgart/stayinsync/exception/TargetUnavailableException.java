@@ -0,0 +1,19 @@
+package de.unistuttgart.stayinsync.exception;
+
+/**
+ * Signals that a request was not sent because the circuit breaker of its target system is open.
+ */
+public class TargetUnavailableException extends SyncNodeException {
+
+    private final String target;
+
+    public TargetUnavailableException(String target) {
+        super("Target Unavailable",
+                "The circuit breaker for target " + target + " is open; the request was rejected without being sent.");
+        this.target = target;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+}
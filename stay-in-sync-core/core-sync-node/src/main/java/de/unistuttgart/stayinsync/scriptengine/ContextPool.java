@@ -1,16 +1,23 @@
 package de.unistuttgart.stayinsync.scriptengine;
 
 import de.unistuttgart.stayinsync.exception.ScriptEngineException;
+import de.unistuttgart.stayinsync.transport.scripting.GlobalScopeSnapshot;
 import io.quarkus.logging.Log;
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.ResourceLimits;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -21,6 +28,20 @@ import java.util.concurrent.TimeUnit;
  * <p>The pool provides methods to borrow a context and return it once the execution is complete.
  * It also handles the configuration of contexts, including host access permissions and resource limits.</p>
  *
+ * <p><b>Isolation:</b> Right after a context is created, a {@link GlobalScopeSnapshot} of its global scope is
+ * taken; when the context is returned, the global scope is restored from it and the resource limits are reset,
+ * so every job starts with its full statement budget but keeps the code the context has already warmed up.</p>
+ *
+ * <p>Top-level lexical declarations survive the reset, so evaluating one again in the reused context fails
+ * with a redeclaration error. This is safe because the script engine runs user code inside an IIFE and the
+ * generated SDK only declares globals with {@code var} inside IIFEs. Code evaluated directly in a pooled
+ * context must keep its lexical declarations in a function scope as well.</p>
+ *
+ * <p><b>Recovery:</b> A context whose global scope cannot be restored, or that is discarded with
+ * {@link #discardContext(Context)}, is closed and replaced by a new one on a background thread, off the
+ * request path. All contexts of a pool share one {@link Engine}, so a replacement reuses the code the
+ * engine has already compiled.</p>
+ *
  * @author Maximilian Peresunchak
  * @since 1.0
  */
@@ -38,6 +59,16 @@ public class ContextPool {
             .allowListAccess(true)
             .build();
 
+    /**
+     * The statement limit of a context if none is given.
+     */
+    public static final long DEFAULT_STATEMENT_LIMIT = 100_000L;
+
+    private static final Source GLOBAL_SCOPE_SNAPSHOT = Source.newBuilder("js", GlobalScopeSnapshot.SCRIPT,
+            GlobalScopeSnapshot.NAME).buildLiteral();
+
+    private static final long REPLACEMENT_RETRY_DELAY_MILLIS = 1_000;
+
     /**
      * The underlying blocking queue that holds the available {@link Context} instances.
      * Using a {@link LinkedBlockingQueue} ensures thread-safe access to the pool.
@@ -45,10 +76,25 @@ public class ContextPool {
     private final BlockingQueue<Context> pool;
 
     /**
-     * The synchronized List that tracks all created Contexts in order to keep household of
-     * creations and closings.
+     * All contexts created by this pool that are not yet closed, each with the function restoring its
+     * global scope. Also used to recognize contexts that originate from this pool.
      */
-    private final List<Context> allCreatedContexts;
+    private final Map<Context, Value> globalScopeResets = new ConcurrentHashMap<>();
+
+    /**
+     * The engine shared by all contexts of this pool.
+     */
+    private final Engine engine;
+
+    /**
+     * Closes corrupted contexts and creates their replacements.
+     */
+    private final ScheduledExecutorService replacementExecutor;
+
+    /**
+     * The resource limits of every context. Contexts sharing an engine must use the same statement limit.
+     */
+    private final ResourceLimits resourceLimits;
     private final int poolSize;
     private final String languageId;
     private volatile boolean closed = false;
@@ -64,6 +110,19 @@ public class ContextPool {
      * @throws ScriptEngineException if the size is less than or equal to 0.
      */
     public ContextPool(String languageId, int size) throws ScriptEngineException {
+        this(languageId, size, DEFAULT_STATEMENT_LIMIT);
+    }
+
+    /**
+     * Constructs a new {@code ContextPool} whose contexts have the given statement limit.
+     *
+     * @param languageId     The identifier of the scripting language (e.g., "js").
+     * @param size           The maximum number of contexts to be maintained in this pool. Must be at least 1
+     * @param statementLimit The number of statements a context may execute per job, 0 for no limit.
+     *                       Runaway scripts are primarily stopped by the {@link ScriptBudgetWatchdog}.
+     * @throws ScriptEngineException if the size is less than or equal to 0.
+     */
+    public ContextPool(String languageId, int size, long statementLimit) throws ScriptEngineException {
         if (size <= 0) {
             throw new ScriptEngineException(
                     ScriptEngineException.ErrorType.CONFIGURATION_ERROR,
@@ -74,7 +133,15 @@ public class ContextPool {
         this.languageId = languageId;
         this.poolSize = size;
         this.pool = new LinkedBlockingQueue<>(size);
-        this.allCreatedContexts = Collections.synchronizedList(new ArrayList<>());
+        this.resourceLimits = statementLimit > 0
+                ? ResourceLimits.newBuilder().statementLimit(statementLimit, null).build()
+                : ResourceLimits.newBuilder().build();
+        this.engine = Engine.create("js");
+        this.replacementExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "context-pool-" + languageId + "-replacement");
+            thread.setDaemon(true);
+            return thread;
+        });
         initializePool();
     }
 
@@ -124,6 +191,10 @@ public class ContextPool {
      * null contexts are simply returned as false, since nothing is to be added to the pool.
      * If the pool is closed, the context itself will be closed safely.
      * If a context is to be returned from a different Pool, the returned context will be closed.
+     * <p>
+     * Before the context becomes available again, its global scope is restored and its resource limits are
+     * reset. If that fails, the context is discarded and replaced in the background, see
+     * {@link #discardContext(Context)}.
      *
      * @param context The {@link Context} instance to return to the pool.
      * @return {@code true} if the context was successfully returned to the pool, {@code false} otherwise
@@ -138,23 +209,96 @@ public class ContextPool {
             return false;
         }
 
-        if (!allCreatedContexts.contains(context)) {
+        Value globalScopeReset = globalScopeResets.get(context);
+        if (globalScopeReset == null) {
             Log.warnf("Attempt to return a context to pool '%s' that did not originate from it. Closing context.", languageId);
             closeSafely(context);
             return false;
         }
 
+        if (!resetContext(context, globalScopeReset)) {
+            discardContext(context);
+            return false;
+        }
+
         if (pool.offer(context)) {
             Log.debugf("Returned context for language: %s. Available: %d/%d", languageId, pool.size(), poolSize);
             return true;
         } else {
             Log.warnf("Context for language %s could not be returned to pool (possibly full or offer failed). Closing context instead. Pool available: %d/%d",
                     languageId, pool.size(), poolSize);
+            globalScopeResets.remove(context);
+            closeSafely(context);
+            return false;
+        }
+    }
+
+    /**
+     * Discards a borrowed {@link Context} that must not be used again, e.g. because a script execution was
+     * cancelled or failed internally. The context is closed and a new context is added to the pool, both
+     * on a background thread, so the caller does not wait for it.
+     * Contexts that do not originate from this pool are closed directly.
+     *
+     * @param context The borrowed context to discard.
+     */
+    public void discardContext(Context context) {
+        if (context == null) return;
+
+        if (globalScopeResets.remove(context) == null || closed) {
             closeSafely(context);
+            return;
+        }
+
+        Log.warnf("Discarding context of pool '%s', a replacement is created in the background. Available: %d/%d",
+                languageId, pool.size(), poolSize);
+        try {
+            replacementExecutor.execute(() -> {
+                closeSafely(context);
+                replaceContext();
+            });
+        } catch (RejectedExecutionException e) {
+            closeSafely(context);
+        }
+    }
+
+    private boolean resetContext(Context context, Value globalScopeReset) {
+        try {
+            context.resetLimits();
+            boolean restored = globalScopeReset.execute().asBoolean();
+            context.resetLimits();
+            if (!restored) {
+                Log.warnf("Global scope of a context of pool '%s' could not be restored.", languageId);
+            }
+            return restored;
+        } catch (Exception e) {
+            Log.warnf(e, "Resetting a context of pool '%s' failed.", languageId);
             return false;
         }
     }
 
+    private void replaceContext() {
+        if (closed) {
+            return;
+        }
+        try {
+            Context replacement = createContext();
+            if (closed || !pool.offer(replacement)) {
+                globalScopeResets.remove(replacement);
+                closeSafely(replacement);
+                return;
+            }
+            Log.debugf("Replaced context for language: %s. Available: %d/%d", languageId, pool.size(), poolSize);
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to create a replacement context for language %s, retrying in %d ms.",
+                    languageId, REPLACEMENT_RETRY_DELAY_MILLIS);
+            try {
+                replacementExecutor.schedule(this::replaceContext, REPLACEMENT_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                Log.debugf("Pool '%s' closed before a replacement context could be created.", languageId);
+            }
+        }
+    }
+
     private void closeSafely(Context context) {
         if (context != null) {
             try {
@@ -195,16 +339,7 @@ public class ContextPool {
     private void initializePool() throws ScriptEngineException {
         for (int i = 0; i < poolSize; i++) {
             try {
-                Context.Builder builder = Context.newBuilder("js")
-                        .allowAllAccess(false)
-                        .allowHostAccess(SCRIPT_API_ACCESS)
-                        .resourceLimits(ResourceLimits.newBuilder()
-                                .statementLimit(100_000L, null)
-                                .build());
-
-                Context newContext = builder.build();
-                allCreatedContexts.add(newContext);
-                pool.add(newContext);
+                pool.add(createContext());
             } catch (Exception e) {
                 String errorMsg = String.format("Failed to create GraalVM context #%d for language %s during pool initialization.", (i + 1), languageId);
                 Log.errorf(e, errorMsg);
@@ -218,6 +353,27 @@ public class ContextPool {
         }
     }
 
+    /**
+     * Creates a context on the shared engine and takes the snapshot of its global scope.
+     */
+    private Context createContext() {
+        Context newContext = Context.newBuilder("js")
+                .engine(engine)
+                .allowAllAccess(false)
+                .allowHostAccess(SCRIPT_API_ACCESS)
+                .resourceLimits(resourceLimits)
+                .build();
+        try {
+            globalScopeResets.put(newContext, newContext.eval(GLOBAL_SCOPE_SNAPSHOT));
+            newContext.resetLimits();
+        } catch (RuntimeException e) {
+            globalScopeResets.remove(newContext);
+            closeSafely(newContext);
+            throw e;
+        }
+        return newContext;
+    }
+
     /**
      * Closes all {@link Context} instances currently held in the pool.
      * This method should be called during application shutdown or when the pool is no longer needed
@@ -227,18 +383,27 @@ public class ContextPool {
     public void closeAllContexts() {
         Log.infof("Closing all contexts in pool for language '%s'", languageId);
         this.closed = true;
+        replacementExecutor.shutdownNow();
+        try {
+            replacementExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
         Context contextFromQueue;
         while ((contextFromQueue = pool.poll()) != null) {
             closeSafely(contextFromQueue);
-            allCreatedContexts.remove(contextFromQueue);
+            globalScopeResets.remove(contextFromQueue);
         }
 
-        synchronized (allCreatedContexts) {
-            for (Context ctx : new ArrayList<>(allCreatedContexts)) {
-                closeSafely(ctx);
-            }
-            allCreatedContexts.clear();
+        for (Context ctx : new ArrayList<>(globalScopeResets.keySet())) {
+            closeSafely(ctx);
+        }
+        globalScopeResets.clear();
+        try {
+            engine.close();
+        } catch (Exception e) {
+            Log.warnf(e, "Error closing engine of pool for language %s", languageId);
         }
         Log.infof("ContextPool for language '%s' closed. All contexts processed.", languageId);
     }
@@ -47,6 +47,13 @@ public class ContextPoolFactory {
     @ConfigProperty(name = "scriptengine.context.pool.size.default", defaultValue = "2")
     int defaultPoolSize;
 
+    /**
+     * The number of statements a context may execute per job, 0 for no limit. A coarse safeguard only:
+     * the CPU time and heap allocation of a job are limited by the {@link ScriptBudgetWatchdog}.
+     */
+    @ConfigProperty(name = "scriptengine.context.statement-limit", defaultValue = "10000000")
+    long statementLimit;
+
     /**
      * Retrieves or creates a {@link ContextPool} for the specified scripting language.
      * <p>
@@ -73,7 +80,7 @@ public class ContextPoolFactory {
             int poolSize = mpConfig.getOptionalValue(configKey, Integer.class).orElse(defaultPoolSize);
             Log.infof("Creating ContextPool for language '%s' with size %d (default size: %d, config key: %s)",
                     languageKey, poolSize, defaultPoolSize, configKey);
-            pool = new ContextPool(languageKey, poolSize);
+            pool = new ContextPool(languageKey, poolSize, statementLimit);
             pools.put(languageKey, pool);
         }
         return pool;
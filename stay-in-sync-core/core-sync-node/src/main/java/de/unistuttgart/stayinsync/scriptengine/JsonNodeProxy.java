@@ -0,0 +1,161 @@
+package de.unistuttgart.stayinsync.scriptengine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
+import org.graalvm.polyglot.proxy.ProxyObject;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Read-only views of a Jackson tree for scripts, so that source data decoded once from a message is
+ * exposed to a script without converting it into maps and lists first.
+ * <p>
+ * Objects appear as script objects and arrays as script arrays; members and elements are converted
+ * only when the script reads them. Strings, booleans, numbers and nulls are passed as the corresponding
+ * Java values; numbers that are no interop numbers (e.g. {@link BigDecimal}) as doubles. Every attempt to
+ * modify a view fails with an {@link UnsupportedOperationException}, since the tree is shared with the
+ * graph evaluation and snapshots.
+ * <p>
+ * A view returned from a script is converted back to the tree it presents, see {@link #unwrap(Object)}.
+ */
+public final class JsonNodeProxy {
+
+    private JsonNodeProxy() {
+    }
+
+    /**
+     * Converts a value for a script: a Jackson node into its script representation, any other value as it is.
+     *
+     * @param value The value, may be {@code null}.
+     * @return The value as the script sees it.
+     */
+    public static Object wrap(Object value) {
+        return value instanceof JsonNode node ? toGuest(node) : value;
+    }
+
+    /**
+     * Returns the tree presented by a view created by this class.
+     *
+     * @param proxy A proxy object from a script value.
+     * @return The presented tree, or {@code null} if the proxy is not a view of a tree.
+     */
+    public static JsonNode unwrap(Object proxy) {
+        if (proxy instanceof ObjectView view) {
+            return view.node;
+        }
+        if (proxy instanceof ArrayView view) {
+            return view.node;
+        }
+        return null;
+    }
+
+    private static Object toGuest(JsonNode node) {
+        if (node == null) {
+            return null;
+        }
+        return switch (node.getNodeType()) {
+            case OBJECT -> new ObjectView(node);
+            case ARRAY -> new ArrayView(node);
+            case STRING -> node.textValue();
+            case BOOLEAN -> node.booleanValue();
+            case NUMBER -> toGuestNumber(node.numberValue());
+            case NULL, MISSING -> null;
+            default -> node.asText();
+        };
+    }
+
+    private static Number toGuestNumber(Number number) {
+        if (number instanceof BigInteger bigInteger) {
+            return bigInteger.bitLength() < Long.SIZE ? bigInteger.longValue() : bigInteger.doubleValue();
+        }
+        if (number instanceof BigDecimal decimal) {
+            return decimal.doubleValue();
+        }
+        return number;
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Source data is read-only.");
+    }
+
+    /**
+     * A JSON object as a script object.
+     */
+    private static final class ObjectView implements ProxyObject {
+
+        private final JsonNode node;
+
+        private ObjectView(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public Object getMember(String key) {
+            return toGuest(node.get(key));
+        }
+
+        @Override
+        public Object getMemberKeys() {
+            List<Object> keys = new ArrayList<>(node.size());
+            for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+                keys.add(names.next());
+            }
+            return ProxyArray.fromList(keys);
+        }
+
+        @Override
+        public boolean hasMember(String key) {
+            return node.has(key);
+        }
+
+        @Override
+        public void putMember(String key, Value value) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean removeMember(String key) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * A JSON array as a script array.
+     */
+    private static final class ArrayView implements ProxyArray {
+
+        private final JsonNode node;
+
+        private ArrayView(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public Object get(long index) {
+            if (index < 0 || index >= node.size()) {
+                throw new ArrayIndexOutOfBoundsException((int) Math.min(index, Integer.MAX_VALUE));
+            }
+            return toGuest(node.get((int) index));
+        }
+
+        @Override
+        public void set(long index, Value value) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean remove(long index) {
+            throw readOnly();
+        }
+
+        @Override
+        public long getSize() {
+            return node.size();
+        }
+    }
+}
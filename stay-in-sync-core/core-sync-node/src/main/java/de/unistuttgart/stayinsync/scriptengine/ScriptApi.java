@@ -5,6 +5,7 @@ import org.graalvm.polyglot.HostAccess;
 import org.jboss.logging.Logger;
 import org.jboss.logging.MDC;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -46,8 +47,9 @@ public class ScriptApi {
      * <p>
      * If the top-level {@code inputData} is a {@link Map}, this method creates a defensive copy.
      * If any values within this top-level map are themselves {@link Map}s, those nested maps are also
-     * defensively copied using {@link Map#copyOf(Map)}. This helps to prevent the script from
-     * modifying the original input data structures in the host application, providing a degree of isolation.
+     * defensively copied using {@link Map#copyOf(Map)}. Jackson trees are returned as read-only views
+     * (see {@link JsonNodeProxy}). This helps to prevent the script from modifying the original input
+     * data structures in the host application, providing a degree of isolation.
      * Other types of data are returned as is.
      * </p>
      *
@@ -58,17 +60,18 @@ public class ScriptApi {
     public Object getInput() {
         if (inputData instanceof Map) {
             Map<String, Object> namespacedData = (Map<String, Object>) inputData;
+            Map<String, Object> copy = new HashMap<>(namespacedData.size());
             for (Map.Entry<String, Object> entry : namespacedData.entrySet()) {
                 if (entry.getValue() instanceof Map) {
-                    namespacedData.put(entry.getKey(), Map.copyOf((Map<String, Object>) entry.getValue()));
+                    copy.put(entry.getKey(), Map.copyOf((Map<String, Object>) entry.getValue()));
                 } else {
-                    namespacedData.put(entry.getKey(), entry.getValue());
+                    copy.put(entry.getKey(), JsonNodeProxy.wrap(entry.getValue()));
                 }
             }
 
-            return Map.copyOf(namespacedData);
+            return Map.copyOf(copy);
         } else {
-            return inputData;
+            return JsonNodeProxy.wrap(inputData);
         }
     }
 
@@ -0,0 +1,229 @@
+package de.unistuttgart.stayinsync.scriptengine;
+
+import de.unistuttgart.stayinsync.syncnode.domain.TransformJob;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.graalvm.polyglot.Context;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the CPU-time and heap-allocation budgets of script executions.
+ * <p>
+ * Every execution is registered with the watchdog while its scripts run. The watchdog periodically reads
+ * the CPU time and the allocated bytes of the executing thread and cancels the execution's context as soon
+ * as one of its budgets is exceeded, so a runaway script gives up its context within one check interval
+ * instead of holding it until the statement limit is reached. A cancelled context must be discarded.
+ * <p>
+ * The budgets of a transformation are taken from its script definition and default to
+ * {@code scriptengine.budget.cpu-time} and {@code scriptengine.budget.heap-allocation}; a default of zero
+ * disables the respective budget. If the JVM cannot measure thread CPU time, the elapsed wall-clock time
+ * is used instead; if it cannot measure thread allocations, the heap budget is not enforced.
+ */
+@ApplicationScoped
+public class ScriptBudgetWatchdog {
+
+    /**
+     * A budgeted resource.
+     */
+    public enum Resource {
+        CPU_TIME, HEAP_ALLOCATION
+    }
+
+    /**
+     * The budgets of an execution; zero means unlimited.
+     *
+     * @param cpuTimeNanos        The CPU time the execution may use, in nanoseconds.
+     * @param heapAllocationBytes The number of bytes the execution may allocate on the heap.
+     */
+    public record Budget(long cpuTimeNanos, long heapAllocationBytes) {
+    }
+
+    /**
+     * The resources used by a finished execution.
+     *
+     * @param budget             The budgets of the execution.
+     * @param cpuTimeNanos       The CPU time used, in nanoseconds.
+     * @param heapAllocatedBytes The bytes allocated on the heap, or -1 if they could not be measured.
+     * @param exceeded           The budget that was exceeded, or {@code null}.
+     */
+    public record Usage(Budget budget, long cpuTimeNanos, long heapAllocatedBytes, Resource exceeded) {
+    }
+
+    private final Duration defaultCpuTime;
+    private final long defaultHeapAllocationBytes;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported;
+    private final com.sun.management.ThreadMXBean allocationMXBean;
+    private final Set<Execution> executions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+
+    public ScriptBudgetWatchdog(
+            @ConfigProperty(name = "scriptengine.budget.cpu-time", defaultValue = "5s") Duration defaultCpuTime,
+            @ConfigProperty(name = "scriptengine.budget.heap-allocation", defaultValue = "268435456") long defaultHeapAllocationBytes,
+            @ConfigProperty(name = "scriptengine.budget.check-interval", defaultValue = "10ms") Duration checkInterval) {
+        this.defaultCpuTime = defaultCpuTime;
+        this.defaultHeapAllocationBytes = defaultHeapAllocationBytes;
+        this.cpuTimeSupported = threadMXBean.isThreadCpuTimeSupported();
+        if (cpuTimeSupported && !threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+        }
+        this.allocationMXBean = allocationMXBean(threadMXBean);
+        if (!cpuTimeSupported || allocationMXBean == null) {
+            Log.warnf("Script budgets are measured with limited precision: thread CPU time %s, thread allocations %s.",
+                    cpuTimeSupported ? "supported" : "unsupported (wall-clock time is used)",
+                    allocationMXBean != null ? "supported" : "unsupported (heap budget not enforced)");
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "script-budget-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, checkInterval.toMillis());
+        scheduler.scheduleAtFixedRate(this::checkExecutions, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationMXBean(ThreadMXBean threadMXBean) {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean allocationBean
+                && allocationBean.isThreadAllocatedMemorySupported()) {
+            if (!allocationBean.isThreadAllocatedMemoryEnabled()) {
+                allocationBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return allocationBean;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the budgets of a job: those of its transformation, where defined, and the defaults otherwise.
+     *
+     * @param job The job to execute.
+     * @return The budgets of the job.
+     */
+    public Budget budgetFor(TransformJob job) {
+        long cpuTimeNanos = job.maxCpuTimeMillis() != null
+                ? TimeUnit.MILLISECONDS.toNanos(job.maxCpuTimeMillis())
+                : defaultCpuTime.toNanos();
+        long heapAllocationBytes = job.maxHeapAllocationBytes() != null
+                ? job.maxHeapAllocationBytes()
+                : defaultHeapAllocationBytes;
+        return new Budget(Math.max(0, cpuTimeNanos), Math.max(0, heapAllocationBytes));
+    }
+
+    /**
+     * Starts watching an execution on the current thread. The execution must be finished on the same thread.
+     *
+     * @param context The context the scripts run in, cancelled if a budget is exceeded.
+     * @param budget  The budgets of the execution.
+     * @return The watched execution.
+     */
+    public Execution start(Context context, Budget budget) {
+        Execution execution = new Execution(context, budget, Thread.currentThread().threadId());
+        executions.add(execution);
+        return execution;
+    }
+
+    private void checkExecutions() {
+        for (Execution execution : executions) {
+            try {
+                execution.check();
+            } catch (Exception e) {
+                Log.warnf(e, "Checking the budgets of a script execution failed.");
+            }
+        }
+    }
+
+    private long cpuTimeOf(long threadId, long wallClockStart) {
+        return cpuTimeSupported ? threadMXBean.getThreadCpuTime(threadId) : System.nanoTime() - wallClockStart;
+    }
+
+    private long allocatedBytesOf(long threadId) {
+        return allocationMXBean != null ? allocationMXBean.getThreadAllocatedBytes(threadId) : -1;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * A script execution watched by the watchdog.
+     * <p>
+     * {@link #check()} and {@link #finish()} are mutually exclusive, so the context is never cancelled after the
+     * execution has finished and possibly returned its context to the pool. The context is cancelled while the
+     * lock is held; this cannot block {@code finish()} indefinitely because the executing thread only finishes
+     * after it has left the context.
+     */
+    public final class Execution {
+
+        private final Context context;
+        private final Budget budget;
+        private final long threadId;
+        private final long wallClockStart;
+        private final long cpuTimeStart;
+        private final long allocatedBytesStart;
+        private volatile Resource exceeded;
+        private boolean finished;
+
+        private Execution(Context context, Budget budget, long threadId) {
+            this.context = context;
+            this.budget = budget;
+            this.threadId = threadId;
+            this.wallClockStart = System.nanoTime();
+            this.cpuTimeStart = cpuTimeOf(threadId, wallClockStart);
+            this.allocatedBytesStart = allocatedBytesOf(threadId);
+        }
+
+        private synchronized void check() {
+            if (finished || exceeded != null) {
+                return;
+            }
+            Resource overrun = null;
+            if (budget.cpuTimeNanos() > 0 && cpuTimeOf(threadId, wallClockStart) - cpuTimeStart > budget.cpuTimeNanos()) {
+                overrun = Resource.CPU_TIME;
+            } else if (budget.heapAllocationBytes() > 0 && allocatedBytesStart >= 0
+                    && allocatedBytesOf(threadId) - allocatedBytesStart > budget.heapAllocationBytes()) {
+                overrun = Resource.HEAP_ALLOCATION;
+            }
+            if (overrun == null) {
+                return;
+            }
+            exceeded = overrun;
+            Log.warnf("Script execution exceeded its %s budget, cancelling its context.", overrun);
+            context.close(true);
+        }
+
+        /**
+         * Returns the budget that was exceeded and led to the cancellation of the context.
+         *
+         * @return The exceeded budget, or {@code null} if all budgets were kept.
+         */
+        public Resource exceeded() {
+            return exceeded;
+        }
+
+        /**
+         * Stops watching the execution and returns the resources it used. Must be called on the executing thread.
+         *
+         * @return The used resources.
+         */
+        public Usage finish() {
+            synchronized (this) {
+                finished = true;
+            }
+            executions.remove(this);
+            long cpuTimeNanos = cpuTimeOf(threadId, wallClockStart) - cpuTimeStart;
+            long heapAllocatedBytes = allocatedBytesStart >= 0 ? allocatedBytesOf(threadId) - allocatedBytesStart : -1;
+            return new Usage(budget, cpuTimeNanos, heapAllocatedBytes, exceeded);
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package de.unistuttgart.stayinsync.scriptengine;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.graalvm.polyglot.Source;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -13,6 +21,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * Scripts are identified by a combination of their ID and a hash of their content, allowing
  * different versions of the same script (by ID) to be cached.
  *
+ * <p>The cache is bounded by the total number of characters of the cached sources and evicts with
+ * Caffeine's W-TinyLFU policy, so rarely used versions leave first. A secondary index from script ID
+ * to the cached versions allows all versions of a script, or all but the current one, to be dropped
+ * without scanning the cache; this is done when a transformation is undeployed or its script changes.
+ *
  * <p>Currently, this cache is primarily designed for JavaScript ("js") scripts, as indicated by
  * the script wrapping and {@code Source.newBuilder("js", ...)} calls.
  *
@@ -22,11 +35,39 @@ import java.util.concurrent.ConcurrentHashMap;
 @ApplicationScoped
 public class ScriptCache {
     /**
-     * The underlying concurrent map that stores the cached {@link Source} objects.
-     * The key is a string generated by {@link #buildKey(String, String)}, and the value is the
-     * pre-parsed {@link Source} object. Using {@link ConcurrentHashMap} ensures thread-safe access.
+     * The underlying cache that stores the pre-parsed {@link Source} objects, keyed by script ID and hash.
+     * Each entry weighs the number of characters of its source.
+     */
+    private final Cache<ScriptKey, Source> cache;
+
+    /**
+     * The hashes of all cached versions of a script, keyed by script ID.
+     */
+    private final Map<String, Set<String>> hashesByScriptId = new ConcurrentHashMap<>();
+
+    /**
+     * Identifies one version of a script.
      */
-    private final Map<String, Source> cache = new ConcurrentHashMap<>();
+    private record ScriptKey(String scriptId, String scriptHash) {
+    }
+
+    /**
+     * Constructs the cache with its bound.
+     *
+     * @param maxWeight     The maximum total number of characters of all cached sources.
+     * @param meterRegistry The registry the cache statistics are published to.
+     */
+    public ScriptCache(@ConfigProperty(name = "stayinsync.script-cache.max-weight", defaultValue = "33554432") long maxWeight,
+                       MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((ScriptKey key, Source source) -> Math.max(1, source.getLength()))
+                .executor(Runnable::run)
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "stayinsync.script.cache");
+    }
 
     /**
      * Retrieves a pre-parsed {@link Source} object from the cache.
@@ -37,7 +78,7 @@ public class ScriptCache {
      * (with the specific ID and hash) is not in the cache.
      */
     public Source getScript(String scriptId, String scriptHash) {
-        return cache.get(buildKey(scriptId, scriptHash));
+        return cache.getIfPresent(new ScriptKey(scriptId, scriptHash));
     }
 
     /**
@@ -48,7 +89,7 @@ public class ScriptCache {
      * @return {@code true} if the script is found in the cache, {@code false} otherwise.
      */
     public boolean containsScript(String scriptId, String scriptHash) {
-        return cache.containsKey(buildKey(scriptId, scriptHash));
+        return cache.asMap().containsKey(new ScriptKey(scriptId, scriptHash));
     }
 
     /**
@@ -64,20 +105,72 @@ public class ScriptCache {
      * @param compiledSource The pre-compiled {@link Source} object to be stored in the cache.
      */
     public void putCompiledScript(String scriptId, String scriptHash, Source compiledSource) {
-        cache.put(buildKey(scriptId, scriptHash), compiledSource);
+        hashesByScriptId.computeIfAbsent(scriptId, id -> ConcurrentHashMap.newKeySet()).add(scriptHash);
+        cache.put(new ScriptKey(scriptId, scriptHash), compiledSource);
         Log.debugf("Cached compiled script: %s (with hash: %s)", scriptId, scriptHash);
     }
 
     /**
-     * Generates a unique key for storing and retrieving scripts in the cache.
-     * The key is a concatenation of the script ID and its hash, separated by a colon.
-     * This allows caching multiple versions (identified by hash) of the same script (identified by ID).
+     * Removes all cached versions of a script.
      *
-     * @param scriptId   The ID of the script.
-     * @param scriptHash The generated unique hash of the script's content.
-     * @return A string representing the unique key for the script version (e.g., "myScript:abcdef12345").
+     * @param scriptId The ID of the script.
+     * @return The number of versions that were removed.
+     */
+    public int removeScript(String scriptId) {
+        Set<String> hashes = hashesByScriptId.remove(scriptId);
+        if (hashes == null) {
+            return 0;
+        }
+        List<ScriptKey> keys = hashes.stream().map(hash -> new ScriptKey(scriptId, hash)).toList();
+        cache.invalidateAll(keys);
+        Log.debugf("Removed %d cached version(s) of script %s", keys.size(), scriptId);
+        return keys.size();
+    }
+
+    /**
+     * Removes all cached versions of a script except the one with the given hash.
+     *
+     * @param scriptId    The ID of the script.
+     * @param currentHash The hash of the version to keep; if {@code null}, all versions are removed.
+     * @return The number of versions that were removed.
+     */
+    public int removeSupersededVersions(String scriptId, String currentHash) {
+        if (currentHash == null) {
+            return removeScript(scriptId);
+        }
+        Set<String> hashes = hashesByScriptId.get(scriptId);
+        if (hashes == null) {
+            return 0;
+        }
+        List<ScriptKey> superseded = hashes.stream()
+                .filter(hash -> !hash.equals(currentHash))
+                .map(hash -> new ScriptKey(scriptId, hash))
+                .toList();
+        cache.invalidateAll(superseded);
+        if (!superseded.isEmpty()) {
+            Log.debugf("Removed %d superseded version(s) of script %s", superseded.size(), scriptId);
+        }
+        return superseded.size();
+    }
+
+    /**
+     * Returns the number of cached script versions.
+     */
+    public long size() {
+        return cache.asMap().size();
+    }
+
+    /**
+     * Keeps the secondary index in sync with evictions and invalidations. A version that was
+     * cached again in the meantime stays indexed.
      */
-    private String buildKey(String scriptId, String scriptHash) {
-        return scriptId + ":" + scriptHash;
+    private void onRemoval(ScriptKey key, Source source, RemovalCause cause) {
+        if (key == null || cause == RemovalCause.REPLACED || cache.asMap().containsKey(key)) {
+            return;
+        }
+        hashesByScriptId.computeIfPresent(key.scriptId(), (id, hashes) -> {
+            hashes.remove(key.scriptHash());
+            return hashes.isEmpty() ? null : hashes;
+        });
     }
 }
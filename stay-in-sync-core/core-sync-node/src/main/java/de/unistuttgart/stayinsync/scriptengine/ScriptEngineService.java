@@ -1,9 +1,11 @@
 package de.unistuttgart.stayinsync.scriptengine;
 
-
+import com.fasterxml.jackson.databind.JsonNode;
 import de.unistuttgart.stayinsync.exception.ScriptEngineException;
 import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
 import de.unistuttgart.stayinsync.syncnode.domain.TransformJob;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineStageMetrics;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineTrace;
 import io.quarkus.logging.Log;
 import io.quarkus.runtime.Quarkus;
 
@@ -38,6 +40,10 @@ import java.util.function.Function;
  * and execution time per transformation ID. These metrics are exposed via Micrometer and can be
  * scraped by Prometheus and visualized in Grafana.</p>
  *
+ * <p><b>Budgets:</b> While the scripts of a job run, the {@link ScriptBudgetWatchdog} enforces the CPU-time
+ * and heap-allocation budgets of its transformation. A cancelled execution fails with
+ * {@link ScriptEngineException.ErrorType#RESOURCE_LIMIT_EXCEEDED} and its context is replaced.</p>
+ *
  * @since 1.0
  */
 @ApplicationScoped
@@ -45,32 +51,61 @@ public class ScriptEngineService {
 
     private static final String SCRIPT_API_BINDING_NAME = "stayinsync";
     private static final String JAVASCRIPT_LANGUAGE_ID = "js";
+    private static final String SDK_SCRIPT_ID_PREFIX = "sdk-for-tx-";
 
     private final ScriptCache scriptCache;
     private final ContextPoolFactory contextPoolFactory;
     private final ManagedExecutor managedExecutor;
     private final ScriptMetricsService metricsService;
+    private final PipelineStageMetrics pipelineStageMetrics;
+    private final ScriptBudgetWatchdog budgetWatchdog;
 
     @Inject
     public ScriptEngineService(ScriptCache scriptCache,
                                ContextPoolFactory contextPoolFactory,
                                ManagedExecutor managedExecutor,
-                               ScriptMetricsService metricsService) {
+                               ScriptMetricsService metricsService,
+                               PipelineStageMetrics pipelineStageMetrics,
+                               ScriptBudgetWatchdog budgetWatchdog) {
         this.scriptCache = scriptCache;
         this.contextPoolFactory = contextPoolFactory;
         this.managedExecutor = managedExecutor;
         this.metricsService = metricsService;
+        this.pipelineStageMetrics = pipelineStageMetrics;
+        this.budgetWatchdog = budgetWatchdog;
+    }
+
+    /**
+     * Returns the ID under which the generated SDK of a transformation script is cached in the {@link ScriptCache}.
+     *
+     * @param scriptId The ID of the transformation script.
+     * @return The cache ID of the script's generated SDK.
+     */
+    public static String sdkScriptId(String scriptId) {
+        return SDK_SCRIPT_ID_PREFIX + scriptId;
     }
 
     public Uni<TransformationResult> transformAsync(TransformJob job) {
+        return transformAsync(job, null);
+    }
+
+    /**
+     * Executes the script transformation of a job asynchronously and marks the context borrowing in the job's
+     * pipeline trace.
+     *
+     * @param job   The job to execute.
+     * @param trace The pipeline trace of the job; without a trace, the borrow time is recorded directly.
+     * @return A Uni with the result of the transformation; script errors yield an invalid result.
+     */
+    public Uni<TransformationResult> transformAsync(TransformJob job, PipelineTrace trace) {
         return Uni.createFrom().item(() -> {
             try {
                 MDC.put("jobId", job.jobId());
                 MDC.put("scriptId", job.scriptId());
                 MDC.put("transformationId", job.transformationId().toString());
-                Log.infof("Starting async transformation of job: %s, script: %s", job.jobId(), job.scriptId());
+                Log.debugf("Starting async transformation of job: %s, script: %s", job.jobId(), job.scriptId());
 
-                return transformInternal(job);
+                return transformInternal(job, trace);
             } catch (ScriptEngineException e) {
                 Log.errorf(e, "ScriptEngineException during async transformation for job %s, script %s: %s",
                         job.jobId(), job.scriptId(), e.getMessage());
@@ -86,7 +121,7 @@ public class ScriptEngineService {
                 errorResult.setErrorInfo("Unexpected error during transformation: " + e.getMessage());
                 return errorResult;
             } finally {
-                Log.infof("Finished async transformation (attempt) for job: %s, script: %s", job.jobId(), job.scriptId());
+                Log.debugf("Finished async transformation (attempt) for job: %s, script: %s", job.jobId(), job.scriptId());
                 MDC.clear();
             }
         }).runSubscriptionOn(managedExecutor);
@@ -100,15 +135,26 @@ public class ScriptEngineService {
      * Core execution method. Wraps actual script execution inside metricsService.recordExecution
      * so that execution time and execution count are tracked per transformationId.
      */
-    private TransformationResult transformInternal(TransformJob transformJob) throws ScriptEngineException {
+    private TransformationResult transformInternal(TransformJob transformJob, PipelineTrace trace) throws ScriptEngineException {
         TransformationResult result = new TransformationResult(transformJob.jobId(), transformJob.scriptId());
         String scriptLanguage = transformJob.scriptLanguage();
 
         ContextPool contextPool = contextPoolFactory.getPool(scriptLanguage);
         Context context = null;
+        ScriptBudgetWatchdog.Execution budgetedExecution = null;
+        boolean contextCorrupted = false;
 
         try {
+            long borrowStartedNanos = System.nanoTime();
+            if (trace != null) {
+                trace.markContextBorrowStarted();
+            }
             context = contextPool.borrowContext();
+            if (trace != null) {
+                trace.markContextBorrowed();
+            } else {
+                pipelineStageMetrics.record(PipelineStageMetrics.Stage.CONTEXT_BORROW, System.nanoTime() - borrowStartedNanos);
+            }
             Log.debugf("Borrowed context for job %s (language: %s)", transformJob.jobId(), transformJob.scriptLanguage());
 
             Function<String, String> sdkPreprocessor = script -> script;
@@ -120,7 +166,7 @@ public class ScriptEngineService {
                             "})();";
 
             Source sdkSource = getOrCompileSource(
-                    "sdk-for-tx-" + transformJob.scriptId(),
+                    sdkScriptId(transformJob.scriptId()),
                     transformJob.generatedSdkHash(),
                     transformJob.generatedSdkCode(),
                     sdkPreprocessor
@@ -138,6 +184,7 @@ public class ScriptEngineService {
 
             // --- Metrics tracking: execution count & time per transformationId ---
             Context finalContext = context;
+            budgetedExecution = budgetWatchdog.start(context, budgetWatchdog.budgetFor(transformJob));
             metricsService.recordExecution(transformJob.transformationId(), () -> {
                 if (sdkSource != null) {
                     finalContext.eval(sdkSource);
@@ -161,7 +208,7 @@ public class ScriptEngineService {
                 try {
                     result.setOutputData(extractResult(Value.asValue(rawOutputValue)));
                     result.setValidExecution(true);
-                    Log.infof("Script %s executed successfully for job %s.", transformJob.scriptId(), transformJob.jobId());
+                    Log.debugf("Script %s executed successfully for job %s.", transformJob.scriptId(), transformJob.jobId());
                 } catch (ScriptEngineException e) {
                     throw new RuntimeException(e);
                 }
@@ -170,10 +217,18 @@ public class ScriptEngineService {
 
             return result;
         } catch (PolyglotException e) {
+            contextCorrupted = e.isCancelled() || e.isExit() || e.isInternalError() || e.isResourceExhausted();
+            if (budgetedExecution != null && budgetedExecution.exceeded() != null) {
+                throw budgetExceeded(budgetedExecution.exceeded(), transformJob, e);
+            }
             throw handlePolyglotException(e, transformJob);
         } catch (ScriptEngineException e) {
             throw e;
         } catch (Exception e) {
+            if (budgetedExecution != null && budgetedExecution.exceeded() != null) {
+                // Cancelled between two evaluations: the context is already closed.
+                throw budgetExceeded(budgetedExecution.exceeded(), transformJob, e);
+            }
             String errorMsg = String.format("Unexpected error during transformation for job %s, script %s: %s",
                     transformJob.jobId(), transformJob.scriptId(), e.getMessage());
             Log.errorf(e, errorMsg);
@@ -184,7 +239,13 @@ public class ScriptEngineService {
                     e
             );
         } finally {
-            if (context != null) {
+            if (budgetedExecution != null) {
+                metricsService.recordResourceUsage(transformJob.transformationId(), budgetedExecution.finish());
+            }
+            if (context != null && (contextCorrupted || (budgetedExecution != null && budgetedExecution.exceeded() != null))) {
+                contextPool.discardContext(context);
+                Log.debugf("Discarded context for job %s", transformJob.jobId());
+            } else if (context != null) {
                 try {
                     cleanupBindings(context, transformJob);
                 } finally {
@@ -224,8 +285,10 @@ public class ScriptEngineService {
             return null;
         }
 
-        if (scriptCache.containsScript(scriptId, scriptHash)) {
-            return scriptCache.getScript(scriptId, scriptHash);
+        // A single lookup, since the entry may be evicted between a containment check and a read.
+        Source cached = scriptCache.getScript(scriptId, scriptHash);
+        if (cached != null) {
+            return cached;
         }
 
         Log.infof("Script %s (hash: %s) not in cache. Pre-processing and compiling...", scriptId, scriptHash);
@@ -249,7 +312,8 @@ public class ScriptEngineService {
      * <ul>
      *   <li>Binding the {@link ScriptApi} instance under the name {@link #SCRIPT_API_BINDING_NAME}.</li>
      *   <li>For JavaScript (identified by {@link #JAVASCRIPT_LANGUAGE_ID}) scripts, if the {@code transformJob.sourceData()}
-     *       is a {@link Map}, its entries are exposed as global variables in the script's scope.
+     *       is a {@link Map}, its entries are exposed as global variables in the script's scope. Jackson trees
+     *       are exposed through read-only views, without converting them (see {@link JsonNodeProxy}).
      *       A warning is logged if source data is present but not a map for JavaScript.</li>
      * </ul>
      * </p>
@@ -273,7 +337,7 @@ public class ScriptEngineService {
                 if (transformJob.sourceData() instanceof Map) {
                     Map<String, Object> namespacedData = (Map<String, Object>) transformJob.sourceData();
                     for (Map.Entry<String, Object> entry : namespacedData.entrySet()) {
-                        context.getBindings(JAVASCRIPT_LANGUAGE_ID).putMember(entry.getKey(), entry.getValue());
+                        context.getBindings(JAVASCRIPT_LANGUAGE_ID).putMember(entry.getKey(), JsonNodeProxy.wrap(entry.getValue()));
                     }
                 } else if (transformJob.sourceData() != null) {
                     Log.warnf("Input data for JS script %s is not a Map. It won't be directly available as global vars. Data type: %s",
@@ -332,6 +396,23 @@ public class ScriptEngineService {
         }
     }
 
+    /**
+     * Creates the exception for a script execution the {@link ScriptBudgetWatchdog} cancelled.
+     */
+    private ScriptEngineException budgetExceeded(ScriptBudgetWatchdog.Resource resource, TransformJob transformJob,
+                                                 Exception e) {
+        String errorMsg = String.format("Script %s (job %s) was cancelled for exceeding its %s budget.",
+                transformJob.scriptId(), transformJob.jobId(),
+                resource == ScriptBudgetWatchdog.Resource.CPU_TIME ? "CPU time" : "heap allocation");
+        Log.errorf(errorMsg);
+        return new ScriptEngineException(
+                ScriptEngineException.ErrorType.RESOURCE_LIMIT_EXCEEDED,
+                "Script Budget Exceeded",
+                errorMsg,
+                e
+        );
+    }
+
     /**
      * Handles a {@link PolyglotException} thrown during script execution, converting it
      * into a {@link ScriptEngineException} with more specific details and logging.
@@ -403,6 +484,11 @@ public class ScriptEngineService {
     private Object extractResult(Value value) throws ScriptEngineException {
         try {
             if (value.isProxyObject()) {
+                JsonNode sourceTree = JsonNodeProxy.unwrap(value.asProxyObject());
+                if (sourceTree != null) {
+                    // A view of the source data, returned as the tree it presents.
+                    return sourceTree;
+                }
                 String errorMsg = String.format("Unhandled GraalVM proxy object encountered during result extraction: %s", value);
                 Log.warn(errorMsg);
                 throw new ScriptEngineException(ScriptEngineException.ErrorType.RESULT_EXTRACTION_ERROR,
@@ -1,20 +1,40 @@
 package de.unistuttgart.stayinsync.scriptengine;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.TimeGauge;
 import io.micrometer.core.instrument.Timer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @ApplicationScoped
 public class ScriptMetricsService {
 
+    // Bounds the number of per-transformation series; further transformations share the overflow meters.
+    static final int MAX_TAGGED_TRANSFORMATIONS = 100;
+    private static final Long OVERFLOW_KEY = -1L;
+    private static final String OVERFLOW_TAG = "other";
+
     private final MeterRegistry registry;
     private final ConcurrentMap<Long, Counter> executionCounters = new ConcurrentHashMap<>();
     private final ConcurrentMap<Long, Timer> executionTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, ResourceMeters> resourceMeters = new ConcurrentHashMap<>();
+
+    /**
+     * The CPU time and heap allocation of the executions of one transformation, their budgets and how
+     * often each budget was exceeded.
+     */
+    private record ResourceMeters(Timer cpuTime, DistributionSummary heapAllocated,
+                                  AtomicLong cpuTimeBudgetNanos, AtomicLong heapAllocationBudgetBytes,
+                                  Counter cpuTimeExceeded, Counter heapAllocationExceeded) {
+    }
 
     @Inject
     public ScriptMetricsService(MeterRegistry registry) {
@@ -22,19 +42,93 @@ public class ScriptMetricsService {
     }
 
     public void recordExecution(Long transformationId, Runnable runnable) {
-        Timer timer = executionTimers.computeIfAbsent(transformationId,
+        Long key = meterKey(transformationId);
+        Timer timer = executionTimers.computeIfAbsent(key,
                 id -> Timer.builder("stayinsync.script.execution.time")
                         .description("Dauer der Skriptausführung")
-                        .tag("transformationId", id.toString())
+                        .tag("transformationId", tagOf(id))
                         .register(registry));
 
-        Counter counter = executionCounters.computeIfAbsent(transformationId,
+        Counter counter = executionCounters.computeIfAbsent(key,
                 id -> Counter.builder("stayinsync.script.executions")
                         .description("Amount of script executions")
-                        .tag("transformationId", id.toString())
+                        .tag("transformationId", tagOf(id))
                         .register(registry));
 
         timer.record(runnable);
         counter.increment();
     }
+
+    /**
+     * Records the resources a script execution used against its budgets.
+     *
+     * @param transformationId The ID of the executed transformation.
+     * @param usage            The resources used by the execution.
+     */
+    public void recordResourceUsage(Long transformationId, ScriptBudgetWatchdog.Usage usage) {
+        ResourceMeters meters = resourceMeters.computeIfAbsent(meterKey(transformationId), this::registerResourceMeters);
+
+        meters.cpuTime().record(usage.cpuTimeNanos(), TimeUnit.NANOSECONDS);
+        if (usage.heapAllocatedBytes() >= 0) {
+            meters.heapAllocated().record(usage.heapAllocatedBytes());
+        }
+        meters.cpuTimeBudgetNanos().set(usage.budget().cpuTimeNanos());
+        meters.heapAllocationBudgetBytes().set(usage.budget().heapAllocationBytes());
+        if (usage.exceeded() == ScriptBudgetWatchdog.Resource.CPU_TIME) {
+            meters.cpuTimeExceeded().increment();
+        } else if (usage.exceeded() == ScriptBudgetWatchdog.Resource.HEAP_ALLOCATION) {
+            meters.heapAllocationExceeded().increment();
+        }
+    }
+
+    private ResourceMeters registerResourceMeters(Long key) {
+        String tag = tagOf(key);
+        AtomicLong cpuTimeBudgetNanos = new AtomicLong();
+        AtomicLong heapAllocationBudgetBytes = new AtomicLong();
+        TimeGauge.builder("stayinsync.script.budget.cpu.time", cpuTimeBudgetNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("CPU time budget of a script execution, 0 if unlimited")
+                .tag("transformationId", tag)
+                .register(registry);
+        Gauge.builder("stayinsync.script.budget.heap.allocation", heapAllocationBudgetBytes, AtomicLong::get)
+                .description("Heap allocation budget of a script execution, 0 if unlimited")
+                .baseUnit("bytes")
+                .tag("transformationId", tag)
+                .register(registry);
+        return new ResourceMeters(
+                Timer.builder("stayinsync.script.cpu.time")
+                        .description("CPU time of script executions")
+                        .tag("transformationId", tag)
+                        .register(registry),
+                DistributionSummary.builder("stayinsync.script.heap.allocated")
+                        .description("Heap allocated by script executions")
+                        .baseUnit("bytes")
+                        .tag("transformationId", tag)
+                        .register(registry),
+                cpuTimeBudgetNanos,
+                heapAllocationBudgetBytes,
+                budgetExceededCounter(tag, "cpu-time"),
+                budgetExceededCounter(tag, "heap-allocation"));
+    }
+
+    private Counter budgetExceededCounter(String tag, String resource) {
+        return Counter.builder("stayinsync.script.budget.exceeded")
+                .description("Script executions cancelled for exceeding a budget")
+                .tag("transformationId", tag)
+                .tag("resource", resource)
+                .register(registry);
+    }
+
+    private Long meterKey(Long transformationId) {
+        if (transformationId == null) {
+            return OVERFLOW_KEY;
+        }
+        if (executionTimers.containsKey(transformationId) || executionTimers.size() < MAX_TAGGED_TRANSFORMATIONS) {
+            return transformationId;
+        }
+        return OVERFLOW_KEY;
+    }
+
+    private static String tagOf(Long key) {
+        return OVERFLOW_KEY.equals(key) ? OVERFLOW_TAG : key.toString();
+    }
 }
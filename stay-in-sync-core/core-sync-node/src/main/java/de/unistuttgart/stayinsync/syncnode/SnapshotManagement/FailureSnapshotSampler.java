@@ -0,0 +1,299 @@
+package de.unistuttgart.stayinsync.syncnode.SnapshotManagement;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ManagedExecutor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import de.unistuttgart.graphengine.cache.GraphHasher;
+import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
+import de.unistuttgart.stayinsync.transport.dto.Snapshot.SnapshotDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Decides which failed executions are captured as snapshots, and captures them
+ * off the execution thread.
+ * <p>
+ * During a failure storm the same transformation typically fails in the same
+ * way many times per second. Instead of building and storing a full
+ * {@link SnapshotDTO} for each of these failures, this service:
+ * <ul>
+ * <li>samples failures with a configurable rate before doing any work;</li>
+ * <li>fingerprints each sampled failure by a SHA-256 digest of its
+ * transformation, error type, error message and the shape (not the values) of
+ * its input;</li>
+ * <li>captures the first occurrence of a fingerprint immediately and only
+ * remembers the latest occurrence of every repetition within the
+ * deduplication window; the latest occurrence is captured by a periodic flush
+ * or when the fingerprint leaves the window;</li>
+ * <li>counts all suppressed occurrences.</li>
+ * </ul>
+ * Captures run on the managed executor with a bounded number of pending tasks;
+ * failures arriving while that limit is reached are dropped and counted.
+ */
+@ApplicationScoped
+public class FailureSnapshotSampler {
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(GraphHasher::createMessageDigest);
+
+    private final SnapshotStore snapshotStore;
+    private final ObjectMapper objectMapper;
+    private final ManagedExecutor managedExecutor;
+    private final double sampleRate;
+    private final int maxPendingCaptures;
+
+    private final Cache<String, FailureRecord> failuresByFingerprint;
+    private final AtomicInteger pendingCaptures = new AtomicInteger();
+
+    private final Counter capturedCounter;
+    private final Counter deduplicatedCounter;
+    private final Counter sampledOutCounter;
+    private final Counter droppedCounter;
+
+    /**
+     * Tracks the occurrences of one failure fingerprint within the deduplication
+     * window.
+     */
+    private static final class FailureRecord {
+        private final String firstSnapshotId;
+        private final AtomicLong occurrences = new AtomicLong(1);
+        // The latest occurrence that has not been captured yet, if any.
+        private final AtomicReference<TransformationResult> pendingLatest = new AtomicReference<>();
+
+        private FailureRecord(String firstSnapshotId) {
+            this.firstSnapshotId = firstSnapshotId;
+        }
+    }
+
+    /**
+     * Constructs the sampler with its dependencies and configuration.
+     *
+     * @param snapshotStore        the store captured snapshots are written to
+     * @param objectMapper         the mapper used to build snapshots
+     * @param managedExecutor      the executor captures run on
+     * @param sampleRate           the fraction of failures considered at all
+     *                             (0.0 - 1.0)
+     * @param deduplicationWindow  how long a fingerprint suppresses repeated
+     *                             captures
+     * @param maxFingerprints      the maximum number of fingerprints tracked at
+     *                             once
+     * @param maxPendingCaptures   the maximum number of captures waiting for the
+     *                             executor
+     * @param meterRegistry        the registry for capture metrics
+     */
+    public FailureSnapshotSampler(SnapshotStore snapshotStore, ObjectMapper objectMapper, ManagedExecutor managedExecutor,
+            @ConfigProperty(name = "stayinsync.snapshot.capture.sample-rate", defaultValue = "1.0") double sampleRate,
+            @ConfigProperty(name = "stayinsync.snapshot.capture.deduplication-window", defaultValue = "10m") Duration deduplicationWindow,
+            @ConfigProperty(name = "stayinsync.snapshot.capture.max-fingerprints", defaultValue = "10000") long maxFingerprints,
+            @ConfigProperty(name = "stayinsync.snapshot.capture.max-pending", defaultValue = "64") int maxPendingCaptures,
+            MeterRegistry meterRegistry) {
+        this.snapshotStore = snapshotStore;
+        this.objectMapper = objectMapper;
+        this.managedExecutor = managedExecutor;
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+        this.maxPendingCaptures = Math.max(1, maxPendingCaptures);
+        this.failuresByFingerprint = Caffeine.newBuilder()
+                .maximumSize(maxFingerprints)
+                .expireAfterWrite(deduplicationWindow)
+                .removalListener(this::onFingerprintRemoved)
+                .build();
+        this.capturedCounter = Counter.builder("stayinsync.snapshot.capture.captured")
+                .description("Failure snapshots built and stored")
+                .register(meterRegistry);
+        this.deduplicatedCounter = Counter.builder("stayinsync.snapshot.capture.deduplicated")
+                .description("Failures not captured individually because an identical failure was captured recently")
+                .register(meterRegistry);
+        this.sampledOutCounter = Counter.builder("stayinsync.snapshot.capture.sampled.out")
+                .description("Failures skipped by snapshot sampling")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("stayinsync.snapshot.capture.dropped")
+                .description("Failures not captured because too many captures were pending")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Submits a failed execution for capture. Returns immediately; all work beyond
+     * the sampling decision happens on the managed executor.
+     *
+     * @param result the failed transformation result, already carrying its
+     *               transformation id and source data
+     */
+    public void submit(TransformationResult result) {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOutCounter.increment();
+            return;
+        }
+        if (pendingCaptures.incrementAndGet() > maxPendingCaptures) {
+            pendingCaptures.decrementAndGet();
+            droppedCounter.increment();
+            return;
+        }
+        try {
+            managedExecutor.execute(() -> {
+                try {
+                    record(result);
+                } finally {
+                    pendingCaptures.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            pendingCaptures.decrementAndGet();
+            droppedCounter.increment();
+            Log.warnf(e, "Job %s: Could not schedule failure snapshot capture.", result.getJobId());
+        }
+    }
+
+    /**
+     * Captures the pending latest occurrence of every repeated failure.
+     */
+    @Scheduled(every = "{stayinsync.snapshot.capture.flush-interval}")
+    void flushLatestOccurrences() {
+        failuresByFingerprint.asMap().values().forEach(this::captureLatest);
+    }
+
+    /**
+     * Captures the first occurrence of a fingerprint, or records a repetition as
+     * the latest occurrence of an already captured one.
+     */
+    private void record(TransformationResult result) {
+        String fingerprint = fingerprint(result);
+        FailureRecord existing = failuresByFingerprint.getIfPresent(fingerprint);
+        if (existing != null) {
+            existing.occurrences.incrementAndGet();
+            existing.pendingLatest.set(result);
+            deduplicatedCounter.increment();
+            return;
+        }
+
+        SnapshotDTO snapshot = capture(result);
+        if (snapshot == null)
+            return;
+        FailureRecord raced = failuresByFingerprint.asMap()
+                .putIfAbsent(fingerprint, new FailureRecord(snapshot.getSnapshotId()));
+        if (raced != null)
+            raced.occurrences.incrementAndGet();
+        Log.infof("Job %s: Stored snapshot id=%s for failed script execution.", result.getJobId(),
+                snapshot.getSnapshotId());
+    }
+
+    private void captureLatest(FailureRecord record) {
+        TransformationResult latest = record.pendingLatest.getAndSet(null);
+        if (latest == null)
+            return;
+        SnapshotDTO snapshot = capture(latest);
+        if (snapshot != null) {
+            Log.infof("Job %s: Stored snapshot id=%s for the latest of %d identical failures (first: %s).",
+                    latest.getJobId(), snapshot.getSnapshotId(), record.occurrences.get(), record.firstSnapshotId);
+        }
+    }
+
+    private void onFingerprintRemoved(String fingerprint, FailureRecord record, RemovalCause cause) {
+        if (record != null && cause != RemovalCause.REPLACED)
+            captureLatest(record);
+    }
+
+    private SnapshotDTO capture(TransformationResult result) {
+        try {
+            SnapshotDTO snapshot = SnapshotFactory.fromTransformationResult(result, objectMapper);
+            snapshotStore.put(snapshot);
+            capturedCounter.increment();
+            return snapshot;
+        } catch (Exception ex) {
+            Log.error("Failed to create/store snapshot for failed execution", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Hashes the transformation, the error type and message, and the structure of
+     * the input with SHA-256. Values of the input do not contribute, so the same
+     * failure on different records of the same shape shares a fingerprint.
+     */
+    static String fingerprint(TransformationResult result) {
+        String errorInfo = result.getErrorInfo() != null ? result.getErrorInfo() : "";
+        // Error infos are formatted as "<type>: <message>".
+        int separator = errorInfo.indexOf(": ");
+        String errorType = separator >= 0 ? errorInfo.substring(0, separator) : errorInfo;
+        String message = separator >= 0 ? errorInfo.substring(separator + 2) : "";
+
+        StringBuilder key = new StringBuilder();
+        appendField(key, String.valueOf(result.getTransformationId()));
+        appendField(key, String.valueOf(result.isValidExecution()));
+        appendField(key, errorType);
+        appendField(key, message);
+        appendShape(key, result.getSourceData());
+
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Appends a length-prefixed field, so that adjacent fields cannot run into
+     * each other.
+     */
+    private static void appendField(StringBuilder key, String field) {
+        key.append(field.length()).append(':').append(field);
+    }
+
+    /**
+     * Appends the structure of a value: object keys in sorted order and the kinds
+     * of values. Lists contribute the shape of their first element.
+     */
+    private static void appendShape(StringBuilder key, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((name, child) -> sorted.put(String.valueOf(name), child));
+            appendObjectShape(key, sorted);
+        } else if (value instanceof List<?> list) {
+            key.append('[');
+            if (!list.isEmpty())
+                appendShape(key, list.get(0));
+            key.append(']');
+        } else if (value instanceof JsonNode node) {
+            if (node.isObject()) {
+                Map<String, Object> sorted = new TreeMap<>();
+                node.fields().forEachRemaining(field -> sorted.put(field.getKey(), field.getValue()));
+                appendObjectShape(key, sorted);
+            } else if (node.isArray()) {
+                key.append('[');
+                if (!node.isEmpty())
+                    appendShape(key, node.get(0));
+                key.append(']');
+            } else {
+                appendField(key, node.getNodeType().name());
+            }
+        } else {
+            appendField(key, value == null ? "null" : value.getClass().getName());
+        }
+    }
+
+    private static void appendObjectShape(StringBuilder key, Map<String, Object> sortedFields) {
+        key.append('{');
+        sortedFields.forEach((name, child) -> {
+            appendField(key, name);
+            appendShape(key, child);
+        });
+        key.append('}');
+    }
+}
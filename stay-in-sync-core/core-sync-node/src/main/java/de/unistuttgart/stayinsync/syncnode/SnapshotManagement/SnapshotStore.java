@@ -1,37 +1,70 @@
 package de.unistuttgart.stayinsync.syncnode.SnapshotManagement;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.unistuttgart.stayinsync.transport.dto.Snapshot.SnapshotDTO;
 import de.unistuttgart.stayinsync.transport.dto.Snapshot.TransformationResultDTO;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 
 /**
- * In-memory store for
+ * Disk-backed, off-heap store for
  * {@link de.unistuttgart.stayinsync.transport.dto.Snapshot.SnapshotDTO}
  * used by the Snapshot Management & Replay feature.
  * <p>
- * Responsibilities:
+ * Snapshots are serialized to JSON and appended to a log of memory-mapped
+ * segment files. Only compact indexes stay on the Java heap:
  * <ul>
- * <li>Index snapshots by snapshot id and by transformation id.</li>
- * <li>Keep the latest snapshot per transformation for quick lookup.</li>
- * <li>Maintain a bounded per-transformation history (deque) for recent
- * items.</li>
- * <li>Evict entries beyond a time-to-live (TTL) to cap memory usage.</li>
+ * <li>snapshot id -> location of the record in the log.</li>
+ * <li>transformation id -> the locations of its most recent snapshots, newest
+ * first, bounded by the configured history depth. The head is the latest
+ * snapshot of the transformation.</li>
  * </ul>
- * This store is intentionally simple and thread-safe via concurrent collections
- * since
- * it lives in a single application node. Persistence/durability is out of scope
- * here
- * and handled elsewhere when required by the system.
+ * A snapshot is only deserialized when it is read, so failure snapshots do not
+ * inflate the heap while they wait to be inspected.
+ * <p>
+ * Retention works on whole segments: a background task drops sealed segments
+ * whose newest record is older than the time-to-live (TTL), and the oldest
+ * segment is dropped whenever the maximum number of segments is exceeded.
+ * Reads additionally hide snapshots whose own creation time is beyond the TTL.
+ * <p>
+ * Because the segments live on disk, the indexes are rebuilt from them on
+ * startup and snapshots survive a restart of the sync node. Written records
+ * are forced to disk when a segment is sealed, periodically at every flush
+ * interval and on shutdown. A crash of the sync node process loses nothing,
+ * since the records are already in the page cache; a crash of the host may
+ * lose the snapshots written since the last flush.
+ * <p>
+ * Dropped segments are deleted but not unmapped explicitly, because reads
+ * access the mappings without a lock. Until the garbage collector releases a
+ * dropped mapping, it keeps occupying up to one segment size of virtual
+ * address space, and the disk space of its deleted file is not reclaimed.
  *
  * @author Mohammed-Ammar Hassnou
  */
@@ -39,53 +72,101 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class SnapshotStore {
 
-    // Default TTL for snapshots (seconds). Entries older than this are evicted. 24h
-    private static final long DEFAULT_TTL_SECONDS = 24 * 60 * 60;
-    // Maximum number of recent snapshots to keep per transformation in memory. (you
-    // can modify this accordingly)
-    private static final int HISTORY_LIMIT = 5;
-    // Primary index: snapshotId -> snapshot.
-    private final Map<String, SnapshotDTO> bySnapshotId = new ConcurrentHashMap<>();
-    // Fast path: latest snapshot for a given transformation id.
-    private final Map<Long, SnapshotDTO> latestByTransformationId = new ConcurrentHashMap<>();
-    // Bounded deque of recent snapshots per transformation.
-    private final Map<Long, Deque<SnapshotDTO>> historyByTransformationId = new ConcurrentHashMap<>();
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // Record layout: payload length (int, written last as commit marker),
+    // created-at epoch seconds (long), transformation id (long), snapshot id
+    // length (short), snapshot id bytes, JSON payload bytes.
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Long.BYTES + Short.BYTES;
+    private static final int CREATED_AT_OFFSET = Integer.BYTES;
+    private static final int TRANSFORMATION_ID_OFFSET = CREATED_AT_OFFSET + Long.BYTES;
+    private static final int ID_LENGTH_OFFSET = TRANSFORMATION_ID_OFFSET + Long.BYTES;
+    // Marker values for snapshots without a creation time or transformation id.
+    private static final long NO_CREATED_AT = Long.MIN_VALUE;
+    private static final long NO_TRANSFORMATION_ID = Long.MIN_VALUE;
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int historyDepth;
+    private final long ttlSeconds;
+
+    // All live segments by sequence number, oldest first.
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    // Primary index: snapshotId -> packed record location.
+    private final Map<String, Long> bySnapshotId = new ConcurrentHashMap<>();
+    // Bounded history of packed record locations per transformation, newest first.
+    private final Map<Long, History> historyByTransformationId = new ConcurrentHashMap<>();
+    // The segment currently appended to; guarded by this.
+    private Segment activeSegment;
+    private int nextSequence;
 
     /**
-     * Insert a snapshot into all relevant indices and enforce retention policies.
+     * Opens the store and rebuilds its indexes from the segments already present
+     * in the configured directory.
+     *
+     * @param objectMapper the mapper used to (de)serialize snapshots
+     * @param directory    the directory holding the segment files
+     * @param segmentSize  the size of a segment file in bytes
+     * @param maxSegments  the maximum number of segments kept on disk
+     * @param historyDepth the number of recent snapshots kept per transformation
+     * @param ttl          the time after which snapshots expire
+     */
+    public SnapshotStore(ObjectMapper objectMapper,
+            @ConfigProperty(name = "stayinsync.snapshot.store.directory", defaultValue = "data/snapshots") String directory,
+            @ConfigProperty(name = "stayinsync.snapshot.store.segment-size", defaultValue = "16777216") int segmentSize,
+            @ConfigProperty(name = "stayinsync.snapshot.store.max-segments", defaultValue = "64") int maxSegments,
+            @ConfigProperty(name = "stayinsync.snapshot.store.history-depth", defaultValue = "5") int historyDepth,
+            @ConfigProperty(name = "stayinsync.snapshot.store.ttl", defaultValue = "24h") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+        this.segmentSize = Math.max(HEADER_BYTES, segmentSize);
+        this.maxSegments = Math.max(1, maxSegments);
+        this.historyDepth = Math.max(1, historyDepth);
+        this.ttlSeconds = ttl.toSeconds();
+        recover();
+    }
+
+    /**
+     * Append a snapshot to the log and update all relevant indices.
      * <p>
      * If the snapshot contains a {@link TransformationResultDTO} with a non-null
      * transformation id, it becomes the latest for that id and is added at the
-     * front of the per-transformation history. Excess history entries are truncated
-     * from the tail to respect {@link #HISTORY_LIMIT}.
+     * front of the per-transformation history, which is truncated to the
+     * configured history depth.
      * </p>
-     * The method also triggers a best-effort eviction pass for expired entries.
      *
-     * @param snapshot the snapshot to store; ignored if {@code null}
+     * @param snapshot the snapshot to store; ignored if {@code null} or if it has
+     *                 no snapshot id
      */
     public void put(SnapshotDTO snapshot) {
         // Ignore null inputs for defensive programming.
-        if (snapshot == null)
+        if (snapshot == null || snapshot.getSnapshotId() == null)
             return;
-        // Index by unique snapshot id for direct retrieval.
-        bySnapshotId.put(snapshot.getSnapshotId(), snapshot);
 
+        // Serialize outside the lock; only the append itself is serialized.
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(snapshot);
+        } catch (JsonProcessingException e) {
+            Log.errorf(e, "Failed to serialize snapshot %s; it was not stored.", snapshot.getSnapshotId());
+            return;
+        }
+        byte[] id = snapshot.getSnapshotId().getBytes(StandardCharsets.UTF_8);
+        long createdAt = snapshot.getCreatedAt() != null ? snapshot.getCreatedAt().getEpochSecond() : NO_CREATED_AT;
         TransformationResultDTO transformationResult = snapshot.getTransformationResult();
-        // Maintain latest/indexed history only if we have a transformation id.
-        if (transformationResult != null && transformationResult.getTransformationId() != null) {
-            Long transformationId = transformationResult.getTransformationId();
-            latestByTransformationId.put(transformationId, snapshot);
-            // Ensure a deque exists for this transformation.
-            historyByTransformationId.computeIfAbsent(transformationId, k -> new ArrayDeque<>(HISTORY_LIMIT));
-            Deque<SnapshotDTO> dq = historyByTransformationId.get(transformationId);
-            // Newest snapshots go to the front (head) of the deque.
-            dq.addFirst(snapshot);
-            // Trim the deque to the configured history size.
-            while (dq.size() > HISTORY_LIMIT)
-                dq.removeLast();
+        long transformationId = transformationResult != null && transformationResult.getTransformationId() != null
+                ? transformationResult.getTransformationId()
+                : NO_TRANSFORMATION_ID;
+
+        synchronized (this) {
+            long location = append(id, createdAt, transformationId, payload);
+            // Index updates happen under the append lock so that history order matches log order.
+            bySnapshotId.put(snapshot.getSnapshotId(), location);
+            if (transformationId != NO_TRANSFORMATION_ID)
+                pushHistory(transformationId, location);
         }
-        // Opportunistic cleanup of outdated entries.
-        evictExpired();
     }
 
     /**
@@ -96,8 +177,8 @@ public class SnapshotStore {
      *         expired
      */
     public Optional<SnapshotDTO> getBySnapshotId(String snapshotId) {
-        evictExpired();
-        return Optional.ofNullable(bySnapshotId.get(snapshotId));
+        Long location = bySnapshotId.get(snapshotId);
+        return location == null ? Optional.empty() : read(location);
     }
 
     /**
@@ -108,8 +189,11 @@ public class SnapshotStore {
      *         expired
      */
     public Optional<SnapshotDTO> getLatestByTransformationId(Long transformationId) {
-        evictExpired();
-        return Optional.ofNullable(latestByTransformationId.get(transformationId));
+        History history = historyByTransformationId.get(transformationId);
+        if (history == null)
+            return Optional.empty();
+        long[] locations = history.newestFirst(1);
+        return locations.length == 0 ? Optional.empty() : read(locations[0]);
     }
 
     /**
@@ -119,67 +203,367 @@ public class SnapshotStore {
      * @param transformationId the transformation identifier
      * @param limit            maximum number of items to return; values <= 0 result
      *                         in an empty list
-     * @return an immutable list view of the recent snapshots (may be empty)
+     * @return a list of the recent, non-expired snapshots (may be empty)
      */
     public List<SnapshotDTO> listByTransformationId(Long transformationId, int limit) {
-        evictExpired();
-        // Look up the bounded deque for this transformation.
-        Deque<SnapshotDTO> dq = historyByTransformationId.get(transformationId);
-        if (dq == null)
+        History history = historyByTransformationId.get(transformationId);
+        if (history == null || limit <= 0)
             return List.of();
-        List<SnapshotDTO> out = new ArrayList<>(Math.min(limit, dq.size()));
-        int i = 0;
-        // Iterate from newest to oldest, copying up to the requested limit.
-        for (SnapshotDTO s : dq) {
-            if (i++ >= limit)
-                break;
-            out.add(s);
-        }
+        long[] locations = history.newestFirst(limit);
+        List<SnapshotDTO> out = new ArrayList<>(locations.length);
+        for (long location : locations)
+            read(location).ifPresent(out::add);
         return out;
     }
 
     /**
-     * Remove snapshots older than {@link #DEFAULT_TTL_SECONDS} from all indices.
+     * Return the latest snapshot across all transformation ids.
+     *
+     * @return a new {@link HashMap} mapping transformation id -> latest snapshot
+     */
+    public Map<Long, SnapshotDTO> getLatestByAllTransformationIds() {
+        Map<Long, SnapshotDTO> out = new HashMap<>();
+        historyByTransformationId.keySet()
+                .forEach(id -> getLatestByTransformationId(id).ifPresent(snapshot -> out.put(id, snapshot)));
+        return out;
+    }
+
+    /**
+     * Drop whole segments whose newest record is older than the TTL.
      * <p>
-     * This is a best-effort pass; callers may still race with concurrent puts/gets,
-     * but the use of concurrent collections ensures thread safety.
+     * Runs in the background so that neither reads nor writes have to scan for
+     * expired entries. The active segment is dropped as well once everything in
+     * it has expired; the next write then opens a new segment.
      * </p>
      */
-    private void evictExpired() {
-        // Current time (epoch seconds) for TTL comparison.
-        long now = Instant.now().getEpochSecond();
+    @Scheduled(every = "{stayinsync.snapshot.store.eviction-interval}")
+    synchronized void evictExpiredSegments() {
+        long cutoff = Instant.now().getEpochSecond() - ttlSeconds;
+        for (Segment segment : List.copyOf(segments.values())) {
+            if (segment.newestWrittenAt < cutoff) {
+                if (segment == activeSegment)
+                    activeSegment = null;
+                dropSegment(segment);
+            }
+        }
+    }
 
-        // Remove expired entries from bySnapshotId.
-        bySnapshotId.values().removeIf(s -> isExpired(s, now));
-        // Remove expired entries from latestByTransformationId.
-        latestByTransformationId.values().removeIf(s -> isExpired(s, now));
-        // Remove expired entries from per-transformation history deques.
-        historyByTransformationId.values().forEach(dq -> dq.removeIf(s -> isExpired(s, now)));
-        // Drop empty history buckets to free memory.
-        historyByTransformationId.entrySet().removeIf(e -> e.getValue().isEmpty());
+    /**
+     * Force the records written since the last flush to disk.
+     * <p>
+     * Runs periodically and on shutdown; sealed segments are forced when they
+     * are sealed. The force itself happens outside the append lock, so writes
+     * continue while the pages are written back.
+     * </p>
+     */
+    @Scheduled(every = "{stayinsync.snapshot.store.flush-interval}")
+    @PreDestroy
+    public void flush() {
+        Segment segment;
+        int from;
+        int to;
+        synchronized (this) {
+            segment = activeSegment;
+            if (segment == null)
+                return;
+            from = segment.flushedPosition;
+            to = segment.writePosition;
+            segment.flushedPosition = to;
+        }
+        force(segment, from, to);
     }
 
     /**
-     * Determine whether the snapshot's age exceeds the configured TTL.
+     * Appends a record to the active segment, rolling over to a new segment if it
+     * does not fit.
      *
-     * @param s           the snapshot to test
-     * @param nowEpochSec the current time in epoch seconds
-     * @return {@code true} if expired; {@code false} otherwise
+     * @return the packed location of the new record
+     */
+    private long append(byte[] id, long createdAt, long transformationId, byte[] payload) {
+        int recordSize = HEADER_BYTES + id.length + payload.length;
+        // A trailing zero length marks the end of a segment, so keep room for it.
+        if (activeSegment == null || activeSegment.remaining() < recordSize + Integer.BYTES)
+            rollSegment(recordSize + Integer.BYTES);
+
+        Segment segment = activeSegment;
+        int offset = segment.writePosition;
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putLong(offset + CREATED_AT_OFFSET, createdAt);
+        buffer.putLong(offset + TRANSFORMATION_ID_OFFSET, transformationId);
+        buffer.putShort(offset + ID_LENGTH_OFFSET, (short) id.length);
+        buffer.put(offset + HEADER_BYTES, id);
+        buffer.put(offset + HEADER_BYTES + id.length, payload);
+        // The length is written last, so a record interrupted by a crash is never recovered.
+        buffer.putInt(offset, payload.length);
+
+        segment.writePosition += recordSize;
+        segment.newestWrittenAt = Instant.now().getEpochSecond();
+        return pack(segment.sequence, offset);
+    }
+
+    /**
+     * Seals the active segment and opens a new one large enough for the next
+     * record, dropping the oldest segments beyond the configured maximum.
+     */
+    private void rollSegment(int minimumSize) {
+        if (activeSegment != null) {
+            force(activeSegment, activeSegment.flushedPosition, activeSegment.writePosition);
+            activeSegment.flushedPosition = activeSegment.writePosition;
+        }
+        Segment segment = openSegment(nextSequence++, Math.max(segmentSize, minimumSize));
+        segments.put(segment.sequence, segment);
+        activeSegment = segment;
+        while (segments.size() > maxSegments)
+            dropSegment(segments.firstEntry().getValue());
+    }
+
+    /**
+     * Removes a segment and all index entries pointing into it, then deletes its
+     * file.
+     */
+    private void dropSegment(Segment segment) {
+        segments.remove(segment.sequence);
+        Set<Long> affectedTransformations = new HashSet<>();
+        forEachRecord(segment, (offset, snapshotId, transformationId) -> {
+            bySnapshotId.remove(snapshotId, pack(segment.sequence, offset));
+            if (transformationId != NO_TRANSFORMATION_ID)
+                affectedTransformations.add(transformationId);
+        });
+        // Drop history entries of this segment and empty history buckets to free memory.
+        for (Long transformationId : affectedTransformations) {
+            historyByTransformationId.computeIfPresent(transformationId,
+                    (id, history) -> history.removeSegment(segment.sequence) ? null : history);
+        }
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            Log.warnf(e, "Could not delete snapshot segment %s.", segment.file);
+        }
+        Log.debugf("Dropped snapshot segment %d.", segment.sequence);
+    }
+
+    private static void force(Segment segment, int from, int to) {
+        if (to <= from)
+            return;
+        try {
+            segment.buffer.force(from, to - from);
+        } catch (UncheckedIOException e) {
+            Log.warnf(e, "Could not flush snapshot segment %s to disk.", segment.file);
+        }
+    }
+
+    /**
+     * Reads and deserializes the record at a packed location, hiding records whose
+     * segment is gone or whose creation time is beyond the TTL.
+     */
+    private Optional<SnapshotDTO> read(long location) {
+        Segment segment = segments.get(segmentOf(location));
+        if (segment == null)
+            return Optional.empty();
+        int offset = offsetOf(location);
+        MappedByteBuffer buffer = segment.buffer;
+
+        long createdAt = buffer.getLong(offset + CREATED_AT_OFFSET);
+        if (createdAt != NO_CREATED_AT && Instant.now().getEpochSecond() - createdAt > ttlSeconds)
+            return Optional.empty();
+
+        int payloadLength = buffer.getInt(offset);
+        int idLength = buffer.getShort(offset + ID_LENGTH_OFFSET);
+        byte[] payload = new byte[payloadLength];
+        buffer.get(offset + HEADER_BYTES + idLength, payload);
+        try {
+            return Optional.of(objectMapper.readValue(payload, SnapshotDTO.class));
+        } catch (IOException e) {
+            Log.errorf(e, "Failed to deserialize snapshot record at segment %d, offset %d.", segment.sequence, offset);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Rebuilds the indexes from the segment files found on disk, oldest first, and
+     * continues appending to the newest one.
      */
-    private boolean isExpired(SnapshotDTO s, long nowEpochSec) {
-        return s.getCreatedAt() != null &&
-                (nowEpochSec - s.getCreatedAt().getEpochSecond()) > DEFAULT_TTL_SECONDS;
+    private synchronized void recover() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("The snapshot store directory " + directory.toAbsolutePath()
+                    + " could not be created; set stayinsync.snapshot.store.directory to a writable directory.", e);
+        }
+        if (!Files.isWritable(directory))
+            throw new IllegalStateException("The snapshot store directory " + directory.toAbsolutePath()
+                    + " is not writable; set stayinsync.snapshot.store.directory to a writable directory.");
+
+        List<Path> files;
+        try {
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(SnapshotStore::isSegmentFile)
+                        .sorted((a, b) -> Integer.compare(sequenceOf(a), sequenceOf(b)))
+                        .toList();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open snapshot store at " + directory, e);
+        }
+
+        for (Path file : files) {
+            int sequence = sequenceOf(file);
+            Segment segment = openSegment(sequence, 0);
+            segment.writePosition = forEachRecord(segment, (offset, snapshotId, transformationId) -> {
+                long location = pack(sequence, offset);
+                bySnapshotId.put(snapshotId, location);
+                if (transformationId != NO_TRANSFORMATION_ID)
+                    pushHistory(transformationId, location);
+            });
+            try {
+                segment.newestWrittenAt = Files.getLastModifiedTime(file).toInstant().getEpochSecond();
+            } catch (IOException e) {
+                segment.newestWrittenAt = Instant.now().getEpochSecond();
+            }
+            segment.flushedPosition = segment.writePosition;
+            segments.put(sequence, segment);
+            activeSegment = segment;
+            nextSequence = sequence + 1;
+        }
+        if (!files.isEmpty())
+            Log.infof("Recovered %d snapshot(s) from %d segment(s) in %s.", bySnapshotId.size(), files.size(), directory);
     }
 
     /**
-     * Return a shallow copy of the latest snapshot map across all transformation
-     * ids.
+     * Visits all committed records of a segment.
      *
-     * @return a new {@link HashMap} mapping transformation id -> latest snapshot
+     * @return the position after the last committed record
      */
-    public Map<Long, SnapshotDTO> getLatestByAllTransformationIds() {
-        evictExpired();
-        return new HashMap<>(latestByTransformationId);
+    private int forEachRecord(Segment segment, RecordVisitor visitor) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int payloadLength = buffer.getInt(offset);
+            if (payloadLength <= 0)
+                break;
+            int idLength = buffer.getShort(offset + ID_LENGTH_OFFSET);
+            int recordSize = HEADER_BYTES + idLength + payloadLength;
+            if (idLength < 0 || offset + recordSize > buffer.capacity())
+                break;
+            byte[] id = new byte[idLength];
+            buffer.get(offset + HEADER_BYTES, id);
+            visitor.visit(offset, new String(id, StandardCharsets.UTF_8), buffer.getLong(offset + TRANSFORMATION_ID_OFFSET));
+            offset += recordSize;
+        }
+        return offset;
+    }
+
+    private void pushHistory(long transformationId, long location) {
+        historyByTransformationId.compute(transformationId, (id, history) -> {
+            History target = history != null ? history : new History(historyDepth);
+            target.push(location);
+            return target;
+        });
+    }
+
+    /**
+     * Maps a segment file; a size of 0 maps an existing file at its current length.
+     */
+    private Segment openSegment(int sequence, int size) {
+        Path file = directory.resolve(SEGMENT_PREFIX + sequence + SEGMENT_SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long length = size > 0 ? size : channel.size();
+            // The mapping stays valid after the channel is closed.
+            return new Segment(sequence, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map snapshot segment " + file, e);
+        }
+    }
+
+    private static boolean isSegmentFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+                && name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()).chars().allMatch(Character::isDigit);
+    }
+
+    private static int sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
     }
 
-}
\ No newline at end of file
+    private static long pack(int sequence, int offset) {
+        return ((long) sequence << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(int offset, String snapshotId, long transformationId);
+    }
+
+    /**
+     * A memory-mapped segment file of the log.
+     */
+    private static final class Segment {
+        private final int sequence;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        // Guarded by the store's append lock.
+        private int writePosition;
+        private int flushedPosition;
+        private volatile long newestWrittenAt;
+
+        private Segment(int sequence, Path file, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        private int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+    }
+
+    /**
+     * The packed record locations of a transformation's most recent snapshots,
+     * newest first.
+     */
+    private static final class History {
+        private final long[] locations;
+        private int size;
+
+        private History(int depth) {
+            this.locations = new long[depth];
+        }
+
+        private synchronized void push(long location) {
+            int kept = Math.min(size, locations.length - 1);
+            System.arraycopy(locations, 0, locations, 1, kept);
+            locations[0] = location;
+            size = kept + 1;
+        }
+
+        private synchronized long[] newestFirst(int limit) {
+            long[] out = new long[Math.min(limit, size)];
+            System.arraycopy(locations, 0, out, 0, out.length);
+            return out;
+        }
+
+        /**
+         * Removes all locations in the given segment.
+         *
+         * @return {@code true} if the history is empty afterwards
+         */
+        private synchronized boolean removeSegment(int sequence) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (segmentOf(locations[i]) != sequence)
+                    locations[kept++] = locations[i];
+            }
+            size = kept;
+            return size == 0;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package de.unistuttgart.stayinsync.syncnode.domain;
 
 import de.unistuttgart.graphengine.nodes.Node;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineTrace;
 import de.unistuttgart.stayinsync.transport.dto.TransformationMessageDTO;
 
 
@@ -9,6 +10,10 @@ import java.util.List;
 public record ExecutionPayload(
         TransformJob job,
         List<Node> graphNodes,
-        TransformationMessageDTO transformationContext
+        TransformationMessageDTO transformationContext,
+        PipelineTrace trace
 ) {
+    public ExecutionPayload(TransformJob job, List<Node> graphNodes, TransformationMessageDTO transformationContext) {
+        this(job, graphNodes, transformationContext, new PipelineTrace(job.jobId(), job.transformationId()));
+    }
 }
@@ -0,0 +1,21 @@
+package de.unistuttgart.stayinsync.syncnode.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * A sync-data message as the sync node consumes it: the wire format of
+ * {@link de.unistuttgart.stayinsync.transport.dto.SyncDataMessageDTO}, with the ARC data decoded
+ * once into a Jackson tree.
+ * <p>
+ * The tree is shared, not copied, by every consumer of the ARC data: the logic graph reads it directly,
+ * scripts see it through read-only views (see {@link de.unistuttgart.stayinsync.scriptengine.JsonNodeProxy})
+ * and snapshots serialize it as it is. It must therefore never be modified after decoding.
+ *
+ * @param arcAlias        The alias of the ARC the data was polled for.
+ * @param requestConfigId The ID of the request configuration of the ARC.
+ * @param jsonData        The ARC data.
+ */
+@RegisterForReflection
+public record SyncDataMessage(String arcAlias, Long requestConfigId, JsonNode jsonData) {
+}
@@ -13,5 +13,7 @@ public record TransformJob(
         String expectedHash,
         String generatedSdkCode,
         String generatedSdkHash,
-        Object sourceData) {
+        Object sourceData,
+        Long maxCpuTimeMillis,
+        Long maxHeapAllocationBytes) {
 }
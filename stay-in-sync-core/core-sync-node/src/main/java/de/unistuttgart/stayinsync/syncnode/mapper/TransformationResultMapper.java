@@ -1,11 +1,13 @@
 package de.unistuttgart.stayinsync.syncnode.mapper;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-
-
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
 import de.unistuttgart.stayinsync.transport.dto.Snapshot.TransformationResultDTO;
 
+import java.util.Map;
+
 public final class TransformationResultMapper {
 
     public static TransformationResultDTO toDTO(TransformationResult src, ObjectMapper om) {
@@ -16,11 +18,24 @@ public final class TransformationResultMapper {
         dto.setValidExecution(src.isValidExecution());
 
         // null-safe conversion of arbitrary objects to JSON
-        dto.setSourceData(om.valueToTree(src.getSourceData()));
+        dto.setSourceData(toTree(src.getSourceData(), om));
         dto.setOutputData(om.valueToTree(src.getOutputData()));
 
         dto.setErrorInfo(src.getErrorInfo());
 
         return dto;
     }
+
+    /**
+     * Converts the source data of a job to JSON. Source data made of decoded trees is composed from
+     * them without serializing and re-reading them.
+     */
+    private static JsonNode toTree(Object sourceData, ObjectMapper om) {
+        if (sourceData instanceof Map<?, ?> map && map.values().stream().allMatch(value -> value instanceof JsonNode)) {
+            ObjectNode tree = om.createObjectNode();
+            map.forEach((key, value) -> tree.set(String.valueOf(key), (JsonNode) value));
+            return tree;
+        }
+        return om.valueToTree(sourceData);
+    }
 }
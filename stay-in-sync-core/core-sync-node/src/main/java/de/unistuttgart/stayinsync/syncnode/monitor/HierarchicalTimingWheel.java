@@ -0,0 +1,180 @@
+package de.unistuttgart.stayinsync.syncnode.monitor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A hierarchical timing wheel holding timeouts until their deadline passes.
+ * <p>
+ * Level 0 consists of {@code wheelSize} buckets of one tick each; every higher level has buckets spanning a full
+ * rotation of the level below. A timeout is placed in the lowest level that covers its deadline and cascades to
+ * lower levels as the wheel advances, so advancing by one tick only touches the buckets that are due plus the
+ * timeouts actually moved. Scheduling and cancelling are O(1), independent of the number of pending timeouts.
+ * <p>
+ * Timeouts fire at the first tick at or after their deadline, i.e. at most one tick late. All methods are
+ * thread-safe.
+ *
+ * @param <T> The type of the payload carried by a timeout.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    /**
+     * A scheduled timeout, which can be cancelled until it fires.
+     *
+     * @param <T> The type of the payload carried by the timeout.
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Set<Timeout<T>> bucket;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    // The number of ticks covered by one bucket on each level.
+    private final long[] bucketSpans;
+    private final List<List<Set<Timeout<T>>>> levels;
+    private long currentTick;
+    private int pending;
+
+    /**
+     * Creates a wheel whose clock starts at the given time.
+     *
+     * @param tickMillis The duration of one tick, which is also the maximum lateness of a timeout.
+     * @param wheelSize  The number of buckets per level.
+     * @param levelCount The number of levels; together with the tick and wheel size this determines the
+     *                   horizon up to which deadlines are placed exactly.
+     * @param nowMillis  The current time.
+     */
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levelCount, long nowMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.wheelSize = Math.max(2, wheelSize);
+        int count = Math.max(1, levelCount);
+        this.bucketSpans = new long[count];
+        this.levels = new ArrayList<>(count);
+        long span = 1;
+        for (int level = 0; level < count; level++) {
+            bucketSpans[level] = span;
+            List<Set<Timeout<T>>> buckets = new ArrayList<>(this.wheelSize);
+            for (int i = 0; i < this.wheelSize; i++) {
+                buckets.add(new HashSet<>());
+            }
+            levels.add(buckets);
+            span = Math.multiplyExact(span, this.wheelSize);
+        }
+        this.currentTick = nowMillis / this.tickMillis;
+    }
+
+    /**
+     * Schedules a timeout. A deadline that has already passed fires on the next advance.
+     *
+     * @param payload        The payload returned when the timeout fires.
+     * @param deadlineMillis The time at which the timeout fires.
+     * @return A handle for cancelling the timeout.
+     */
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        // Rounding up guarantees that a timeout never fires before its deadline.
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timeout<T> timeout = new Timeout<>(payload, Math.max(deadlineTick, currentTick + 1));
+        place(timeout);
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timeout that has not fired yet.
+     *
+     * @param timeout The timeout to cancel.
+     * @return {@code true} if the timeout was pending, {@code false} if it had already fired or been cancelled.
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        timeout.bucket = null;
+        pending--;
+        return true;
+    }
+
+    /**
+     * Advances the clock to the given time and returns the payloads of all timeouts that fired.
+     *
+     * @param nowMillis The current time.
+     * @return The payloads of the fired timeouts, in deadline order.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> fired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade the buckets of higher levels whose span starts at this tick, top down.
+            for (int level = bucketSpans.length - 1; level >= 1; level--) {
+                if (currentTick % bucketSpans[level] == 0) {
+                    for (Timeout<T> timeout : drain(level, currentTick)) {
+                        place(timeout);
+                    }
+                }
+            }
+            for (Timeout<T> timeout : drain(0, currentTick)) {
+                fired.add(timeout.payload);
+                pending--;
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * Returns the number of timeouts that have neither fired nor been cancelled.
+     */
+    public synchronized int size() {
+        return pending;
+    }
+
+    /**
+     * Puts a timeout into the lowest level whose rotation covers its deadline. Deadlines beyond the horizon of
+     * the top level go into the top level's last bucket of the current rotation and are re-placed when it cascades.
+     */
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        int top = bucketSpans.length - 1;
+        for (int level = 0; level <= top; level++) {
+            if (delta < bucketSpans[level] * wheelSize) {
+                addToBucket(timeout, level, timeout.deadlineTick / bucketSpans[level]);
+                return;
+            }
+        }
+        addToBucket(timeout, top, currentTick / bucketSpans[top] + wheelSize - 1);
+    }
+
+    private void addToBucket(Timeout<T> timeout, int level, long slot) {
+        Set<Timeout<T>> bucket = levels.get(level).get((int) (slot % wheelSize));
+        bucket.add(timeout);
+        timeout.bucket = bucket;
+    }
+
+    private List<Timeout<T>> drain(int level, long tick) {
+        Set<Timeout<T>> bucket = levels.get(level).get((int) ((tick / bucketSpans[level]) % wheelSize));
+        if (bucket.isEmpty()) {
+            return List.of();
+        }
+        List<Timeout<T>> drained = new ArrayList<>(bucket);
+        bucket.clear();
+        drained.forEach(timeout -> timeout.bucket = null);
+        if (level == 0) {
+            drained.sort((a, b) -> Long.compare(a.deadlineTick, b.deadlineTick));
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,136 @@
+package de.unistuttgart.stayinsync.syncnode.monitor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which payloads on hot paths are logged and renders them as short, single-line previews.
+ * <p>
+ * Callers guard payload logging with their own debug level check and then ask {@link #sample()}, so that
+ * with debug logging disabled no payload is touched at all, and with debug logging enabled only one in
+ * {@code sampleEvery} payloads is rendered. A preview is compact JSON cut off after a fixed number of
+ * characters; serialization is aborted once the serializer's output buffer exceeds the limit, so large
+ * payloads are never rendered completely.
+ * <p>
+ * {@code stayinsync.logging.payload.suppressed} counts the payloads that sampling left out. It is a sampling
+ * metric: since {@link #sample()} is only asked with debug logging enabled, it stays at zero otherwise, and it
+ * says nothing about log records that were dropped on their way to Loki (see {@link LogDropMetrics}).
+ * <pre>{@code
+ * if (Log.isDebugEnabled() && payloadLogSampler.sample()) {
+ *     Log.debugf("Job %s: Script output: %s", jobId, payloadLogSampler.preview(output));
+ * }
+ * }</pre>
+ */
+@ApplicationScoped
+public class PayloadLogSampler {
+
+    private final ObjectMapper objectMapper;
+    private final long sampleEvery;
+    private final int maxPreviewLength;
+    private final AtomicLong candidates = new AtomicLong();
+    private final Counter suppressedCounter;
+
+    /**
+     * Constructs the sampler with its configuration.
+     *
+     * @param objectMapper     The mapper used to render previews.
+     * @param sampleEvery      Every how many payloads one is logged; 1 logs all of them.
+     * @param maxPreviewLength The maximum number of characters of a preview.
+     * @param meterRegistry    The registry for the counter of payloads left out by sampling.
+     */
+    public PayloadLogSampler(ObjectMapper objectMapper,
+                             @ConfigProperty(name = "stayinsync.logging.payload.sample-every", defaultValue = "100") long sampleEvery,
+                             @ConfigProperty(name = "stayinsync.logging.payload.max-preview-length", defaultValue = "512") int maxPreviewLength,
+                             MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.maxPreviewLength = Math.max(16, maxPreviewLength);
+        this.suppressedCounter = Counter.builder("stayinsync.logging.payload.suppressed")
+                .description("Payloads left out of debug logging by sampling; only counted with debug logging enabled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decides whether the current payload is logged.
+     *
+     * @return {@code true} for one in {@code sampleEvery} calls.
+     */
+    public boolean sample() {
+        if (candidates.getAndIncrement() % sampleEvery == 0) {
+            return true;
+        }
+        suppressedCounter.increment();
+        return false;
+    }
+
+    /**
+     * Renders a payload as compact JSON, truncated to the maximum preview length.
+     *
+     * @param payload The payload to render.
+     * @return The preview, ending with a truncation marker if it was cut off.
+     */
+    public String preview(Object payload) {
+        BoundedWriter writer = new BoundedWriter(maxPreviewLength);
+        try {
+            objectMapper.writeValue(writer, payload);
+        } catch (IOException e) {
+            if (!writer.truncated) {
+                return "<unserializable " + (payload == null ? "null" : payload.getClass().getSimpleName()) + ">";
+            }
+        }
+        return writer.truncated ? writer.builder + "... (truncated)" : writer.builder.toString();
+    }
+
+    /**
+     * Truncates a string to the maximum preview length.
+     *
+     * @param text The text to truncate.
+     * @return The text, or its prefix followed by the total length.
+     */
+    public String preview(String text) {
+        if (text == null || text.length() <= maxPreviewLength) {
+            return text;
+        }
+        return text.substring(0, maxPreviewLength) + "... (" + text.length() + " chars)";
+    }
+
+    /**
+     * A writer that keeps the first characters written to it and aborts serialization once it is full.
+     */
+    private static final class BoundedWriter extends Writer {
+        private final StringBuilder builder;
+        private final int limit;
+        private boolean truncated;
+
+        private BoundedWriter(int limit) {
+            this.builder = new StringBuilder(Math.min(limit, 256));
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            int remaining = limit - builder.length();
+            if (length > remaining) {
+                builder.append(chars, offset, remaining);
+                truncated = true;
+                throw new IOException("Preview limit reached");
+            }
+            builder.append(chars, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package de.unistuttgart.stayinsync.syncnode.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms for the stages of the sync pipeline, from broker delivery to the final target acknowledgement.
+ * <p>
+ * All stage timers are registered once at startup and tagged only with their {@link Stage}, so the number of
+ * series is fixed. The end-to-end timer is additionally tagged with the outcome of the job, so that jobs skipped
+ * by their pre-condition do not pull down the latency of the jobs that were written; it is registered once per
+ * outcome, of which there are only a few. They publish percentile histograms, which Micrometer maintains in HdrHistogram-style
+ * log-linear buckets; recording a duration is lock-free and does not allocate. Per-transformation meters are
+ * only created for a bounded number of transformations; all further transformations share the
+ * {@value #OVERFLOW_TAG} tag value.
+ * <p>
+ * The durations of one job are collected in its {@link PipelineTrace}, which {@link #complete(PipelineTrace, String)}
+ * records and, at debug level, logs as a single line per job.
+ */
+@ApplicationScoped
+public class PipelineStageMetrics {
+
+    static final String STAGE_TIMER_NAME = "stayinsync.pipeline.stage.duration";
+    public static final String OVERFLOW_TAG = "other";
+
+    /**
+     * The stages of the sync pipeline.
+     */
+    public enum Stage {
+        /** From publication by the polling node until delivery to this node. */
+        BROKER_DWELL("broker-dwell"),
+        /** From dispatching a completed transformation, including its scheduler queue wait, until the executor starts evaluating it. */
+        DISPATCH_WAIT("dispatch-wait"),
+        /** Evaluation of the pre-condition logic graph. */
+        GRAPH_EVALUATION("graph-evaluation"),
+        /** Waiting for a script context from the pool. */
+        CONTEXT_BORROW("context-borrow"),
+        /** Evaluation of the transformation script, including context borrowing. */
+        SCRIPT_EXECUTION("script-execution"),
+        /** From handing the directives to the writer until all target systems acknowledged them. */
+        TARGET_WRITE("target-write"),
+        /** From publication (or delivery, if unknown) until the final target acknowledgement, per outcome. */
+        END_TO_END("end-to-end");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxTaggedTransformations;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Long, String> transformationTags = new ConcurrentHashMap<>();
+    private final Map<String, Counter> outcomeCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> endToEndTimers = new ConcurrentHashMap<>();
+    private final double[] percentiles;
+    private final Duration maximumExpectedLatency;
+
+    /**
+     * Registers the stage timers.
+     *
+     * @param meterRegistry            The registry the meters are registered with.
+     * @param percentiles              The percentiles published per stage in addition to the histogram.
+     * @param maximumExpectedLatency   The upper bound of the histogram buckets.
+     * @param maxTaggedTransformations The maximum number of transformations with meters of their own.
+     */
+    public PipelineStageMetrics(MeterRegistry meterRegistry,
+                                @ConfigProperty(name = "stayinsync.metrics.pipeline.percentiles", defaultValue = "0.5,0.95,0.99") List<Double> percentiles,
+                                @ConfigProperty(name = "stayinsync.metrics.pipeline.maximum-expected-latency", defaultValue = "60s") Duration maximumExpectedLatency,
+                                @ConfigProperty(name = "stayinsync.metrics.max-tagged-transformations", defaultValue = "100") int maxTaggedTransformations) {
+        this.meterRegistry = meterRegistry;
+        this.maxTaggedTransformations = Math.max(0, maxTaggedTransformations);
+        this.percentiles = percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+        this.maximumExpectedLatency = maximumExpectedLatency;
+        for (Stage stage : Stage.values()) {
+            if (stage != Stage.END_TO_END) {
+                stageTimers.put(stage, stageTimer(stage).register(meterRegistry));
+            }
+        }
+    }
+
+    private Timer.Builder stageTimer(Stage stage) {
+        return Timer.builder(STAGE_TIMER_NAME)
+                .description("Latency of a stage of the sync pipeline")
+                .tag("stage", stage.tag())
+                .publishPercentiles(percentiles)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(maximumExpectedLatency);
+    }
+
+    /**
+     * Records the duration of a stage other than {@link Stage#END_TO_END}, which is only recorded per outcome by
+     * {@link #complete(PipelineTrace, String)}.
+     *
+     * @param stage The stage.
+     * @param nanos The duration in nanoseconds; negative durations (e.g. from clock skew) are ignored.
+     */
+    public void record(Stage stage, long nanos) {
+        Timer timer = stageTimers.get(stage);
+        if (timer != null && nanos >= 0) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records the stage durations collected in a job's trace, completing the job.
+     *
+     * @param trace   The trace of the job.
+     * @param outcome The outcome of the job, used as a tag of the end-to-end timer and of the per-transformation
+     *                outcome counter.
+     */
+    public void complete(PipelineTrace trace, String outcome) {
+        trace.complete();
+        for (Stage stage : Stage.values()) {
+            record(stage, trace.durationNanos(stage));
+        }
+        long endToEndNanos = trace.durationNanos(Stage.END_TO_END);
+        if (endToEndNanos >= 0) {
+            endToEndTimers.computeIfAbsent(outcome, key -> stageTimer(Stage.END_TO_END).tag("outcome", key)
+                    .register(meterRegistry)).record(endToEndNanos, TimeUnit.NANOSECONDS);
+        }
+        outcomeCounter(trace.transformationId(), outcome).increment();
+        if (Log.isDebugEnabled()) {
+            Log.debugf("Job %s: pipeline stages %s", trace.jobId(), trace);
+        }
+    }
+
+    /**
+     * Returns the tag value under which meters of the given transformation are registered. The first
+     * transformations seen get their own tag value, all further ones share {@value #OVERFLOW_TAG}.
+     *
+     * @param transformationId The ID of the transformation, may be {@code null}.
+     * @return The tag value.
+     */
+    public String transformationTag(Long transformationId) {
+        if (transformationId == null) {
+            return "unknown";
+        }
+        String tag = transformationTags.get(transformationId);
+        if (tag != null) {
+            return tag;
+        }
+        if (transformationTags.size() >= maxTaggedTransformations) {
+            return OVERFLOW_TAG;
+        }
+        // Concurrent first sightings may exceed the bound by the number of racing threads, which is harmless.
+        return transformationTags.computeIfAbsent(transformationId, String::valueOf);
+    }
+
+    private Counter outcomeCounter(Long transformationId, String outcome) {
+        String transformationTag = transformationTag(transformationId);
+        return outcomeCounters.computeIfAbsent(transformationTag + '|' + outcome,
+                key -> Counter.builder("stayinsync.pipeline.jobs")
+                        .description("Jobs that passed through the sync pipeline, by outcome")
+                        .tag("transformationId", transformationTag)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,158 @@
+package de.unistuttgart.stayinsync.syncnode.monitor;
+
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineStageMetrics.Stage;
+
+/**
+ * Collects the timestamps of one job as it passes through the sync pipeline.
+ * <p>
+ * Every stage marks its start and end with {@link System#nanoTime()}; the stages of a job run one after
+ * another, possibly on different threads, so the fields are volatile. A stage that was not reached has no
+ * duration. Only the broker dwell time is based on wall-clock time, since it spans two nodes.
+ */
+public final class PipelineTrace {
+
+    private static final long UNSET = 0;
+
+    private final String jobId;
+    private final Long transformationId;
+
+    private volatile long publishedAtMillis = -1;
+    private volatile long deliveredAtMillis = -1;
+    private volatile long deliveredNanos;
+    private volatile long dispatchedNanos;
+    private volatile long graphStartedNanos;
+    private volatile long graphFinishedNanos;
+    private volatile long contextBorrowStartedNanos;
+    private volatile long contextBorrowedNanos;
+    private volatile long scriptStartedNanos;
+    private volatile long scriptFinishedNanos;
+    private volatile long writeStartedNanos;
+    private volatile long writeFinishedNanos;
+    private volatile long completedNanos;
+
+    /**
+     * Starts the trace of a job, taking the current time as its delivery time.
+     *
+     * @param jobId            The ID of the job.
+     * @param transformationId The ID of the job's transformation.
+     */
+    public PipelineTrace(String jobId, Long transformationId) {
+        this.jobId = jobId;
+        this.transformationId = transformationId;
+        this.deliveredNanos = System.nanoTime();
+    }
+
+    public String jobId() {
+        return jobId;
+    }
+
+    public Long transformationId() {
+        return transformationId;
+    }
+
+    /**
+     * Records when the message that completed the job was published and delivered.
+     *
+     * @param publishedAtMillis The publication time in epoch milliseconds, or a negative value if unknown.
+     * @param deliveredAtMillis The delivery time in epoch milliseconds.
+     * @param deliveredNanos    The delivery time as {@link System#nanoTime()}.
+     */
+    public void markDelivered(long publishedAtMillis, long deliveredAtMillis, long deliveredNanos) {
+        this.publishedAtMillis = publishedAtMillis;
+        this.deliveredAtMillis = deliveredAtMillis;
+        this.deliveredNanos = deliveredNanos;
+    }
+
+    /**
+     * Records when the job was handed over for execution. Only the first call counts, so the dispatch wait
+     * includes the time the job was queued in the execution scheduler.
+     */
+    public void markDispatched() {
+        if (dispatchedNanos == UNSET) {
+            dispatchedNanos = System.nanoTime();
+        }
+    }
+
+    public void markGraphStarted() {
+        graphStartedNanos = System.nanoTime();
+    }
+
+    public void markGraphFinished() {
+        graphFinishedNanos = System.nanoTime();
+    }
+
+    public void markContextBorrowStarted() {
+        contextBorrowStartedNanos = System.nanoTime();
+    }
+
+    public void markContextBorrowed() {
+        contextBorrowedNanos = System.nanoTime();
+    }
+
+    public void markScriptStarted() {
+        scriptStartedNanos = System.nanoTime();
+    }
+
+    public void markScriptFinished() {
+        scriptFinishedNanos = System.nanoTime();
+    }
+
+    public void markWriteStarted() {
+        writeStartedNanos = System.nanoTime();
+    }
+
+    public void markWriteFinished() {
+        writeFinishedNanos = System.nanoTime();
+    }
+
+    void complete() {
+        if (completedNanos == UNSET) {
+            completedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Returns the duration of a stage of this job.
+     *
+     * @param stage The stage.
+     * @return The duration in nanoseconds, or {@code -1} if the stage was not reached or cannot be measured.
+     */
+    public long durationNanos(Stage stage) {
+        return switch (stage) {
+            case BROKER_DWELL -> publishedAtMillis < 0 || deliveredAtMillis < 0
+                    ? -1 : (deliveredAtMillis - publishedAtMillis) * 1_000_000;
+            case DISPATCH_WAIT -> between(dispatchedNanos, graphStartedNanos);
+            case GRAPH_EVALUATION -> between(graphStartedNanos, graphFinishedNanos);
+            case CONTEXT_BORROW -> between(contextBorrowStartedNanos, contextBorrowedNanos);
+            case SCRIPT_EXECUTION -> between(scriptStartedNanos, scriptFinishedNanos);
+            case TARGET_WRITE -> between(writeStartedNanos, writeFinishedNanos);
+            case END_TO_END -> {
+                long inNode = between(deliveredNanos, completedNanos);
+                long dwell = durationNanos(Stage.BROKER_DWELL);
+                yield inNode < 0 ? -1 : inNode + Math.max(0, dwell);
+            }
+        };
+    }
+
+    private static long between(long start, long end) {
+        return start == UNSET || end == UNSET ? -1 : end - start;
+    }
+
+    /**
+     * Formats the measured stage durations in milliseconds.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            long nanos = durationNanos(stage);
+            if (nanos >= 0) {
+                if (!builder.isEmpty()) {
+                    builder.append(' ');
+                }
+                builder.append(stage.tag()).append('=').append(String.format("%.3fms", nanos / 1_000_000.0));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package de.unistuttgart.stayinsync.syncnode.monitor;
+
+import de.unistuttgart.graphengine.service.SchemaCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the statistics of the JSON schema cache of the graph engine (see {@link SchemaCache#shared()}):
+ * the number and total time of schema compilations, hits, misses, evictions and the cache size.
+ * <p>
+ * All meters read the cache statistics when they are published, so evaluations are not affected.
+ */
+@ApplicationScoped
+public class SchemaCacheMetrics {
+
+    public static final String PREFIX = "graphengine.schema.cache";
+
+    private final MeterRegistry meterRegistry;
+
+    public SchemaCacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void onStart(@Observes StartupEvent startupEvent) {
+        bind(meterRegistry, SchemaCache.shared());
+    }
+
+    /**
+     * Registers the meters of a schema cache.
+     *
+     * @param meterRegistry The registry the meters are registered with.
+     * @param schemaCache   The cache to publish.
+     */
+    public static void bind(MeterRegistry meterRegistry, SchemaCache schemaCache) {
+        FunctionTimer.builder(PREFIX + ".compile", schemaCache,
+                        cache -> cache.stats().loadCount(),
+                        cache -> cache.stats().totalLoadTime(),
+                        TimeUnit.NANOSECONDS)
+                .description("Compilations of JSON schemas, including failed ones")
+                .register(meterRegistry);
+        FunctionCounter.builder(PREFIX + ".compile.failures", schemaCache, cache -> cache.stats().loadFailureCount())
+                .description("JSON schemas that could not be compiled")
+                .register(meterRegistry);
+        FunctionCounter.builder(PREFIX + ".hits", schemaCache, cache -> cache.stats().hitCount())
+                .register(meterRegistry);
+        FunctionCounter.builder(PREFIX + ".misses", schemaCache, cache -> cache.stats().missCount())
+                .register(meterRegistry);
+        FunctionCounter.builder(PREFIX + ".evictions", schemaCache, cache -> cache.stats().evictionCount())
+                .register(meterRegistry);
+        Gauge.builder(PREFIX + ".size", schemaCache, SchemaCache::getCacheSize)
+                .register(meterRegistry);
+        Gauge.builder(PREFIX + ".weight", schemaCache, SchemaCache::getWeightedSize)
+                .description("Total number of characters of the cached schemas")
+                .register(meterRegistry);
+    }
+}
@@ -1,83 +1,118 @@
 package de.unistuttgart.stayinsync.syncnode.monitor;
 
-import de.unistuttgart.stayinsync.syncnode.syncjob.DispatcherStateService;
+import de.unistuttgart.stayinsync.syncnode.syncjob.DispatcherStateService.TransformationState;
 import io.quarkus.logging.Log;
 import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.MDC;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A background monitoring service responsible for detecting and handling timed-out transformations.
  * <p>
  * The purpose of this monitor is to ensure system resilience by preventing transformations
- * from getting stuck in an incomplete state indefinitely. It periodically scans all
- * in-progress transformations and if one has not shown any activity within a configured
- * timeout period, it triggers a reset to clean up its state. This prevents stale data
- * and resource leaks.
+ * from getting stuck in an incomplete state indefinitely. If a transformation that has received
+ * some but not all of its data shows no activity within a configured timeout period, its state
+ * is reset. This prevents stale data and resource leaks.
+ * <p>
+ * Only transformations that are actually in progress are tracked: a timeout is scheduled in a
+ * {@link HierarchicalTimingWheel} when data arrives for an incomplete transformation, moved on
+ * every further arrival, and cancelled when the transformation completes or is deregistered.
+ * Advancing the wheel therefore only touches timeouts that are due, regardless of how many
+ * transformations are deployed, and a timeout fires at most one monitor interval late.
  */
 @ApplicationScoped
 public class TransformationTimeoutMonitor {
 
     // CONSTANTS
     private static final String MDC_TRANSFORMATION_ID_KEY = "transformationId";
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
 
-    private final DispatcherStateService dispatcherStateService;
     private final Duration transformationTimeout;
+    private final HierarchicalTimingWheel<TransformationState> timingWheel;
+    private final Map<Long, HierarchicalTimingWheel.Timeout<TransformationState>> pendingTimeouts = new ConcurrentHashMap<>();
 
     /**
-     * Constructs the monitor with its required dependencies and configuration.
+     * Constructs the monitor with its required configuration.
      * Using constructor injection makes dependencies explicit and allows for immutability.
      *
-     * @param dispatcherStateService The service managing the state of transformations.
-     * @param transformationTimeout  The configured duration after which an inactive transformation is considered timed out.
+     * @param transformationTimeout The configured duration after which an inactive transformation is considered timed out.
+     * @param monitorInterval       The tick of the timing wheel, i.e. the maximum lateness of a timeout.
      */
     public TransformationTimeoutMonitor(
-            DispatcherStateService dispatcherStateService,
-            @ConfigProperty(name = "stayinsync.transformation.timeout") Duration transformationTimeout) {
-        this.dispatcherStateService = dispatcherStateService;
+            @ConfigProperty(name = "stayinsync.transformation.timeout") Duration transformationTimeout,
+            @ConfigProperty(name = "stayinsync.transformation.monitor.interval") Duration monitorInterval) {
         this.transformationTimeout = transformationTimeout;
+        this.timingWheel = new HierarchicalTimingWheel<>(monitorInterval.toMillis(), WHEEL_SIZE, WHEEL_LEVELS,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Starts or moves the timeout of an in-progress transformation after data has arrived for it.
+     *
+     * @param transformationId The ID of the transformation.
+     * @param state            The state of the transformation, whose last activity determines the deadline.
+     */
+    public void track(Long transformationId, TransformationState state) {
+        long deadline = state.getLastActivityTimestamp() + transformationTimeout.toMillis();
+        HierarchicalTimingWheel.Timeout<TransformationState> timeout = timingWheel.schedule(state, deadline);
+        HierarchicalTimingWheel.Timeout<TransformationState> previous = pendingTimeouts.put(transformationId, timeout);
+        if (previous != null) {
+            timingWheel.cancel(previous);
+        }
+    }
+
+    /**
+     * Cancels the timeout of a transformation that has completed or was deregistered.
+     *
+     * @param transformationId The ID of the transformation.
+     */
+    public void untrack(Long transformationId) {
+        HierarchicalTimingWheel.Timeout<TransformationState> timeout = pendingTimeouts.remove(transformationId);
+        if (timeout != null) {
+            timingWheel.cancel(timeout);
+        }
     }
 
     /**
-     * Periodically executes to check for any stale, in-progress transformations.
+     * Periodically advances the timing wheel and handles the transformations whose timeout has passed.
      * <p>
-     * This scheduled method is the core of the monitor. It iterates through all registered
-     * transformations and identifies those that have received some data but have not yet completed
-     * (i.e., are not 'ready'). If the time since their last recorded activity exceeds the
-     * configured timeout, a warning is logged and the transformation's state is reset via the
-     * {@link DispatcherStateService}.
+     * A fired timeout is re-checked against the transformation's state, since data may have
+     * arrived concurrently. If the inactivity still exceeds the configured timeout, a warning is
+     * logged and the transformation's state is reset.
      */
     @Scheduled(every = "{stayinsync.transformation.monitor.interval}")
     void checkForTimeouts() {
-        Log.debug("Running transformation timeout check...");
-        final Instant now = Instant.now();
+        final long now = System.currentTimeMillis();
+        List<TransformationState> expired = timingWheel.advance(now);
+        if (expired.isEmpty()) {
+            return;
+        }
+        Log.debugf("Timing wheel fired %d transformation timeout(s); %d still pending.", expired.size(), timingWheel.size());
 
-        dispatcherStateService.getTransformationRegistry().forEach((id, state) -> {
-            // A transformation is eligible for a timeout check if it has started but not yet finished.
-            boolean isInProgress = !state.isReady() && !state.getReceivedArcs().isEmpty();
-
-            if (isInProgress) {
-                Instant lastActivity = Instant.ofEpochMilli(state.getLastActivityTimestamp());
-                Duration inactivity = Duration.between(lastActivity, now);
-
-                if (inactivity.compareTo(transformationTimeout) > 0) {
-                    // Use try-finally to guarantee MDC cleanup, preventing context leakage to other logs.
-                    try {
-                        MDC.put(MDC_TRANSFORMATION_ID_KEY, id.toString());
-                        Log.warnf("Transformation has timed out after %s of inactivity. Last activity was at %s. Resetting state.",
-                                inactivity, lastActivity);
-                        state.reset();
-                    } finally {
-                        MDC.remove(MDC_TRANSFORMATION_ID_KEY);
-                    }
-                }
+        for (TransformationState state : expired) {
+            Long id = state.getTransformation().id();
+            long lastActivityMillis = state.getLastActivityTimestamp();
+            if (!state.resetIfInactive(now, transformationTimeout.toMillis())) {
+                continue;
+            }
+            pendingTimeouts.remove(id);
+            // Use try-finally to guarantee MDC cleanup, preventing context leakage to other logs.
+            try {
+                MDC.put(MDC_TRANSFORMATION_ID_KEY, id.toString());
+                Instant lastActivity = Instant.ofEpochMilli(lastActivityMillis);
+                Log.warnf("Transformation has timed out after %s of inactivity. Last activity was at %s. State has been reset.",
+                        Duration.ofMillis(now - lastActivityMillis), lastActivity);
+            } finally {
+                MDC.remove(MDC_TRANSFORMATION_ID_KEY);
             }
-        });
+        }
     }
 }
@@ -1,7 +1,7 @@
 package de.unistuttgart.stayinsync.syncnode.rabbitmq.consumer;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.rabbitmq.client.CancelCallback;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.DeliverCallback;
@@ -9,7 +9,11 @@ import com.rabbitmq.client.Delivery;
 import de.unistuttgart.stayinsync.exception.SyncNodeException;
 import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
 import de.unistuttgart.stayinsync.syncnode.domain.ExecutionPayload;
+import de.unistuttgart.stayinsync.syncnode.domain.SyncDataMessage;
+import de.unistuttgart.stayinsync.syncnode.monitor.PayloadLogSampler;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineStageMetrics;
 import de.unistuttgart.stayinsync.syncnode.syncjob.DispatcherStateService;
+import de.unistuttgart.stayinsync.syncnode.syncjob.ExecutionScheduler;
 import de.unistuttgart.stayinsync.syncnode.syncjob.TransformationExecutionService;
 import de.unistuttgart.stayinsync.transport.dto.SourceSystemApiRequestConfigurationMessageDTO;
 import de.unistuttgart.stayinsync.transport.dto.SyncDataMessageDTO;
@@ -22,7 +26,6 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.MDC;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -33,10 +36,12 @@ import java.util.*;
  * <ul>
  *     <li>Initializing a shared RabbitMQ channel and declaring a central exchange upon application startup.</li>
  *     <li>Dynamically creating and binding queues for specific synchronization jobs when instructed.</li>
- *     <li>Consuming messages, deserializing them into application-specific DTOs.</li>
+ *     <li>Consuming messages, decoding each body once into a {@link SyncDataMessage} whose ARC data tree is
+ *     shared by the graph evaluation, the script bindings and snapshots.</li>
  *     <li>Passing the data to the {@link DispatcherStateService} to manage transformation state.</li>
  *     <li>Dispatching completed transformation payloads to the {@link TransformationExecutionService} for asynchronous execution.</li>
  *     <li>Handling message acknowledgements (ACK/NACK) to ensure reliable processing.</li>
+ *     <li>Starting the pipeline trace of each job at delivery and completing it once the job finished.</li>
  * </ul>
  */
 @ApplicationScoped
@@ -51,9 +56,11 @@ public class SyncDataMessageConsumer {
 
     // DEPENDENCIES
     private final RabbitMQClient rabbitMQClient;
-    private final ObjectMapper objectMapper;
+    private final ObjectReader messageReader;
     private final DispatcherStateService dispatcherStateService;
     private final TransformationExecutionService transformationExecutionService;
+    private final PipelineStageMetrics pipelineStageMetrics;
+    private final PayloadLogSampler payloadLogSampler;
     private final String queueMaxAge;
 
     private Channel channel; // Initialized on startup.
@@ -66,17 +73,23 @@ public class SyncDataMessageConsumer {
      * @param objectMapper                   The JSON serializer/deserializer.
      * @param dispatcherStateService         The service that manages the state of incoming sync data.
      * @param transformationExecutionService The service that executes the actual transformation logic.
+     * @param pipelineStageMetrics           The per-stage latency histograms of the sync pipeline.
+     * @param payloadLogSampler              The sampler deciding which message payloads are logged.
      * @param queueMaxAge                    The configured time-to-live for dynamically created queues.
      */
     public SyncDataMessageConsumer(RabbitMQClient rabbitMQClient,
                                    ObjectMapper objectMapper,
                                    DispatcherStateService dispatcherStateService,
                                    TransformationExecutionService transformationExecutionService,
+                                   PipelineStageMetrics pipelineStageMetrics,
+                                   PayloadLogSampler payloadLogSampler,
                                    @ConfigProperty(name = "stayinsync.rabbitmq.queue.max-age", defaultValue = "1m") String queueMaxAge) {
         this.rabbitMQClient = rabbitMQClient;
-        this.objectMapper = objectMapper;
+        this.messageReader = objectMapper.readerFor(SyncDataMessage.class);
         this.dispatcherStateService = dispatcherStateService;
         this.transformationExecutionService = transformationExecutionService;
+        this.pipelineStageMetrics = pipelineStageMetrics;
+        this.payloadLogSampler = payloadLogSampler;
         this.queueMaxAge = queueMaxAge;
     }
 
@@ -155,14 +168,21 @@ public class SyncDataMessageConsumer {
      * @throws IOException If an issue occurs with channel communication (e.g., ack/nack).
      */
     private void processDelivery(Delivery delivery) throws IOException {
+        final long deliveredNanos = System.nanoTime();
+        final long deliveredAtMillis = System.currentTimeMillis();
         try {
-            SyncDataMessageDTO syncData = deserializeMessage(delivery);
-            Log.infof("Received sync data for ARC alias: '%s'", syncData.arcAlias());
-            Log.debugf("JSON: %s", syncData.jsonData());
+            SyncDataMessage syncData = deserializeMessage(delivery);
+            Log.debugf("Received sync data for ARC alias: '%s'", syncData.arcAlias());
+            if (Log.isDebugEnabled() && payloadLogSampler.sample()) {
+                Log.debugf("JSON: %s", payloadLogSampler.preview(syncData.jsonData()));
+            }
 
             List<ExecutionPayload> completedPayloads = dispatcherStateService.processArc(syncData);
 
             if (!completedPayloads.isEmpty()) {
+                long publishedAtMillis = publishedAtMillis(delivery);
+                completedPayloads.forEach(payload ->
+                        payload.trace().markDelivered(publishedAtMillis, deliveredAtMillis, deliveredNanos));
                 dispatchExecutionPayloads(completedPayloads);
             }
 
@@ -180,23 +200,38 @@ public class SyncDataMessageConsumer {
     }
 
     /**
-     * Deserializes the message body from a raw byte array into a {@link SyncDataMessageDTO}.
+     * Reads the publication time set by the polling node, falling back to the AMQP timestamp property.
+     *
+     * @param delivery The message delivery from RabbitMQ.
+     * @return The publication time in epoch milliseconds, or {@code -1} if the message carries none.
+     */
+    private long publishedAtMillis(Delivery delivery) {
+        Map<String, Object> headers = delivery.getProperties().getHeaders();
+        if (headers != null && headers.get(SyncDataMessageDTO.PUBLISHED_AT_HEADER) instanceof Number publishedAt) {
+            return publishedAt.longValue();
+        }
+        Date timestamp = delivery.getProperties().getTimestamp();
+        return timestamp != null ? timestamp.getTime() : -1;
+    }
+
+    /**
+     * Decodes the message body, a {@link SyncDataMessageDTO}, directly from its raw bytes into a
+     * {@link SyncDataMessage}. This is the only time the ARC data is decoded on this node.
      *
      * @param delivery The message delivery from RabbitMQ.
-     * @return The deserialized {@link SyncDataMessageDTO}.
+     * @return The decoded message.
      * @throws SyncNodeException If the message body is malformed or cannot be decoded.
      */
-    private SyncDataMessageDTO deserializeMessage(Delivery delivery) throws SyncNodeException {
+    private SyncDataMessage deserializeMessage(Delivery delivery) throws SyncNodeException {
         try {
-            String message = new String(delivery.getBody(), StandardCharsets.UTF_8);
-            return objectMapper.readValue(message, SyncDataMessageDTO.class);
-        } catch (JsonProcessingException e) {
+            return messageReader.readValue(delivery.getBody());
+        } catch (IOException e) {
             throw new SyncNodeException("RabbitMQ Deserialization Error", "Unable to parse sync-job from message body.", e);
         }
     }
 
     /**
-     * Iterates over completed payloads and dispatches them for asynchronous execution.
+     * Iterates over completed payloads and hands them to the execution scheduler.
      *
      * @param payloads A list of payloads ready for transformation.
      */
@@ -205,9 +240,9 @@ public class SyncDataMessageConsumer {
             Long transformationId = payload.job().transformationId();
             try {
                 MDC.put(MDC_TRANSFORMATION_ID_KEY, transformationId.toString());
-                Log.infof("Dispatching job '%s' for conditional execution.", payload.job().jobId());
+                Log.debugf("Dispatching job '%s' for conditional execution.", payload.job().jobId());
 
-                transformationExecutionService.execute(payload)
+                transformationExecutionService.schedule(payload)
                         .subscribe().with(
                                 result -> handleExecutionSuccess(payload, result),
                                 failure -> handleExecutionFailure(payload, failure)
@@ -233,9 +268,13 @@ public class SyncDataMessageConsumer {
             MDC.put(MDC_TRANSFORMATION_ID_KEY, payload.job().transformationId().toString());
             if (result != null && result.isValidExecution()) {
                 Log.infof("Job '%s' completed successfully.", payload.job().jobId());
-                Log.debugf("Script transformation output for job '%s': %s", payload.job().jobId(), result.getOutputData());
+                pipelineStageMetrics.complete(payload.trace(), "succeeded");
+            } else if (result != null) {
+                Log.debugf("Job '%s' finished with an invalid script execution.", payload.job().jobId());
+                pipelineStageMetrics.complete(payload.trace(), "script-failed");
             } else {
                 Log.infof("Job '%s' was skipped by its pre-condition and did not execute.", payload.job().jobId());
+                pipelineStageMetrics.complete(payload.trace(), "skipped");
             }
         } finally {
             MDC.remove(MDC_TRANSFORMATION_ID_KEY);
@@ -254,7 +293,13 @@ public class SyncDataMessageConsumer {
         // We must re-establish MDC for correct logging context.
         try {
             MDC.put(MDC_TRANSFORMATION_ID_KEY, payload.job().transformationId().toString());
+            if (failure instanceof ExecutionScheduler.SupersededException) {
+                Log.debugf("Job '%s' was superseded by a newer payload before its execution.", payload.job().jobId());
+                pipelineStageMetrics.complete(payload.trace(), "superseded");
+                return;
+            }
             Log.errorf(failure, "Job '%s' failed during execution chain.", payload.job().jobId());
+            pipelineStageMetrics.complete(payload.trace(), "failed");
         } finally {
             MDC.remove(MDC_TRANSFORMATION_ID_KEY);
         }
@@ -1,23 +1,33 @@
 package de.unistuttgart.stayinsync.syncnode.syncjob;
 
+import de.unistuttgart.stayinsync.exception.AasBatchUpdateException;
 import de.unistuttgart.stayinsync.exception.SyncNodeException;
+import de.unistuttgart.stayinsync.exception.TargetUnavailableException;
 import de.unistuttgart.stayinsync.syncnode.domain.AasUpdateValueDirective;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineStageMetrics;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetClientRegistry.TargetEndpoint;
 import de.unistuttgart.stayinsync.transport.dto.targetsystems.AasTargetArcMessageDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.Json;
 import io.vertx.mutiny.core.buffer.Buffer;
 import io.vertx.mutiny.ext.web.client.HttpRequest;
 import io.vertx.mutiny.ext.web.client.HttpResponse;
-import io.vertx.mutiny.ext.web.client.WebClient;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.MDC;
 
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Executes directives specifically for updating values in an Asset Administration Shell (AAS) server.
@@ -26,23 +36,53 @@ import java.util.Base64;
  * is to construct a compliant AAS REST API path for updating a submodel element's value and
  * execute the corresponding HTTP PATCH request. It handles the necessary URL and Base64 encoding
  * as specified by the AAS standards.
+ * <p>
+ * Directives addressing the same submodel can be executed as a batch through
+ * {@link #executeUpdateValues(List, AasTargetArcMessageDTO, Long)}. Depending on the capabilities of the target
+ * server, a batch is either sent as a single submodel-level {@code $value} request or as element-level PATCH
+ * requests pipelined over a bounded number of concurrent requests.
  */
 @ApplicationScoped
 public class AasDirectiveExecutor {
 
     private static final String AAS_UPDATE_PATH_TEMPLATE = "/submodels/%s/submodel-elements/%s/$value";
+    private static final String AAS_SUBMODEL_VALUE_PATH_TEMPLATE = "/submodels/%s/$value";
     private static final String CONTENT_TYPE_HEADER = "Content-Type";
     private static final String CONTENT_TYPE_JSON = "application/json";
 
-    private final WebClient webClient;
+    private final TargetClientRegistry targetClients;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> submodelValueTargets;
+    private final HttpMethod submodelValueMethod;
+    private final int maxConcurrentElementUpdates;
+    private final int maxTaggedSubmodels;
+    private final ConcurrentMap<String, Timer> submodelWriteTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> submodelTags = new ConcurrentHashMap<>();
 
     /**
      * Constructs the AasDirectiveExecutor with its required dependencies.
      *
-     * @param webClient The configured Vert.x WebClient for making HTTP requests.
+     * @param targetClients               The registry of per-target HTTP clients for making HTTP requests.
+     * @param meterRegistry               The registry for recording per-submodel write latency.
+     * @param submodelValueTargets        Base URLs of AAS servers that accept submodel-level {@code $value} writes.
+     * @param submodelValueMethod         The HTTP method used for submodel-level {@code $value} writes (PATCH or PUT).
+     * @param maxConcurrentElementUpdates The maximum number of element-level requests in flight per batch.
+     * @param maxTaggedSubmodels          The maximum number of submodels with a write timer of their own.
      */
-    public AasDirectiveExecutor(WebClient webClient) {
-        this.webClient = webClient;
+    public AasDirectiveExecutor(TargetClientRegistry targetClients,
+                                MeterRegistry meterRegistry,
+                                @ConfigProperty(name = "stayinsync.aas.batch.submodel-value-targets") Optional<List<String>> submodelValueTargets,
+                                @ConfigProperty(name = "stayinsync.aas.batch.submodel-value-method", defaultValue = "PATCH") String submodelValueMethod,
+                                @ConfigProperty(name = "stayinsync.aas.batch.max-concurrency", defaultValue = "4") int maxConcurrentElementUpdates,
+                                @ConfigProperty(name = "stayinsync.aas.metrics.max-tagged-submodels", defaultValue = "100") int maxTaggedSubmodels) {
+        this.targetClients = targetClients;
+        this.meterRegistry = meterRegistry;
+        this.submodelValueTargets = submodelValueTargets.orElse(List.of()).stream()
+                .map(AasDirectiveExecutor::normalizeBaseUrl)
+                .collect(Collectors.toUnmodifiableSet());
+        this.submodelValueMethod = HttpMethod.valueOf(submodelValueMethod.toUpperCase(Locale.ROOT));
+        this.maxConcurrentElementUpdates = Math.max(1, maxConcurrentElementUpdates);
+        this.maxTaggedSubmodels = Math.max(0, maxTaggedSubmodels);
     }
 
     /**
@@ -65,9 +105,9 @@ public class AasDirectiveExecutor {
                             String jsonStringPayload = Json.encode(directive.getValue());
                             Buffer payloadBuffer = Buffer.buffer(jsonStringPayload);
 
-                            Log.infof("Executing AAS Update: PATCH %s%s", arcConfig.baseUrl(), requestUriPath);
+                            Log.debugf("Executing AAS Update: PATCH %s%s", arcConfig.baseUrl(), requestUriPath);
 
-                            return executePatchRequest(arcConfig, requestUriPath, payloadBuffer)
+                            return executeRequest(HttpMethod.PATCH, arcConfig, requestUriPath, payloadBuffer)
                                     .invoke(response -> logAasUpdateResponse(response, requestUriPath));
 
                         } catch (SyncNodeException e) {
@@ -83,6 +123,134 @@ public class AasDirectiveExecutor {
         }
     }
 
+    /**
+     * Executes a batch of "update value" directives that all address the submodel of the given ARC.
+     * <p>
+     * If several directives address the same element, only the last one is sent. If the target server is
+     * configured to accept submodel-level {@code $value} writes and all element paths can be expressed in the
+     * value-only representation, the batch is sent as a single request. Otherwise, the element-level PATCH
+     * requests are pipelined with a bounded concurrency. The latency of the whole batch is recorded per ARC and
+     * submodel; submodels beyond {@code stayinsync.aas.metrics.max-tagged-submodels} share the tag value
+     * {@value PipelineStageMetrics#OVERFLOW_TAG}.
+     *
+     * @param directives       The directives to execute, all belonging to the submodel of {@code arcConfig}.
+     * @param arcConfig        The configuration for the target AAS, including its base URL and submodel ID.
+     * @param transformationId The ID of the parent transformation for logging context.
+     * @return A {@link Uni<Void>} that completes when the batch is finished. It fails with an
+     *         {@link AasBatchUpdateException} listing the element updates that were rejected because the target is
+     *         unavailable and those that failed otherwise, or with the failure of a submodel-level request.
+     */
+    public Uni<Void> executeUpdateValues(List<AasUpdateValueDirective> directives, AasTargetArcMessageDTO arcConfig, Long transformationId) {
+        Map<String, AasUpdateValueDirective> latestByElement = new LinkedHashMap<>();
+        directives.forEach(directive -> latestByElement.put(directive.getElementIdShortPath(), directive));
+        List<AasUpdateValueDirective> effectiveDirectives = List.copyOf(latestByElement.values());
+
+        boolean useSubmodelValue = supportsSubmodelValue(arcConfig) && isValueOnlyRepresentable(effectiveDirectives);
+        String mode = useSubmodelValue ? "submodel-value" : "element";
+        Timer timer = submodelWriteTimer(arcConfig.alias(), submodelTag(arcConfig.submodelId()), mode);
+        long start = System.nanoTime();
+
+        Uni<Void> batch = useSubmodelValue
+                ? executeSubmodelValueUpdate(effectiveDirectives, arcConfig, transformationId)
+                : executePipelinedUpdates(effectiveDirectives, arcConfig, transformationId);
+
+        return batch.onTermination().invoke(() -> {
+            long elapsed = System.nanoTime() - start;
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+            Log.debugf("AAS batch of %d element update(s) for submodel '%s' finished in %d ms (mode: %s).",
+                    effectiveDirectives.size(), arcConfig.submodelId(), TimeUnit.NANOSECONDS.toMillis(elapsed), mode);
+        });
+    }
+
+    /**
+     * Resolves the key identifying the submodel an ARC writes to, used to coalesce whole batches.
+     *
+     * @param arcConfig        The AAS target configuration.
+     * @param transformationId The ID of the parent transformation.
+     * @return A key built from the transformation, the AAS base URL and the encoded submodel value path.
+     */
+    public String resolveSubmodelKey(AasTargetArcMessageDTO arcConfig, Long transformationId) {
+        return transformationId + ":" + arcConfig.baseUrl() + buildSubmodelValuePath(arcConfig);
+    }
+
+    /**
+     * Sends all element updates of a batch as one submodel-level {@code $value} request.
+     *
+     * @param directives       The de-duplicated directives of the batch.
+     * @param arcConfig        The AAS target configuration.
+     * @param transformationId The ID of the parent transformation for logging context.
+     * @return A {@link Uni<Void>} that completes when the request is finished or fails.
+     */
+    private Uni<Void> executeSubmodelValueUpdate(List<AasUpdateValueDirective> directives, AasTargetArcMessageDTO arcConfig,
+                                                 Long transformationId) {
+        try (var ignored = MDC.putCloseable("transformationId", String.valueOf(transformationId))) {
+            String requestUriPath = buildSubmodelValuePath(arcConfig);
+            Buffer payloadBuffer = Buffer.buffer(Json.encode(buildValueOnlyPayload(directives)));
+
+            Log.debugf("Executing AAS Submodel Update: %s %s%s (%d elements)",
+                    submodelValueMethod.name(), arcConfig.baseUrl(), requestUriPath, directives.size());
+
+            List<String> elementPaths = directives.stream().map(AasUpdateValueDirective::getElementIdShortPath).toList();
+            return executeRequest(submodelValueMethod, arcConfig, requestUriPath, payloadBuffer)
+                    .invoke(response -> logAasUpdateResponse(response, requestUriPath))
+                    .onFailure().invoke(failure ->
+                            Log.errorf(failure, "AAS submodel UPDATE request failed for submodel '%s'. Title: %s",
+                                    arcConfig.submodelId(),
+                                    (failure instanceof SyncNodeException) ? ((SyncNodeException) failure).getTitle() : "Unknown")
+                    )
+                    // The single request covers every element, so a rejection applies to all of them.
+                    .onFailure(TargetUnavailableException.class).transform(unavailable -> new AasBatchUpdateException(
+                            batchFailureMessage(directives.size(), directives.size(), arcConfig),
+                            elementPaths, List.of(), (TargetUnavailableException) unavailable))
+                    .replaceWithVoid();
+        }
+    }
+
+    /**
+     * Sends the element updates of a batch as individual PATCH requests, with at most
+     * {@code maxConcurrentElementUpdates} requests in flight. A failing element does not cancel the others.
+     *
+     * @param directives       The de-duplicated directives of the batch.
+     * @param arcConfig        The AAS target configuration.
+     * @param transformationId The ID of the parent transformation for logging context.
+     * @return A {@link Uni<Void>} that completes when all requests are finished, or fails with an
+     *         {@link AasBatchUpdateException} naming the elements that were rejected by the target's circuit breaker
+     *         and those that failed otherwise.
+     */
+    private Uni<Void> executePipelinedUpdates(List<AasUpdateValueDirective> directives, AasTargetArcMessageDTO arcConfig,
+                                              Long transformationId) {
+        return Multi.createFrom().iterable(directives)
+                .onItem().transformToUni(directive -> executeUpdateValue(directive, arcConfig, transformationId)
+                        .map(v -> Map.entry(directive.getElementIdShortPath(), Optional.<Throwable>empty()))
+                        .onFailure().recoverWithItem(failure -> Map.entry(directive.getElementIdShortPath(), Optional.of(failure))))
+                .merge(maxConcurrentElementUpdates)
+                .collect().asList()
+                .flatMap(results -> {
+                    List<String> unavailablePaths = new ArrayList<>();
+                    List<String> failedPaths = new ArrayList<>();
+                    TargetUnavailableException unavailable = null;
+                    for (Map.Entry<String, Optional<Throwable>> result : results) {
+                        Throwable failure = result.getValue().orElse(null);
+                        if (failure instanceof TargetUnavailableException rejection) {
+                            unavailablePaths.add(result.getKey());
+                            unavailable = rejection;
+                        } else if (failure != null) {
+                            failedPaths.add(result.getKey());
+                        }
+                    }
+                    if (unavailablePaths.isEmpty() && failedPaths.isEmpty()) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    return Uni.createFrom().failure(new AasBatchUpdateException(
+                            batchFailureMessage(unavailablePaths.size() + failedPaths.size(), results.size(), arcConfig),
+                            unavailablePaths, failedPaths, unavailable));
+                });
+    }
+
+    private static String batchFailureMessage(int failed, int total, AasTargetArcMessageDTO arcConfig) {
+        return String.format("%d of %d element updates failed for submodel '%s'.", failed, total, arcConfig.submodelId());
+    }
+
     /**
      * Constructs the specific URI path for the AAS "update value" API call.
      * <p>
@@ -98,39 +266,133 @@ public class AasDirectiveExecutor {
      * @throws SyncNodeException if the element path cannot be URL-encoded.
      */
     private String buildAasUpdatePath(AasTargetArcMessageDTO arcConfig, AasUpdateValueDirective directive) throws SyncNodeException {
-        String base64SubmodelId = Base64.getUrlEncoder().withoutPadding()
-                .encodeToString(arcConfig.submodelId().getBytes(StandardCharsets.UTF_8));
-
         // URL-encode the element path to safely handle characters like '/' or '?'
         String encodedElementPath = URLEncoder.encode(directive.getElementIdShortPath(), StandardCharsets.UTF_8);
 
-        return String.format(AAS_UPDATE_PATH_TEMPLATE, base64SubmodelId, encodedElementPath);
+        return String.format(AAS_UPDATE_PATH_TEMPLATE, encodeSubmodelId(arcConfig), encodedElementPath);
     }
 
     /**
-     * Creates and executes the HTTP PATCH request using the WebClient.
+     * Constructs the URI path for the submodel-level "update value" API call.
      *
      * @param arcConfig The AAS target configuration.
+     * @return The fully constructed and encoded request path.
+     */
+    private String buildSubmodelValuePath(AasTargetArcMessageDTO arcConfig) {
+        return String.format(AAS_SUBMODEL_VALUE_PATH_TEMPLATE, encodeSubmodelId(arcConfig));
+    }
+
+    /**
+     * Base64 URL-encodes the Submodel ID of an ARC, as required by the AAS specification.
+     */
+    private String encodeSubmodelId(AasTargetArcMessageDTO arcConfig) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(arcConfig.submodelId().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds the value-only representation of a submodel containing the given element values.
+     * Dot-separated ID-short paths are expanded into nested objects (e.g. {@code a.b} becomes {@code {"a":{"b":...}}}).
+     *
+     * @param directives The directives whose values make up the payload.
+     * @return A nested map suitable for JSON serialization.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> buildValueOnlyPayload(List<AasUpdateValueDirective> directives) {
+        Map<String, Object> root = new LinkedHashMap<>();
+        for (AasUpdateValueDirective directive : directives) {
+            String[] segments = directive.getElementIdShortPath().split("\\.");
+            Map<String, Object> current = root;
+            for (int i = 0; i < segments.length - 1; i++) {
+                current = (Map<String, Object>) current.computeIfAbsent(segments[i], k -> new LinkedHashMap<String, Object>());
+            }
+            current.put(segments[segments.length - 1], directive.getValue());
+        }
+        return root;
+    }
+
+    /**
+     * Checks whether all element paths of a batch can be merged into one value-only payload. This is not
+     * the case for list indices or for paths where one element is the parent of another.
+     */
+    private boolean isValueOnlyRepresentable(List<AasUpdateValueDirective> directives) {
+        Set<String> paths = new HashSet<>();
+        directives.forEach(directive -> paths.add(directive.getElementIdShortPath()));
+        for (String path : paths) {
+            if (path == null || path.isBlank() || path.contains("[")) {
+                return false;
+            }
+            int separator = path.lastIndexOf('.');
+            while (separator > 0) {
+                if (paths.contains(path.substring(0, separator))) {
+                    return false;
+                }
+                separator = path.lastIndexOf('.', separator - 1);
+            }
+        }
+        return true;
+    }
+
+    private boolean supportsSubmodelValue(AasTargetArcMessageDTO arcConfig) {
+        return submodelValueTargets.contains(normalizeBaseUrl(arcConfig.baseUrl()));
+    }
+
+    private static String normalizeBaseUrl(String baseUrl) {
+        String trimmed = baseUrl.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    private String submodelTag(String submodelId) {
+        if (submodelId == null) {
+            return "unknown";
+        }
+        String tag = submodelTags.get(submodelId);
+        if (tag != null) {
+            return tag;
+        }
+        if (submodelTags.size() >= maxTaggedSubmodels) {
+            return PipelineStageMetrics.OVERFLOW_TAG;
+        }
+        // Concurrent first sightings may exceed the bound by the number of racing threads, which is harmless.
+        return submodelTags.computeIfAbsent(submodelId, id -> id);
+    }
+
+    private Timer submodelWriteTimer(String arcAlias, String submodelTag, String mode) {
+        return submodelWriteTimers.computeIfAbsent(arcAlias + '|' + submodelTag + '|' + mode,
+                key -> Timer.builder("stayinsync.aas.submodel.write.time")
+                        .description("Latency of writing a batch of element values to one AAS submodel")
+                        .tag("arcAlias", arcAlias)
+                        .tag("submodel", submodelTag)
+                        .tag("mode", mode)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Creates and executes an HTTP request with a JSON body through the dedicated client of the target AAS server.
+     *
+     * @param method         The HTTP method (PATCH or PUT).
+     * @param arcConfig      The AAS target configuration.
      * @param requestUriPath The fully constructed and encoded request path.
      * @param payloadBuffer  The JSON payload as a Vert.x Buffer.
      * @return A {@link Uni} that will emit the HTTP response.
      */
-    private Uni<HttpResponse<Buffer>> executePatchRequest(AasTargetArcMessageDTO arcConfig, String requestUriPath, Buffer payloadBuffer) {
+    private Uni<HttpResponse<Buffer>> executeRequest(HttpMethod method, AasTargetArcMessageDTO arcConfig, String requestUriPath, Buffer payloadBuffer) {
+        TargetEndpoint endpoint;
         try {
-            URI serverUri = new URI(arcConfig.baseUrl());
-            int port = serverUri.getPort() != -1 ? serverUri.getPort() : ("https".equalsIgnoreCase(serverUri.getScheme()) ? 443 : 80);
-            boolean useSsl = "https".equalsIgnoreCase(serverUri.getScheme());
+            endpoint = targetClients.resolve(arcConfig.baseUrl());
+        } catch (SyncNodeException e) {
+            return Uni.createFrom().failure(e);
+        }
 
-            HttpRequest<Buffer> request = webClient.patch(port, serverUri.getHost(), requestUriPath)
-                    .ssl(useSsl)
+        return targetClients.send(endpoint, client -> {
+            HttpRequest<Buffer> request = client.request(method, endpoint.port(), endpoint.host(), requestUriPath)
+                    .ssl(endpoint.ssl())
                     .putHeader(CONTENT_TYPE_HEADER, CONTENT_TYPE_JSON);
 
             arcConfig.headers().forEach(headerPair -> request.putHeader(headerPair.headerName(), headerPair.headerValue()));
 
             return request.sendBuffer(payloadBuffer);
-        } catch (URISyntaxException e) {
-            return Uni.createFrom().failure(new SyncNodeException("Invalid URL", "The AAS base URL has invalid syntax: " + arcConfig.baseUrl(), e));
-        }
+        });
     }
 
     /**
@@ -144,8 +406,8 @@ public class AasDirectiveExecutor {
             Log.errorf("AAS UPDATE request failed for path '%s' with status code: %d. Response: %s",
                     requestUriPath, response.statusCode(), response.bodyAsString());
         } else {
-            Log.infof("AAS UPDATE success for path '%s' with status: %d",
+            Log.debugf("AAS UPDATE success for path '%s' with status: %d",
                     requestUriPath, response.statusCode());
         }
     }
-}
\ No newline at end of file
+}
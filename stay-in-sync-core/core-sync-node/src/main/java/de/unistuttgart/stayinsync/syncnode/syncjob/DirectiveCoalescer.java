@@ -0,0 +1,156 @@
+package de.unistuttgart.stayinsync.syncnode.syncjob;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An optional write-behind buffer that coalesces bursts of writes to the same target resource.
+ * <p>
+ * When a source changes rapidly, successive transformation runs emit directives for the same target resource
+ * within milliseconds. Instead of sending every intermediate state, this service holds the first write to a
+ * resource for a configurable coalescing window. Every write to the same resource key that arrives within that
+ * window replaces the pending one (last-write-wins), so only the latest directive is actually sent.
+ * <p>
+ * Writes carrying only part of a resource's state can instead be merged with the pending write through
+ * {@link #submitMerging(String, Object, BinaryOperator, Function)}.
+ * <p>
+ * Callers whose write was superseded are not failed: the {@link Uni} they received completes with the outcome of
+ * the write that replaced theirs. The number of writes saved this way is recorded as a metric.
+ * <p>
+ * Coalescing is disabled by default, in which case {@link #submit(String, Supplier)} executes the write immediately.
+ */
+@ApplicationScoped
+public class DirectiveCoalescer {
+
+    private final Vertx vertx;
+    private final boolean enabled;
+    private final Duration window;
+    private final Counter coalescedWritesCounter;
+    private final Counter sentWritesCounter;
+
+    private final Map<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+
+    /**
+     * Holds the merged payload of all writes to a resource key, the writer that sends it and the shared
+     * completion of all submissions it represents.
+     */
+    private static final class PendingWrite {
+        private volatile Object payload;
+        private volatile Function<Object, Uni<Void>> writer;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        private PendingWrite(Object payload, Function<Object, Uni<Void>> writer) {
+            this.payload = payload;
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * Constructs the DirectiveCoalescer with its required dependencies.
+     *
+     * @param vertx         The Vert.x instance used to schedule the flush of a coalescing window.
+     * @param enabled       Whether writes are coalesced at all.
+     * @param window        The time a write is held back to absorb subsequent writes to the same resource.
+     * @param meterRegistry The registry for creating and managing metrics.
+     */
+    public DirectiveCoalescer(Vertx vertx,
+                              @ConfigProperty(name = "stayinsync.writer.coalescing.enabled", defaultValue = "false") boolean enabled,
+                              @ConfigProperty(name = "stayinsync.writer.coalescing.window", defaultValue = "250ms") Duration window,
+                              MeterRegistry meterRegistry) {
+        this.vertx = vertx;
+        this.enabled = enabled && !window.isZero() && !window.isNegative();
+        this.window = window;
+        this.coalescedWritesCounter = Counter.builder("stayinsync.writer.coalesced.writes")
+                .description("Number of target writes saved because a later write to the same resource superseded them")
+                .register(meterRegistry);
+        this.sentWritesCounter = Counter.builder("stayinsync.writer.sent.writes")
+                .description("Number of target writes sent after coalescing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Submits a write for the given target resource.
+     * <p>
+     * If no write is pending for the resource, the write is scheduled to be sent once the coalescing window
+     * elapses. If a write is already pending, it is replaced by this one and the superseded write is dropped.
+     *
+     * @param resourceKey A key uniquely identifying the target resource the write addresses.
+     * @param write       A supplier that performs the write when subscribed to.
+     * @return A {@link Uni<Void>} that completes when the write representing this submission has been sent.
+     */
+    public Uni<Void> submit(String resourceKey, Supplier<Uni<Void>> write) {
+        return submitMerging(resourceKey, write, (pending, latest) -> latest, Supplier::get);
+    }
+
+    /**
+     * Submits a write whose payload can be merged with a pending write to the same target resource.
+     * <p>
+     * This is used for writes that each carry only part of a resource's state, such as batches of element
+     * updates for one submodel: instead of dropping the pending payload, it is combined with the new one
+     * through {@code merger}, and the merged payload is sent once by the latest {@code writer}.
+     *
+     * @param resourceKey A key uniquely identifying the target resource the write addresses.
+     * @param payload     The payload of this write.
+     * @param merger      Combines the pending payload (first argument) with this payload (second argument).
+     * @param writer      Sends a (possibly merged) payload when subscribed to.
+     * @param <T>         The payload type.
+     * @return A {@link Uni<Void>} that completes when the write representing this submission has been sent.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Uni<Void> submitMerging(String resourceKey, T payload, BinaryOperator<T> merger, Function<T, Uni<Void>> writer) {
+        if (!enabled) {
+            return writer.apply(payload);
+        }
+
+        boolean[] created = {false};
+        PendingWrite pendingWrite = pendingWrites.compute(resourceKey, (key, existing) -> {
+            if (existing == null) {
+                created[0] = true;
+                return new PendingWrite(payload, (Function<Object, Uni<Void>>) writer);
+            }
+            existing.payload = merger.apply((T) existing.payload, payload);
+            existing.writer = (Function<Object, Uni<Void>>) writer;
+            return existing;
+        });
+
+        if (created[0]) {
+            vertx.setTimer(window.toMillis(), timerId -> flush(resourceKey));
+        } else {
+            coalescedWritesCounter.increment();
+            Log.debugf("Coalesced write for resource '%s'; the previously pending write was superseded.", resourceKey);
+        }
+        return Uni.createFrom().completionStage(pendingWrite.completion);
+    }
+
+    /**
+     * Sends the latest write pending for a resource once its coalescing window has elapsed.
+     * Removing the entry first guarantees that writes arriving from now on open a new window.
+     *
+     * @param resourceKey The key of the resource whose window has elapsed.
+     */
+    private void flush(String resourceKey) {
+        PendingWrite pendingWrite = pendingWrites.remove(resourceKey);
+        if (pendingWrite == null) {
+            return;
+        }
+        sentWritesCounter.increment();
+        Uni.createFrom().deferred(() -> pendingWrite.writer.apply(pendingWrite.payload))
+                .subscribe().with(
+                        ignored -> pendingWrite.completion.complete(null),
+                        pendingWrite.completion::completeExceptionally
+                );
+    }
+}
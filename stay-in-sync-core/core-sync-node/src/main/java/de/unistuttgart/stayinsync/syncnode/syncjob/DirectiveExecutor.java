@@ -6,19 +6,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.unistuttgart.stayinsync.exception.SyncNodeException;
 import de.unistuttgart.stayinsync.syncnode.domain.ApiCallConfiguration;
 import de.unistuttgart.stayinsync.syncnode.domain.UpsertDirective;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetClientRegistry.TargetEndpoint;
 import de.unistuttgart.stayinsync.syncnode.syncjob.assets.CheckResponseCacheService;
+import de.unistuttgart.stayinsync.syncnode.syncjob.assets.CheckResponseCacheService.CachedCheckResponse;
+import de.unistuttgart.stayinsync.syncnode.syncjob.assets.CheckResponseCacheService.CheckCacheKey;
+import de.unistuttgart.stayinsync.syncnode.syncjob.assets.CheckResponseCacheService.CheckToken;
 import de.unistuttgart.stayinsync.transport.domain.TargetApiRequestConfigurationActionRole;
 import de.unistuttgart.stayinsync.transport.dto.ApiRequestHeaderMessageDTO;
 import de.unistuttgart.stayinsync.transport.dto.targetsystems.ActionMessageDTO;
 import de.unistuttgart.stayinsync.transport.dto.targetsystems.RequestConfigurationMessageDTO;
-import io.quarkus.cache.CacheResult;
 import io.quarkus.logging.Log;
 import io.smallrye.mutiny.Uni;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.mutiny.core.buffer.Buffer;
 import io.vertx.mutiny.ext.web.client.HttpRequest;
 import io.vertx.mutiny.ext.web.client.HttpResponse;
-import io.vertx.mutiny.ext.web.client.WebClient;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.core.MultivaluedHashMap;
 import jakarta.ws.rs.core.MultivaluedMap;
@@ -26,8 +28,6 @@ import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriBuilder;
 import org.slf4j.MDC;
 
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.*;
 
 /**
@@ -37,9 +37,11 @@ import java.util.*;
  * For each {@link UpsertDirective}, it performs the following sequence:
  * <ol>
  *     <li><b>CHECK:</b> It makes an HTTP GET request to see if a resource already exists in the target system.
- *         This check is cached to avoid redundant network calls within the same transformation.</li>
+ *         The resolved result is cached in the bounded {@link CheckResponseCacheService}, keyed on the full
+ *         effective request, to avoid redundant network calls.</li>
  *     <li><b>ACT (CREATE or UPDATE):</b> Based on the CHECK response (404 Not Found or 200 OK), it proceeds
- *         to either create a new resource (HTTP POST) or update an existing one (HTTP PUT).</li>
+ *         to either create a new resource (HTTP POST) or update an existing one (HTTP PUT). After a successful
+ *         write, the cached CHECK result for that resource is invalidated.</li>
  * </ol>
  * This service handles all aspects of building, executing, and logging these state-changing HTTP requests.
  */
@@ -47,19 +49,19 @@ import java.util.*;
 public class DirectiveExecutor {
 
     private final CheckResponseCacheService responseCache;
-    private final WebClient webClient;
+    private final TargetClientRegistry targetClients;
     private final ObjectMapper objectMapper;
 
     /**
      * Constructs the DirectiveExecutor with its required dependencies.
      *
      * @param responseCache The service for caching CHECK responses.
-     * @param webClient     The configured Vert.x WebClient for making HTTP requests.
+     * @param targetClients The registry of per-target HTTP clients for making HTTP requests.
      * @param objectMapper  The Jackson ObjectMapper for JSON processing.
      */
-    public DirectiveExecutor(CheckResponseCacheService responseCache, WebClient webClient, ObjectMapper objectMapper) {
+    public DirectiveExecutor(CheckResponseCacheService responseCache, TargetClientRegistry targetClients, ObjectMapper objectMapper) {
         this.responseCache = responseCache;
-        this.webClient = webClient;
+        this.targetClients = targetClients;
         this.objectMapper = objectMapper;
     }
 
@@ -75,10 +77,18 @@ public class DirectiveExecutor {
      */
     public Uni<Void> execute(UpsertDirective directive, RequestConfigurationMessageDTO arcConfig, Long transformationId, String targetApiUrl) {
         try (var ignored = MDC.putCloseable("transformationId", transformationId.toString())) {
-            Log.infof("Processing directive: %s for target: %s", directive.get__directiveType(), targetApiUrl);
+            Log.debugf("Processing directive: %s for target: %s", directive.get__directiveType(), targetApiUrl);
 
-            return executeCheckRequest(directive, arcConfig, targetApiUrl)
-                    .flatMap(checkResponse -> processCheckResponse(checkResponse, directive, arcConfig, transformationId, targetApiUrl))
+            return Uni.createFrom().deferred(() -> {
+                        CheckCacheKey checkKey;
+                        try {
+                            checkKey = buildCheckCacheKey(directive, arcConfig, targetApiUrl);
+                        } catch (IllegalStateException e) {
+                            return Uni.createFrom().failure(new SyncNodeException("Configuration Error", e.getMessage(), e));
+                        }
+                        return executeCheckRequest(checkKey, directive, arcConfig, transformationId, targetApiUrl)
+                                .flatMap(checkResponse -> processCheckResponse(checkResponse, checkKey, directive, arcConfig, targetApiUrl));
+                    })
                     .onFailure().invoke(failure ->
                             Log.errorf(failure, "A technical error occurred during directive execution for '%s'. Title: %s",
                                     directive.get__directiveType(),
@@ -89,28 +99,48 @@ public class DirectiveExecutor {
     }
 
     /**
-     * Handles the logic after the CHECK request completes, branching to the CREATE or UPDATE flow.
+     * Resolves the key identifying the target resource a directive writes to. Directives with the same key
+     * address the same resource, which allows later directives to supersede earlier ones.
      *
-     * @param checkResponse    The HTTP response from the initial CHECK request.
-     * @param directive        The original upsert directive.
+     * @param directive        The upsert directive.
      * @param arcConfig        The target ARC configuration.
-     * @param transformationId The current transformation ID.
+     * @param transformationId The ID of the parent transformation.
      * @param targetApiUrl     The base URL of the target API.
+     * @return A key built from the transformation, the ARC and the fully resolved CHECK URL.
+     * @throws SyncNodeException if the ARC has no CHECK action configured.
+     */
+    public String resolveResourceKey(UpsertDirective directive, RequestConfigurationMessageDTO arcConfig,
+                                     Long transformationId, String targetApiUrl) throws SyncNodeException {
+        try {
+            CheckCacheKey checkKey = buildCheckCacheKey(directive, arcConfig, targetApiUrl);
+            return transformationId + ":" + checkKey.targetArcId() + ":" + checkKey.url();
+        } catch (IllegalStateException e) {
+            throw new SyncNodeException("Configuration Error", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Handles the logic after the CHECK request completes, branching to the CREATE or UPDATE flow.
+     *
+     * @param checkResponse The resolved response of the initial CHECK request.
+     * @param checkKey      The cache key of the CHECK request, invalidated after a successful write.
+     * @param directive     The original upsert directive.
+     * @param arcConfig     The target ARC configuration.
+     * @param targetApiUrl  The base URL of the target API.
      * @return A {@link Uni} representing the subsequent CREATE or UPDATE action.
      */
-    private Uni<HttpResponse<Buffer>> processCheckResponse(HttpResponse<Buffer> checkResponse, UpsertDirective directive,
-                                                           RequestConfigurationMessageDTO arcConfig, Long transformationId, String targetApiUrl) {
-        String checkResponseBody = checkResponse.bodyAsString();
+    private Uni<HttpResponse<Buffer>> processCheckResponse(CachedCheckResponse checkResponse, CheckCacheKey checkKey, UpsertDirective directive,
+                                                           RequestConfigurationMessageDTO arcConfig, String targetApiUrl) {
+        String checkResponseBody = checkResponse.body();
         int statusCode = checkResponse.statusCode();
-        int acceptingStatusCodeLowerBound = 200;
-        int acceptingStatusCodeUpperBound = 299;
-        if (statusCode >= acceptingStatusCodeLowerBound && statusCode <= acceptingStatusCodeUpperBound) {
-            responseCache.addResponse(transformationId, arcConfig.id(), checkResponseBody);
-            Log.infof("CHECK successful (2XX accepted)");
-            return executeUpdateRequest(directive, arcConfig, targetApiUrl, checkResponseBody);
+        if (isSuccessful(statusCode)) {
+            Log.debug("CHECK successful (2XX accepted)");
+            return executeUpdateRequest(directive, arcConfig, targetApiUrl, checkResponseBody)
+                    .invoke(response -> invalidateAfterWrite(checkKey, response));
         } else if (statusCode == Response.Status.NOT_FOUND.getStatusCode()) {
-            Log.infof("CHECK returned 404 Not Found. Proceeding with CREATE.");
-            return executeCreateRequest(directive, arcConfig, targetApiUrl);
+            Log.debug("CHECK returned 404 Not Found. Proceeding with CREATE.");
+            return executeCreateRequest(directive, arcConfig, targetApiUrl)
+                    .invoke(response -> invalidateAfterWrite(checkKey, response));
         } else {
             Log.errorf("CHECK request failed with unexpected status code: %d. Response: %s", statusCode, checkResponseBody);
             return Uni.createFrom().nullItem(); // Gracefully stop the chain for this directive
@@ -118,47 +148,87 @@ public class DirectiveExecutor {
     }
 
     /**
-     * Prepares and executes the initial CHECK (GET) request by calling the cached method.
+     * Resolves the initial CHECK (GET) request, serving it from the {@link CheckResponseCacheService} if possible.
+     * <p>
+     * On a cache miss, the request is sent and its resolved result is stored if it is a stable decision
+     * for the CHECK-then-ACT flow (2XX or 404) and no write invalidated the entry while it was in flight.
+     * Other status codes are never cached.
      *
+     * @param checkKey         The full effective CHECK request.
      * @param directive        The upsert directive containing the CHECK configuration.
      * @param arcConfig        The target ARC configuration.
+     * @param transformationId The ID of the parent transformation, recorded for diagnostics on a store or a hit.
      * @param targetApiUrl     The base URL of the target API.
-     * @return A {@link Uni} that will emit the HTTP response of the CHECK request.
+     * @return A {@link Uni} that will emit the resolved CHECK response.
      */
-    private Uni<HttpResponse<Buffer>> executeCheckRequest(UpsertDirective directive, RequestConfigurationMessageDTO arcConfig,
-                                                          String targetApiUrl) {
-        try {
-            String pathTemplate = findPathForAction(arcConfig, TargetApiRequestConfigurationActionRole.CHECK)
-                    .orElseThrow(() -> new IllegalStateException("CHECK action path is missing for ARC " + arcConfig.alias()));
+    private Uni<CachedCheckResponse> executeCheckRequest(CheckCacheKey checkKey, UpsertDirective directive,
+                                                         RequestConfigurationMessageDTO arcConfig, Long transformationId,
+                                                         String targetApiUrl) {
+        Optional<CachedCheckResponse> cached = responseCache.get(checkKey, transformationId);
+        if (cached.isPresent()) {
+            Log.debugf("CHECK served from cache: GET %s", checkKey.url());
+            return Uni.createFrom().item(cached.get());
+        }
 
-            ApiCallConfiguration checkConfig = directive.getCheckConfiguration();
-            String resolvedPath = resolvePathParameters(pathTemplate, checkConfig.getPathParameters());
-            MultivaluedMap<String, String> queryParams = extractQueryParams(checkConfig);
-            String fullUrlForCache = buildFullUrlForCache(targetApiUrl, resolvedPath, queryParams);
+        String pathTemplate = findPathForAction(arcConfig, TargetApiRequestConfigurationActionRole.CHECK).orElseThrow();
+        ApiCallConfiguration checkConfig = directive.getCheckConfiguration();
+        String resolvedPath = resolvePathParameters(pathTemplate, checkConfig.getPathParameters());
+        MultivaluedMap<String, String> queryParams = extractQueryParams(checkConfig);
 
-            return cachedCheckRequest(targetApiUrl, resolvedPath, queryParams, fullUrlForCache, arcConfig);
-        } catch (IllegalStateException e) {
-            return Uni.createFrom().failure(new SyncNodeException("Configuration Error", e.getMessage(), e));
-        }
+        Log.debugf("Executing CHECK: GET %s", checkKey.url());
+        // Taken before the request, so that a write invalidating the entry meanwhile keeps this response out of the cache.
+        CheckToken checkToken = responseCache.beginCheck(checkKey);
+        return sendRequest(HttpMethod.GET, targetApiUrl, resolvedPath, queryParams, arcConfig.headers(), null)
+                .map(response -> new CachedCheckResponse(transformationId, response.statusCode(), response.bodyAsString()))
+                .invoke(response -> {
+                    if (isSuccessful(response.statusCode()) || response.statusCode() == Response.Status.NOT_FOUND.getStatusCode()) {
+                        responseCache.putIfCurrent(checkKey, checkToken, response);
+                    } else {
+                        responseCache.abandonCheck(checkKey, checkToken);
+                    }
+                })
+                .onFailure().invoke(() -> responseCache.abandonCheck(checkKey, checkToken))
+                .onCancellation().invoke(() -> responseCache.abandonCheck(checkKey, checkToken));
     }
 
     /**
-     * Executes a GET request that is backed by a cache. This method is public to allow
-     * Quarkus's caching interceptor to work on it.
+     * Builds the cache key describing the full effective CHECK request of a directive.
      *
-     * @param targetApiUrl     The base URL of the target API.
-     * @param resolvedPath     The path with placeholders already resolved.
-     * @param queryParams      The query parameters for the request.
-     * @param fullUrlForCache  The full URL string used as part of the cache key.
-     * @param arcConfig        The Api Request Configuration object with metadata about the request.
-     * @return A {@link Uni} that emits the HTTP response.
+     * @param directive    The upsert directive containing the CHECK configuration.
+     * @param arcConfig    The target ARC configuration, providing the path template and headers.
+     * @param targetApiUrl The base URL of the target API.
+     * @return The {@link CheckCacheKey} for the CHECK request.
+     * @throws IllegalStateException if the ARC has no CHECK action configured.
      */
-    @CacheResult(cacheName = "check-cache", keyGenerator = UrlCacheKeyGenerator.class)
-    public Uni<HttpResponse<Buffer>> cachedCheckRequest(String targetApiUrl, String resolvedPath, MultivaluedMap<String, String> queryParams,
-                                                        String fullUrlForCache, RequestConfigurationMessageDTO arcConfig) {
-        Log.infof("Executing CACHED CHECK: GET %s", fullUrlForCache);
-        return buildRequest(HttpMethod.GET, targetApiUrl, resolvedPath, queryParams, arcConfig.headers(), null)
-                .flatMap(HttpRequest::send);
+    private CheckCacheKey buildCheckCacheKey(UpsertDirective directive, RequestConfigurationMessageDTO arcConfig, String targetApiUrl) {
+        String pathTemplate = findPathForAction(arcConfig, TargetApiRequestConfigurationActionRole.CHECK)
+                .orElseThrow(() -> new IllegalStateException("CHECK action path is missing for ARC " + arcConfig.alias()));
+
+        ApiCallConfiguration checkConfig = directive.getCheckConfiguration();
+        String resolvedPath = resolvePathParameters(pathTemplate, checkConfig.getPathParameters());
+        MultivaluedMap<String, String> queryParams = extractQueryParams(checkConfig);
+        String fullUrl = buildFullUrlForCache(targetApiUrl, resolvedPath, queryParams);
+
+        SortedMap<String, String> headers = new TreeMap<>();
+        arcConfig.headers().forEach(header -> headers.put(header.headerName().toLowerCase(Locale.ROOT), header.headerValue()));
+        return new CheckCacheKey(arcConfig.id(), HttpMethod.GET.name(), fullUrl, headers);
+    }
+
+    /**
+     * Invalidates the cached CHECK result of a resource after a successful write to it, so that the
+     * next CHECK observes the new state of the target system.
+     *
+     * @param checkKey The cache key of the CHECK request that led to the write.
+     * @param response The HTTP response of the write request.
+     */
+    private void invalidateAfterWrite(CheckCacheKey checkKey, HttpResponse<Buffer> response) {
+        if (response != null && isSuccessful(response.statusCode())) {
+            responseCache.invalidate(checkKey);
+        }
+    }
+
+    private static boolean isSuccessful(int statusCode) {
+        return statusCode >= 200 && statusCode <= 299;
     }
 
     /**
@@ -179,9 +249,8 @@ public class DirectiveExecutor {
                 String resolvedPath = resolvePathParameters(pathTemplate, createConfig.getPathParameters());
                 Buffer payloadBuffer = jsonToBuffer(createConfig.getPayload());
 
-                Log.infof("Executing CREATE: POST %s", targetApiUrl + resolvedPath);
-                return buildRequest(HttpMethod.POST, targetApiUrl, resolvedPath, new MultivaluedHashMap<>(), arcConfig.headers(), payloadBuffer)
-                        .flatMap(request -> request.sendBuffer(payloadBuffer))
+                Log.debugf("Executing CREATE: POST %s", targetApiUrl + resolvedPath);
+                return sendRequest(HttpMethod.POST, targetApiUrl, resolvedPath, new MultivaluedHashMap<>(), arcConfig.headers(), payloadBuffer)
                         .invoke(response -> logWriteResponse("CREATE", response, payloadBuffer));
             } catch (RuntimeException e) {
                 return Uni.createFrom().failure(new SyncNodeException("Create Request Failed", e.getMessage(), e));
@@ -210,9 +279,8 @@ public class DirectiveExecutor {
                 Map<String, Object> resolvedParams = resolveCheckResponsePlaceholders(updateConfig.getPathParameters(), checkResponseBody);
                 String resolvedPath = resolvePathParameters(pathTemplate, resolvedParams);
 
-                Log.infof("Executing UPDATE: PUT %s", targetApiUrl + resolvedPath);
-                return buildRequest(HttpMethod.PUT, targetApiUrl, resolvedPath, new MultivaluedHashMap<>(), arcConfig.headers(), payloadBuffer)
-                        .flatMap(request -> request.sendBuffer(payloadBuffer))
+                Log.debugf("Executing UPDATE: PUT %s", targetApiUrl + resolvedPath);
+                return sendRequest(HttpMethod.PUT, targetApiUrl, resolvedPath, new MultivaluedHashMap<>(), arcConfig.headers(), payloadBuffer)
                         .invoke(response -> logWriteResponse("UPDATE", response, payloadBuffer));
             } catch (JsonProcessingException e) {
                 return Uni.createFrom().failure(new SyncNodeException("Update Path Resolution Failed", "Could not parse CHECK response to resolve UPDATE path parameters.", e));
@@ -223,8 +291,9 @@ public class DirectiveExecutor {
     }
 
     /**
-     * Centralized, safe method to create and configure a WebClient request object. This reduces duplication
-     * and handles potential URI syntax errors gracefully within the reactive stream.
+     * Centralized, safe method to create, configure and send a request to a target system. This reduces duplication
+     * and handles potential URI syntax errors gracefully within the reactive stream. The request is sent through the
+     * dedicated client of the target system, whose base URL is resolved only once.
      *
      * @param method      The HTTP method (GET, POST, etc.).
      * @param baseApiUrl  The base URL of the API, including the scheme.
@@ -232,26 +301,29 @@ public class DirectiveExecutor {
      * @param queryParams Any query parameters to add.
      * @param headers     The list of predefined headers Key-Value pairs for the target system.
      * @param payload     The request body, or null if there is none.
-     * @return A {@link Uni} that emits the configured {@link HttpRequest} or a failure with a {@link SyncNodeException} if the baseApiUrl is invalid.
+     * @return A {@link Uni} that emits the HTTP response or a failure with a {@link SyncNodeException} if the baseApiUrl
+     *         is invalid or the target's connection pool is exhausted.
      */
-    private Uni<HttpRequest<Buffer>> buildRequest(HttpMethod method, String baseApiUrl, String path,
+    private Uni<HttpResponse<Buffer>> sendRequest(HttpMethod method, String baseApiUrl, String path,
                                                   MultivaluedMap<String, String> queryParams,
                                                   List<ApiRequestHeaderMessageDTO> headers, Buffer payload) {
+        TargetEndpoint endpoint;
         try {
-            URI uri = new URI(baseApiUrl);
-            boolean useSsl = "https".equalsIgnoreCase(uri.getScheme());
-            int port = uri.getPort() != -1 ? uri.getPort() : (useSsl ? 443 : 80);
+            endpoint = targetClients.resolve(baseApiUrl);
+        } catch (SyncNodeException e) {
+            return Uni.createFrom().failure(e);
+        }
 
-            HttpRequest<Buffer> request = webClient.request(method, port, uri.getHost(), path).ssl(useSsl);
+        return targetClients.send(endpoint, client -> {
+            HttpRequest<Buffer> request = client.request(method, endpoint.port(), endpoint.host(), path).ssl(endpoint.ssl());
             queryParams.forEach((key, values) -> values.forEach(value -> request.addQueryParam(key, value)));
             headers.forEach(headerPair -> request.putHeader(headerPair.headerName(), headerPair.headerValue()));
             if (payload != null) {
                 request.putHeader("Content-Type", "application/json");
+                return request.sendBuffer(payload);
             }
-            return Uni.createFrom().item(request);
-        } catch (URISyntaxException e) {
-            return Uni.createFrom().failure(new SyncNodeException("Invalid URL", "The target API URL has invalid syntax: " + baseApiUrl, e));
-        }
+            return request.send();
+        });
     }
 
     /**
@@ -266,7 +338,7 @@ public class DirectiveExecutor {
             Log.errorf("%s request failed with status code: %d. Response: %s. Payload: %s",
                     action, response.statusCode(), response.bodyAsString(), payload.toString());
         } else {
-            Log.infof("%s successful with status: %d", action, response.statusCode());
+            Log.debugf("%s successful with status: %d", action, response.statusCode());
         }
     }
 
@@ -1,9 +1,13 @@
 package de.unistuttgart.stayinsync.syncnode.syncjob;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.unistuttgart.stayinsync.syncnode.domain.ExecutionPayload;
+import de.unistuttgart.stayinsync.syncnode.domain.SyncDataMessage;
+import de.unistuttgart.stayinsync.syncnode.monitor.TransformationTimeoutMonitor;
 import de.unistuttgart.stayinsync.transport.dto.SourceSystemApiRequestConfigurationMessageDTO;
 import de.unistuttgart.stayinsync.transport.dto.SourceSystemMessageDTO;
-import de.unistuttgart.stayinsync.transport.dto.SyncDataMessageDTO;
 import de.unistuttgart.stayinsync.transport.dto.TransformationMessageDTO;
 import de.unistuttgart.graphengine.dto.transformationrule.TransformationRuleDTO;
 import de.unistuttgart.graphengine.nodes.Node;
@@ -31,17 +35,22 @@ import org.jboss.logging.MDC;
  *     <li>Registering transformation definitions, which includes their expected data inputs (ARC manifest).</li>
  *     <li>Tracking the arrival of data chunks (ARCs) for each active transformation.</li>
  *     <li>Determining when a transformation has received all its required data and is "ready" for execution.</li>
+ *     <li>Keeping the {@link TransformationTimeoutMonitor} informed about which transformations are in progress.</li>
  *     <li>Constructing and dispatching an {@link ExecutionPayload} for ready transformations.</li>
  *     <li>Maintaining a global cache of the most recently received data for each ARC alias.</li>
  * </ul>
+ * <p>
+ * The source data of a job is a tree composed of the cached ARC trees, which are shared rather than
+ * copied; neither this service nor any consumer of a job modifies them.
  */
 @ApplicationScoped
 public class DispatcherStateService {
 
     private final GraphMapper graphMapperService;
+    private final TransformationTimeoutMonitor timeoutMonitor;
 
     // A global cache holding the most recent data received for any given ARC alias.
-    private final Map<String, Map<String, Object>> latestArcData = new ConcurrentHashMap<>();
+    private final Map<String, JsonNode> latestArcData = new ConcurrentHashMap<>();
 
     // The primary registry of all active transformations and their current state.
     private final Map<Long, TransformationState> transformationRegistry = new ConcurrentHashMap<>();
@@ -52,8 +61,9 @@ public class DispatcherStateService {
     // A mapping from an ARC alias to its source system's name, used for payload construction.
     private final Map<String, String> arcToSystemAliasMap = new ConcurrentHashMap<>();
 
-    public DispatcherStateService(GraphMapper graphMapperService) {
+    public DispatcherStateService(GraphMapper graphMapperService, TransformationTimeoutMonitor timeoutMonitor) {
         this.graphMapperService = graphMapperService;
+        this.timeoutMonitor = timeoutMonitor;
     }
 
     /**
@@ -95,7 +105,7 @@ public class DispatcherStateService {
      * @return A list of {@link ExecutionPayload}s for transformations that are now ready to execute.
      * The list will be empty if no transformations were completed by this data.
      */
-    public List<ExecutionPayload> processArc(SyncDataMessageDTO arcData) {
+    public List<ExecutionPayload> processArc(SyncDataMessage arcData) {
         // Step 1: Update the global cache with the latest data for this ARC.
         latestArcData.put(arcData.arcAlias(), arcData.jsonData());
 
@@ -127,9 +137,13 @@ public class DispatcherStateService {
                     ExecutionPayload payload = buildExecutionPayload(state.getTransformation());
                     completedPayloads.add(payload);
                     state.reset(); // Reset the state for the next run.
+                    timeoutMonitor.untrack(transformationId);
                 } finally {
                     MDC.remove("transformationId");
                 }
+            } else {
+                // Partially arrived: (re)start the inactivity timeout from this arrival.
+                timeoutMonitor.track(transformationId, state);
             }
         }
         return completedPayloads;
@@ -137,7 +151,7 @@ public class DispatcherStateService {
 
     /**
      * Returns a read-only view of the transformation registry.
-     * This is used for monitoring purposes, such as timeout detection.
+     * This is used for monitoring and diagnostic purposes.
      *
      * @return An unmodifiable map of the current transformation states.
      */
@@ -146,8 +160,8 @@ public class DispatcherStateService {
     }
 
     private ExecutionPayload buildExecutionPayload(TransformationMessageDTO transformation) {
-        Map<String, Object> sourceSystemPayload = buildSourceSystemPayload(transformation);
-        Map<String, Object> finalSource = Map.of("source", sourceSystemPayload);
+        ObjectNode sourceSystemPayload = buildSourceSystemPayload(transformation);
+        Map<String, JsonNode> finalSource = Map.of("source", sourceSystemPayload);
 
         List<Node> graphNodes = mapTransformationRuleToGraph(transformation.transformationRuleDTO());
 
@@ -161,29 +175,34 @@ public class DispatcherStateService {
                 transformation.transformationScriptDTO().hash(),
                 transformation.transformationScriptDTO().generatedSdkCode(),
                 transformation.transformationScriptDTO().generatedSdkHash(),
-                finalSource);
+                finalSource,
+                transformation.transformationScriptDTO().maxCpuTimeMillis(),
+                transformation.transformationScriptDTO().maxHeapAllocationBytes());
 
         return new ExecutionPayload(job, graphNodes, transformation);
     }
 
-    private Map<String, Object> buildSourceSystemPayload(TransformationMessageDTO transformation) {
-        Map<String, Object> sourceSystemMap = new ConcurrentHashMap<>();
+    /**
+     * Composes the source tree {@code {system: {arcAlias: arcData}}} of a job from the cached ARC trees,
+     * referencing them instead of copying.
+     */
+    private ObjectNode buildSourceSystemPayload(TransformationMessageDTO transformation) {
+        ObjectNode sourceSystemTree = JsonNodeFactory.instance.objectNode();
         for (String arcAlias : transformation.arcManifest()) {
             String systemName = arcToSystemAliasMap.get(arcAlias);
             if (systemName == null) {
                 Log.warnf("Could not find systemName for arcAlias '%s'. Skipping this ARC in the final payload.", arcAlias);
                 continue;
             }
-            Map<String, Object> arcData = latestArcData.get(arcAlias);
+            JsonNode arcData = latestArcData.get(arcAlias);
 
-            // The defined structure for this object is always the same, thus we can uncheck the cast.
-            @SuppressWarnings("unchecked")
-            Map<String, Object> arcsForSystem = (Map<String, Object>) sourceSystemMap
-                    .computeIfAbsent(systemName, k -> new ConcurrentHashMap<String, Object>());
+            ObjectNode arcsForSystem = sourceSystemTree.has(systemName)
+                    ? (ObjectNode) sourceSystemTree.get(systemName)
+                    : sourceSystemTree.putObject(systemName);
 
-            arcsForSystem.put(arcAlias, arcData);
+            arcsForSystem.set(arcAlias, arcData);
         }
-        return sourceSystemMap;
+        return sourceSystemTree;
     }
 
     private List<Node> mapTransformationRuleToGraph(TransformationRuleDTO rule) {
@@ -203,6 +222,7 @@ public class DispatcherStateService {
     private void deregisterTransformation(Long transformationId) {
         // Remove from the main registry
         TransformationState oldState = transformationRegistry.remove(transformationId);
+        timeoutMonitor.untrack(transformationId);
         if (oldState == null) {
             Log.debugf("Deregister: No existing state found for transformation ID %d. This is a new registration.", transformationId);
             // No old state to clean up.
@@ -313,6 +333,23 @@ public class DispatcherStateService {
             Log.debugf("State for transformation %d has been reset.", transformation.id());
         }
 
+        /**
+         * Resets the state if the transformation is in progress and has been inactive for at least the given timeout.
+         * The check and the reset happen atomically with respect to arriving data.
+         *
+         * @param nowMillis     The current time in epoch milliseconds.
+         * @param timeoutMillis The inactivity timeout in milliseconds.
+         * @return {@code true} if the state was reset, {@code false} if it is complete, idle or was recently active.
+         */
+        public synchronized boolean resetIfInactive(long nowMillis, long timeoutMillis) {
+            boolean isInProgress = !receivedArcs.isEmpty() && !isReady();
+            if (!isInProgress || nowMillis - lastActivityTimestamp < timeoutMillis) {
+                return false;
+            }
+            reset();
+            return true;
+        }
+
         public Set<String> getReceivedArcs() {
             return this.receivedArcs;
         }
@@ -0,0 +1,59 @@
+package de.unistuttgart.stayinsync.syncnode.syncjob;
+
+import org.eclipse.microprofile.config.Config;
+
+/**
+ * The scheduling settings of the execution queue of one transformation.
+ * <p>
+ * Every setting is read from {@code stayinsync.scheduler.transformation."<transformationId>".<setting>} and
+ * falls back to {@code stayinsync.scheduler.queue.<setting>}, so a transformation only needs an explicit
+ * profile if it deviates from the defaults.
+ *
+ * @param priority The priority class; queued payloads of a higher class are always executed first.
+ * @param weight   The share of executions the transformation gets relative to the other transformations of
+ *                 its priority class while they all have payloads queued.
+ * @param capacity The maximum number of queued payloads; the oldest payload is dropped when it is exceeded.
+ * @param coalesce Whether a new payload supersedes the queued ones, since only the latest ARC data matters.
+ */
+public record ExecutionQueueProfile(
+        ExecutionScheduler.Priority priority,
+        int weight,
+        int capacity,
+        boolean coalesce
+) {
+
+    private static final String DEFAULT_PREFIX = "stayinsync.scheduler.queue.";
+    private static final String TRANSFORMATION_PREFIX = "stayinsync.scheduler.transformation.\"%s\".";
+
+    public ExecutionQueueProfile {
+        if (priority == null) {
+            priority = ExecutionScheduler.Priority.NORMAL;
+        }
+        weight = Math.max(1, weight);
+        capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Resolves the profile of a transformation from the application configuration.
+     *
+     * @param config           The application configuration.
+     * @param transformationId The ID of the transformation.
+     * @return The effective profile of the transformation.
+     */
+    public static ExecutionQueueProfile forTransformation(Config config, Long transformationId) {
+        String transformationPrefix = String.format(TRANSFORMATION_PREFIX, transformationId);
+        return new ExecutionQueueProfile(
+                lookup(config, transformationPrefix, "priority", ExecutionScheduler.Priority.class,
+                        ExecutionScheduler.Priority.NORMAL),
+                lookup(config, transformationPrefix, "weight", Integer.class, 1),
+                lookup(config, transformationPrefix, "capacity", Integer.class, 16),
+                lookup(config, transformationPrefix, "coalesce", Boolean.class, true)
+        );
+    }
+
+    private static <T> T lookup(Config config, String transformationPrefix, String key, Class<T> type, T defaultValue) {
+        return config.getOptionalValue(transformationPrefix + key, type)
+                .or(() -> config.getOptionalValue(DEFAULT_PREFIX + key, type))
+                .orElse(defaultValue);
+    }
+}
@@ -0,0 +1,344 @@
+package de.unistuttgart.stayinsync.syncnode.syncjob;
+
+import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
+import de.unistuttgart.stayinsync.syncnode.domain.ExecutionPayload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Decides which ready execution payload runs next, instead of running all of them in arrival order.
+ * <p>
+ * Every transformation has its own bounded queue (see {@link ExecutionQueueProfile}). At most
+ * {@code maxConcurrency} payloads are executed at once; when an execution finishes, the next payload is
+ * taken from the highest priority class with queued payloads. Within a class, the transformations share the
+ * executions by weighted fair queuing: every queue carries a virtual finish tag that advances by
+ * {@code 1 / weight} per execution, and the queue with the smallest tag is served next. A transformation with
+ * a chatty ARC therefore gets its share, but cannot delay the others. A queue that runs empty is dropped and
+ * starts at the current virtual time of its class when it is used again, so idle time earns no credit.
+ * <p>
+ * At most one payload per transformation is executed at a time: while a payload of a transformation runs,
+ * its queue leaves the backlog and the payloads arriving meanwhile wait, and coalesce, until it finishes.
+ * Executions of one transformation therefore never overlap.
+ * <p>
+ * By default a new payload supersedes the queued payloads of its transformation, since only the latest ARC
+ * data matters. Superseded and dropped payloads fail with {@link SupersededException}. A payload whose
+ * subscription is cancelled before its execution starts is removed from its queue.
+ * <p>
+ * <b>Metrics:</b> per transformation, the number of queued payloads ({@code stayinsync.scheduler.queue.depth}),
+ * the time payloads waited in the queue ({@code stayinsync.scheduler.queue.wait}) and the superseded payloads
+ * ({@code stayinsync.scheduler.payloads.superseded}); and the number of running executions
+ * ({@code stayinsync.scheduler.running}).
+ */
+public class ExecutionScheduler {
+
+    /**
+     * The priority classes, from highest to lowest.
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    /**
+     * Signals that a payload was not executed because a newer payload of its transformation replaced it,
+     * or because the queue of its transformation was full.
+     */
+    public static final class SupersededException extends RuntimeException {
+        SupersededException(String jobId) {
+            super("Job " + jobId + " was superseded by a newer payload of its transformation.", null, false, false);
+        }
+    }
+
+    private record Entry(ExecutionPayload payload, UniEmitter<? super TransformationResult> emitter, long enqueuedNanos) {
+    }
+
+    private record QueueMeters(AtomicInteger depth, Timer waitTimer, Counter supersededCounter) {
+    }
+
+    /**
+     * The queued payloads of one transformation with its fair-queuing tags. Guarded by the scheduler lock.
+     * The queue is in the backlog exactly when it has queued payloads and none of its payloads is running;
+     * it is dropped once it is empty and idle.
+     */
+    private static final class TransformationQueue {
+        private final ExecutionQueueProfile profile;
+        private final QueueMeters meters;
+        private final long sequence;
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        private double startTag;
+        private double finishTag;
+        private boolean running;
+
+        private TransformationQueue(ExecutionQueueProfile profile, QueueMeters meters, long sequence) {
+            this.profile = profile;
+            this.meters = meters;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Function<ExecutionPayload, Uni<TransformationResult>> runner;
+    private final Function<Long, ExecutionQueueProfile> profiles;
+    private final int maxConcurrency;
+    private final MeterRegistry meterRegistry;
+    private final Function<Long, String> transformationTags;
+
+    private final Object lock = new Object();
+    private final Map<Long, TransformationQueue> queues = new HashMap<>();
+    private final Map<Priority, PriorityQueue<TransformationQueue>> backlog = new EnumMap<>(Priority.class);
+    private final Map<Priority, Double> virtualTimes = new EnumMap<>(Priority.class);
+    private final Map<String, QueueMeters> queueMeters = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private long nextSequence;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param runner             Executes a payload.
+     * @param profiles           Resolves the queue profile of a transformation by its ID.
+     * @param maxConcurrency     The maximum number of payloads executed at once.
+     * @param meterRegistry      The registry the queue meters are registered with.
+     * @param transformationTags Resolves the (bounded) metric tag of a transformation by its ID.
+     */
+    public ExecutionScheduler(Function<ExecutionPayload, Uni<TransformationResult>> runner,
+                              Function<Long, ExecutionQueueProfile> profiles, int maxConcurrency,
+                              MeterRegistry meterRegistry, Function<Long, String> transformationTags) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The maximum number of concurrent executions must be positive: " + maxConcurrency);
+        }
+        this.runner = runner;
+        this.profiles = profiles;
+        this.maxConcurrency = maxConcurrency;
+        this.meterRegistry = meterRegistry;
+        this.transformationTags = transformationTags;
+        Comparator<TransformationQueue> byFinishTag = Comparator.<TransformationQueue>comparingDouble(queue -> queue.finishTag)
+                .thenComparingLong(queue -> queue.sequence);
+        for (Priority priority : Priority.values()) {
+            backlog.put(priority, new PriorityQueue<>(byFinishTag));
+            virtualTimes.put(priority, 0.0);
+        }
+        Gauge.builder("stayinsync.scheduler.running", running, AtomicInteger::get)
+                .description("Transformation payloads being executed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a payload for execution.
+     *
+     * @param payload The payload to execute.
+     * @return A Uni with the result of the execution, subscribing to it queues the payload and cancelling the
+     * subscription removes it again. It fails with {@link SupersededException} if the payload is superseded
+     * before its execution starts.
+     */
+    public Uni<TransformationResult> submit(ExecutionPayload payload) {
+        return Uni.createFrom().deferred(() -> {
+            AtomicReference<Entry> queued = new AtomicReference<>();
+            return Uni.createFrom().<TransformationResult>emitter(emitter -> {
+                        payload.trace().markDispatched();
+                        Entry entry = new Entry(payload, emitter, System.nanoTime());
+                        queued.set(entry);
+                        enqueue(entry);
+                    })
+                    .onCancellation().invoke(() -> withdraw(queued.get()));
+        });
+    }
+
+    private void enqueue(Entry entry) {
+        Long transformationId = entry.payload().job().transformationId();
+        List<Entry> superseded = new ArrayList<>();
+        TransformationQueue queue;
+        synchronized (lock) {
+            queue = queues.computeIfAbsent(transformationId, this::createQueue);
+            boolean wasBacklogged = !queue.running && !queue.entries.isEmpty();
+            if (queue.profile.coalesce()) {
+                superseded.addAll(queue.entries);
+                queue.entries.clear();
+            } else if (queue.entries.size() >= queue.profile.capacity()) {
+                superseded.add(queue.entries.pollFirst());
+            }
+            queue.entries.addLast(entry);
+            if (!queue.running && !wasBacklogged) {
+                addToBacklog(queue);
+            }
+            queue.meters.depth().addAndGet(1 - superseded.size());
+        }
+        for (Entry supersededEntry : superseded) {
+            queue.meters.supersededCounter().increment();
+            supersededEntry.emitter().fail(new SupersededException(supersededEntry.payload().job().jobId()));
+        }
+        dispatch();
+    }
+
+    /**
+     * Removes a payload whose subscription was cancelled from its queue, unless its execution already started.
+     */
+    private void withdraw(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        Long transformationId = entry.payload().job().transformationId();
+        synchronized (lock) {
+            TransformationQueue queue = queues.get(transformationId);
+            if (queue == null || !queue.entries.removeIf(queued -> queued == entry)) {
+                return;
+            }
+            queue.meters.depth().decrementAndGet();
+            if (queue.entries.isEmpty() && !queue.running) {
+                backlog.get(queue.profile.priority()).remove(queue);
+                queues.remove(transformationId, queue);
+            }
+        }
+    }
+
+    /**
+     * Puts a queue into the backlog of its priority class with its next fair-queuing tags. Must be called with
+     * the lock held.
+     */
+    private void addToBacklog(TransformationQueue queue) {
+        Priority priority = queue.profile.priority();
+        queue.startTag = Math.max(virtualTimes.get(priority), queue.finishTag);
+        queue.finishTag = queue.startTag + 1.0 / queue.profile.weight();
+        backlog.get(priority).add(queue);
+    }
+
+    private TransformationQueue createQueue(Long transformationId) {
+        QueueMeters meters = queueMeters.computeIfAbsent(transformationTags.apply(transformationId), this::registerMeters);
+        return new TransformationQueue(profiles.apply(transformationId), meters, nextSequence++);
+    }
+
+    /**
+     * Starts queued payloads while executions are available.
+     */
+    private void dispatch() {
+        while (true) {
+            Entry entry;
+            synchronized (lock) {
+                if (running.get() >= maxConcurrency) {
+                    return;
+                }
+                entry = pollNext();
+                if (entry == null) {
+                    return;
+                }
+                running.incrementAndGet();
+            }
+            start(entry);
+        }
+    }
+
+    /**
+     * Takes the next payload: from the highest priority class with queued payloads, the queue with the
+     * smallest finish tag. The queue stays out of the backlog until the payload has been executed. Must be
+     * called with the lock held.
+     */
+    private Entry pollNext() {
+        for (Priority priority : Priority.values()) {
+            PriorityQueue<TransformationQueue> backlogged = backlog.get(priority);
+            TransformationQueue queue = backlogged.poll();
+            if (queue == null) {
+                continue;
+            }
+            Entry entry = queue.entries.pollFirst();
+            queue.meters.depth().decrementAndGet();
+            virtualTimes.put(priority, queue.startTag);
+            queue.running = true;
+            return entry;
+        }
+        return null;
+    }
+
+    private void start(Entry entry) {
+        Long transformationId = entry.payload().job().transformationId();
+        queueMeters.get(transformationTags.apply(transformationId)).waitTimer()
+                .record(System.nanoTime() - entry.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        try {
+            runner.apply(entry.payload()).subscribe().with(
+                    result -> {
+                        release(transformationId);
+                        entry.emitter().complete(result);
+                    },
+                    failure -> {
+                        release(transformationId);
+                        entry.emitter().fail(failure);
+                    });
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Job %s could not be started.", entry.payload().job().jobId());
+            release(transformationId);
+            entry.emitter().fail(e);
+        }
+    }
+
+    /**
+     * Marks the execution of a transformation as finished: its queue returns to the backlog if payloads arrived
+     * in the meantime and is dropped otherwise.
+     */
+    private void release(Long transformationId) {
+        synchronized (lock) {
+            TransformationQueue queue = queues.get(transformationId);
+            queue.running = false;
+            if (queue.entries.isEmpty()) {
+                queues.remove(transformationId, queue);
+            } else {
+                addToBacklog(queue);
+            }
+        }
+        running.decrementAndGet();
+        dispatch();
+    }
+
+    /**
+     * Returns the number of queued payloads of a transformation.
+     *
+     * @param transformationId The ID of the transformation.
+     * @return The number of payloads waiting for execution.
+     */
+    public int queuedCount(Long transformationId) {
+        synchronized (lock) {
+            TransformationQueue queue = queues.get(transformationId);
+            return queue != null ? queue.entries.size() : 0;
+        }
+    }
+
+    /**
+     * Returns the number of payloads being executed.
+     *
+     * @return The number of running executions.
+     */
+    public int runningCount() {
+        return running.get();
+    }
+
+    private QueueMeters registerMeters(String transformationTag) {
+        AtomicInteger depth = new AtomicInteger();
+        Gauge.builder("stayinsync.scheduler.queue.depth", depth, AtomicInteger::get)
+                .description("Transformation payloads waiting for execution")
+                .tag("transformationId", transformationTag)
+                .register(meterRegistry);
+        return new QueueMeters(depth,
+                Timer.builder("stayinsync.scheduler.queue.wait")
+                        .description("Time transformation payloads waited for execution")
+                        .tag("transformationId", transformationTag)
+                        .register(meterRegistry),
+                Counter.builder("stayinsync.scheduler.payloads.superseded")
+                        .description("Transformation payloads superseded by a newer payload before their execution")
+                        .tag("transformationId", transformationTag)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,390 @@
+package de.unistuttgart.stayinsync.syncnode.syncjob;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one circuit breaker per target system, identified by {@code host:port}, together with a bounded
+ * buffer of writes that were parked while the target was unavailable.
+ * <p>
+ * A breaker starts {@link State#CLOSED}. After {@code failureThreshold} consecutive failed requests (transport
+ * errors or 5xx responses) it opens, and every request to the target is rejected immediately for the configured
+ * open duration. Afterwards it becomes {@link State#HALF_OPEN} and lets a limited number of probe requests
+ * through: a successful probe closes the breaker again, a failed one re-opens it.
+ * <p>
+ * Writes rejected by an open breaker can be parked with {@link #park(String, String, long, Supplier)}. The retry
+ * buffer keeps only the newest write per resource, and a parked write is dropped as soon as a later write to the
+ * same resource succeeds, so a replay never overwrites newer data. Once the breaker of a target closes, its parked
+ * writes are replayed one after another, each taken from the buffer only right before it is sent. If no other
+ * traffic reaches a target whose open duration has elapsed, a periodic task replays its oldest parked write as the
+ * probe.
+ */
+@ApplicationScoped
+public class TargetCircuitBreakers {
+
+    /**
+     * The state of a target's circuit breaker.
+     */
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final int retryBufferSize;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Breaker> breakersByTarget = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the breakers with their configuration.
+     *
+     * @param enabled          Whether requests are guarded by circuit breakers at all.
+     * @param failureThreshold The number of consecutive failures after which a breaker opens.
+     * @param openDuration     How long an open breaker rejects requests before probing the target.
+     * @param halfOpenProbes   The number of probe requests allowed in flight while half-open.
+     * @param retryBufferSize  The maximum number of parked writes per target; 0 disables parking.
+     * @param meterRegistry    The registry for breaker and retry buffer metrics.
+     */
+    public TargetCircuitBreakers(
+            @ConfigProperty(name = "stayinsync.circuit-breaker.enabled", defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "stayinsync.circuit-breaker.failure-threshold", defaultValue = "5") int failureThreshold,
+            @ConfigProperty(name = "stayinsync.circuit-breaker.open-duration", defaultValue = "30s") Duration openDuration,
+            @ConfigProperty(name = "stayinsync.circuit-breaker.half-open-probes", defaultValue = "1") int halfOpenProbes,
+            @ConfigProperty(name = "stayinsync.circuit-breaker.retry-buffer-size", defaultValue = "100") int retryBufferSize,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.retryBufferSize = Math.max(0, retryBufferSize);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Asks the breaker of a target whether a request may be sent. While half-open, a granted request counts
+     * as a probe until its outcome is recorded or it is released.
+     *
+     * @param target The target key, {@code host:port}.
+     * @return {@code true} if the request may be sent, {@code false} if it must be rejected.
+     */
+    public boolean tryAcquire(String target) {
+        if (!enabled) {
+            return true;
+        }
+        return breaker(target).tryAcquire();
+    }
+
+    /**
+     * Records the response of a request to a target; 5xx responses count as failures.
+     *
+     * @param target     The target key, {@code host:port}.
+     * @param statusCode The HTTP status code of the response.
+     */
+    public void recordResponse(String target, int statusCode) {
+        if (statusCode >= 500) {
+            recordFailure(target);
+        } else {
+            recordSuccess(target);
+        }
+    }
+
+    /**
+     * Records a successful request. A half-open breaker closes and replays the writes parked for its target.
+     *
+     * @param target The target key, {@code host:port}.
+     */
+    public void recordSuccess(String target) {
+        if (!enabled) {
+            return;
+        }
+        Breaker breaker = breaker(target);
+        if (breaker.onSuccess()) {
+            Log.infof("Replaying %d parked write(s) for target %s.", (int) breaker.parkedCount(), target);
+            replayNext(breaker);
+        }
+    }
+
+    /**
+     * Records a failed request, opening the breaker once the failure threshold is reached.
+     *
+     * @param target The target key, {@code host:port}.
+     */
+    public void recordFailure(String target) {
+        if (enabled) {
+            breaker(target).onFailure();
+        }
+    }
+
+    /**
+     * Releases a granted request without an outcome, e.g. because it was cancelled or never sent.
+     *
+     * @param target The target key, {@code host:port}.
+     */
+    public void release(String target) {
+        if (enabled) {
+            breaker(target).releaseProbe();
+        }
+    }
+
+    /**
+     * Parks a write rejected by an open breaker for replay once its target recovers. A write parked earlier for
+     * the same resource is replaced, unless it was issued after this one. If the buffer of the target is full,
+     * its oldest parked write is dropped in favour of the new one.
+     *
+     * @param target      The target key, {@code host:port}.
+     * @param resourceKey The key of the written resource, unique across targets.
+     * @param issuedAt    When the write was issued, in {@link System#nanoTime()} units.
+     * @param write       Performs the write again when subscribed to.
+     * @return {@code true} if the write was parked or superseded by a newer parked write, {@code false} if
+     *         parking is disabled.
+     */
+    public boolean park(String target, String resourceKey, long issuedAt, Supplier<Uni<Void>> write) {
+        if (!enabled || retryBufferSize == 0) {
+            return false;
+        }
+        breaker(target).park(resourceKey, new ParkedWrite(issuedAt, write));
+        return true;
+    }
+
+    /**
+     * Records a successful write to a resource. A write parked for the same resource that was issued no later
+     * is dropped, since replaying it would overwrite the newer data.
+     *
+     * @param resourceKey The key of the written resource, unique across targets.
+     * @param issuedAt    When the successful write was issued, in {@link System#nanoTime()} units.
+     */
+    public void recordWritten(String resourceKey, long issuedAt) {
+        if (!enabled || retryBufferSize == 0) {
+            return;
+        }
+        breakersByTarget.values().forEach(breaker -> breaker.discardParked(resourceKey, issuedAt));
+    }
+
+    /**
+     * Returns the current state of a target's breaker.
+     *
+     * @param target The target key, {@code host:port}.
+     * @return The state; {@link State#CLOSED} for targets that have not been contacted yet.
+     */
+    public State stateOf(String target) {
+        Breaker breaker = breakersByTarget.get(target);
+        return breaker == null ? State.CLOSED : breaker.currentState();
+    }
+
+    /**
+     * Periodically probes open targets that have parked writes but receive no other traffic, by replaying
+     * their oldest parked write once the open duration has elapsed.
+     */
+    @Scheduled(every = "{stayinsync.circuit-breaker.probe-interval}")
+    void probeParkedTargets() {
+        breakersByTarget.forEach((target, breaker) -> {
+            Supplier<Uni<Void>> probe = breaker.pollProbeCandidate();
+            if (probe != null) {
+                Log.infof("Probing target %s with a parked write.", target);
+                replay(breaker, probe).subscribe().with(ignored -> {
+                });
+            }
+        });
+    }
+
+    /**
+     * Replays the parked writes of a closed breaker one after another. Each write is taken from the buffer only
+     * right before it is sent, so writes that were superseded in the meantime are not replayed.
+     */
+    private void replayNext(Breaker breaker) {
+        Supplier<Uni<Void>> write = breaker.pollReplayCandidate();
+        if (write != null) {
+            replay(breaker, write).subscribe().with(ignored -> replayNext(breaker));
+        }
+    }
+
+    private Uni<Void> replay(Breaker breaker, Supplier<Uni<Void>> write) {
+        return Uni.createFrom().deferred(write)
+                .invoke(() -> breaker.replayedCounter.increment())
+                .onFailure().invoke(failure -> Log.errorf(failure, "Replaying a parked write for target %s failed.", breaker.target))
+                .onFailure().recoverWithNull();
+    }
+
+    private Breaker breaker(String target) {
+        return breakersByTarget.computeIfAbsent(target, key -> new Breaker(key, meterRegistry));
+    }
+
+    /**
+     * A parked write together with the time it was originally issued.
+     */
+    private record ParkedWrite(long issuedAt, Supplier<Uni<Void>> write) {
+    }
+
+    /**
+     * The breaker state and retry buffer of a single target. All state transitions are synchronized.
+     */
+    private final class Breaker {
+        private final String target;
+        // Parked writes by resource key, oldest first.
+        private final Map<String, ParkedWrite> parked = new LinkedHashMap<>();
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private int probesInFlight;
+
+        private final Counter rejectedCounter;
+        private final Counter droppedCounter;
+        private final Counter replayedCounter;
+
+        private Breaker(String target, MeterRegistry meterRegistry) {
+            this.target = target;
+            this.rejectedCounter = Counter.builder("stayinsync.target.circuit.rejected")
+                    .description("Requests rejected without being sent because the circuit breaker of a target system was open")
+                    .tag("target", target)
+                    .register(meterRegistry);
+            this.droppedCounter = Counter.builder("stayinsync.target.retry.dropped")
+                    .description("Parked writes dropped because the retry buffer of a target system was full")
+                    .tag("target", target)
+                    .register(meterRegistry);
+            this.replayedCounter = Counter.builder("stayinsync.target.retry.replayed")
+                    .description("Parked writes replayed after a target system recovered or was probed")
+                    .tag("target", target)
+                    .register(meterRegistry);
+            Gauge.builder("stayinsync.target.circuit.state", this, breaker -> breaker.currentState().ordinal())
+                    .description("Circuit breaker state of a target system (0 = closed, 1 = half-open, 2 = open)")
+                    .tag("target", target)
+                    .register(meterRegistry);
+            Gauge.builder("stayinsync.target.retry.parked", this, Breaker::parkedCount)
+                    .description("Writes currently parked for replay to a target system")
+                    .tag("target", target)
+                    .register(meterRegistry);
+        }
+
+        private synchronized boolean tryAcquire() {
+            if (state == State.OPEN && openDurationElapsed()) {
+                transitionTo(State.HALF_OPEN);
+                probesInFlight = 0;
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN && probesInFlight < halfOpenProbes) {
+                probesInFlight++;
+                return true;
+            }
+            rejectedCounter.increment();
+            return false;
+        }
+
+        /**
+         * Resets the failure count and closes a half-open breaker.
+         *
+         * @return {@code true} if the breaker closed and has parked writes to replay.
+         */
+        private synchronized boolean onSuccess() {
+            consecutiveFailures = 0;
+            if (state != State.HALF_OPEN) {
+                return false;
+            }
+            transitionTo(State.CLOSED);
+            probesInFlight = 0;
+            return !parked.isEmpty();
+        }
+
+        private synchronized void onFailure() {
+            if (state == State.HALF_OPEN || (state == State.CLOSED && ++consecutiveFailures >= failureThreshold)) {
+                transitionTo(State.OPEN);
+                openedAt = System.nanoTime();
+                probesInFlight = 0;
+            }
+        }
+
+        private synchronized void releaseProbe() {
+            if (state == State.HALF_OPEN && probesInFlight > 0) {
+                probesInFlight--;
+            }
+        }
+
+        private synchronized void park(String resourceKey, ParkedWrite write) {
+            ParkedWrite existing = parked.get(resourceKey);
+            if (existing != null && existing.issuedAt() > write.issuedAt()) {
+                return;
+            }
+            // Re-inserting moves the resource to the end, so it is replayed after older writes to other resources.
+            parked.remove(resourceKey);
+            if (parked.size() >= retryBufferSize) {
+                pollOldest();
+                droppedCounter.increment();
+                Log.warnf("Retry buffer for target %s is full; dropped the oldest parked write.", target);
+            }
+            parked.put(resourceKey, write);
+        }
+
+        private synchronized void discardParked(String resourceKey, long issuedAt) {
+            ParkedWrite existing = parked.get(resourceKey);
+            if (existing != null && existing.issuedAt() <= issuedAt) {
+                parked.remove(resourceKey);
+            }
+        }
+
+        /**
+         * Takes the oldest parked write if the target is open and its open duration has elapsed,
+         * so it can be replayed as a probe.
+         */
+        private synchronized Supplier<Uni<Void>> pollProbeCandidate() {
+            if (state != State.OPEN || !openDurationElapsed()) {
+                return null;
+            }
+            return pollOldest();
+        }
+
+        /**
+         * Takes the oldest parked write while the breaker is closed. Writes parked again because the breaker
+         * re-opened during the replay are left for the next recovery.
+         */
+        private synchronized Supplier<Uni<Void>> pollReplayCandidate() {
+            return state == State.CLOSED ? pollOldest() : null;
+        }
+
+        private Supplier<Uni<Void>> pollOldest() {
+            Iterator<ParkedWrite> oldest = parked.values().iterator();
+            if (!oldest.hasNext()) {
+                return null;
+            }
+            Supplier<Uni<Void>> write = oldest.next().write();
+            oldest.remove();
+            return write;
+        }
+
+        private boolean openDurationElapsed() {
+            return System.nanoTime() - openedAt >= openDurationNanos;
+        }
+
+        private void transitionTo(State newState) {
+            Log.infof("Circuit breaker for target %s changed from %s to %s.", target, state, newState);
+            state = newState;
+            consecutiveFailures = 0;
+        }
+
+        private synchronized State currentState() {
+            return state;
+        }
+
+        private synchronized double parkedCount() {
+            return parked.size();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package de.unistuttgart.stayinsync.syncnode.syncjob;
+
+import org.eclipse.microprofile.config.Config;
+
+import java.time.Duration;
+
+/**
+ * The connection pool settings of the HTTP client used for one target system.
+ * <p>
+ * Every setting is read from {@code stayinsync.webclient.target."<host>".<setting>} and falls back to
+ * {@code stayinsync.webclient.pool.<setting>}, so a target system only needs an explicit profile if it
+ * deviates from the defaults.
+ *
+ * @param maxPoolSize            The maximum number of connections to the target system.
+ * @param maxWaitQueueSize       The maximum number of requests waiting for a connection before requests are rejected.
+ * @param keepAlive              Whether connections are kept alive between requests.
+ * @param keepAliveTimeout       How long an idle kept-alive connection is retained.
+ * @param idleTimeout            The time after which a connection without any activity is closed.
+ * @param http2                  Whether HTTP/2 is negotiated with the target system.
+ * @param http2MultiplexingLimit The maximum number of concurrent streams per HTTP/2 connection.
+ */
+public record TargetClientProfile(
+        int maxPoolSize,
+        int maxWaitQueueSize,
+        boolean keepAlive,
+        Duration keepAliveTimeout,
+        Duration idleTimeout,
+        boolean http2,
+        int http2MultiplexingLimit
+) {
+
+    private static final String DEFAULT_PREFIX = "stayinsync.webclient.pool.";
+    private static final String TARGET_PREFIX = "stayinsync.webclient.target.\"%s\".";
+
+    /**
+     * Resolves the profile for a target host from the application configuration.
+     *
+     * @param config The application configuration.
+     * @param host   The host name of the target system.
+     * @return The effective profile for the host.
+     */
+    public static TargetClientProfile forHost(Config config, String host) {
+        String targetPrefix = String.format(TARGET_PREFIX, host);
+        return new TargetClientProfile(
+                lookup(config, targetPrefix, "max-size", Integer.class, 20),
+                lookup(config, targetPrefix, "max-wait-queue-size", Integer.class, 100),
+                lookup(config, targetPrefix, "keep-alive", Boolean.class, true),
+                lookup(config, targetPrefix, "keep-alive-timeout", Duration.class, Duration.ofSeconds(60)),
+                lookup(config, targetPrefix, "idle-timeout", Duration.class, Duration.ofSeconds(60)),
+                lookup(config, targetPrefix, "http2", Boolean.class, false),
+                lookup(config, targetPrefix, "http2-multiplexing-limit", Integer.class, 100)
+        );
+    }
+
+    /**
+     * The number of requests that may be in flight at once without waiting for a connection.
+     */
+    public int maxConcurrentRequests() {
+        return http2 ? maxPoolSize * http2MultiplexingLimit : maxPoolSize;
+    }
+
+    private static <T> T lookup(Config config, String targetPrefix, String key, Class<T> type, T defaultValue) {
+        return config.getOptionalValue(targetPrefix + key, type)
+                .or(() -> config.getOptionalValue(DEFAULT_PREFIX + key, type))
+                .orElse(defaultValue);
+    }
+}
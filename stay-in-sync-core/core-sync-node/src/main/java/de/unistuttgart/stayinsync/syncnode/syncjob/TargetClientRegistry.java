@@ -0,0 +1,244 @@
+package de.unistuttgart.stayinsync.syncnode.syncjob;
+
+import de.unistuttgart.stayinsync.exception.SyncNodeException;
+import de.unistuttgart.stayinsync.exception.TargetUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.ext.web.client.HttpResponse;
+import io.vertx.mutiny.ext.web.client.WebClient;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.Config;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Manages one HTTP client per target system and the pre-resolved endpoints of all target base URLs.
+ * <p>
+ * Each target system, identified by host and port, gets its own {@link WebClient} with a connection pool sized
+ * according to its {@link TargetClientProfile}. Requests pass through a per-target admission gate that mirrors
+ * the pool: at most {@link TargetClientProfile#maxConcurrentRequests()} requests are in flight, further requests
+ * wait in a bounded queue, and requests beyond that are rejected immediately instead of queueing invisibly.
+ * <p>
+ * The time a request spends waiting for a connection and the number of rejected requests are exported per
+ * target, together with the current number of in-flight and waiting requests.
+ * <p>
+ * Before a request is admitted, the target's circuit breaker in {@link TargetCircuitBreakers} is consulted, so
+ * requests to a target that keeps failing are rejected immediately instead of occupying a connection until
+ * they time out. The outcome of every request that is sent is reported back to the breaker.
+ */
+@ApplicationScoped
+public class TargetClientRegistry {
+
+    /**
+     * A target base URL resolved once into the parts needed to issue requests.
+     *
+     * @param host   The host name of the target system.
+     * @param port   The port, with the scheme's default applied.
+     * @param ssl    Whether the connection uses TLS.
+     * @param target The key identifying the target system, {@code host:port}.
+     */
+    public record TargetEndpoint(String host, int port, boolean ssl, String target) {
+    }
+
+    private final WebClientProvider webClientProvider;
+    private final TargetCircuitBreakers circuitBreakers;
+    private final MeterRegistry meterRegistry;
+    private final Config config;
+
+    private final Map<String, TargetEndpoint> endpointsByBaseUrl = new ConcurrentHashMap<>();
+    private final Map<String, TargetClient> clientsByTarget = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the registry with its required dependencies.
+     *
+     * @param webClientProvider The provider creating the per-target clients.
+     * @param circuitBreakers   The per-target circuit breakers guarding every request.
+     * @param meterRegistry     The registry for pool metrics.
+     * @param config            The application configuration, used to resolve per-target profiles.
+     */
+    public TargetClientRegistry(WebClientProvider webClientProvider, TargetCircuitBreakers circuitBreakers,
+                                MeterRegistry meterRegistry, Config config) {
+        this.webClientProvider = webClientProvider;
+        this.circuitBreakers = circuitBreakers;
+        this.meterRegistry = meterRegistry;
+        this.config = config;
+    }
+
+    /**
+     * Resolves a target base URL into its endpoint. The result is cached per base URL, so each
+     * ARC configuration's URL is only parsed once.
+     *
+     * @param baseUrl The base URL of the target API, including the scheme.
+     * @return The resolved {@link TargetEndpoint}.
+     * @throws SyncNodeException if the base URL has invalid syntax.
+     */
+    public TargetEndpoint resolve(String baseUrl) throws SyncNodeException {
+        TargetEndpoint cached = endpointsByBaseUrl.get(baseUrl);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            URI uri = new URI(baseUrl);
+            boolean useSsl = "https".equalsIgnoreCase(uri.getScheme());
+            int port = uri.getPort() != -1 ? uri.getPort() : (useSsl ? 443 : 80);
+            TargetEndpoint endpoint = new TargetEndpoint(uri.getHost(), port, useSsl, uri.getHost() + ":" + port);
+            endpointsByBaseUrl.putIfAbsent(baseUrl, endpoint);
+            return endpoint;
+        } catch (URISyntaxException e) {
+            throw new SyncNodeException("Invalid URL", "The target API URL has invalid syntax: " + baseUrl, e);
+        }
+    }
+
+    /**
+     * Sends a request to a target system through its dedicated client, once a connection is available.
+     * Transport failures and 5xx responses count as failures towards the target's circuit breaker.
+     *
+     * @param endpoint The resolved target endpoint.
+     * @param request  Builds and sends the request with the given client when subscribed to.
+     * @return A {@link Uni} emitting the response, failing with a {@link TargetUnavailableException} if the
+     *         target's circuit breaker is open, or with a {@link SyncNodeException} if the target's wait queue is full.
+     */
+    public Uni<HttpResponse<Buffer>> send(TargetEndpoint endpoint, Function<WebClient, Uni<HttpResponse<Buffer>>> request) {
+        String target = endpoint.target();
+        if (!circuitBreakers.tryAcquire(target)) {
+            return Uni.createFrom().failure(new TargetUnavailableException(target));
+        }
+        TargetClient client = clientsByTarget.computeIfAbsent(target, key -> createClient(endpoint));
+        return client.acquire()
+                .onFailure().invoke(() -> circuitBreakers.release(target))
+                .flatMap(ignored -> Uni.createFrom().deferred(() -> request.apply(client.webClient))
+                        .invoke(response -> circuitBreakers.recordResponse(target, response.statusCode()))
+                        .onFailure().invoke(() -> circuitBreakers.recordFailure(target))
+                        .onTermination().invoke(client::release))
+                .onCancellation().invoke(() -> circuitBreakers.release(target));
+    }
+
+    /**
+     * Closes all per-target clients on shutdown.
+     */
+    @PreDestroy
+    void close() {
+        clientsByTarget.values().forEach(client -> client.webClient.close());
+        clientsByTarget.clear();
+    }
+
+    private TargetClient createClient(TargetEndpoint endpoint) {
+        TargetClientProfile profile = TargetClientProfile.forHost(config, endpoint.host());
+        Log.infof("Creating HTTP client for target %s with profile %s", endpoint.target(), profile);
+        return new TargetClient(endpoint.target(), webClientProvider.createTargetClient(profile), profile, meterRegistry);
+    }
+
+    /**
+     * A per-target client together with the admission gate mirroring its connection pool.
+     */
+    private static final class TargetClient {
+        private final String target;
+        private final WebClient webClient;
+        private final int maxInFlight;
+        private final int maxWaiting;
+        private final Queue<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+        private int inFlight;
+
+        private final Timer waitTimer;
+        private final Counter exhaustedCounter;
+
+        private TargetClient(String target, WebClient webClient, TargetClientProfile profile, MeterRegistry meterRegistry) {
+            this.target = target;
+            this.webClient = webClient;
+            this.maxInFlight = Math.max(1, profile.maxConcurrentRequests());
+            this.maxWaiting = Math.max(0, profile.maxWaitQueueSize());
+            this.waitTimer = Timer.builder("stayinsync.webclient.pool.wait.time")
+                    .description("Time a request to a target system waited for a free connection")
+                    .tag("target", target)
+                    .register(meterRegistry);
+            this.exhaustedCounter = Counter.builder("stayinsync.webclient.pool.exhausted")
+                    .description("Requests rejected because the connection pool and wait queue of a target system were full")
+                    .tag("target", target)
+                    .register(meterRegistry);
+            Gauge.builder("stayinsync.webclient.pool.in.flight", this, TargetClient::inFlight)
+                    .description("Requests currently in flight to a target system")
+                    .tag("target", target)
+                    .register(meterRegistry);
+            Gauge.builder("stayinsync.webclient.pool.waiting", this, TargetClient::waitingCount)
+                    .description("Requests currently waiting for a connection to a target system")
+                    .tag("target", target)
+                    .register(meterRegistry);
+        }
+
+        private Uni<Void> acquire() {
+            long start = System.nanoTime();
+            CompletableFuture<Void> permit;
+            synchronized (this) {
+                if (inFlight < maxInFlight) {
+                    inFlight++;
+                    waitTimer.record(0, TimeUnit.NANOSECONDS);
+                    return Uni.createFrom().voidItem();
+                }
+                if (waiting.size() >= maxWaiting) {
+                    exhaustedCounter.increment();
+                    return Uni.createFrom().failure(new SyncNodeException("Connection Pool Exhausted",
+                            "All connections and wait queue slots for target " + target + " are in use."));
+                }
+                permit = new CompletableFuture<>();
+                waiting.add(permit);
+            }
+            return Uni.createFrom().completionStage(permit)
+                    .invoke(() -> waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .onCancellation().invoke(() -> abandon(permit));
+        }
+
+        private void release() {
+            while (true) {
+                CompletableFuture<Void> next;
+                synchronized (this) {
+                    next = waiting.poll();
+                    if (next == null) {
+                        inFlight--;
+                        return;
+                    }
+                }
+                // The permit is handed over directly, so the in-flight count stays unchanged.
+                // A waiter that has been cancelled in the meantime is skipped.
+                if (next.complete(null)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Gives up a permit whose waiting request was cancelled, releasing it if it had already been granted.
+         */
+        private void abandon(CompletableFuture<Void> permit) {
+            synchronized (this) {
+                if (waiting.remove(permit)) {
+                    return;
+                }
+            }
+            if (permit.isDone() && !permit.isCancelled()) {
+                release();
+            }
+        }
+
+        private synchronized double inFlight() {
+            return inFlight;
+        }
+
+        private synchronized double waitingCount() {
+            return waiting.size();
+        }
+    }
+}
@@ -3,7 +3,9 @@ package de.unistuttgart.stayinsync.syncnode.syncjob;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.stayinsync.exception.AasBatchUpdateException;
 import de.unistuttgart.stayinsync.exception.SyncNodeException;
+import de.unistuttgart.stayinsync.exception.TargetUnavailableException;
 import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
 import de.unistuttgart.stayinsync.syncnode.domain.AasUpdateValueDirective;
 import de.unistuttgart.stayinsync.syncnode.domain.UpsertDirective;
@@ -20,8 +22,10 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.MDC;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Orchestrates the writing of data to various target systems based on directives from a transformation script.
@@ -31,8 +35,11 @@ import java.util.Map;
  *     <li>Parsing the output of a {@link TransformationResult} to extract a list of directives.</li>
  *     <li>Flattening and preparing a worklist of "tasks" from these directives.</li>
  *     <li>Executing these tasks concurrently with a configurable rate limit to avoid overwhelming target systems.</li>
+ *     <li>Optionally coalescing bursts of writes to the same target resource through the {@link DirectiveCoalescer}.</li>
  *     <li>Dispatching each task to the appropriate executor (e.g., for standard REST APIs or AAS APIs) based on its type.</li>
  *     <li>Handling errors gracefully, ensuring that the failure of a single directive does not halt the processing of others.</li>
+ *     <li>Parking directives rejected by an open circuit breaker in {@link TargetCircuitBreakers} for replay once the target recovers,
+ *     keyed by the written resource so that only the newest write of each resource is replayed.</li>
  *     <li>Recording metrics about the number of directives processed.</li>
  * </ul>
  */
@@ -43,15 +50,24 @@ public class TargetSystemWriterService {
     private final int rateLimit;
     private final DirectiveExecutor restDirectiveExecutor;
     private final AasDirectiveExecutor aasDirectiveExecutor;
+    private final DirectiveCoalescer directiveCoalescer;
+    private final TargetCircuitBreakers circuitBreakers;
     private final Counter processedMessagesCounter;
 
+    private static final String AAS_UPDATE_VALUE_DIRECTIVE = "AasUpdateValueDirective";
+    private static final String UPSERT_DIRECTIVE_SUFFIX = "_UpsertDirective";
+
     /**
-     * A private record to encapsulate all necessary information for processing a single directive.
+     * A private record to encapsulate all necessary information for processing a single directive, or a batch
+     * of AAS value updates addressing the submodel of one ARC. The time the task was issued orders it against
+     * other writes to the same resource when it is parked for replay.
      */
     private record DirectiveTask(
-            JsonNode directiveNode,
+            String directiveType,
+            List<JsonNode> directiveNodes,
             String arcAlias,
-            TransformationMessageDTO transformationContext
+            TransformationMessageDTO transformationContext,
+            long issuedAt
     ) {
     }
 
@@ -62,17 +78,23 @@ public class TargetSystemWriterService {
      * @param rateLimit             The maximum number of directives to process concurrently.
      * @param restDirectiveExecutor The executor for standard REST "upsert" directives.
      * @param aasDirectiveExecutor  The executor for AAS-specific directives.
+     * @param directiveCoalescer    The write-behind buffer coalescing writes to the same target resource.
+     * @param circuitBreakers       The per-target circuit breakers holding the retry buffers for unavailable targets.
      * @param meterRegistry         The registry for creating and managing metrics.
      */
     public TargetSystemWriterService(ObjectMapper objectMapper,
                                      @ConfigProperty(name = "stayinsync.writer.rate-limit", defaultValue = "10") int rateLimit,
                                      DirectiveExecutor restDirectiveExecutor,
                                      AasDirectiveExecutor aasDirectiveExecutor,
+                                     DirectiveCoalescer directiveCoalescer,
+                                     TargetCircuitBreakers circuitBreakers,
                                      MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
         this.rateLimit = rateLimit;
         this.restDirectiveExecutor = restDirectiveExecutor;
         this.aasDirectiveExecutor = aasDirectiveExecutor;
+        this.directiveCoalescer = directiveCoalescer;
+        this.circuitBreakers = circuitBreakers;
         this.processedMessagesCounter = Counter.builder("transformation_scripts_messages_total")
                 .description("Total number of messages processed across all transformation scripts")
                 .register(meterRegistry);
@@ -90,13 +112,13 @@ public class TargetSystemWriterService {
         try (var ignored = MDC.putCloseable("transformationId", transformationContext.id().toString())) {
             Map<String, List<JsonNode>> directiveMap = parseDirectives(result);
             if (directiveMap.isEmpty()) {
-                Log.infof("No directives to process for job %s.", result.getJobId());
+                Log.debugf("No directives to process for job %s.", result.getJobId());
                 return Uni.createFrom().voidItem();
             }
 
             List<DirectiveTask> allTasks = flattenDirectivesToTasks(directiveMap, transformationContext);
             if (allTasks.isEmpty()) {
-                Log.infof("No directives to process for job %s.", result.getJobId());
+                Log.debugf("No directives to process for job %s.", result.getJobId());
                 return Uni.createFrom().voidItem();
             }
 
@@ -128,6 +150,7 @@ public class TargetSystemWriterService {
 
     /**
      * Flattens the directive map into a single list of {@link DirectiveTask} objects for processing.
+     * AAS value updates for the same ARC are grouped into one batch task, since they all address the same submodel.
      * This method also increments the processed messages counter for each directive found.
      *
      * @param directiveMap          The map of directives parsed from the script output.
@@ -136,15 +159,29 @@ public class TargetSystemWriterService {
      */
     private List<DirectiveTask> flattenDirectivesToTasks(Map<String, List<JsonNode>> directiveMap, TransformationMessageDTO transformationContext) {
         List<DirectiveTask> allTasks = new ArrayList<>();
+        long issuedAt = System.nanoTime();
         directiveMap.forEach((arcAlias, directives) -> {
+            List<JsonNode> aasUpdates = new ArrayList<>();
             for (JsonNode directiveNode : directives) {
-                allTasks.add(new DirectiveTask(directiveNode, arcAlias, transformationContext));
+                String directiveType = directiveTypeOf(directiveNode);
+                if (directiveType.equals(AAS_UPDATE_VALUE_DIRECTIVE)) {
+                    aasUpdates.add(directiveNode);
+                } else {
+                    allTasks.add(new DirectiveTask(directiveType, List.of(directiveNode), arcAlias, transformationContext, issuedAt));
+                }
                 processedMessagesCounter.increment();
             }
+            if (!aasUpdates.isEmpty()) {
+                allTasks.add(new DirectiveTask(AAS_UPDATE_VALUE_DIRECTIVE, aasUpdates, arcAlias, transformationContext, issuedAt));
+            }
         });
         return allTasks;
     }
 
+    private String directiveTypeOf(JsonNode directiveNode) {
+        return directiveNode.has("__directiveType") ? directiveNode.get("__directiveType").asText() : "unknown";
+    }
+
     /**
      * Executes a list of {@link DirectiveTask}s concurrently using a reactive stream with a defined rate limit.
      *
@@ -153,7 +190,7 @@ public class TargetSystemWriterService {
      * @return A {@link Uni<Void>} that completes when all tasks in the stream have been processed.
      */
     private Uni<Void> executeTasksConcurrently(List<DirectiveTask> tasks, String jobId) {
-        Log.infof("Starting processing of %d directives for job %s with a concurrency limit of %d.", tasks.size(), jobId, rateLimit);
+        Log.debugf("Starting processing of %d directive tasks for job %s with a concurrency limit of %d.", tasks.size(), jobId, rateLimit);
 
         return Multi.createFrom().iterable(tasks)
                 .onItem().transformToUni(this::safelyDispatchAndExecute)
@@ -162,8 +199,14 @@ public class TargetSystemWriterService {
                 .onItem().invoke(results -> {
                     // Count the amount of successful (true) results from the triggered tasks
                     long successCount = results.stream().filter(Boolean::booleanValue).count();
-                    Log.infof("Finished processing all directives for job %s. Total tasks: %d, Succeeded: %d, Failed (recovered): %d",
-                            jobId, results.size(), successCount, results.size() - successCount);
+                    long failedCount = results.size() - successCount;
+                    // Only jobs with failed directives are worth an info line; the rest is visible in the metrics.
+                    if (failedCount > 0) {
+                        Log.infof("Finished processing all directives for job %s. Total tasks: %d, Succeeded: %d, Failed (recovered): %d",
+                                jobId, results.size(), successCount, failedCount);
+                    } else {
+                        Log.debugf("Finished processing all directives for job %s. Total tasks: %d, all succeeded.", jobId, results.size());
+                    }
                 })
                 .replaceWithVoid();
     }
@@ -177,14 +220,7 @@ public class TargetSystemWriterService {
      */
     private Uni<Boolean> safelyDispatchAndExecute(DirectiveTask task) {
         try {
-            return dispatchAndExecute(task)
-                    // On successful completion of Uni<Void>, transform it to a Uni emitting true.
-                    .map(v -> true)
-                    .onFailure().recoverWithItem(failure -> {
-                        // This handles asynchronous errors during the Uni's execution (e.g., network issues).
-                        Log.errorf(failure, "A recoverable execution error occurred for a directive for ARC '%s'. Processing continues.", task.arcAlias());
-                        return false; // Return false to signify a recovered failure.
-                    });
+            return dispatchAndExecute(task);
         } catch (SyncNodeException e) {
             // This handles synchronous errors during setup (e.g., ARC config not found).
             Log.errorf("A recoverable configuration error occurred: %s. This directive was skipped, but processing continues.", e.getMessage());
@@ -193,28 +229,156 @@ public class TargetSystemWriterService {
     }
 
     /**
-     * Dispatches a single task to the appropriate executor based on its directive type.
+     * Dispatches a single task to the appropriate executor based on its directive type. Asynchronous failures are
+     * recovered: a task rejected because its target is unavailable is parked for replay, which runs it through
+     * {@link #safelyDispatchAndExecute(DirectiveTask)} again.
      *
      * @param task The directive task to be executed.
-     * @return A {@link Uni<Void>} representing the asynchronous execution of the directive.
-     * @throws SyncNodeException if the directive type is unknown, the ARC configuration is missing, or JSON conversion fails.
+     * @return A {@link Uni<Boolean>} emitting {@code true} on success, or {@code false} on a recovered failure.
+     * @throws SyncNodeException if the ARC configuration is missing or JSON conversion fails.
      */
-    private Uni<Void> dispatchAndExecute(DirectiveTask task) throws SyncNodeException {
-        JsonNode directiveNode = task.directiveNode();
-        String directiveType = directiveNode.has("__directiveType") ? directiveNode.get("__directiveType").asText() : "unknown";
+    private Uni<Boolean> dispatchAndExecute(DirectiveTask task) throws SyncNodeException {
+        String directiveType = task.directiveType();
+        Long transformationId = task.transformationContext().id();
 
-        if (directiveType.equals("AasUpdateValueDirective")) {
+        if (directiveType.equals(AAS_UPDATE_VALUE_DIRECTIVE)) {
             AasTargetArcMessageDTO aasArcConfig = findAasArcConfig(task.transformationContext(), task.arcAlias());
-            AasUpdateValueDirective aasDirective = convertValue(directiveNode, AasUpdateValueDirective.class);
-            return aasDirectiveExecutor.executeUpdateValue(aasDirective, aasArcConfig, task.transformationContext().id());
+            List<AasUpdateValueDirective> aasDirectives = new ArrayList<>();
+            for (JsonNode directiveNode : task.directiveNodes()) {
+                aasDirectives.add(convertValue(directiveNode, AasUpdateValueDirective.class));
+            }
+            String submodelKey = aasDirectiveExecutor.resolveSubmodelKey(aasArcConfig, transformationId);
+            return directiveCoalescer.submitMerging(submodelKey, aasDirectives, TargetSystemWriterService::concat,
+                            batch -> aasDirectiveExecutor.executeUpdateValues(batch, aasArcConfig, transformationId))
+                    .map(v -> {
+                        task.directiveNodes().forEach(node -> circuitBreakers.recordWritten(elementKey(submodelKey, node), task.issuedAt()));
+                        return true;
+                    })
+                    .onFailure().recoverWithItem(failure -> {
+                        if (failure instanceof AasBatchUpdateException batchFailure) {
+                            return recoverFailedAasBatch(task, submodelKey, batchFailure);
+                        }
+                        if (failure instanceof TargetUnavailableException unavailable) {
+                            parkAasUpdates(task, submodelKey, unavailable, task.directiveNodes());
+                            return false;
+                        }
+                        return recoverFailedWrite(task, failure);
+                    });
         }
-        if (directiveType.endsWith("_UpsertDirective")) {
+        if (directiveType.endsWith(UPSERT_DIRECTIVE_SUFFIX)) {
             RequestConfigurationMessageDTO genericArcConfig = findRestArcConfig(task.transformationContext(), task.arcAlias());
-            UpsertDirective genericDirective = convertValue(directiveNode, UpsertDirective.class);
-            return restDirectiveExecutor.execute(genericDirective, genericArcConfig, task.transformationContext().id(), genericArcConfig.baseUrl());
+            UpsertDirective genericDirective = convertValue(task.directiveNodes().get(0), UpsertDirective.class);
+            String resourceKey = restDirectiveExecutor.resolveResourceKey(genericDirective, genericArcConfig, transformationId, genericArcConfig.baseUrl());
+            return directiveCoalescer.submit(resourceKey,
+                            () -> restDirectiveExecutor.execute(genericDirective, genericArcConfig, transformationId, genericArcConfig.baseUrl()))
+                    .map(v -> {
+                        circuitBreakers.recordWritten(resourceKey, task.issuedAt());
+                        return true;
+                    })
+                    .onFailure().recoverWithItem(failure -> {
+                        if (failure instanceof TargetUnavailableException unavailable
+                                && circuitBreakers.park(unavailable.getTarget(), resourceKey, task.issuedAt(), () -> safelyDispatchAndExecute(task).replaceWithVoid())) {
+                            Log.warnf("Target %s is unavailable. The directive for ARC '%s' was parked for replay once it recovers.",
+                                    unavailable.getTarget(), task.arcAlias());
+                            return false;
+                        }
+                        return recoverFailedWrite(task, failure);
+                    });
         }
         Log.warnf("Unknown directive type '%s' for arc '%s'. Skipping task.", directiveType, task.arcAlias());
-        return Uni.createFrom().voidItem();
+        return Uni.createFrom().item(true);
+    }
+
+    /**
+     * Logs an asynchronous execution error (e.g., network issues) of a task, so processing continues.
+     *
+     * @return {@code false} to signify a recovered failure.
+     */
+    private boolean recoverFailedWrite(DirectiveTask task, Throwable failure) {
+        Log.errorf(failure, "A recoverable execution error occurred for a directive for ARC '%s'. Processing continues.", task.arcAlias());
+        return false;
+    }
+
+    /**
+     * Handles a partially failed AAS batch from the perspective of one task: updates of the task rejected because
+     * the target is unavailable are parked, updates that failed otherwise are reported, and the remaining updates
+     * are recorded as written. The batch may contain updates of other tasks coalesced with this one.
+     *
+     * @return {@code false} to signify a recovered failure.
+     */
+    private boolean recoverFailedAasBatch(DirectiveTask task, String submodelKey, AasBatchUpdateException batchFailure) {
+        Set<String> unavailablePaths = new HashSet<>(batchFailure.getUnavailableElementPaths());
+        Set<String> failedPaths = new HashSet<>(batchFailure.getFailedElementPaths());
+        List<JsonNode> rejected = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        for (JsonNode node : task.directiveNodes()) {
+            String elementPath = elementPathOf(node);
+            if (unavailablePaths.contains(elementPath)) {
+                rejected.add(node);
+            } else if (failedPaths.contains(elementPath)) {
+                failed.add(elementPath);
+            } else {
+                circuitBreakers.recordWritten(elementKey(submodelKey, node), task.issuedAt());
+            }
+        }
+        if (!rejected.isEmpty()) {
+            parkAasUpdates(task, submodelKey, batchFailure.getUnavailable(), rejected);
+        }
+        if (!failed.isEmpty()) {
+            Log.errorf("%d AAS value update(s) for ARC '%s' failed and were not written: %s. Processing continues.",
+                    failed.size(), task.arcAlias(), failed);
+        }
+        return false;
+    }
+
+    /**
+     * Parks AAS value updates rejected because their target is unavailable. Each element is parked on its own,
+     * keyed by its path, so a replay only writes elements that have not been written successfully since.
+     *
+     * @param task        The AAS task the updates belong to.
+     * @param submodelKey The key of the submodel the updates address.
+     * @param unavailable The rejection of the target's circuit breaker.
+     * @param nodes       The directive nodes of the rejected updates.
+     */
+    private void parkAasUpdates(DirectiveTask task, String submodelKey, TargetUnavailableException unavailable, List<JsonNode> nodes) {
+        int parked = 0;
+        for (JsonNode node : nodes) {
+            DirectiveTask elementTask = new DirectiveTask(AAS_UPDATE_VALUE_DIRECTIVE, List.of(node), task.arcAlias(),
+                    task.transformationContext(), task.issuedAt());
+            if (circuitBreakers.park(unavailable.getTarget(), elementKey(submodelKey, node), task.issuedAt(),
+                    () -> safelyDispatchAndExecute(elementTask).replaceWithVoid())) {
+                parked++;
+            }
+        }
+        if (parked > 0) {
+            Log.warnf("Target %s is unavailable. %d AAS value update(s) for ARC '%s' were parked for replay once it recovers.",
+                    unavailable.getTarget(), parked, task.arcAlias());
+        } else {
+            Log.errorf(unavailable, "Target %s is unavailable and parking is disabled. %d AAS value update(s) for ARC '%s' were dropped.",
+                    unavailable.getTarget(), nodes.size(), task.arcAlias());
+        }
+    }
+
+    /**
+     * Builds the key of a single submodel element, used to park and replay AAS value updates per element.
+     */
+    private static String elementKey(String submodelKey, JsonNode directiveNode) {
+        return submodelKey + "#" + elementPathOf(directiveNode);
+    }
+
+    private static String elementPathOf(JsonNode directiveNode) {
+        JsonNode elementPath = directiveNode.get("elementIdShortPath");
+        return elementPath == null || elementPath.isNull() ? null : elementPath.asText();
+    }
+
+    /**
+     * Merges two batches of AAS value updates, keeping their order so that later updates of an element win.
+     */
+    private static List<AasUpdateValueDirective> concat(List<AasUpdateValueDirective> pending, List<AasUpdateValueDirective> latest) {
+        List<AasUpdateValueDirective> merged = new ArrayList<>(pending.size() + latest.size());
+        merged.addAll(pending);
+        merged.addAll(latest);
+        return merged;
     }
 
     /**
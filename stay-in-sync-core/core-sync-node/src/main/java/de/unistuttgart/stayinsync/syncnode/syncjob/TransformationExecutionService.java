@@ -1,6 +1,5 @@
 package de.unistuttgart.stayinsync.syncnode.syncjob;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,20 +11,25 @@ import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
 import de.unistuttgart.graphengine.cache.GraphHasher;
 import de.unistuttgart.graphengine.cache.GraphInstanceCache;
 import de.unistuttgart.graphengine.cache.StatefulLogicGraph;
-import de.unistuttgart.stayinsync.syncnode.SnapshotManagement.SnapshotFactory;
-import de.unistuttgart.stayinsync.syncnode.SnapshotManagement.SnapshotStore;
+import de.unistuttgart.stayinsync.syncnode.SnapshotManagement.FailureSnapshotSampler;
 import de.unistuttgart.stayinsync.syncnode.domain.ExecutionPayload;
+import de.unistuttgart.stayinsync.syncnode.monitor.PayloadLogSampler;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineStageMetrics;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineTrace;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.quarkus.logging.Log;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.context.ManagedExecutor;
 import org.slf4j.MDC;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Orchestrates the entire execution flow of a transformation job.
@@ -42,6 +46,16 @@ import java.util.Map;
  *         corresponding HTTP web requests to target systems.</li>
  * </ol>
  * The process is modeled reactively to ensure non-blocking execution, especially for the web requests.
+ * <p>
+ * The start and end of each stage are marked in the job's {@link PipelineTrace}, from which the
+ * {@link PipelineStageMetrics} derive the per-stage latency histograms.
+ * <p>
+ * Payloads handed over with {@link #schedule(ExecutionPayload)} pass an {@link ExecutionScheduler} first,
+ * which bounds the number of concurrent graph and script executions ({@code stayinsync.scheduler.max-concurrency})
+ * and shares them fairly between the transformations. The scheduler slot is released as soon as the script has
+ * run; the directives are written afterwards, outside the scheduler, where the per-target admission gates and
+ * circuit breakers of the {@link TargetClientRegistry} bound them. A slow or hanging target system therefore
+ * cannot hold on to the slots and stall the executions of other transformations.
  */
 @ApplicationScoped
 public class TransformationExecutionService {
@@ -51,22 +65,52 @@ public class TransformationExecutionService {
     private final TargetSystemWriterService targetSystemWriterService;
     private final ManagedExecutor managedExecutor;
     private final ObjectMapper objectMapper;
-    private final SnapshotStore snapshotStore;
+    private final FailureSnapshotSampler failureSnapshotSampler;
     private final MeterRegistry meterRegistry;
     private final GraphHasher graphHasher;
+    private final PipelineStageMetrics pipelineStageMetrics;
+    private final PayloadLogSampler payloadLogSampler;
+    private final ExecutionScheduler executionScheduler;
+
+    // Script meters are registered once per (bounded) transformation tag instead of on every execution.
+    private final Map<String, ScriptMeters> scriptMeters = new ConcurrentHashMap<>();
+
+    private record ScriptMeters(Timer executionTimer, Counter executionCounter) {
+    }
 
     public TransformationExecutionService(GraphInstanceCache graphCache, ScriptEngineService scriptEngineService,
                                           TargetSystemWriterService targetSystemWriterService, ManagedExecutor managedExecutor,
-                                          ObjectMapper objectMapper, SnapshotStore snapshotStore,
-                                          MeterRegistry meterRegistry, GraphHasher graphHasher) {
+                                          ObjectMapper objectMapper, FailureSnapshotSampler failureSnapshotSampler,
+                                          MeterRegistry meterRegistry, GraphHasher graphHasher,
+                                          PipelineStageMetrics pipelineStageMetrics, PayloadLogSampler payloadLogSampler,
+                                          @ConfigProperty(name = "stayinsync.scheduler.max-concurrency", defaultValue = "16") int maxConcurrency,
+                                          Config config) {
         this.graphCache = graphCache;
         this.scriptEngineService = scriptEngineService;
         this.targetSystemWriterService = targetSystemWriterService;
         this.managedExecutor = managedExecutor;
         this.objectMapper = objectMapper;
-        this.snapshotStore = snapshotStore;
+        this.failureSnapshotSampler = failureSnapshotSampler;
         this.meterRegistry = meterRegistry;
         this.graphHasher = graphHasher;
+        this.pipelineStageMetrics = pipelineStageMetrics;
+        this.payloadLogSampler = payloadLogSampler;
+        this.executionScheduler = new ExecutionScheduler(this::evaluateAndTransform,
+                transformationId -> ExecutionQueueProfile.forTransformation(config, transformationId),
+                maxConcurrency, meterRegistry, pipelineStageMetrics::transformationTag);
+    }
+
+    /**
+     * Queues a payload in the {@link ExecutionScheduler}, evaluates its logic graph and runs its script when it
+     * is its turn, and writes the resulting directives once the scheduler slot has been released.
+     *
+     * @param payload The payload to execute.
+     * @return A Uni with the TransformationResult, or null if the pre-condition check failed. It fails with
+     * {@link ExecutionScheduler.SupersededException} if a newer payload of the transformation replaced it.
+     */
+    public Uni<TransformationResult> schedule(ExecutionPayload payload) {
+        return executionScheduler.submit(payload)
+                .onItem().ifNotNull().transformToUni(result -> processScriptResult(result, payload));
     }
 
     /**
@@ -79,6 +123,18 @@ public class TransformationExecutionService {
      * if the pre-condition check failed.
      */
     public Uni<TransformationResult> execute(ExecutionPayload payload) {
+        return evaluateAndTransform(payload)
+                .onItem().ifNotNull().transformToUni(result -> processScriptResult(result, payload));
+    }
+
+    /**
+     * Evaluates the logic graph and, if the condition passes, executes the script transformation, without
+     * writing its directives. This is the part of the execution the {@link ExecutionScheduler} runs.
+     *
+     * @param payload The payload to execute.
+     * @return A Uni with the TransformationResult of the script, or null if the pre-condition check failed.
+     */
+    private Uni<TransformationResult> evaluateAndTransform(ExecutionPayload payload) {
         return evaluateLogicGraph(payload)
                 .flatMap(conditionMet -> {
                     if (Boolean.TRUE.equals(conditionMet)) {
@@ -96,9 +152,10 @@ public class TransformationExecutionService {
      */
     private Uni<Boolean> evaluateLogicGraph(ExecutionPayload payload) {
         return Uni.createFrom().item(() -> {
+            payload.trace().markGraphStarted();
             try {
                 MDC.put("transformationId", payload.job().transformationId().toString());
-                Log.infof("Job %s: Evaluating pre-condition logic graph...", payload.job().jobId());
+                Log.debugf("Job %s: Evaluating pre-condition logic graph...", payload.job().jobId());
 
                 List<Node> graphDefinition = payload.graphNodes();
 
@@ -107,9 +164,7 @@ public class TransformationExecutionService {
                     return true;
                 }
 
-                TypeReference<Map<String, JsonNode>> typeRef = new TypeReference<>() {
-                };
-                Map<String, JsonNode> dataContext = objectMapper.convertValue(payload.job().sourceData(), typeRef);
+                Map<String, JsonNode> dataContext = toDataContext(payload.job().sourceData());
                 String graphHash = graphHasher.hash(graphDefinition);
 
                 StatefulLogicGraph graphInstance = graphCache.getOrCreate(
@@ -130,23 +185,40 @@ public class TransformationExecutionService {
                         payload.job().jobId(), e.getErrorType(), e.getMessage());
                 return false;
             } finally {
+                payload.trace().markGraphFinished();
                 MDC.remove("transformationId");
             }
         }).runSubscriptionOn(managedExecutor);
     }
 
     /**
-     * Stage 2: Executes the full pipeline after the graph evaluation passes.
-     * This includes script execution, metrics, snapshotting, and directive processing.
+     * Returns the source data of a job as the data context of its logic graph. Source data decoded into a
+     * tree by the consumer is used as it is; other source data, e.g. of a replayed job, is converted.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, JsonNode> toDataContext(Object sourceData) {
+        if (sourceData instanceof Map<?, ?> map
+                && map.values().stream().allMatch(value -> value instanceof JsonNode)) {
+            return (Map<String, JsonNode>) map;
+        }
+        return objectMapper.convertValue(sourceData, new TypeReference<Map<String, JsonNode>>() {
+        });
+    }
+
+    /**
+     * Stage 2: Executes the script transformation after the graph evaluation passes and records its metrics.
      */
     private Uni<TransformationResult> executeMainTransformationFlow(ExecutionPayload payload) {
-        Log.infof("Job %s: Pre-condition PASSED. Proceeding to script transformation...", payload.job().jobId());
+        Log.debugf("Job %s: Pre-condition PASSED. Proceeding to script transformation...", payload.job().jobId());
 
         Timer.Sample timerSample = Timer.start(meterRegistry);
+        payload.trace().markScriptStarted();
 
-        return scriptEngineService.transformAsync(payload.job())
-                .invoke(transformationResult -> recordMetrics(payload, timerSample))
-                .flatMap(transformationResult -> processScriptResult(transformationResult, payload));
+        return scriptEngineService.transformAsync(payload.job(), payload.trace())
+                .invoke(transformationResult -> {
+                    payload.trace().markScriptFinished();
+                    recordMetrics(payload, timerSample);
+                });
     }
 
     /**
@@ -162,7 +234,9 @@ public class TransformationExecutionService {
         // Then, if the execution was valid, log output and process directives.
         if (result.isValidExecution()) {
             logScriptOutput(result);
+            payload.trace().markWriteStarted();
             return targetSystemWriterService.processDirectives(result, payload.transformationContext())
+                    .onTermination().invoke(() -> payload.trace().markWriteFinished())
                     .map(v -> result); // After directives are processed, return the original result.
         }
 
@@ -171,53 +245,53 @@ public class TransformationExecutionService {
     }
 
     private void recordMetrics(ExecutionPayload payload, Timer.Sample sample) {
-        // Stop timer and record metric
-        sample.stop(meterRegistry.timer(
-                "script_execution_time_seconds",
-                "scriptId", getScriptIdTag(payload),
-                "transformationId", getTransformationIdTag(payload)
-        ));
-
-        // Record script load counter
-        Counter.builder("script_execution_total")
-                .description("Total number of script executions")
-                .tag("scriptId", getScriptIdTag(payload))
-                .tag("transformationId", getTransformationIdTag(payload))
-                .register(meterRegistry)
-                .increment();
-
-        Log.infof("Job %s: Script execution completed and metrics recorded.", payload.job().jobId());
+        ScriptMeters meters = scriptMetersFor(payload);
+        sample.stop(meters.executionTimer());
+        meters.executionCounter().increment();
+
+        Log.debugf("Job %s: Script execution completed and metrics recorded.", payload.job().jobId());
+    }
+
+    private ScriptMeters scriptMetersFor(ExecutionPayload payload) {
+        String transformationTag = pipelineStageMetrics.transformationTag(payload.job().transformationId());
+        // Transformations beyond the tag limit share their meters, so their script IDs must not add series either.
+        String scriptTag = PipelineStageMetrics.OVERFLOW_TAG.equals(transformationTag) ? transformationTag : getScriptIdTag(payload);
+        return scriptMeters.computeIfAbsent(transformationTag + '|' + scriptTag, key -> new ScriptMeters(
+                Timer.builder("script_execution_time_seconds")
+                        .tag("scriptId", scriptTag)
+                        .tag("transformationId", transformationTag)
+                        .register(meterRegistry),
+                Counter.builder("script_execution_total")
+                        .description("Total number of script executions")
+                        .tag("scriptId", scriptTag)
+                        .tag("transformationId", transformationTag)
+                        .register(meterRegistry)));
     }
 
+    /**
+     * Hands a failed execution to the {@link FailureSnapshotSampler}, which samples, de-duplicates and
+     * captures it off the execution thread.
+     */
     private void storeFailedExecutionSnapshot(TransformationResult result, ExecutionPayload payload) {
-        try {
-            // Populate the result with context needed for the snapshot
-            result.setTransformationId(payload.transformationContext().id());
-            result.setSourceData(payload.job().sourceData());
-
-            var snapshot = SnapshotFactory.fromTransformationResult(result, objectMapper);
-            snapshotStore.put(snapshot);
-            Log.infof("Job %s: Stored snapshot id=%s for failed script execution.",
-                    result.getJobId(), snapshot.getSnapshotId());
-        } catch (Exception ex) {
-            Log.error("Failed to create/store snapshot for failed execution", ex);
-        }
+        // Populate the result with context needed for the snapshot
+        result.setTransformationId(payload.transformationContext().id());
+        result.setSourceData(payload.job().sourceData());
+        failureSnapshotSampler.submit(result);
     }
 
+    /**
+     * Logs a truncated preview of the script output for a sample of the jobs, at debug level only.
+     */
     private void logScriptOutput(TransformationResult result) {
-        try {
-            String outputJson = objectMapper.writerWithDefaultPrettyPrinter()
-                    .writeValueAsString(result.getOutputData());
-            Log.infof(">>>> SCRIPT OUTPUT DATA (as JSON) for Job %s:\n%s", result.getJobId(), outputJson);
-        } catch (JsonProcessingException e) {
-            Log.errorf(e, "Job %s: Script output could not be serialized to JSON.", result.getJobId());
+        if (Log.isDebugEnabled() && payloadLogSampler.sample()) {
+            Log.debugf("Job %s: Script output: %s", result.getJobId(), payloadLogSampler.preview(result.getOutputData()));
         }
     }
 
     private void logSkippedExecution(ExecutionPayload payload) {
         try {
             MDC.put("transformationId", payload.job().transformationId().toString());
-            Log.infof("Job %s: Pre-condition FAILED. Skipping script transformation...", payload.job().jobId());
+            Log.debugf("Job %s: Pre-condition FAILED. Skipping script transformation...", payload.job().jobId());
         } finally {
             MDC.remove("transformationId");
         }
@@ -226,8 +300,4 @@ public class TransformationExecutionService {
     private String getScriptIdTag(ExecutionPayload payload) {
         return payload.job().scriptId() != null ? payload.job().scriptId() : "unknown";
     }
-
-    private String getTransformationIdTag(ExecutionPayload payload) {
-        return payload.job().transformationId() != null ? payload.job().transformationId().toString() : "unknown";
-    }
 }
\ No newline at end of file
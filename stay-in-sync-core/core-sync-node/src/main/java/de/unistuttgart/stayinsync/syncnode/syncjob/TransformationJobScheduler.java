@@ -1,18 +1,27 @@
 package de.unistuttgart.stayinsync.syncnode.syncjob;
 
+import de.unistuttgart.graphengine.cache.GraphHasher;
+import de.unistuttgart.graphengine.cache.GraphInstanceCache;
+import de.unistuttgart.graphengine.exception.LogicEngineException;
+import de.unistuttgart.graphengine.service.GraphMapper;
 import de.unistuttgart.stayinsync.exception.SyncNodeException;
+import de.unistuttgart.stayinsync.scriptengine.ScriptCache;
+import de.unistuttgart.stayinsync.scriptengine.ScriptEngineService;
 import de.unistuttgart.stayinsync.syncnode.rabbitmq.consumer.SyncDataMessageConsumer;
 import de.unistuttgart.stayinsync.syncnode.rabbitmq.consumer.TransformationJobMessageConsumer;
 import de.unistuttgart.stayinsync.transport.domain.JobDeploymentStatus;
 import de.unistuttgart.stayinsync.transport.dto.SourceSystemApiRequestConfigurationMessageDTO;
 import de.unistuttgart.stayinsync.transport.dto.TransformationMessageDTO;
+import de.unistuttgart.stayinsync.transport.dto.TransformationScriptDTO;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.slf4j.MDC;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @ApplicationScoped
 public class TransformationJobScheduler {
@@ -26,8 +35,23 @@ public class TransformationJobScheduler {
     @Inject
     DispatcherStateService dispatcherStateService;
 
+    @Inject
+    ScriptCache scriptCache;
+
+    @Inject
+    GraphInstanceCache graphInstanceCache;
+
+    @Inject
+    GraphHasher graphHasher;
+
+    @Inject
+    GraphMapper graphMapper;
+
     private Set<TransformationMessageDTO> runningJobs = new HashSet<>();
 
+    // The latest deployed version of each transformation, used to find the cache entries it owns.
+    private final Map<Long, TransformationMessageDTO> deployedTransformations = new ConcurrentHashMap<>();
+
     public void deployTransformation(TransformationMessageDTO transformation) throws SyncNodeException {
         try {
             MDC.put("transformationId", transformation.id().toString());
@@ -36,6 +60,7 @@ public class TransformationJobScheduler {
             dispatcherStateService.registerOrUpdateTransformation(transformation);
             transformationJobMessageConsumer.bindSyncJobReconfigurationQueue(transformation);
             consumeJobSyncData(transformation);
+            evictSupersededCacheEntries(transformation);
 
             runningJobs.add(transformation);
         } finally {
@@ -51,9 +76,11 @@ public class TransformationJobScheduler {
                 stopConsumingFromUnusedRequestConfigurations();
                 transformationJobMessageConsumer.unbindExisitingSyncJobQueue(transformation);
                 runningJobs.remove(transformation);
+                evictCacheEntries(transformation);
                 return JobDeploymentStatus.UNDEPLOYED;
             } else {
                 Log.infof("Updating deployed transformation %s with id %d", transformation.name(), transformation.id());
+                evictSupersededCacheEntries(transformation);
                 return JobDeploymentStatus.DEPLOYED;
             }
         } finally {
@@ -74,6 +101,55 @@ public class TransformationJobScheduler {
         });
     }
 
+    /**
+     * Drops the compiled scripts and graph instances of an undeployed transformation.
+     */
+    private void evictCacheEntries(TransformationMessageDTO transformation) {
+        TransformationMessageDTO deployed = deployedTransformations.remove(transformation.id());
+        graphInstanceCache.remove(transformation.id());
+        removeScripts(deployed != null ? deployed.transformationScriptDTO() : null);
+        removeScripts(transformation.transformationScriptDTO());
+    }
+
+    /**
+     * Drops the cached versions of a transformation's script, SDK and graph that the given
+     * version of the transformation no longer uses.
+     */
+    private void evictSupersededCacheEntries(TransformationMessageDTO transformation) {
+        TransformationMessageDTO previous = deployedTransformations.put(transformation.id(), transformation);
+        TransformationScriptDTO script = transformation.transformationScriptDTO();
+        if (script != null && script.id() != null) {
+            String scriptId = script.id().toString();
+            scriptCache.removeSupersededVersions(scriptId, script.hash());
+            scriptCache.removeSupersededVersions(ScriptEngineService.sdkScriptId(scriptId), script.generatedSdkHash());
+        }
+        if (previous != null && previous.transformationScriptDTO() != null && previous.transformationScriptDTO().id() != null
+                && (script == null || !previous.transformationScriptDTO().id().equals(script.id()))) {
+            removeScripts(previous.transformationScriptDTO());
+        }
+
+        if (transformation.transformationRuleDTO() == null || transformation.transformationRuleDTO().graphDTO() == null) {
+            graphInstanceCache.remove(transformation.id());
+            return;
+        }
+        try {
+            String graphHash = graphHasher.hash(graphMapper.toNodeGraph(transformation.transformationRuleDTO().graphDTO()).nodes());
+            graphInstanceCache.removeSuperseded(transformation.id(), graphHash);
+        } catch (LogicEngineException e) {
+            Log.warnf(e, "Could not hash the graph of transformation %d, dropping all its cached graph instances", transformation.id());
+            graphInstanceCache.remove(transformation.id());
+        }
+    }
+
+    private void removeScripts(TransformationScriptDTO script) {
+        if (script == null || script.id() == null) {
+            return;
+        }
+        String scriptId = script.id().toString();
+        scriptCache.removeScript(scriptId);
+        scriptCache.removeScript(ScriptEngineService.sdkScriptId(scriptId));
+    }
+
     //TODO implement this method
     private void stopConsumingFromUnusedRequestConfigurations() {
     }
@@ -2,6 +2,7 @@ package de.unistuttgart.stayinsync.syncnode.syncjob;
 
 import io.quarkus.arc.DefaultBean;
 import io.quarkus.logging.Log;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.net.PemTrustOptions;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.mutiny.core.Vertx;
@@ -11,10 +12,12 @@ import jakarta.enterprise.inject.Produces;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A provider responsible for creating and configuring a shared, application-wide Vert.x WebClient.
+ * A provider responsible for creating and configuring the Vert.x WebClients used to reach target systems.
  * <p>
  * The purpose of this class is to centralize the creation and configuration of the HTTP client
  * used throughout the application. Centralization ensures that all HTTP calls adhere to the
@@ -24,12 +27,38 @@ import java.util.Optional;
  * different settings in various environments (e.g., development, testing, production) without
  * code changes.
  * <p>
- * It replaces the default constructor-based creation with a CDI {@code @Produces} method,
- * which is the idiomatic way in Quarkus and Jakarta CDI to provide configured instances of a bean.
+ * Besides the shared default client exposed through a CDI {@code @Produces} method, it creates dedicated
+ * clients with their own connection pool per target system (see {@link #createTargetClient(TargetClientProfile)}),
+ * so that a burst against one target cannot exhaust the connections of all others.
  */
 @ApplicationScoped
 public class WebClientProvider {
 
+    private final Vertx vertx;
+    private final Duration connectTimeout;
+    private final boolean trustAll;
+    private final Optional<String> pemTrustStorePath;
+
+    /**
+     * Constructs the provider with the connection settings shared by all clients.
+     *
+     * @param vertx             The Vert.x instance, injected by Quarkus.
+     * @param connectTimeout    The configured connection timeout.
+     * @param trustAll          A flag to disable certificate validation (for development only).
+     * @param pemTrustStorePath An optional path to a PEM file containing trusted certificates.
+     */
+    public WebClientProvider(
+            Vertx vertx,
+            @ConfigProperty(name = "stayinsync.webclient.timeout") Duration connectTimeout,
+            @ConfigProperty(name = "stayinsync.webclient.security.trust-all", defaultValue = "false") boolean trustAll,
+            @ConfigProperty(name = "stayinsync.webclient.security.pem-trust-store") Optional<String> pemTrustStorePath
+    ) {
+        this.vertx = vertx;
+        this.connectTimeout = connectTimeout;
+        this.trustAll = trustAll;
+        this.pemTrustStorePath = pemTrustStorePath;
+    }
+
     /**
      * Produces a customized and configured {@link WebClient} bean for the application.
      * <p>
@@ -39,29 +68,54 @@ public class WebClientProvider {
      * proper PEM trust store to securely connect to external systems. For development,
      * it can be configured to trust all certificates, but this is logged as a security warning.
      *
-     * @param vertx             The Vert.x instance, injected by Quarkus.
-     * @param connectTimeout    The configured connection timeout.
-     * @param trustAll          A flag to disable certificate validation (for development only).
-     * @param pemTrustStorePath An optional path to a PEM file containing trusted certificates.
      * @return A configured, singleton {@link WebClient} instance.
      */
     @Produces
     @ApplicationScoped
     @DefaultBean // Ensures this bean can be easily overridden for testing purposes.
-    public WebClient createWebClient(
-            Vertx vertx,
-            @ConfigProperty(name = "stayinsync.webclient.timeout") Duration connectTimeout,
-            @ConfigProperty(name = "stayinsync.webclient.security.trust-all", defaultValue = "false") boolean trustAll,
-            @ConfigProperty(name = "stayinsync.webclient.security.pem-trust-store") Optional<String> pemTrustStorePath
-    ) {
+    public WebClient createWebClient() {
+        WebClientOptions options = baseOptions();
+
+        Log.info("Configured WebClient with connect timeout of " + connectTimeout);
+        return WebClient.create(vertx, options);
+    }
+
+    /**
+     * Creates a dedicated {@link WebClient} with its own connection pool for a single target system.
+     *
+     * @param profile The pool settings of the target system.
+     * @return A new client; the caller is responsible for reusing and eventually closing it.
+     */
+    public WebClient createTargetClient(TargetClientProfile profile) {
+        WebClientOptions options = baseOptions()
+                .setMaxPoolSize(profile.maxPoolSize())
+                .setMaxWaitQueueSize(profile.maxWaitQueueSize())
+                .setKeepAlive(profile.keepAlive())
+                .setKeepAliveTimeout((int) Math.max(1, profile.keepAliveTimeout().toSeconds()))
+                .setIdleTimeout((int) profile.idleTimeout().toMillis())
+                .setIdleTimeoutUnit(TimeUnit.MILLISECONDS);
+
+        if (profile.http2()) {
+            options.setProtocolVersion(HttpVersion.HTTP_2)
+                    .setUseAlpn(true)
+                    .setAlpnVersions(List.of(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1))
+                    .setHttp2MaxPoolSize(profile.maxPoolSize())
+                    .setHttp2MultiplexingLimit(profile.http2MultiplexingLimit())
+                    .setHttp2KeepAliveTimeout((int) Math.max(1, profile.keepAliveTimeout().toSeconds()));
+        }
+        return WebClient.create(vertx, options);
+    }
+
+    /**
+     * Creates the options shared by all clients: connect timeout and TLS security.
+     */
+    private WebClientOptions baseOptions() {
         WebClientOptions options = new WebClientOptions()
                 .setConnectTimeout((int) connectTimeout.toMillis())
                 .setSsl(true);
 
         configureTlsSecurity(options, trustAll, pemTrustStorePath);
-
-        Log.info("Configured WebClient with connect timeout of " + connectTimeout);
-        return WebClient.create(vertx, options);
+        return options;
     }
 
     /**
@@ -91,4 +145,4 @@ public class WebClientProvider {
             options.setTrustAll(false);
         }
     }
-}
\ No newline at end of file
+}
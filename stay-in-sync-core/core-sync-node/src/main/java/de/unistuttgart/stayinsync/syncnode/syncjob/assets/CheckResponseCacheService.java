@@ -1,106 +1,281 @@
 package de.unistuttgart.stayinsync.syncnode.syncjob.assets;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 /**
- * An application-scoped, in-memory cache for storing API responses during a transformation execution.
+ * An application-scoped, bounded in-memory cache for the results of CHECK requests against target systems.
  * <p>
- * The purpose of this cache is to store the results of "check" GET requests made to external
- * systems within the context of a single transformation. This prevents redundant API calls
- * and ensures that different steps within the same transformation operate on a consistent
- * set of data.
+ * The purpose of this cache is to avoid redundant CHECK (GET) calls when several directives address the same
+ * resource within a short time window. Entries are keyed on the full effective request ({@link CheckCacheKey}),
+ * i.e. the ARC, the fully resolved URL including query parameters and all configured request headers, so that
+ * requests differing only in headers or credentials never share a cached decision.
  * <p>
- * The cache is implemented to be thread-safe to handle concurrent access from different
- * processing steps. Data is held in memory for the application's lifecycle and is not persisted.
+ * Only the resolved result (status code and body) is stored, never a reactive pipeline. The cache is bounded by
+ * the total weight of the cached bodies and every entry expires after a configurable time-to-live. Callers are
+ * expected to {@link #invalidate(CheckCacheKey) invalidate} an entry after a successful write to the resource it
+ * describes, so that a subsequent CHECK never observes a stale create-versus-update decision.
+ * <p>
+ * A CHECK may still be in flight when the resource it describes is written. To keep it from caching its
+ * outdated response after the invalidation, a CHECK registers a {@link CheckToken} with {@link #beginCheck}
+ * before it is sent and stores its response with {@link #putIfCurrent}, which discards the response if the
+ * entry was invalidated in the meantime.
+ * <p>
+ * An entry is shared by all transformations issuing the same request. For diagnostics, every entry remembers
+ * the transformations that stored or were served its response, see {@link #getResponsesByTransformationId}.
+ * <p>
+ * Hit, miss and eviction statistics are exported to Micrometer under the cache name {@value #CACHE_NAME}.
  */
 @ApplicationScoped
 public class CheckResponseCacheService {
 
+    public static final String CACHE_NAME = "check-cache";
+
     /**
-     * The primary data structure of the cache.
-     * The outer key is the {@code transformationId}.
-     * The value is an encapsulation object that holds the responses for that transformation.
+     * The key of a cached CHECK response. Two CHECK requests share an entry only if they target the
+     * same ARC with the same method, the same fully resolved URL and an identical set of headers.
+     *
+     * @param targetArcId The ID of the target ARC the request was issued for.
+     * @param method      The HTTP method of the CHECK request.
+     * @param url         The fully resolved URL, including query parameters.
+     * @param headers     The effective request headers, with lower-cased names in sorted order.
      */
-    private final Map<Long, TransformationCacheEntry> cache = new ConcurrentHashMap<>();
+    public record CheckCacheKey(Long targetArcId, String method, String url, SortedMap<String, String> headers) {
+        public CheckCacheKey {
+            Objects.requireNonNull(targetArcId, "targetArcId must not be null");
+            Objects.requireNonNull(method, "method must not be null");
+            Objects.requireNonNull(url, "url must not be null");
+            headers = Collections.unmodifiableSortedMap(new TreeMap<>(headers));
+        }
+    }
 
     /**
-     * Adds a successful GET response body to the cache.
-     * <p>
-     * This method is thread-safe. It retrieves or creates the cache entry for the given
-     * {@code transformationId} as needed and delegates the addition of the response to that entry.
+     * The resolved outcome of a CHECK request as it is held in the cache.
+     *
+     * @param transformationId The ID of the transformation that issued the request.
+     * @param statusCode       The HTTP status code of the CHECK response.
+     * @param body             The response body, never null.
+     */
+    public record CachedCheckResponse(Long transformationId, int statusCode, String body) {
+        public CachedCheckResponse {
+            body = body == null ? "" : body;
+        }
+    }
+
+    /**
+     * Identifies a CHECK request between {@link #beginCheck} and the storing of its response.
+     */
+    public static final class CheckToken {
+        private CheckToken() {
+        }
+    }
+
+    private final Cache<CheckCacheKey, CachedCheckResponse> cache;
+    /**
+     * The most recent in-flight CHECK per key. An invalidation removes the token, so the responses of CHECKs
+     * started before it are not cached. Holds only keys with a CHECK in flight.
+     */
+    private final ConcurrentMap<CheckCacheKey, CheckToken> pendingChecks = new ConcurrentHashMap<>();
+    /**
+     * The transformations that stored or were served the response of a cached entry. Holds only keys of
+     * cached entries; removed together with the entry.
+     */
+    private final ConcurrentMap<CheckCacheKey, Set<Long>> transformationsByKey = new ConcurrentHashMap<>();
+    private final boolean enabled;
+
+    /**
+     * Constructs the cache with its configured bounds and registers its metrics.
+     *
+     * @param enabled          Whether CHECK responses are cached at all.
+     * @param maximumWeight    The maximum total weight of all entries, approximated in bytes of URL and body.
+     * @param expireAfterWrite The time-to-live of an entry after it has been written.
+     * @param meterRegistry    The registry for exporting cache statistics.
+     */
+    public CheckResponseCacheService(@ConfigProperty(name = "stayinsync.check-cache.enabled", defaultValue = "true") boolean enabled,
+                                     @ConfigProperty(name = "stayinsync.check-cache.maximum-weight", defaultValue = "16777216") long maximumWeight,
+                                     @ConfigProperty(name = "stayinsync.check-cache.expire-after-write", defaultValue = "30s") Duration expireAfterWrite,
+                                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((CheckCacheKey key, CachedCheckResponse value) -> weigh(key, value))
+                .expireAfterWrite(expireAfterWrite)
+                .removalListener(this::onEntryRemoved)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Log.infof("Configured %s (enabled: %s, maximum weight: %d, expire after write: %s)",
+                CACHE_NAME, enabled, maximumWeight, expireAfterWrite);
+    }
+
+    /**
+     * Looks up the cached response for the given request.
+     *
+     * @param key The full effective CHECK request.
+     * @return An {@link Optional} containing the cached response, or an empty Optional on a miss.
+     */
+    public Optional<CachedCheckResponse> get(CheckCacheKey key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    /**
+     * Looks up the cached response for the given request and, on a hit, attributes the entry to the
+     * transformation it is served to.
+     *
+     * @param key              The full effective CHECK request.
+     * @param transformationId The ID of the transformation issuing the request.
+     * @return An {@link Optional} containing the cached response, or an empty Optional on a miss.
+     */
+    public Optional<CachedCheckResponse> get(CheckCacheKey key, Long transformationId) {
+        Optional<CachedCheckResponse> cached = get(key);
+        cached.ifPresent(response -> attribute(key, transformationId));
+        return cached;
+    }
+
+    /**
+     * Stores the resolved response of a CHECK request.
+     *
+     * @param key      The full effective CHECK request. Cannot be null.
+     * @param response The resolved response. Cannot be null.
+     */
+    public void put(CheckCacheKey key, CachedCheckResponse response) {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(response, "response must not be null");
+        if (enabled) {
+            cache.put(key, response);
+            attribute(key, response.transformationId());
+        }
+    }
+
+    /**
+     * Registers a CHECK request that is about to be sent. Its response may only be cached with the returned
+     * token, see {@link #putIfCurrent}. A later CHECK for the same key supersedes the token.
      *
-     * @param transformationId The ID of the transformation to which the response belongs. Cannot be null.
-     * @param targetArcId      The ID of the target ARC used for the API call. Cannot be null.
-     * @param responseBody     The response body from the GET call as a String. Cannot be null.
-     */
-    public void addResponse(Long transformationId, Long targetArcId, String responseBody) {
-        // Parameter validation for robustness.
-        Objects.requireNonNull(transformationId, "transformationId must not be null");
-        Objects.requireNonNull(targetArcId, "targetArcId must not be null");
-        Objects.requireNonNull(responseBody, "responseBody must not be null");
-
-        // Atomically get or create the TransformationCacheEntry for the transformation.
-        TransformationCacheEntry entry = cache.computeIfAbsent(transformationId, k -> {
-            Log.debugf("Creating new cache entry for transformation ID: %d", k);
-            return new TransformationCacheEntry();
+     * @param key The full effective CHECK request. Cannot be null.
+     * @return The token of the CHECK.
+     */
+    public CheckToken beginCheck(CheckCacheKey key) {
+        Objects.requireNonNull(key, "key must not be null");
+        CheckToken token = new CheckToken();
+        pendingChecks.put(key, token);
+        return token;
+    }
+
+    /**
+     * Stores the resolved response of a CHECK request, unless the entry was invalidated or another CHECK for
+     * the same key was started after this one. Either way, the token is released.
+     *
+     * @param key      The full effective CHECK request. Cannot be null.
+     * @param token    The token returned by {@link #beginCheck} for this CHECK.
+     * @param response The resolved response. Cannot be null.
+     * @return {@code true} if the response was stored.
+     */
+    public boolean putIfCurrent(CheckCacheKey key, CheckToken token, CachedCheckResponse response) {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(response, "response must not be null");
+        boolean[] stored = {false};
+        // Runs under the same map lock as invalidate(), so no invalidation can slip in between.
+        pendingChecks.computeIfPresent(key, (k, current) -> {
+            if (current != token) {
+                return current;
+            }
+            if (enabled) {
+                cache.put(k, response);
+                attribute(k, response.transformationId());
+                stored[0] = true;
+            }
+            return null;
         });
+        if (!stored[0]) {
+            Log.debugf("Discarded outdated CHECK response for %s", key.url());
+        }
+        return stored[0];
+    }
 
-        // Delegate the actual add operation to the entry object.
-        entry.add(targetArcId, responseBody);
+    /**
+     * Releases the token of a CHECK whose response is not cached, e.g. because the request failed.
+     *
+     * @param key   The full effective CHECK request.
+     * @param token The token returned by {@link #beginCheck} for this CHECK.
+     */
+    public void abandonCheck(CheckCacheKey key, CheckToken token) {
+        pendingChecks.remove(key, token);
+    }
+
+    /**
+     * Removes the cached response for the given request, typically after a successful write to the
+     * resource it describes. CHECKs for the request that are still in flight will not cache their responses.
+     *
+     * @param key The full effective CHECK request.
+     */
+    public void invalidate(CheckCacheKey key) {
+        pendingChecks.compute(key, (k, pending) -> {
+            cache.invalidate(k);
+            transformationsByKey.remove(k);
+            return null;
+        });
+        Log.debugf("Invalidated %s entry for %s", CACHE_NAME, key.url());
     }
 
     /**
-     * Retrieves a read-only copy of all cached responses for a given transformation.
+     * Retrieves a read-only copy of all currently cached response bodies used by a given transformation, i.e.
+     * stored by it or served to it from the cache.
      * <p>
-     * This method returns a snapshot of the data. The internal sets are converted to lists,
-     * which is suitable for JSON serialization and API consumers. Any modifications to the
-     * returned map or lists will not affect the cache itself.
+     * This is a diagnostic view and performs a scan over the (bounded) cache.
      *
      * @param transformationId The ID of the transformation whose responses are to be retrieved.
      * @return An {@link Optional} containing a map of responses (Target ARC ID -> List of bodies),
      *         or an empty Optional if no entry was found for the given ID.
      */
     public Optional<Map<Long, List<String>>> getResponsesByTransformationId(Long transformationId) {
-        return Optional.ofNullable(cache.get(transformationId))
-                .map(TransformationCacheEntry::getResponsesAsSnapshot);
+        if (transformationId == null) {
+            return Optional.empty();
+        }
+        Map<Long, List<String>> responses = cache.asMap().entrySet().stream()
+                .filter(entry -> transformationsByKey.getOrDefault(entry.getKey(), Set.of()).contains(transformationId))
+                .collect(Collectors.groupingBy(
+                        entry -> entry.getKey().targetArcId(),
+                        Collectors.mapping(entry -> entry.getValue().body(), Collectors.toUnmodifiableList())
+                ));
+        return responses.isEmpty() ? Optional.empty() : Optional.of(Collections.unmodifiableMap(responses));
+    }
+
+    private void attribute(CheckCacheKey key, Long transformationId) {
+        if (transformationId != null) {
+            transformationsByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(transformationId);
+        }
     }
 
     /**
-     * An internal class that encapsulates the cached responses for a single transformation.
+     * Drops the attribution of an evicted or expired entry, unless the key was cached again in the meantime.
+     * The listener runs asynchronously; {@link #invalidate} drops the attribution itself.
      */
-    private static class TransformationCacheEntry {
-        /**
-         * Stores responses per target ARC.
-         * Key: {@code targetArcId}
-         * Value: A set of unique response bodies. CopyOnWriteArraySet is optimized for
-         *        "read-mostly" scenarios in concurrent environments.
-         */
-        private final Map<Long, Set<String>> responsesByArc = new ConcurrentHashMap<>();
-
-        /**
-         * Adds a response body for a specific target ARC.
-         */
-        void add(Long targetArcId, String responseBody) {
-            Set<String> responseSet = responsesByArc.computeIfAbsent(targetArcId, k -> new CopyOnWriteArraySet<>());
-            responseSet.add(responseBody);
+    private void onEntryRemoved(CheckCacheKey key, CachedCheckResponse response, RemovalCause cause) {
+        if (key != null && cause != RemovalCause.REPLACED) {
+            transformationsByKey.computeIfPresent(key, (k, ids) -> cache.asMap().containsKey(k) ? ids : null);
         }
+    }
 
-        /**
-         * Creates and returns a copy of the stored data.
-         * Converting sets to lists is part of the public contract of this class.
-         */
-        Map<Long, List<String>> getResponsesAsSnapshot() {
-            return this.responsesByArc.entrySet().stream()
-                    .collect(Collectors.toUnmodifiableMap(
-                            Map.Entry::getKey,
-                            entry -> List.copyOf(entry.getValue())
-                    ));
-        }
+    /**
+     * Approximates the retained size of an entry by the length of its URL and body.
+     */
+    private static int weigh(CheckCacheKey key, CachedCheckResponse value) {
+        long weight = (long) key.url().length() + value.body().length();
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, weight));
     }
-}
\ No newline at end of file
+}
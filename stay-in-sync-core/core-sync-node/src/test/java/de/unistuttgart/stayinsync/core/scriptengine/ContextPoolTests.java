@@ -392,4 +392,48 @@ public class ContextPoolTests {
                                 r.getMessage().contains("Available: 1/1")),
                 "Missing 'Returned context' debug log or incorrect content.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void returnContext_shouldRestoreGlobalScope() throws InterruptedException, ScriptEngineException {
+        contextPool = new ContextPool(TEST_LANG_ID, 1);
+        Context ctx = contextPool.borrowContext();
+        ctx.eval("js", "globalThis.leaked = 42; var declared = { secret: true }; JSON = null;");
+
+        assertTrue(contextPool.returnContext(ctx));
+        Context sameCtx = contextPool.borrowContext();
+
+        assertSame(ctx, sameCtx, "The context should be reused after the reset.");
+        assertTrue(sameCtx.eval("js", "typeof leaked === 'undefined'").asBoolean(), "Added globals should be removed.");
+        assertTrue(sameCtx.eval("js", "declared === undefined").asBoolean(), "Declared globals should be cleared.");
+        assertEquals("{\"a\":1}", sameCtx.eval("js", "JSON.stringify({a: 1})").asString(), "Overwritten globals should be restored.");
+        contextPool.returnContext(sameCtx);
+    }
+
+    @Test
+    void returnContext_shouldResetStatementLimit() throws InterruptedException, ScriptEngineException {
+        contextPool = new ContextPool(TEST_LANG_ID, 1);
+        for (int i = 0; i < 3; i++) {
+            Context ctx = contextPool.borrowContext();
+            // Top-level lexical declarations survive the reset, so the job keeps its variables in a function scope.
+            ctx.eval("js", "(function () { let sum = 0; for (let j = 0; j < 40000; j++) { sum += j; } })();");
+            assertTrue(contextPool.returnContext(ctx), "Each job should start with the full statement budget.");
+        }
+    }
+
+    @Test
+    @Timeout(BORROW_TIMEOUT_SECONDS)
+    void discardContext_shouldReplaceContextInBackground() throws InterruptedException, ScriptEngineException {
+        contextPool = new ContextPool(TEST_LANG_ID, 1);
+        Context ctx = contextPool.borrowContext();
+        PolyglotException exception = assertThrows(PolyglotException.class, () -> ctx.eval("js", "while (true) {}"));
+        assertTrue(exception.isResourceExhausted());
+
+        contextPool.discardContext(ctx);
+        Context replacement = contextPool.borrowContext();
+
+        assertNotSame(ctx, replacement);
+        assertEquals(2, replacement.eval("js", "1 + 1").asInt());
+        assertTrue(contextPool.returnContext(replacement));
+        assertEquals(1, contextPool.getAvailableCount());
+    }
+}
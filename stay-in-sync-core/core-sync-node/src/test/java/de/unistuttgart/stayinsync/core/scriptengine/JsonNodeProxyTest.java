@@ -0,0 +1,92 @@
+package de.unistuttgart.stayinsync.core.scriptengine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.stayinsync.scriptengine.JsonNodeProxy;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Value;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonNodeProxyTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private Context context;
+    private JsonNode source;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        context = Context.create("js");
+        source = OBJECT_MAPPER.readTree("""
+                {"sys": {"arc": {"name": "pump", "active": true, "count": 3, "ratio": 0.5,
+                                 "missing": null, "items": [1, 2, {"id": "a"}]}}}""");
+        context.getBindings("js").putMember("source", JsonNodeProxy.wrap(source));
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    private Value eval(String script) {
+        return context.eval("js", script);
+    }
+
+    @Test
+    void testWrapScalars() {
+        assertEquals("pump", JsonNodeProxy.wrap(source.at("/sys/arc/name")));
+        assertEquals(true, JsonNodeProxy.wrap(source.at("/sys/arc/active")));
+        assertEquals(3, JsonNodeProxy.wrap(source.at("/sys/arc/count")));
+        assertEquals(0.5, JsonNodeProxy.wrap(source.at("/sys/arc/ratio")));
+        assertNull(JsonNodeProxy.wrap(source.at("/sys/arc/missing")));
+    }
+
+    @Test
+    void testWrapPassesOtherValuesThrough() {
+        Map<String, Object> map = Map.of("key", "value");
+        assertSame(map, JsonNodeProxy.wrap(map));
+        assertEquals("text", JsonNodeProxy.wrap("text"));
+        assertNull(JsonNodeProxy.wrap(null));
+    }
+
+    @Test
+    void testScriptReadsMembersAndElements() {
+        assertEquals("pump", eval("source.sys.arc.name").asString());
+        assertEquals(3, eval("source.sys.arc.count").asInt());
+        assertTrue(eval("source.sys.arc.active").asBoolean());
+        assertTrue(eval("source.sys.arc.missing === null").asBoolean());
+        assertTrue(eval("source.sys.arc.unknown === undefined").asBoolean());
+        assertEquals(3, eval("source.sys.arc.items.length").asInt());
+        assertEquals("a", eval("source.sys.arc.items[2].id").asString());
+        assertEquals(3, eval("source.sys.arc.items.reduce((sum, x) => typeof x === 'number' ? sum + x : sum, 0)").asInt());
+        assertEquals("name,active,count,ratio,missing,items", eval("Object.keys(source.sys.arc).join(',')").asString());
+    }
+
+    @Test
+    void testScriptCannotModifySource() {
+        assertThrows(PolyglotException.class, () -> eval("source.sys.arc.name = 'other'"));
+        assertThrows(PolyglotException.class, () -> eval("delete source.sys.arc.name"));
+        assertThrows(PolyglotException.class, () -> eval("source.sys.arc.items[0] = 42"));
+        assertEquals("pump", source.at("/sys/arc/name").textValue());
+        assertEquals(1, source.at("/sys/arc/items/0").intValue());
+    }
+
+    @Test
+    void testUnwrapReturnsPresentedTree() {
+        Value arc = eval("source.sys.arc");
+        assertTrue(arc.isProxyObject());
+        assertSame(source.at("/sys/arc"), JsonNodeProxy.unwrap(arc.asProxyObject()));
+
+        Value items = eval("source.sys.arc.items");
+        assertSame(source.at("/sys/arc/items"), JsonNodeProxy.unwrap(items.asProxyObject()));
+
+        assertNull(JsonNodeProxy.unwrap(new Object()));
+    }
+}
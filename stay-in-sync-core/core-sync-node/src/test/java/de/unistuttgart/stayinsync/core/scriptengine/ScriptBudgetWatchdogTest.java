@@ -0,0 +1,121 @@
+package de.unistuttgart.stayinsync.core.scriptengine;
+
+import de.unistuttgart.stayinsync.scriptengine.ScriptBudgetWatchdog;
+import de.unistuttgart.stayinsync.syncnode.domain.TransformJob;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScriptBudgetWatchdogTest {
+
+    private ScriptBudgetWatchdog watchdog;
+    private Context context;
+
+    @BeforeEach
+    void setUp() {
+        watchdog = new ScriptBudgetWatchdog(Duration.ofSeconds(5), 268_435_456L, Duration.ofMillis(5));
+        context = Context.create("js");
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close(true);
+    }
+
+    private static TransformJob job(Long maxCpuTimeMillis, Long maxHeapAllocationBytes) {
+        return new TransformJob(1L, "job", "job-1", "script-1", "", "js", "hash", null, null, null,
+                maxCpuTimeMillis, maxHeapAllocationBytes);
+    }
+
+    @Test
+    @DisplayName("should use the budgets of the transformation and fall back to the defaults")
+    void shouldResolveBudgets() {
+        assertThat(watchdog.budgetFor(job(null, null)))
+                .isEqualTo(new ScriptBudgetWatchdog.Budget(TimeUnit.SECONDS.toNanos(5), 268_435_456L));
+        assertThat(watchdog.budgetFor(job(200L, 1024L)))
+                .isEqualTo(new ScriptBudgetWatchdog.Budget(TimeUnit.MILLISECONDS.toNanos(200), 1024L));
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("should cancel an execution that exceeds its CPU time budget")
+    void shouldCancelOnCpuTimeBudget() {
+        ScriptBudgetWatchdog.Execution execution =
+                watchdog.start(context, new ScriptBudgetWatchdog.Budget(TimeUnit.MILLISECONDS.toNanos(100), 0));
+
+        PolyglotException exception = assertThrows(PolyglotException.class, () -> context.eval("js", "while (true) {}"));
+        ScriptBudgetWatchdog.Usage usage = execution.finish();
+
+        assertThat(exception.isCancelled()).isTrue();
+        assertThat(usage.exceeded()).isEqualTo(ScriptBudgetWatchdog.Resource.CPU_TIME);
+        assertThat(usage.cpuTimeNanos()).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("should cancel an execution that exceeds its heap allocation budget")
+    void shouldCancelOnHeapAllocationBudget() {
+        ScriptBudgetWatchdog.Execution execution =
+                watchdog.start(context, new ScriptBudgetWatchdog.Budget(0, 16L * 1024 * 1024));
+
+        assertThrows(PolyglotException.class,
+                () -> context.eval("js", "let items = []; while (true) { items.push({ value: 'x'.repeat(64) }); if (items.length > 10000) items = []; }"));
+
+        assertThat(execution.finish().exceeded()).isEqualTo(ScriptBudgetWatchdog.Resource.HEAP_ALLOCATION);
+    }
+
+    @Test
+    @DisplayName("should report the usage of an execution within its budgets")
+    void shouldReportUsageWithinBudgets() {
+        ScriptBudgetWatchdog.Execution execution =
+                watchdog.start(context, watchdog.budgetFor(job(null, null)));
+
+        context.eval("js", "let sum = 0; for (let i = 0; i < 1000; i++) { sum += i; }");
+        ScriptBudgetWatchdog.Usage usage = execution.finish();
+
+        assertThat(usage.exceeded()).isNull();
+        assertThat(usage.cpuTimeNanos()).isPositive();
+        assertThat(usage.heapAllocatedBytes()).isPositive();
+        assertThat(context.eval("js", "sum").asInt()).isEqualTo(499500);
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("should never cancel a context after its execution has finished")
+    void shouldNotCancelAfterFinish() throws InterruptedException {
+        ScriptBudgetWatchdog.Budget budget = new ScriptBudgetWatchdog.Budget(1, 0);
+        for (int i = 0; i < 100; i++) {
+            Context execContext = Context.create("js");
+            try {
+                ScriptBudgetWatchdog.Execution execution = watchdog.start(execContext, budget);
+                long busyUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(i % 10);
+                while (System.nanoTime() < busyUntil) {
+                    Thread.onSpinWait();
+                }
+                ScriptBudgetWatchdog.Usage usage = execution.finish();
+                Thread.sleep(10);
+
+                boolean usable;
+                try {
+                    usable = execContext.eval("js", "1 + 1").asInt() == 2;
+                } catch (IllegalStateException | PolyglotException e) {
+                    usable = false;
+                }
+                assertThat(usable).as("context usable iff no budget was exceeded before finish")
+                        .isEqualTo(usage.exceeded() == null);
+            } finally {
+                execContext.close(true);
+            }
+        }
+    }
+}
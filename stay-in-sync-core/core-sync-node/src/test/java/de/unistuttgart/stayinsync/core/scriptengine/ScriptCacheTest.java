@@ -0,0 +1,57 @@
+package de.unistuttgart.stayinsync.core.scriptengine;
+
+import de.unistuttgart.stayinsync.scriptengine.ScriptCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.graalvm.polyglot.Source;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScriptCacheTest {
+
+    private static Source source(String code) {
+        return Source.create("js", code);
+    }
+
+    @Test
+    @DisplayName("should remove all versions of a script")
+    void shouldRemoveAllVersions() {
+        ScriptCache cache = new ScriptCache(10_000, new SimpleMeterRegistry());
+        cache.putCompiledScript("1", "a", source("1 + 1"));
+        cache.putCompiledScript("1", "b", source("2 + 2"));
+        cache.putCompiledScript("2", "a", source("3 + 3"));
+
+        assertThat(cache.removeScript("1")).isEqualTo(2);
+
+        assertThat(cache.getScript("1", "a")).isNull();
+        assertThat(cache.getScript("1", "b")).isNull();
+        assertThat(cache.getScript("2", "a")).isNotNull();
+        assertThat(cache.removeScript("1")).isZero();
+    }
+
+    @Test
+    @DisplayName("should keep only the current version when removing superseded versions")
+    void shouldRemoveSupersededVersions() {
+        ScriptCache cache = new ScriptCache(10_000, new SimpleMeterRegistry());
+        cache.putCompiledScript("1", "old", source("1 + 1"));
+        cache.putCompiledScript("1", "current", source("2 + 2"));
+
+        assertThat(cache.removeSupersededVersions("1", "current")).isEqualTo(1);
+
+        assertThat(cache.containsScript("1", "old")).isFalse();
+        assertThat(cache.containsScript("1", "current")).isTrue();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should stay within its weight bound")
+    void shouldEvictBeyondWeightBound() {
+        ScriptCache cache = new ScriptCache(100, new SimpleMeterRegistry());
+        for (int i = 0; i < 50; i++) {
+            cache.putCompiledScript(String.valueOf(i), "h", source("'" + "x".repeat(18) + "'"));
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(5);
+    }
+}
@@ -1,8 +1,10 @@
 package de.unistuttgart.stayinsync.core.scriptengine;
 
 
+import de.unistuttgart.stayinsync.scriptengine.ScriptBudgetWatchdog;
 import de.unistuttgart.stayinsync.scriptengine.ScriptMetricsService;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -73,6 +75,47 @@ class ScriptMetricsServiceTest {
         assertThat(timer).isNotNull();
         assertThat(timer.count()).isEqualTo(2);
     }
-}
 
+    @Test
+    @DisplayName("should share overflow meters once the transformation tag limit is reached")
+    void shouldBoundTransformationTags() {
+        for (long id = 0; id < 150; id++) {
+            metricsService.recordExecution(id, () -> {});
+        }
+
+        assertThat(meterRegistry.find("stayinsync.script.executions").counters()).hasSize(101);
+        Counter overflow = meterRegistry.find("stayinsync.script.executions")
+                .tag("transformationId", "other")
+                .counter();
+        assertThat(overflow).isNotNull();
+        assertThat(overflow.count()).isEqualTo(50);
+    }
 
+    @Test
+    @DisplayName("should record resource usage, budgets and exceeded budgets")
+    void shouldRecordResourceUsage() {
+        ScriptBudgetWatchdog.Budget budget = new ScriptBudgetWatchdog.Budget(TimeUnit.SECONDS.toNanos(2), 1024);
+
+        metricsService.recordResourceUsage(7L, new ScriptBudgetWatchdog.Usage(budget, TimeUnit.MILLISECONDS.toNanos(30), 512, null));
+        metricsService.recordResourceUsage(7L, new ScriptBudgetWatchdog.Usage(budget, TimeUnit.SECONDS.toNanos(3), 768,
+                ScriptBudgetWatchdog.Resource.CPU_TIME));
+
+        Timer cpuTime = meterRegistry.find("stayinsync.script.cpu.time").tag("transformationId", "7").timer();
+        assertThat(cpuTime).isNotNull();
+        assertThat(cpuTime.count()).isEqualTo(2);
+        assertThat(cpuTime.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3030);
+
+        DistributionSummary heap = meterRegistry.find("stayinsync.script.heap.allocated").tag("transformationId", "7").summary();
+        assertThat(heap).isNotNull();
+        assertThat(heap.totalAmount()).isEqualTo(1280);
+
+        assertThat(meterRegistry.find("stayinsync.script.budget.cpu.time").tag("transformationId", "7").timeGauge()
+                .value(TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(meterRegistry.find("stayinsync.script.budget.heap.allocation").tag("transformationId", "7").gauge()
+                .value()).isEqualTo(1024);
+        assertThat(meterRegistry.find("stayinsync.script.budget.exceeded").tags("transformationId", "7", "resource", "cpu-time")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("stayinsync.script.budget.exceeded").tags("transformationId", "7", "resource", "heap-allocation")
+                .counter().count()).isZero();
+    }
+}
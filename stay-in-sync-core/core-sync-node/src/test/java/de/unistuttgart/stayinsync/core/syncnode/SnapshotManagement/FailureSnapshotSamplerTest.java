@@ -0,0 +1,138 @@
+package de.unistuttgart.stayinsync.core.syncnode.SnapshotManagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
+import de.unistuttgart.stayinsync.syncnode.SnapshotManagement.FailureSnapshotSampler;
+import de.unistuttgart.stayinsync.syncnode.SnapshotManagement.SnapshotStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for {@link FailureSnapshotSampler}.
+ * <p>
+ * Captures run inline on a mocked executor, so their effect on the store can
+ * be asserted directly.
+ * </p>
+ */
+public class FailureSnapshotSamplerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    private SnapshotStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private ManagedExecutor executor;
+
+    @BeforeEach
+    void setup() {
+        store = new SnapshotStore(objectMapper, directory.toString(), 1024 * 1024, 16, 10, Duration.ofHours(24));
+        meterRegistry = new SimpleMeterRegistry();
+        executor = mock(ManagedExecutor.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+    }
+
+    private FailureSnapshotSampler sampler(double sampleRate) {
+        return new FailureSnapshotSampler(store, objectMapper, executor, sampleRate, Duration.ofMinutes(10), 100, 8,
+                meterRegistry);
+    }
+
+    private TransformationResult failure(String jobId, String errorInfo, Object sourceData) {
+        TransformationResult result = new TransformationResult(jobId, "script");
+        result.setValidExecution(false);
+        result.setErrorInfo(errorInfo);
+        result.setTransformationId(1L);
+        result.setSourceData(sourceData);
+        return result;
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @Test
+    @DisplayName("submit(): captures the first occurrence and only counts identical repetitions")
+    void submit_deduplicatesIdenticalFailures() {
+        FailureSnapshotSampler sampler = sampler(1.0);
+
+        sampler.submit(failure("job-1", "Script Error: boom", Map.of("sku", "A-1")));
+        sampler.submit(failure("job-2", "Script Error: boom", Map.of("sku", "B-2")));
+        sampler.submit(failure("job-3", "Script Error: boom", Map.of("sku", "C-3")));
+
+        assertEquals(1, store.listByTransformationId(1L, 10).size());
+        assertEquals("job-1", store.getLatestByTransformationId(1L).orElseThrow().getTransformationResult().getJobId());
+        assertEquals(1.0, counter("stayinsync.snapshot.capture.captured"));
+        assertEquals(2.0, counter("stayinsync.snapshot.capture.deduplicated"));
+    }
+
+    @Test
+    @DisplayName("submit(): captures failures with a different message or input shape separately")
+    void submit_capturesDistinctFailures() {
+        FailureSnapshotSampler sampler = sampler(1.0);
+
+        sampler.submit(failure("job-1", "Script Error: boom", Map.of("sku", "A-1")));
+        sampler.submit(failure("job-2", "Script Error: other", Map.of("sku", "A-1")));
+        sampler.submit(failure("job-3", "Script Error: boom", Map.of("sku", "A-1", "price", 3)));
+
+        assertEquals(3, store.listByTransformationId(1L, 10).size());
+    }
+
+    @Test
+    @DisplayName("submit(): captures failures separately whose messages have the same String hash code")
+    void submit_capturesFailuresWithCollidingHashCodes() {
+        FailureSnapshotSampler sampler = sampler(1.0);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        sampler.submit(failure("job-1", "Script Error: Aa", Map.of("sku", "A-1")));
+        sampler.submit(failure("job-2", "Script Error: BB", Map.of("sku", "A-1")));
+
+        assertEquals(2, store.listByTransformationId(1L, 10).size());
+        assertEquals(0.0, counter("stayinsync.snapshot.capture.deduplicated"));
+    }
+
+    @Test
+    @DisplayName("flush: captures the latest of the suppressed repetitions")
+    void flush_capturesLatestOccurrence() throws Exception {
+        FailureSnapshotSampler sampler = sampler(1.0);
+        sampler.submit(failure("job-1", "Script Error: boom", Map.of("sku", "A-1")));
+        sampler.submit(failure("job-2", "Script Error: boom", Map.of("sku", "B-2")));
+        sampler.submit(failure("job-3", "Script Error: boom", Map.of("sku", "C-3")));
+
+        var flush = FailureSnapshotSampler.class.getDeclaredMethod("flushLatestOccurrences");
+        flush.setAccessible(true);
+        flush.invoke(sampler);
+
+        assertEquals(2, store.listByTransformationId(1L, 10).size());
+        assertEquals("job-3", store.getLatestByTransformationId(1L).orElseThrow().getTransformationResult().getJobId());
+    }
+
+    @Test
+    @DisplayName("submit(): skips all failures when the sample rate is zero")
+    void submit_respectsSampleRate() {
+        FailureSnapshotSampler sampler = sampler(0.0);
+
+        sampler.submit(failure("job-1", "Script Error: boom", Map.of("sku", "A-1")));
+
+        assertTrue(store.getLatestByTransformationId(1L).isEmpty());
+        assertEquals(1.0, counter("stayinsync.snapshot.capture.sampled.out"));
+        verify(executor, never()).execute(any(Runnable.class));
+    }
+}
@@ -2,6 +2,9 @@ package de.unistuttgart.stayinsync.core.syncnode.SnapshotManagement;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -10,6 +13,9 @@ import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.unistuttgart.stayinsync.syncnode.SnapshotManagement.SnapshotStore;
 import de.unistuttgart.stayinsync.transport.dto.Snapshot.SnapshotDTO;
@@ -18,19 +24,28 @@ import de.unistuttgart.stayinsync.transport.dto.Snapshot.TransformationResultDTO
 /**
  * Unit tests for {@link SnapshotStore}.
  * <p>
- * Verifies correct indexing, retrieval, TTL-based eviction, and history size
- * management for snapshot data.
+ * Verifies correct indexing, retrieval, TTL-based eviction, history size
+ * management, segment retention and recovery after a restart.
  * </p>
  *
  * @author Mohammed-Ammar Hassnou
  */
 public class SnapshotStoreTest {
 
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
     private SnapshotStore store;
 
     @BeforeEach
     void setup() {
-        store = new SnapshotStore();
+        store = open(1024 * 1024, 64);
+    }
+
+    private SnapshotStore open(int segmentSize, int maxSegments) {
+        return new SnapshotStore(objectMapper, directory.toString(), segmentSize, maxSegments, 5, Duration.ofHours(24));
     }
 
     private SnapshotDTO makeSnapshot(String id, Long transId, Instant createdAt) {
@@ -54,17 +69,18 @@ public class SnapshotStoreTest {
         // Should be retrievable
         Optional<SnapshotDTO> found = store.getBySnapshotId("a");
         assertTrue(found.isPresent());
-        assertSame(s, found.get());
+        assertEquals("a", found.get().getSnapshotId());
+        assertEquals(1L, found.get().getTransformationResult().getTransformationId());
 
         // Should be the latest for transformation 1
         Optional<SnapshotDTO> latest = store.getLatestByTransformationId(1L);
         assertTrue(latest.isPresent());
-        assertSame(s, latest.get());
+        assertEquals("a", latest.get().getSnapshotId());
 
         // Should appear in history list
         List<SnapshotDTO> list = store.listByTransformationId(1L, 5);
         assertEquals(1, list.size());
-        assertSame(s, list.get(0));
+        assertEquals("a", list.get(0).getSnapshotId());
     }
 
     @Test
@@ -130,9 +146,67 @@ public class SnapshotStoreTest {
         assertTrue(store.listByTransformationId(1L, 5).isEmpty(), "Expired entries should be purged from history");
     }
 
+    @Test
+    @DisplayName("SnapshotStore(): recovers snapshots and history written before a restart")
+    void reopen_recoversSnapshots() {
+        Instant base = Instant.now();
+        for (int i = 0; i < 3; i++) {
+            store.put(makeSnapshot("id" + i, 1L, base.plusSeconds(i)));
+        }
+
+        SnapshotStore reopened = open(1024 * 1024, 64);
+
+        assertEquals("id1", reopened.getBySnapshotId("id1").orElseThrow().getSnapshotId());
+        assertEquals("id2", reopened.getLatestByTransformationId(1L).orElseThrow().getSnapshotId());
+        assertEquals(3, reopened.listByTransformationId(1L, 10).size());
+
+        // Appending after recovery continues the log.
+        reopened.put(makeSnapshot("id3", 1L, base.plusSeconds(3)));
+        assertEquals("id3", reopened.getLatestByTransformationId(1L).orElseThrow().getSnapshotId());
+    }
+
+    @Test
+    @DisplayName("put(): drops the oldest segment when the maximum number of segments is exceeded")
+    void put_dropsOldestSegment() throws Exception {
+        // Small segments hold a single snapshot each.
+        store = open(64, 2);
+        Instant base = Instant.now();
+        store.put(makeSnapshot("first", 1L, base));
+        store.put(makeSnapshot("second", 2L, base.plusSeconds(1)));
+        store.put(makeSnapshot("third", 3L, base.plusSeconds(2)));
+
+        assertTrue(store.getBySnapshotId("first").isEmpty());
+        assertTrue(store.getLatestByTransformationId(1L).isEmpty());
+        assertTrue(store.getBySnapshotId("third").isPresent());
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
     @Test
     @DisplayName("put(): ignores null input")
     void put_nullIgnored() {
         assertDoesNotThrow(() -> store.put(null));
     }
+
+    @Test
+    @DisplayName("flush(): keeps the flushed snapshots readable after a restart")
+    void flush_thenReopen_recoversSnapshots() {
+        store.put(makeSnapshot("flushed", 1L, Instant.now()));
+
+        assertDoesNotThrow(store::flush);
+
+        assertTrue(open(1024 * 1024, 64).getBySnapshotId("flushed").isPresent());
+    }
+
+    @Test
+    @DisplayName("constructor: fails with a clear message if the directory cannot be created")
+    void open_directoryNotCreatable_throws() throws Exception {
+        Path file = Files.createFile(directory.resolve("not-a-directory"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new SnapshotStore(objectMapper, file.resolve("snapshots").toString(), 1024, 64, 5,
+                        Duration.ofHours(24)));
+        assertTrue(e.getMessage().contains("stayinsync.snapshot.store.directory"));
+    }
 }
@@ -0,0 +1,73 @@
+package de.unistuttgart.stayinsync.core.syncnode.monitor;
+
+import de.unistuttgart.stayinsync.transport.logging.CountingAsyncHandler;
+import org.jboss.logmanager.ExtLogRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountingAsyncHandlerTest {
+
+    /**
+     * Collects the published messages; blocks every write until {@link #release} is counted down.
+     */
+    private static final class BlockingHandler extends Handler {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch firstWrite = new CountDownLatch(1);
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(LogRecord record) {
+            firstWrite.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static ExtLogRecord record(String message) {
+        return new ExtLogRecord(Level.INFO, message, CountingAsyncHandlerTest.class.getName());
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("should count the records discarded while the queue is full and write the queued ones")
+    void shouldCountDroppedRecords() throws InterruptedException {
+        BlockingHandler delegate = new BlockingHandler();
+        CountingAsyncHandler handler = new CountingAsyncHandler(delegate, 2);
+
+        handler.publish(record("being written"));
+        delegate.firstWrite.await();
+        handler.publish(record("queued-1"));
+        handler.publish(record("queued-2"));
+        handler.publish(record("dropped-1"));
+        handler.publish(record("dropped-2"));
+
+        assertThat(handler.getDroppedCount()).isEqualTo(2);
+
+        delegate.release.countDown();
+        handler.close();
+
+        assertThat(delegate.messages).containsExactly("being written", "queued-1", "queued-2");
+    }
+}
@@ -0,0 +1,74 @@
+package de.unistuttgart.stayinsync.core.syncnode.monitor;
+
+import de.unistuttgart.stayinsync.syncnode.monitor.HierarchicalTimingWheel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 100;
+
+    @Test
+    @DisplayName("should fire a timeout at the first tick at or after its deadline")
+    void shouldFireAtDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 3, 0);
+        wheel.schedule("a", 250);
+
+        assertThat(wheel.advance(200)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should cascade timeouts from higher levels without firing early or late")
+    void shouldCascadeFromHigherLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 4, 3, 0);
+        List<Long> deadlines = List.of(150L, 900L, 1_600L, 3_300L, 6_350L);
+        deadlines.forEach(deadline -> wheel.schedule(deadline, deadline));
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = TICK; now <= 7_000; now += TICK) {
+            for (Long deadline : wheel.advance(now)) {
+                assertThat(now).isGreaterThanOrEqualTo(deadline).isLessThan(deadline + TICK);
+                fired.add(deadline);
+            }
+        }
+        assertThat(fired).containsExactlyElementsOf(deadlines);
+    }
+
+    @Test
+    @DisplayName("should keep deadlines beyond the horizon until they are due")
+    void shouldHandleDeadlinesBeyondHorizon() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 2, 2, 0);
+        wheel.schedule("far", 5_000);
+
+        assertThat(wheel.advance(4_900)).isEmpty();
+        assertThat(wheel.advance(5_000)).containsExactly("far");
+    }
+
+    @Test
+    @DisplayName("should not fire cancelled timeouts")
+    void shouldNotFireCancelledTimeouts() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 3, 0);
+        HierarchicalTimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 500);
+        wheel.schedule("kept", 500);
+
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+        assertThat(wheel.advance(1_000)).containsExactly("kept");
+    }
+
+    @Test
+    @DisplayName("should fire overdue timeouts on the next advance")
+    void shouldFireOverdueTimeouts() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 3, 1_000);
+        wheel.schedule("overdue", 200);
+
+        assertThat(wheel.advance(1_100)).containsExactly("overdue");
+    }
+}
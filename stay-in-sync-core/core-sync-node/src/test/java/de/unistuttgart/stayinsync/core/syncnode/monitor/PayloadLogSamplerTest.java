@@ -0,0 +1,48 @@
+package de.unistuttgart.stayinsync.core.syncnode.monitor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.stayinsync.syncnode.monitor.PayloadLogSampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadLogSamplerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("should log one in sample-every payloads and count the others")
+    void shouldSamplePayloads() {
+        PayloadLogSampler sampler = new PayloadLogSampler(new ObjectMapper(), 10, 64, meterRegistry);
+
+        long logged = IntStream.range(0, 100).filter(i -> sampler.sample()).count();
+
+        assertThat(logged).isEqualTo(10);
+        assertThat(meterRegistry.get("stayinsync.logging.payload.suppressed").counter().count()).isEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("should render small payloads completely as compact JSON")
+    void shouldRenderSmallPayloads() {
+        PayloadLogSampler sampler = new PayloadLogSampler(new ObjectMapper(), 1, 64, meterRegistry);
+
+        assertThat(sampler.preview(Map.of("sku", "A-1"))).isEqualTo("{\"sku\":\"A-1\"}");
+    }
+
+    @Test
+    @DisplayName("should truncate large payloads")
+    void shouldTruncateLargePayloads() {
+        PayloadLogSampler sampler = new PayloadLogSampler(new ObjectMapper(), 1, 32, meterRegistry);
+
+        String preview = sampler.preview(Map.of("data", "x".repeat(100_000)));
+
+        assertThat(preview).startsWith("{\"data\":\"xxx").endsWith("... (truncated)");
+        assertThat(preview).hasSize(32 + "... (truncated)".length());
+        assertThat(sampler.preview("y".repeat(40))).isEqualTo("y".repeat(32) + "... (40 chars)");
+    }
+}
@@ -0,0 +1,97 @@
+package de.unistuttgart.stayinsync.core.syncnode.monitor;
+
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineStageMetrics;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineStageMetrics.Stage;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineTrace;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineStageMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PipelineStageMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new PipelineStageMetrics(meterRegistry, List.of(0.5, 0.99), Duration.ofSeconds(10), 2);
+    }
+
+    private Timer stageTimer(Stage stage) {
+        return meterRegistry.find("stayinsync.pipeline.stage.duration").tag("stage", stage.tag()).timer();
+    }
+
+    @Test
+    @DisplayName("should pre-register one timer per stage except the end-to-end timer, which is registered per outcome")
+    void shouldPreRegisterStageTimers() {
+        assertThat(meterRegistry.find("stayinsync.pipeline.stage.duration").timers()).hasSize(Stage.values().length - 1);
+        assertThat(stageTimer(Stage.END_TO_END)).isNull();
+    }
+
+    @Test
+    @DisplayName("should record the stages a job passed through and skip the others")
+    void shouldRecordCompletedTrace() {
+        PipelineTrace trace = new PipelineTrace("job-1", 1L);
+        long now = System.currentTimeMillis();
+        trace.markDelivered(now - 20, now, System.nanoTime());
+        trace.markDispatched();
+        trace.markGraphStarted();
+        trace.markGraphFinished();
+
+        metrics.complete(trace, "skipped");
+
+        assertThat(stageTimer(Stage.BROKER_DWELL).count()).isEqualTo(1);
+        assertThat(stageTimer(Stage.BROKER_DWELL).totalTime(TimeUnit.MILLISECONDS)).isEqualTo(20);
+        assertThat(stageTimer(Stage.DISPATCH_WAIT).count()).isEqualTo(1);
+        assertThat(stageTimer(Stage.GRAPH_EVALUATION).count()).isEqualTo(1);
+        assertThat(stageTimer(Stage.SCRIPT_EXECUTION).count()).isZero();
+        assertThat(stageTimer(Stage.TARGET_WRITE).count()).isZero();
+        assertThat(stageTimer(Stage.END_TO_END).count()).isEqualTo(1);
+        assertThat(trace.durationNanos(Stage.END_TO_END)).isGreaterThanOrEqualTo(20_000_000);
+        assertThat(meterRegistry.find("stayinsync.pipeline.jobs").tag("outcome", "skipped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should bound the number of transformation tag values")
+    void shouldBoundTransformationTags() {
+        assertThat(metrics.transformationTag(1L)).isEqualTo("1");
+        assertThat(metrics.transformationTag(2L)).isEqualTo("2");
+        assertThat(metrics.transformationTag(3L)).isEqualTo(PipelineStageMetrics.OVERFLOW_TAG);
+        assertThat(metrics.transformationTag(1L)).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("should record the context borrow time marked in the trace")
+    void shouldRecordContextBorrowFromTrace() {
+        PipelineTrace trace = new PipelineTrace("job-1", 1L);
+        trace.markContextBorrowStarted();
+        trace.markContextBorrowed();
+
+        metrics.complete(trace, "succeeded");
+
+        assertThat(trace.durationNanos(Stage.CONTEXT_BORROW)).isNotNegative();
+        assertThat(stageTimer(Stage.CONTEXT_BORROW).count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should tag the end-to-end latency with the outcome of the job")
+    void shouldTagEndToEndByOutcome() {
+        metrics.complete(new PipelineTrace("job-1", 1L), "succeeded");
+        metrics.complete(new PipelineTrace("job-2", 1L), "skipped");
+        metrics.complete(new PipelineTrace("job-3", 1L), "skipped");
+
+        assertThat(meterRegistry.get("stayinsync.pipeline.stage.duration").tag("stage", Stage.END_TO_END.tag())
+                .tag("outcome", "succeeded").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("stayinsync.pipeline.stage.duration").tag("stage", Stage.END_TO_END.tag())
+                .tag("outcome", "skipped").timer().count()).isEqualTo(2);
+    }
+}
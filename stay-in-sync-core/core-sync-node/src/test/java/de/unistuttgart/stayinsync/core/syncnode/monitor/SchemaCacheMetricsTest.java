@@ -0,0 +1,35 @@
+package de.unistuttgart.stayinsync.core.syncnode.monitor;
+
+import de.unistuttgart.graphengine.service.SchemaCache;
+import de.unistuttgart.stayinsync.syncnode.monitor.SchemaCacheMetrics;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemaCacheMetricsTest {
+
+    @Test
+    @DisplayName("should publish compilations, hits and the size of the schema cache")
+    void shouldPublishSchemaCacheStatistics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SchemaCache schemaCache = new SchemaCache();
+        SchemaCacheMetrics.bind(meterRegistry, schemaCache);
+
+        String schema = "{\"type\": \"object\"}";
+        schemaCache.getCompiledSchema(schema);
+        schemaCache.getCompiledSchema(schema);
+
+        FunctionTimer compile = meterRegistry.find(SchemaCacheMetrics.PREFIX + ".compile").functionTimer();
+        assertThat(compile).isNotNull();
+        assertThat(compile.count()).isEqualTo(1);
+        assertThat(compile.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meterRegistry.find(SchemaCacheMetrics.PREFIX + ".hits").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find(SchemaCacheMetrics.PREFIX + ".size").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.find(SchemaCacheMetrics.PREFIX + ".weight").gauge().value()).isEqualTo(schema.length());
+    }
+}
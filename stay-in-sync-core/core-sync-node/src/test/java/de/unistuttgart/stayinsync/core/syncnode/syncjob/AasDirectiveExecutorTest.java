@@ -0,0 +1,247 @@
+package de.unistuttgart.stayinsync.core.syncnode.syncjob;
+
+import de.unistuttgart.stayinsync.exception.AasBatchUpdateException;
+import de.unistuttgart.stayinsync.exception.TargetUnavailableException;
+import de.unistuttgart.stayinsync.syncnode.domain.AasUpdateValueDirective;
+import de.unistuttgart.stayinsync.syncnode.syncjob.AasDirectiveExecutor;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetClientRegistry;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetClientRegistry.TargetEndpoint;
+import de.unistuttgart.stayinsync.transport.dto.targetsystems.AasTargetArcMessageDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.ext.web.client.HttpRequest;
+import io.vertx.mutiny.ext.web.client.HttpResponse;
+import io.vertx.mutiny.ext.web.client.WebClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AasDirectiveExecutorTest {
+
+    private static final String BASE_URL = "http://aas:8081";
+    private static final String SUBMODEL_ID = "https://example.com/submodels/operational-data";
+    private static final String ENCODED_SUBMODEL_ID = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(SUBMODEL_ID.getBytes(StandardCharsets.UTF_8));
+    private static final Duration AWAIT = Duration.ofSeconds(1);
+
+    /**
+     * A request as it was handed to the web client of the target.
+     */
+    private record SentRequest(HttpMethod method, String path, String body) {
+    }
+
+    private List<SentRequest> sent;
+    private Map<String, Throwable> failuresByPath;
+    private SimpleMeterRegistry meterRegistry;
+    private AasDirectiveExecutor executor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        sent = new CopyOnWriteArrayList<>();
+        failuresByPath = new HashMap<>();
+        HttpResponse<Buffer> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+
+        WebClient webClient = mock(WebClient.class);
+        when(webClient.request(any(HttpMethod.class), anyInt(), anyString(), anyString())).thenAnswer(invocation -> {
+            HttpRequest<Buffer> request = mock(HttpRequest.class);
+            when(request.ssl(anyBoolean())).thenReturn(request);
+            when(request.putHeader(anyString(), anyString())).thenReturn(request);
+            when(request.sendBuffer(any(Buffer.class))).thenAnswer(send -> {
+                String path = invocation.getArgument(3);
+                sent.add(new SentRequest(invocation.getArgument(0), path, send.<Buffer>getArgument(0).toString()));
+                Throwable failure = failuresByPath.get(path);
+                return failure != null ? Uni.createFrom().failure(failure) : Uni.createFrom().item(response);
+            });
+            return request;
+        });
+
+        TargetClientRegistry targetClients = mock(TargetClientRegistry.class);
+        when(targetClients.resolve(anyString())).thenReturn(new TargetEndpoint("aas", 8081, false, "aas:8081"));
+        when(targetClients.send(any(TargetEndpoint.class), any(Function.class))).thenAnswer(invocation ->
+                invocation.<Function<WebClient, Uni<HttpResponse<Buffer>>>>getArgument(1).apply(webClient));
+
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new AasDirectiveExecutor(targetClients, meterRegistry,
+                Optional.of(List.of(BASE_URL + "/")), "PATCH", 4, 1);
+    }
+
+    private static AasUpdateValueDirective update(String elementIdShortPath, Object value) {
+        return new AasUpdateValueDirective("AasUpdateValueDirective", "aas", elementIdShortPath, value);
+    }
+
+    private static AasTargetArcMessageDTO arc(String baseUrl) {
+        return arc(baseUrl, SUBMODEL_ID);
+    }
+
+    private static AasTargetArcMessageDTO arc(String baseUrl, String submodelId) {
+        return new AasTargetArcMessageDTO("aas", baseUrl, submodelId, List.of());
+    }
+
+    private void execute(AasTargetArcMessageDTO arcConfig, AasUpdateValueDirective... directives) {
+        executor.executeUpdateValues(List.of(directives), arcConfig, 1L).await().atMost(AWAIT);
+    }
+
+    private AasBatchUpdateException executeFailing(AasTargetArcMessageDTO arcConfig, AasUpdateValueDirective... directives) {
+        UniAssertSubscriber<Void> subscriber = executor.executeUpdateValues(List.of(directives), arcConfig, 1L)
+                .subscribe().withSubscriber(UniAssertSubscriber.create());
+        subscriber.awaitFailure(AWAIT).assertFailedWith(AasBatchUpdateException.class);
+        return (AasBatchUpdateException) subscriber.getFailure();
+    }
+
+    private static String elementPath(String encodedIdShortPath) {
+        return "/submodels/" + ENCODED_SUBMODEL_ID + "/submodel-elements/" + encodedIdShortPath + "/$value";
+    }
+
+    @Test
+    @DisplayName("should send a representable batch as one submodel $value request with a nested value-only payload")
+    void shouldSendRepresentableBatchAsSubmodelValue() {
+        execute(arc(BASE_URL),
+                update("Temperature", 21.5),
+                update("Motor.Speed", 1200),
+                update("Motor.State", "RUNNING"));
+
+        assertThat(sent).containsExactly(new SentRequest(HttpMethod.PATCH, "/submodels/" + ENCODED_SUBMODEL_ID + "/$value",
+                "{\"Temperature\":21.5,\"Motor\":{\"Speed\":1200,\"State\":\"RUNNING\"}}"));
+    }
+
+    @Test
+    @DisplayName("should send only the last value of an element path that occurs several times in a batch")
+    void shouldDeduplicateSameElementPath() {
+        execute(arc(BASE_URL),
+                update("Motor.Speed", 1000),
+                update("Temperature", 20),
+                update("Motor.Speed", 1500));
+
+        assertThat(sent).singleElement().satisfies(request ->
+                assertThat(request.body()).isEqualTo("{\"Motor\":{\"Speed\":1500},\"Temperature\":20}"));
+    }
+
+    @Test
+    @DisplayName("should treat repeated updates of a parent element as one path and keep the batch representable")
+    void shouldKeepDeduplicatedParentRepresentable() {
+        execute(arc(BASE_URL),
+                update("Motor", "STOPPED"),
+                update("Motor", "RUNNING"));
+
+        assertThat(sent).singleElement().satisfies(request -> {
+            assertThat(request.path()).isEqualTo("/submodels/" + ENCODED_SUBMODEL_ID + "/$value");
+            assertThat(request.body()).isEqualTo("{\"Motor\":\"RUNNING\"}");
+        });
+    }
+
+    @Test
+    @DisplayName("should fall back to per-element PATCHes when a path addresses a list index")
+    void shouldFallBackForListIndex() {
+        execute(arc(BASE_URL),
+                update("Temperature", 21.5),
+                update("Readings[0]", 3));
+
+        assertThat(sent).extracting(SentRequest::method).containsOnly(HttpMethod.PATCH);
+        assertThat(sent).extracting(SentRequest::path).containsExactlyInAnyOrder(
+                elementPath("Temperature"),
+                elementPath("Readings%5B0%5D"));
+        assertThat(sent).extracting(SentRequest::body).containsExactlyInAnyOrder("21.5", "3");
+    }
+
+    @Test
+    @DisplayName("should fall back to per-element PATCHes when one element is the parent of another")
+    void shouldFallBackForParentAndChild() {
+        execute(arc(BASE_URL),
+                update("Motor", "RUNNING"),
+                update("Motor.Drive.Speed", 1200),
+                update("Temperature", 21.5));
+
+        assertThat(sent).extracting(SentRequest::path).containsExactlyInAnyOrder(
+                elementPath("Motor"),
+                elementPath("Motor.Drive.Speed"),
+                elementPath("Temperature"));
+    }
+
+    @Test
+    @DisplayName("should not mistake a sibling sharing a name prefix for a parent")
+    void shouldNotTreatNamePrefixAsParent() {
+        execute(arc(BASE_URL),
+                update("Motor", 1),
+                update("MotorSpeed", 2));
+
+        assertThat(sent).singleElement().satisfies(request ->
+                assertThat(request.body()).isEqualTo("{\"Motor\":1,\"MotorSpeed\":2}"));
+    }
+
+    @Test
+    @DisplayName("should send per-element PATCHes to targets that do not accept submodel $value writes")
+    void shouldUseElementPathForUnsupportedTarget() {
+        execute(arc("http://other-aas:8081"),
+                update("Temperature", 21.5),
+                update("Motor.Speed", 1200));
+
+        assertThat(sent).extracting(SentRequest::path).containsExactlyInAnyOrder(
+                elementPath("Temperature"),
+                elementPath("Motor.Speed"));
+    }
+
+    @Test
+    @DisplayName("should report rejected and otherwise failed element updates separately and still send the others")
+    void shouldReportRejectedAndFailedElementsSeparately() {
+        failuresByPath.put(elementPath("Readings%5B0%5D"), new TargetUnavailableException("aas:8081"));
+        failuresByPath.put(elementPath("Temperature"), new IllegalStateException("connection reset"));
+
+        AasBatchUpdateException failure = executeFailing(arc(BASE_URL),
+                update("Readings[0]", 3),
+                update("Temperature", 21.5),
+                update("Motor.Speed", 1200));
+
+        assertThat(sent).hasSize(3);
+        assertThat(failure.getUnavailableElementPaths()).containsExactly("Readings[0]");
+        assertThat(failure.getFailedElementPaths()).containsExactly("Temperature");
+        assertThat(failure.getUnavailable().getTarget()).isEqualTo("aas:8081");
+    }
+
+    @Test
+    @DisplayName("should report every element of a submodel $value request as rejected when the target is unavailable")
+    void shouldReportWholeSubmodelRequestAsRejected() {
+        failuresByPath.put("/submodels/" + ENCODED_SUBMODEL_ID + "/$value", new TargetUnavailableException("aas:8081"));
+
+        AasBatchUpdateException failure = executeFailing(arc(BASE_URL),
+                update("Temperature", 21.5),
+                update("Motor.Speed", 1200));
+
+        assertThat(failure.getUnavailableElementPaths()).containsExactly("Temperature", "Motor.Speed");
+        assertThat(failure.getFailedElementPaths()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should record the batch latency per submodel and bucket submodels beyond the tag limit")
+    void shouldRecordLatencyPerSubmodel() {
+        execute(arc(BASE_URL), update("Temperature", 21.5));
+        execute(arc(BASE_URL, "https://example.com/submodels/maintenance"), update("Temperature", 21.5));
+
+        assertThat(meterRegistry.get("stayinsync.aas.submodel.write.time").tag("submodel", SUBMODEL_ID)
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("stayinsync.aas.submodel.write.time").tag("submodel", "other")
+                .timer().count()).isEqualTo(1);
+    }
+}
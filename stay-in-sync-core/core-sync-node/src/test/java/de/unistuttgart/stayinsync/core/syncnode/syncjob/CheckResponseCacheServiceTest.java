@@ -0,0 +1,132 @@
+package de.unistuttgart.stayinsync.core.syncnode.syncjob;
+
+import de.unistuttgart.stayinsync.syncnode.syncjob.assets.CheckResponseCacheService;
+import de.unistuttgart.stayinsync.syncnode.syncjob.assets.CheckResponseCacheService.CachedCheckResponse;
+import de.unistuttgart.stayinsync.syncnode.syncjob.assets.CheckResponseCacheService.CheckCacheKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckResponseCacheServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CheckResponseCacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheService = new CheckResponseCacheService(true, 1024 * 1024, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    private CheckCacheKey key(String url, Map<String, String> headers) {
+        return new CheckCacheKey(1L, "GET", url, new TreeMap<>(headers));
+    }
+
+    @Test
+    @DisplayName("should serve a stored response for an identical request")
+    void shouldServeStoredResponse() {
+        CheckCacheKey key = key("http://target/products?sku=1", Map.of("authorization", "Bearer a"));
+        cacheService.put(key, new CachedCheckResponse(7L, 200, "{\"id\":1}"));
+
+        assertThat(cacheService.get(key("http://target/products?sku=1", Map.of("authorization", "Bearer a"))))
+                .contains(new CachedCheckResponse(7L, 200, "{\"id\":1}"));
+    }
+
+    @Test
+    @DisplayName("should not share entries between requests with different headers")
+    void shouldKeyOnHeaders() {
+        cacheService.put(key("http://target/products?sku=1", Map.of("authorization", "Bearer a")),
+                new CachedCheckResponse(7L, 200, "{}"));
+
+        assertThat(cacheService.get(key("http://target/products?sku=1", Map.of("authorization", "Bearer b")))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should drop an entry after invalidation")
+    void shouldInvalidate() {
+        CheckCacheKey key = key("http://target/products?sku=1", Map.of());
+        cacheService.put(key, new CachedCheckResponse(7L, 404, ""));
+
+        cacheService.invalidate(key);
+
+        assertThat(cacheService.get(key)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should not cache the response of a CHECK that was in flight during an invalidation")
+    void shouldDiscardResponseOfCheckInFlightDuringInvalidation() {
+        CheckCacheKey key = key("http://target/products?sku=1", Map.of());
+        CheckResponseCacheService.CheckToken token = cacheService.beginCheck(key);
+
+        cacheService.invalidate(key); // a write completed while the CHECK was in flight
+        boolean stored = cacheService.putIfCurrent(key, token, new CachedCheckResponse(7L, 404, ""));
+
+        assertThat(stored).isFalse();
+        assertThat(cacheService.get(key)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should cache the response of the latest CHECK only")
+    void shouldCacheResponseOfLatestCheckOnly() {
+        CheckCacheKey key = key("http://target/products?sku=1", Map.of());
+        CheckResponseCacheService.CheckToken first = cacheService.beginCheck(key);
+        CheckResponseCacheService.CheckToken second = cacheService.beginCheck(key);
+
+        assertThat(cacheService.putIfCurrent(key, first, new CachedCheckResponse(7L, 404, ""))).isFalse();
+        assertThat(cacheService.putIfCurrent(key, second, new CachedCheckResponse(7L, 200, "{}"))).isTrue();
+        assertThat(cacheService.get(key)).contains(new CachedCheckResponse(7L, 200, "{}"));
+    }
+
+    @Test
+    @DisplayName("should expose cached bodies per transformation and ARC")
+    void shouldExposeResponsesByTransformation() {
+        cacheService.put(key("http://target/a", Map.of()), new CachedCheckResponse(7L, 200, "a"));
+        cacheService.put(key("http://target/b", Map.of()), new CachedCheckResponse(8L, 200, "b"));
+
+        assertThat(cacheService.getResponsesByTransformationId(7L)).contains(Map.of(1L, List.of("a")));
+        assertThat(cacheService.getResponsesByTransformationId(9L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should expose a shared response for every transformation it was served to")
+    void shouldExposeSharedResponseForEveryTransformation() {
+        CheckCacheKey key = key("http://target/a", Map.of());
+        cacheService.put(key, new CachedCheckResponse(7L, 200, "a"));
+
+        cacheService.get(key, 8L);
+
+        assertThat(cacheService.getResponsesByTransformationId(7L)).contains(Map.of(1L, List.of("a")));
+        assertThat(cacheService.getResponsesByTransformationId(8L)).contains(Map.of(1L, List.of("a")));
+    }
+
+    @Test
+    @DisplayName("should not attribute an entry to a transformation on a miss")
+    void shouldNotAttributeOnMiss() {
+        cacheService.get(key("http://target/a", Map.of()), 8L);
+        cacheService.invalidate(key("http://target/a", Map.of()));
+
+        assertThat(cacheService.getResponsesByTransformationId(8L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should record hits and misses")
+    void shouldRecordHitsAndMisses() {
+        CheckCacheKey key = key("http://target/a", Map.of());
+        cacheService.get(key);
+        cacheService.put(key, new CachedCheckResponse(7L, 200, "a"));
+        cacheService.get(key);
+
+        assertThat(meterRegistry.find("cache.gets").tag("cache", CheckResponseCacheService.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("cache.gets").tag("cache", CheckResponseCacheService.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,142 @@
+package de.unistuttgart.stayinsync.core.syncnode.syncjob;
+
+import de.unistuttgart.stayinsync.syncnode.syncjob.DirectiveCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DirectiveCoalescerTest {
+
+    private static final String RESOURCE = "1:2:http://target/products/1";
+    private static final Duration AWAIT = Duration.ofSeconds(1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<Consumer<Long>> timers;
+    private DirectiveCoalescer coalescer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        timers = new ArrayList<>();
+        Vertx vertx = mock(Vertx.class);
+        when(vertx.setTimer(anyLong(), any(Consumer.class))).thenAnswer(invocation -> {
+            timers.add(invocation.getArgument(1));
+            return (long) timers.size();
+        });
+        coalescer = new DirectiveCoalescer(vertx, true, Duration.ofMillis(250), meterRegistry);
+    }
+
+    /**
+     * Elapses the coalescing window that was opened last.
+     */
+    private void elapseWindow() {
+        timers.get(timers.size() - 1).accept((long) timers.size());
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @Test
+    @DisplayName("should send only the latest write within a window and complete every caller with its outcome")
+    void shouldSendLatestWriteOnly() {
+        List<String> sent = new ArrayList<>();
+        List<Uni<Void>> callers = new ArrayList<>();
+        for (String version : List.of("v1", "v2", "v3")) {
+            callers.add(coalescer.submit(RESOURCE, () -> Uni.createFrom().voidItem().invoke(() -> sent.add(version))));
+        }
+        assertThat(sent).isEmpty();
+
+        elapseWindow();
+
+        assertThat(sent).containsExactly("v3");
+        callers.forEach(caller -> caller.await().atMost(AWAIT));
+        assertThat(timers).hasSize(1);
+        assertThat(counter("stayinsync.writer.coalesced.writes")).isEqualTo(2.0);
+        assertThat(counter("stayinsync.writer.sent.writes")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should merge payloads in submission order and send them with the latest writer")
+    void shouldMergeInSubmissionOrder() {
+        List<String> sentBy = new ArrayList<>();
+        List<List<String>> sentPayloads = new ArrayList<>();
+        for (String element : List.of("a", "b", "c")) {
+            coalescer.submitMerging(RESOURCE, List.of(element),
+                    (pending, latest) -> {
+                        List<String> merged = new ArrayList<>(pending);
+                        merged.addAll(latest);
+                        return merged;
+                    },
+                    payload -> Uni.createFrom().voidItem().invoke(() -> {
+                        sentBy.add(element);
+                        sentPayloads.add(payload);
+                    }));
+        }
+
+        elapseWindow();
+
+        assertThat(sentPayloads).containsExactly(List.of("a", "b", "c"));
+        assertThat(sentBy).containsExactly("c");
+    }
+
+    @Test
+    @DisplayName("should fail every coalesced caller when the sent write fails")
+    void shouldPropagateFailureToAllCallers() {
+        IllegalStateException failure = new IllegalStateException("target rejected the write");
+        Uni<Void> superseded = coalescer.submit(RESOURCE, () -> Uni.createFrom().voidItem());
+        Uni<Void> latest = coalescer.submit(RESOURCE, () -> Uni.createFrom().failure(failure));
+
+        elapseWindow();
+
+        assertThatThrownBy(() -> superseded.await().atMost(AWAIT)).isSameAs(failure);
+        assertThatThrownBy(() -> latest.await().atMost(AWAIT)).isSameAs(failure);
+    }
+
+    @Test
+    @DisplayName("should release the resource key after the flush so that a later write opens a new window")
+    void shouldReleaseKeyAfterCompletion() {
+        AtomicInteger sends = new AtomicInteger();
+        Uni<Void> first = coalescer.submit(RESOURCE, () -> Uni.createFrom().voidItem().invoke(sends::incrementAndGet));
+        elapseWindow();
+        first.await().atMost(AWAIT);
+
+        Uni<Void> second = coalescer.submit(RESOURCE, () -> Uni.createFrom().voidItem().invoke(sends::incrementAndGet));
+
+        assertThat(timers).hasSize(2);
+        assertThat(sends).hasValue(1);
+        elapseWindow();
+        second.await().atMost(AWAIT);
+        assertThat(sends).hasValue(2);
+        assertThat(counter("stayinsync.writer.coalesced.writes")).isZero();
+    }
+
+    @Test
+    @DisplayName("should send writes immediately when coalescing is disabled")
+    void shouldSendImmediatelyWhenDisabled() {
+        DirectiveCoalescer disabled = new DirectiveCoalescer(mock(Vertx.class), false, Duration.ofMillis(250), meterRegistry);
+        AtomicInteger sends = new AtomicInteger();
+
+        disabled.submit(RESOURCE, () -> Uni.createFrom().voidItem().invoke(sends::incrementAndGet)).await().atMost(AWAIT);
+        disabled.submit(RESOURCE, () -> Uni.createFrom().voidItem().invoke(sends::incrementAndGet)).await().atMost(AWAIT);
+
+        assertThat(sends).hasValue(2);
+    }
+}
@@ -0,0 +1,255 @@
+package de.unistuttgart.stayinsync.core.syncnode.syncjob;
+
+import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
+import de.unistuttgart.stayinsync.syncnode.domain.ExecutionPayload;
+import de.unistuttgart.stayinsync.syncnode.domain.TransformJob;
+import de.unistuttgart.stayinsync.syncnode.syncjob.ExecutionQueueProfile;
+import de.unistuttgart.stayinsync.syncnode.syncjob.ExecutionScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionSchedulerTest {
+
+    private static final ExecutionQueueProfile COALESCING = new ExecutionQueueProfile(ExecutionScheduler.Priority.NORMAL, 1, 16, true);
+
+    private SimpleMeterRegistry meterRegistry;
+    private Map<Long, ExecutionQueueProfile> profiles;
+    private List<String> startedJobs;
+    private Deque<CompletableFuture<TransformationResult>> runningJobs;
+    private List<String> completedJobs;
+    private List<String> supersededJobs;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        profiles = new HashMap<>();
+        startedJobs = new ArrayList<>();
+        runningJobs = new ArrayDeque<>();
+        completedJobs = new ArrayList<>();
+        supersededJobs = new ArrayList<>();
+    }
+
+    private ExecutionScheduler scheduler(int maxConcurrency) {
+        return new ExecutionScheduler(payload -> {
+            startedJobs.add(payload.job().jobId());
+            CompletableFuture<TransformationResult> execution = new CompletableFuture<>();
+            runningJobs.addLast(execution);
+            return Uni.createFrom().completionStage(execution);
+        }, transformationId -> profiles.getOrDefault(transformationId, COALESCING), maxConcurrency,
+                meterRegistry, String::valueOf);
+    }
+
+    private Cancellable submit(ExecutionScheduler scheduler, Long transformationId, String jobId) {
+        TransformJob job = new TransformJob(transformationId, "tx", jobId, "script", "", "js", "hash",
+                null, null, null, null, null);
+        return scheduler.submit(new ExecutionPayload(job, List.of(), null)).subscribe().with(
+                result -> completedJobs.add(jobId),
+                failure -> {
+                    if (failure instanceof ExecutionScheduler.SupersededException) {
+                        supersededJobs.add(jobId);
+                    }
+                });
+    }
+
+    private void completeOldest() {
+        runningJobs.pollFirst().complete(null);
+    }
+
+    @Test
+    @DisplayName("should not run more payloads at once than allowed")
+    void shouldBoundConcurrency() {
+        ExecutionScheduler scheduler = scheduler(2);
+
+        submit(scheduler, 1L, "a");
+        submit(scheduler, 2L, "b");
+        submit(scheduler, 3L, "c");
+
+        assertThat(startedJobs).containsExactly("a", "b");
+        assertThat(scheduler.runningCount()).isEqualTo(2);
+        assertThat(scheduler.queuedCount(3L)).isEqualTo(1);
+
+        completeOldest();
+
+        assertThat(startedJobs).containsExactly("a", "b", "c");
+        assertThat(completedJobs).containsExactly("a");
+        assertThat(scheduler.runningCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should supersede queued payloads of a transformation with the latest one")
+    void shouldCoalesceQueuedPayloads() {
+        ExecutionScheduler scheduler = scheduler(1);
+        submit(scheduler, 1L, "running");
+
+        submit(scheduler, 2L, "old-1");
+        submit(scheduler, 2L, "old-2");
+        submit(scheduler, 2L, "latest");
+
+        assertThat(supersededJobs).containsExactly("old-1", "old-2");
+        assertThat(scheduler.queuedCount(2L)).isEqualTo(1);
+        assertThat(meterRegistry.get("stayinsync.scheduler.payloads.superseded").tag("transformationId", "2")
+                .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("stayinsync.scheduler.queue.depth").tag("transformationId", "2")
+                .gauge().value()).isEqualTo(1);
+
+        completeOldest();
+
+        assertThat(startedJobs).containsExactly("running", "latest");
+        assertThat(meterRegistry.get("stayinsync.scheduler.queue.depth").tag("transformationId", "2")
+                .gauge().value()).isZero();
+        assertThat(meterRegistry.get("stayinsync.scheduler.queue.wait").tag("transformationId", "2")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should drop the oldest payload of a full queue that does not coalesce")
+    void shouldBoundQueues() {
+        profiles.put(2L, new ExecutionQueueProfile(ExecutionScheduler.Priority.NORMAL, 1, 2, false));
+        ExecutionScheduler scheduler = scheduler(1);
+        submit(scheduler, 1L, "running");
+
+        submit(scheduler, 2L, "first");
+        submit(scheduler, 2L, "second");
+        submit(scheduler, 2L, "third");
+
+        assertThat(supersededJobs).containsExactly("first");
+        assertThat(scheduler.queuedCount(2L)).isEqualTo(2);
+
+        completeOldest();
+        completeOldest();
+
+        assertThat(startedJobs).containsExactly("running", "second", "third");
+    }
+
+    @Test
+    @DisplayName("should share executions between transformations according to their weights")
+    void shouldShareByWeight() {
+        profiles.put(1L, new ExecutionQueueProfile(ExecutionScheduler.Priority.NORMAL, 3, 100, false));
+        profiles.put(2L, new ExecutionQueueProfile(ExecutionScheduler.Priority.NORMAL, 1, 100, false));
+        ExecutionScheduler scheduler = scheduler(1);
+        submit(scheduler, 3L, "running");
+
+        // The chatty transformation 2 queues all of its payloads first.
+        for (int i = 0; i < 20; i++) {
+            submit(scheduler, 2L, "low-" + i);
+        }
+        for (int i = 0; i < 20; i++) {
+            submit(scheduler, 1L, "high-" + i);
+        }
+        for (int i = 0; i < 16; i++) {
+            completeOldest();
+        }
+
+        List<String> served = startedJobs.subList(1, 17);
+        assertThat(served.stream().filter(job -> job.startsWith("high-")).count()).isEqualTo(12);
+        assertThat(served.stream().filter(job -> job.startsWith("low-")).count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("should serve higher priority classes first")
+    void shouldServeByPriority() {
+        profiles.put(1L, new ExecutionQueueProfile(ExecutionScheduler.Priority.LOW, 1, 16, true));
+        profiles.put(2L, new ExecutionQueueProfile(ExecutionScheduler.Priority.NORMAL, 1, 16, true));
+        profiles.put(3L, new ExecutionQueueProfile(ExecutionScheduler.Priority.HIGH, 1, 16, true));
+        ExecutionScheduler scheduler = scheduler(1);
+        submit(scheduler, 4L, "running");
+
+        submit(scheduler, 1L, "low");
+        submit(scheduler, 2L, "normal");
+        submit(scheduler, 3L, "high");
+        completeOldest();
+        completeOldest();
+        completeOldest();
+
+        assertThat(startedJobs).containsExactly("running", "high", "normal", "low");
+    }
+
+    @Test
+    @DisplayName("should run at most one payload of a transformation at a time")
+    void shouldRunOnePayloadPerTransformation() {
+        profiles.put(1L, new ExecutionQueueProfile(ExecutionScheduler.Priority.NORMAL, 1, 16, false));
+        ExecutionScheduler scheduler = scheduler(4);
+
+        submit(scheduler, 1L, "first");
+        submit(scheduler, 1L, "second");
+        submit(scheduler, 2L, "other");
+
+        assertThat(startedJobs).containsExactly("first", "other");
+        assertThat(scheduler.queuedCount(1L)).isEqualTo(1);
+
+        completeOldest();
+
+        assertThat(startedJobs).containsExactly("first", "other", "second");
+        assertThat(completedJobs).containsExactly("first");
+        assertThat(scheduler.queuedCount(1L)).isZero();
+    }
+
+    @Test
+    @DisplayName("should coalesce the payloads that arrive while a payload of the transformation runs")
+    void shouldCoalesceWhileRunning() {
+        ExecutionScheduler scheduler = scheduler(4);
+        submit(scheduler, 1L, "running");
+
+        submit(scheduler, 1L, "old");
+        submit(scheduler, 1L, "latest");
+
+        assertThat(startedJobs).containsExactly("running");
+        assertThat(supersededJobs).containsExactly("old");
+
+        completeOldest();
+
+        assertThat(startedJobs).containsExactly("running", "latest");
+    }
+
+    @Test
+    @DisplayName("should remove a queued payload when its subscription is cancelled")
+    void shouldWithdrawCancelledPayload() {
+        profiles.put(2L, new ExecutionQueueProfile(ExecutionScheduler.Priority.NORMAL, 1, 16, false));
+        ExecutionScheduler scheduler = scheduler(1);
+        submit(scheduler, 1L, "running");
+        Cancellable cancelled = submit(scheduler, 2L, "cancelled");
+        submit(scheduler, 2L, "kept");
+
+        cancelled.cancel();
+
+        assertThat(scheduler.queuedCount(2L)).isEqualTo(1);
+        assertThat(meterRegistry.get("stayinsync.scheduler.queue.depth").tag("transformationId", "2")
+                .gauge().value()).isEqualTo(1);
+
+        completeOldest();
+        completeOldest();
+
+        assertThat(startedJobs).containsExactly("running", "kept");
+        assertThat(completedJobs).containsExactly("running", "kept");
+        assertThat(scheduler.runningCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("should drop the queue of a transformation whose only queued payload is cancelled")
+    void shouldDropQueueOfCancelledPayload() {
+        ExecutionScheduler scheduler = scheduler(1);
+        submit(scheduler, 1L, "running");
+        Cancellable cancelled = submit(scheduler, 2L, "cancelled");
+
+        cancelled.cancel();
+        completeOldest();
+
+        assertThat(startedJobs).containsExactly("running");
+        assertThat(scheduler.queuedCount(2L)).isZero();
+        assertThat(scheduler.runningCount()).isZero();
+    }
+}
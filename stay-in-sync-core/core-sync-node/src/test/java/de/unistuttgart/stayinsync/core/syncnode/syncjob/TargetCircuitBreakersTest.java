@@ -0,0 +1,181 @@
+package de.unistuttgart.stayinsync.core.syncnode.syncjob;
+
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetCircuitBreakers;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetCircuitBreakers.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TargetCircuitBreakersTest {
+
+    private static final String TARGET = "target-system:443";
+    private static final String RESOURCE = "1:https://target-system/products/1";
+    private static final String OTHER_RESOURCE = "1:https://target-system/products/2";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private TargetCircuitBreakers breakers(Duration openDuration, int retryBufferSize) {
+        return new TargetCircuitBreakers(true, 3, openDuration, 1, retryBufferSize, meterRegistry);
+    }
+
+    private void fail(TargetCircuitBreakers breakers, int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(breakers.tryAcquire(TARGET)).isTrue();
+            breakers.recordFailure(TARGET);
+        }
+    }
+
+    @Test
+    @DisplayName("should open after consecutive failures and reject requests while open")
+    void shouldOpenAfterConsecutiveFailures() {
+        TargetCircuitBreakers breakers = breakers(Duration.ofMinutes(1), 10);
+
+        fail(breakers, 2);
+        breakers.recordResponse(TARGET, 200);
+        fail(breakers, 2);
+        assertThat(breakers.stateOf(TARGET)).isEqualTo(State.CLOSED);
+
+        fail(breakers, 1);
+        assertThat(breakers.stateOf(TARGET)).isEqualTo(State.OPEN);
+        assertThat(breakers.tryAcquire(TARGET)).isFalse();
+        assertThat(meterRegistry.get("stayinsync.target.circuit.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should count 5xx responses as failures")
+    void shouldCountServerErrorsAsFailures() {
+        TargetCircuitBreakers breakers = breakers(Duration.ofMinutes(1), 10);
+
+        for (int i = 0; i < 3; i++) {
+            breakers.tryAcquire(TARGET);
+            breakers.recordResponse(TARGET, 503);
+        }
+
+        assertThat(breakers.stateOf(TARGET)).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    @DisplayName("should admit a single probe when half-open and close on its success")
+    void shouldCloseAfterSuccessfulProbe() {
+        TargetCircuitBreakers breakers = breakers(Duration.ZERO, 10);
+        fail(breakers, 3);
+
+        assertThat(breakers.tryAcquire(TARGET)).isTrue();
+        assertThat(breakers.stateOf(TARGET)).isEqualTo(State.HALF_OPEN);
+        assertThat(breakers.tryAcquire(TARGET)).isFalse();
+
+        breakers.recordSuccess(TARGET);
+        assertThat(breakers.stateOf(TARGET)).isEqualTo(State.CLOSED);
+        assertThat(breakers.tryAcquire(TARGET)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should re-open when the half-open probe fails")
+    void shouldReopenAfterFailedProbe() {
+        TargetCircuitBreakers breakers = breakers(Duration.ZERO, 10);
+        fail(breakers, 3);
+
+        assertThat(breakers.tryAcquire(TARGET)).isTrue();
+        breakers.recordFailure(TARGET);
+
+        assertThat(breakers.stateOf(TARGET)).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    @DisplayName("should replay parked writes once the target recovers and drop the oldest when full")
+    void shouldReplayParkedWritesOnRecovery() {
+        TargetCircuitBreakers breakers = breakers(Duration.ZERO, 2);
+        fail(breakers, 3);
+
+        AtomicInteger replayed = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertThat(breakers.park(TARGET, RESOURCE + i, i, () -> Uni.createFrom().voidItem().invoke(replayed::incrementAndGet))).isTrue();
+        }
+        assertThat(meterRegistry.get("stayinsync.target.retry.dropped").counter().count()).isEqualTo(1.0);
+
+        breakers.tryAcquire(TARGET);
+        breakers.recordSuccess(TARGET);
+
+        assertThat(replayed.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("stayinsync.target.retry.parked").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("should not park writes when the retry buffer is disabled")
+    void shouldNotParkWhenBufferDisabled() {
+        TargetCircuitBreakers breakers = breakers(Duration.ofMinutes(1), 0);
+
+        assertThat(breakers.park(TARGET, RESOURCE, 1, () -> Uni.createFrom().voidItem())).isFalse();
+    }
+
+    @Test
+    @DisplayName("should replay only the newest parked write of a resource, regardless of the order it was parked in")
+    void shouldKeepNewestParkedWritePerResource() {
+        TargetCircuitBreakers breakers = breakers(Duration.ZERO, 10);
+        fail(breakers, 3);
+
+        List<String> replayed = new ArrayList<>();
+        breakers.park(TARGET, RESOURCE, 2, () -> Uni.createFrom().voidItem().invoke(() -> replayed.add("v2")));
+        breakers.park(TARGET, RESOURCE, 3, () -> Uni.createFrom().voidItem().invoke(() -> replayed.add("v3")));
+        breakers.park(TARGET, RESOURCE, 1, () -> Uni.createFrom().voidItem().invoke(() -> replayed.add("v1")));
+        breakers.park(TARGET, OTHER_RESOURCE, 1, () -> Uni.createFrom().voidItem().invoke(() -> replayed.add("other")));
+
+        breakers.tryAcquire(TARGET);
+        breakers.recordSuccess(TARGET);
+
+        assertThat(replayed).containsExactly("v3", "other");
+    }
+
+    @Test
+    @DisplayName("should not let an old parked write overwrite a newer write that succeeded in the meantime")
+    void shouldDropParkedWriteAfterLaterSuccessfulWrite() {
+        TargetCircuitBreakers breakers = breakers(Duration.ZERO, 10);
+        fail(breakers, 3);
+
+        List<String> replayed = new ArrayList<>();
+        breakers.park(TARGET, RESOURCE, 1, () -> Uni.createFrom().voidItem().invoke(() -> replayed.add("old")));
+        breakers.park(TARGET, OTHER_RESOURCE, 3, () -> Uni.createFrom().voidItem().invoke(() -> replayed.add("other")));
+        breakers.recordWritten(RESOURCE, 2);
+        breakers.recordWritten(OTHER_RESOURCE, 2);
+
+        breakers.tryAcquire(TARGET);
+        breakers.recordSuccess(TARGET);
+
+        assertThat(replayed).containsExactly("other");
+    }
+
+    @Test
+    @DisplayName("should skip a parked write that is superseded while the replay is still running")
+    void shouldSkipWriteSupersededDuringReplay() {
+        TargetCircuitBreakers breakers = breakers(Duration.ZERO, 10);
+        fail(breakers, 3);
+
+        List<String> replayed = new ArrayList<>();
+        breakers.park(TARGET, OTHER_RESOURCE, 1, () -> Uni.createFrom().voidItem().invoke(() -> {
+            replayed.add("other");
+            // A newer write to the second resource succeeds before its parked write is replayed.
+            breakers.recordWritten(RESOURCE, 3);
+        }));
+        breakers.park(TARGET, RESOURCE, 2, () -> Uni.createFrom().voidItem().invoke(() -> replayed.add("old")));
+
+        breakers.tryAcquire(TARGET);
+        breakers.recordSuccess(TARGET);
+
+        assertThat(replayed).containsExactly("other");
+        assertThat(meterRegistry.get("stayinsync.target.retry.parked").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,170 @@
+package de.unistuttgart.stayinsync.core.syncnode.syncjob;
+
+import de.unistuttgart.stayinsync.exception.SyncNodeException;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetCircuitBreakers;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetClientProfile;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetClientRegistry;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetClientRegistry.TargetEndpoint;
+import de.unistuttgart.stayinsync.syncnode.syncjob.WebClientProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.ext.web.client.HttpResponse;
+import io.vertx.mutiny.ext.web.client.WebClient;
+import org.eclipse.microprofile.config.Config;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the per-target admission gate of {@link TargetClientRegistry} with a pool of one connection and a wait
+ * queue of one slot. The requests complete only when the test completes their pending response.
+ */
+class TargetClientRegistryTest {
+
+    private static final String TARGET = "target-system:8080";
+
+    private SimpleMeterRegistry meterRegistry;
+    private TargetClientRegistry registry;
+    private TargetEndpoint endpoint;
+    private List<CompletableFuture<HttpResponse<Buffer>>> pendingResponses;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws SyncNodeException {
+        meterRegistry = new SimpleMeterRegistry();
+        pendingResponses = new ArrayList<>();
+
+        Config config = mock(Config.class);
+        doReturn(Optional.empty()).when(config).getOptionalValue(anyString(), any());
+        doReturn(Optional.of(1)).when(config).getOptionalValue("stayinsync.webclient.pool.max-size", Integer.class);
+        doReturn(Optional.of(1)).when(config).getOptionalValue("stayinsync.webclient.pool.max-wait-queue-size", Integer.class);
+
+        WebClientProvider webClientProvider = mock(WebClientProvider.class);
+        when(webClientProvider.createTargetClient(any(TargetClientProfile.class))).thenReturn(mock(WebClient.class));
+
+        TargetCircuitBreakers circuitBreakers = new TargetCircuitBreakers(true, 3, Duration.ofMinutes(1), 1, 10, meterRegistry);
+        registry = new TargetClientRegistry(webClientProvider, circuitBreakers, meterRegistry, config);
+        endpoint = registry.resolve("http://target-system:8080");
+    }
+
+    /**
+     * Sends a request whose response stays pending until the test completes it.
+     */
+    private UniAssertSubscriber<HttpResponse<Buffer>> send() {
+        return registry.send(endpoint, client -> {
+                    CompletableFuture<HttpResponse<Buffer>> response = new CompletableFuture<>();
+                    pendingResponses.add(response);
+                    return Uni.createFrom().completionStage(response);
+                })
+                .subscribe().withSubscriber(UniAssertSubscriber.create());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<Buffer> ok() {
+        HttpResponse<Buffer> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        return response;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("target", TARGET).gauge().value();
+    }
+
+    @Test
+    @DisplayName("should reject a request immediately when the pool and the wait queue are full")
+    void shouldRejectWhenFull() {
+        UniAssertSubscriber<HttpResponse<Buffer>> inFlight = send();
+        UniAssertSubscriber<HttpResponse<Buffer>> waiting = send();
+
+        UniAssertSubscriber<HttpResponse<Buffer>> rejected = send();
+
+        rejected.assertFailedWith(SyncNodeException.class);
+        assertThat(((SyncNodeException) rejected.getFailure()).getTitle()).isEqualTo("Connection Pool Exhausted");
+        assertThat(meterRegistry.get("stayinsync.webclient.pool.exhausted").counter().count()).isEqualTo(1.0);
+        assertThat(pendingResponses).hasSize(1);
+        assertThat(gauge("stayinsync.webclient.pool.in.flight")).isEqualTo(1.0);
+        assertThat(gauge("stayinsync.webclient.pool.waiting")).isEqualTo(1.0);
+        inFlight.assertNotTerminated();
+        waiting.assertNotTerminated();
+    }
+
+    @Test
+    @DisplayName("should hand the permit to the next waiting request when a request succeeds")
+    void shouldReleasePermitOnSuccess() {
+        UniAssertSubscriber<HttpResponse<Buffer>> first = send();
+        UniAssertSubscriber<HttpResponse<Buffer>> second = send();
+
+        pendingResponses.get(0).complete(ok());
+
+        first.assertCompleted();
+        assertThat(pendingResponses).hasSize(2);
+        assertThat(gauge("stayinsync.webclient.pool.in.flight")).isEqualTo(1.0);
+        assertThat(gauge("stayinsync.webclient.pool.waiting")).isZero();
+
+        pendingResponses.get(1).complete(ok());
+
+        second.assertCompleted();
+        assertThat(gauge("stayinsync.webclient.pool.in.flight")).isZero();
+    }
+
+    @Test
+    @DisplayName("should hand the permit to the next waiting request when a request fails")
+    void shouldReleasePermitOnFailure() {
+        UniAssertSubscriber<HttpResponse<Buffer>> first = send();
+        send();
+
+        pendingResponses.get(0).completeExceptionally(new IOException("connection reset"));
+
+        first.assertFailedWith(IOException.class, "connection reset");
+        assertThat(pendingResponses).hasSize(2);
+        assertThat(gauge("stayinsync.webclient.pool.in.flight")).isEqualTo(1.0);
+        assertThat(gauge("stayinsync.webclient.pool.waiting")).isZero();
+    }
+
+    @Test
+    @DisplayName("should release the permit when an in-flight request is cancelled")
+    void shouldReleasePermitOnInFlightCancellation() {
+        UniAssertSubscriber<HttpResponse<Buffer>> first = send();
+
+        first.cancel();
+
+        assertThat(gauge("stayinsync.webclient.pool.in.flight")).isZero();
+        send();
+        assertThat(pendingResponses).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("should give up the wait queue slot when a waiting request is cancelled")
+    void shouldReleaseSlotOnWaitingCancellation() {
+        send();
+        UniAssertSubscriber<HttpResponse<Buffer>> waiting = send();
+
+        waiting.cancel();
+
+        assertThat(gauge("stayinsync.webclient.pool.waiting")).isZero();
+        send().assertNotTerminated();
+        assertThat(meterRegistry.get("stayinsync.webclient.pool.exhausted").counter().count()).isZero();
+
+        pendingResponses.get(0).complete(ok());
+
+        // The permit skips the cancelled request and goes to the request queued after it.
+        assertThat(pendingResponses).hasSize(2);
+        assertThat(gauge("stayinsync.webclient.pool.in.flight")).isEqualTo(1.0);
+    }
+}
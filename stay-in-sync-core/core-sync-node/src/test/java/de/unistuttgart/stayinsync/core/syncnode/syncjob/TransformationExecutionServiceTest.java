@@ -0,0 +1,102 @@
+package de.unistuttgart.stayinsync.core.syncnode.syncjob;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.graphengine.cache.GraphHasher;
+import de.unistuttgart.graphengine.cache.GraphInstanceCache;
+import de.unistuttgart.stayinsync.scriptengine.ScriptEngineService;
+import de.unistuttgart.stayinsync.scriptengine.message.TransformationResult;
+import de.unistuttgart.stayinsync.syncnode.SnapshotManagement.FailureSnapshotSampler;
+import de.unistuttgart.stayinsync.syncnode.domain.ExecutionPayload;
+import de.unistuttgart.stayinsync.syncnode.domain.TransformJob;
+import de.unistuttgart.stayinsync.syncnode.monitor.PayloadLogSampler;
+import de.unistuttgart.stayinsync.syncnode.monitor.PipelineStageMetrics;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TargetSystemWriterService;
+import de.unistuttgart.stayinsync.syncnode.syncjob.TransformationExecutionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests how {@link TransformationExecutionService} hands payloads to its scheduler, with a single scheduler slot.
+ * Payloads without a logic graph pass the pre-condition, the script is mocked and the writes of the job
+ * {@code "hanging"} never complete.
+ */
+class TransformationExecutionServiceTest {
+
+    private List<String> writtenJobs;
+    private TransformationExecutionService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        writtenJobs = new ArrayList<>();
+
+        ScriptEngineService scriptEngineService = mock(ScriptEngineService.class);
+        when(scriptEngineService.transformAsync(any(TransformJob.class), any())).thenAnswer(invocation -> {
+            TransformJob job = invocation.getArgument(0);
+            TransformationResult result = new TransformationResult(job.jobId(), job.scriptId());
+            result.setValidExecution(true);
+            return Uni.createFrom().item(result);
+        });
+
+        TargetSystemWriterService writerService = mock(TargetSystemWriterService.class);
+        when(writerService.processDirectives(any(TransformationResult.class), any())).thenAnswer(invocation -> {
+            String jobId = invocation.<TransformationResult>getArgument(0).getJobId();
+            writtenJobs.add(jobId);
+            return "hanging".equals(jobId) ? Uni.createFrom().nothing() : Uni.createFrom().voidItem();
+        });
+
+        ManagedExecutor managedExecutor = mock(ManagedExecutor.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(managedExecutor).execute(any(Runnable.class));
+
+        Config config = mock(Config.class);
+        doReturn(Optional.empty()).when(config).getOptionalValue(anyString(), any());
+
+        PipelineStageMetrics pipelineStageMetrics = new PipelineStageMetrics(meterRegistry, List.of(0.5),
+                Duration.ofSeconds(60), 100);
+        service = new TransformationExecutionService(mock(GraphInstanceCache.class), scriptEngineService,
+                writerService, managedExecutor, new ObjectMapper(), mock(FailureSnapshotSampler.class), meterRegistry,
+                mock(GraphHasher.class), pipelineStageMetrics, mock(PayloadLogSampler.class), 1, config);
+    }
+
+    private UniAssertSubscriber<TransformationResult> schedule(Long transformationId, String jobId) {
+        TransformJob job = new TransformJob(transformationId, "tx", jobId, "script", "", "js", "hash",
+                null, null, null, null, null);
+        return service.schedule(new ExecutionPayload(job, List.of(), null))
+                .subscribe().withSubscriber(UniAssertSubscriber.create());
+    }
+
+    @Test
+    @DisplayName("should release the scheduler slot before the directives are written")
+    void shouldNotBlockOtherTransformationsOnHangingWrite() {
+        UniAssertSubscriber<TransformationResult> hanging = schedule(1L, "hanging");
+
+        UniAssertSubscriber<TransformationResult> other = schedule(2L, "other");
+
+        hanging.assertNotTerminated();
+        other.assertCompleted();
+        assertThat(other.getItem().getJobId()).isEqualTo("other");
+        assertThat(writtenJobs).containsExactly("hanging", "other");
+    }
+}
@@ -81,7 +81,7 @@ public class TransformationExecutionIntegrationTest {
         List<Node> graphNodes = createGraphNodes();
         TransformJob transformJob = new TransformJob(1L,
                 "Test Job", "job-id-1", "test-script", generateUserScript(), "js",
-                "user-script-hash", generateTestSdk(), "sdk-hash", createSourceData()
+                "user-script-hash", generateTestSdk(), "sdk-hash", createSourceData(), null, null
         );
         return new ExecutionPayload(transformJob, graphNodes, txContext);
     }
@@ -1,32 +1,39 @@
 package de.unistuttgart.graphengine.cache;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import de.unistuttgart.graphengine.exception.GraphConstructionException;
 import de.unistuttgart.graphengine.nodes.Node;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Thread-safe cache for {@link StatefulLogicGraph} instances.
+ * Thread-safe, bounded cache for {@link StatefulLogicGraph} instances.
  * <p>
  * This cache stores graph instances by their {@link CacheKey}, which combines
  * the transformation ID with a hash of the graph structure. This ensures that:
  * <ul>
  *   <li>Multiple transformations can coexist in the cache</li>
- *   <li>Graph structure changes automatically invalidate old instances</li>
+ *   <li>Graph structure changes never reuse an instance built for an old structure</li>
  *   <li>The same graph structure is reused across evaluations (with its state)</li>
  * </ul>
  * <p>
- * <b>Thread Safety:</b> This cache uses a {@link ConcurrentHashMap}, making it safe
- * for concurrent access from multiple threads. The {@code computeIfAbsent} operation
- * is atomic.
+ * <b>Thread Safety:</b> This cache is backed by a Caffeine cache, making it safe
+ * for concurrent access from multiple threads. Creating a missing instance is atomic.
  * <p>
- * <b>Memory Management:</b> Old graph instances are automatically discarded when
- * the graph structure changes (different hash). Explicit removal via {@link #remove(long)}
- * should be called when a transformation rule is deleted.
+ * <b>Memory Management:</b> The cache is bounded by the total number of nodes of all
+ * cached graphs and evicts with the W-TinyLFU policy. A secondary index from transformation
+ * ID to its cached keys makes {@link #remove(long)} and {@link #removeSuperseded(long, String)}
+ * independent of the cache size; they should be called when a transformation is undeployed
+ * or deleted, or when its graph structure changes.
  *
  * @see StatefulLogicGraph
  * @see CacheKey
@@ -35,7 +42,54 @@ import java.util.concurrent.ConcurrentHashMap;
 @ApplicationScoped
 public class GraphInstanceCache {
 
-    private final Map<CacheKey, StatefulLogicGraph> cache = new ConcurrentHashMap<>();
+    static final long DEFAULT_MAX_WEIGHT = 100_000;
+
+    private final Cache<CacheKey, StatefulLogicGraph> cache;
+    private final boolean fingerprintSnapshots;
+    private final int compilationThreshold;
+    private final Map<Long, Set<CacheKey>> keysByTransformationId = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache with the default bound.
+     */
+    public GraphInstanceCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * Creates a cache with the given bound whose graph instances store provider values in their snapshots.
+     *
+     * @param maxWeight The maximum total number of nodes of all cached graph instances.
+     */
+    public GraphInstanceCache(long maxWeight) {
+        this(maxWeight, false, 0);
+    }
+
+    /**
+     * Creates a cache with the given bound.
+     *
+     * @param maxWeight            The maximum total number of nodes of all cached graph instances.
+     * @param fingerprintSnapshots Whether created graph instances store fingerprints of provider values
+     *                             in their snapshots instead of the values.
+     * @param compilationThreshold The number of evaluations after which a graph instance compiles its graph,
+     *                             or {@code 0} to always interpret graphs.
+     */
+    @Inject
+    public GraphInstanceCache(
+            @ConfigProperty(name = "graphengine.cache.max-weight", defaultValue = "100000") long maxWeight,
+            @ConfigProperty(name = "graphengine.change-detection.fingerprint", defaultValue = "false")
+            boolean fingerprintSnapshots,
+            @ConfigProperty(name = "graphengine.compilation.threshold", defaultValue = "0")
+            int compilationThreshold) {
+        this.fingerprintSnapshots = fingerprintSnapshots;
+        this.compilationThreshold = compilationThreshold;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((CacheKey key, StatefulLogicGraph graph) -> Math.max(1, graph.getNodeCount()))
+                .executor(Runnable::run)
+                .removalListener(this::onRemoval)
+                .build();
+    }
 
     /**
      * Retrieves a cached graph instance or creates a new one if not present.
@@ -69,20 +123,22 @@ public class GraphInstanceCache {
         }
 
         CacheKey key = new CacheKey(transformationId, graphHash);
-        
-        // Check if we have a cache hit
-        if (cache.containsKey(key)) {
-            Log.tracef("Cache HIT for transformation %d with hash %s", 
-                transformationId, graphHash.substring(0, Math.min(16, graphHash.length())) + "...");
-        } else {
-            Log.debugf("Cache MISS for transformation %d with hash %s. Creating new instance.",
-                transformationId, graphHash.substring(0, Math.min(16, graphHash.length())) + "...");
+
+        StatefulLogicGraph cached = cache.getIfPresent(key);
+        if (cached != null) {
+            Log.tracef("Cache HIT for transformation %d with hash %s",
+                transformationId, abbreviate(graphHash));
+            return cached;
         }
-        
-        return cache.computeIfAbsent(key, k -> {
+        Log.debugf("Cache MISS for transformation %d with hash %s. Creating new instance.",
+            transformationId, abbreviate(graphHash));
+
+        return cache.get(key, k -> {
             Log.infof("Creating new StatefulLogicGraph for transformation %d", transformationId);
             try {
-                return new StatefulLogicGraph(graphDefinition);
+                StatefulLogicGraph graph = new StatefulLogicGraph(graphDefinition, fingerprintSnapshots, compilationThreshold);
+                keysByTransformationId.computeIfAbsent(transformationId, id -> ConcurrentHashMap.newKeySet()).add(k);
+                return graph;
             } catch (GraphConstructionException e) {
                 Log.errorf(e, "Failed to create StatefulLogicGraph for transformation %d: %s (ErrorType: %s)",
                     transformationId, e.getMessage(), e.getErrorType());
@@ -95,34 +151,50 @@ public class GraphInstanceCache {
      * Removes all cached entries associated with a given transformation ID,
      * regardless of their graph hash.
      * <p>
-     * This method should be called when a transformation rule is deleted from
-     * the system to free up memory. It removes all versions of the graph
+     * This method should be called when a transformation rule is undeployed or deleted
+     * from the system to free up memory. It removes all versions of the graph
      * (different hashes due to historical changes).
      *
      * @param transformationId The unique identifier of the transformation rule to remove.
      * @return The number of cache entries that were removed.
      */
     public int remove(long transformationId) {
-        int removedCount = 0;
-        
-        // Remove all entries for this transformation
-        var keysToRemove = cache.keySet().stream()
-            .filter(key -> key.transformationId().equals(transformationId))
-            .toList();
-        
-        for (CacheKey key : keysToRemove) {
-            if (cache.remove(key) != null) {
-                removedCount++;
-            }
-        }
-        
+        Set<CacheKey> keys = keysByTransformationId.remove(transformationId);
+        int removedCount = keys == null ? 0 : invalidate(keys);
+
         if (removedCount > 0) {
             Log.infof("Removed %d cached graph instance(s) for transformation %d",
                 removedCount, transformationId);
         } else {
             Log.debugf("No cached instances found for transformation %d", transformationId);
         }
-        
+
+        return removedCount;
+    }
+
+    /**
+     * Removes all cached entries of a transformation except the one for its current graph structure.
+     * <p>
+     * This method should be called when a transformation is redeployed, so instances built
+     * for earlier graph structures do not linger until they are evicted.
+     *
+     * @param transformationId The unique identifier of the transformation rule.
+     * @param currentGraphHash The hash of the graph structure whose instance is kept.
+     * @return The number of cache entries that were removed.
+     */
+    public int removeSuperseded(long transformationId, String currentGraphHash) {
+        Set<CacheKey> keys = keysByTransformationId.get(transformationId);
+        if (keys == null) {
+            return 0;
+        }
+        List<CacheKey> superseded = keys.stream()
+            .filter(key -> !key.graphHash().equals(currentGraphHash))
+            .toList();
+        int removedCount = invalidate(superseded);
+        if (removedCount > 0) {
+            Log.infof("Removed %d superseded graph instance(s) for transformation %d",
+                removedCount, transformationId);
+        }
         return removedCount;
     }
 
@@ -133,7 +205,7 @@ public class GraphInstanceCache {
      * @return The total number of cached instances across all transformations.
      */
     public int getCacheSize() {
-        return cache.size();
+        return cache.asMap().size();
     }
 
     /**
@@ -143,8 +215,40 @@ public class GraphInstanceCache {
      * Should only be used for testing or maintenance purposes.
      */
     public void clear() {
-        int previousSize = cache.size();
-        cache.clear();
+        int previousSize = getCacheSize();
+        cache.invalidateAll();
+        keysByTransformationId.clear();
         Log.warnf("Cleared entire graph cache. Removed %d instances.", previousSize);
     }
+
+    private int invalidate(Iterable<CacheKey> keys) {
+        int removedCount = 0;
+        for (CacheKey key : keys) {
+            if (cache.asMap().remove(key) != null) {
+                removedCount++;
+            }
+        }
+        return removedCount;
+    }
+
+    /**
+     * Keeps the secondary index in sync with evictions and removals. A key that was
+     * cached again in the meantime stays indexed.
+     */
+    private void onRemoval(CacheKey key, StatefulLogicGraph graph, RemovalCause cause) {
+        if (key == null || cause == RemovalCause.REPLACED || cache.asMap().containsKey(key)) {
+            return;
+        }
+        keysByTransformationId.computeIfPresent(key.transformationId(), (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+        if (cause.wasEvicted()) {
+            Log.debugf("Evicted graph instance for transformation %d (%s)", key.transformationId(), cause);
+        }
+    }
+
+    private static String abbreviate(String graphHash) {
+        return graphHash.substring(0, Math.min(16, graphHash.length())) + "...";
+    }
 }
@@ -3,12 +3,16 @@ package de.unistuttgart.graphengine.cache;
 import com.fasterxml.jackson.databind.JsonNode;
 import de.unistuttgart.graphengine.exception.GraphConstructionException;
 import de.unistuttgart.graphengine.exception.GraphEvaluationException;
+import de.unistuttgart.graphengine.logic_engine.BatchGraphEvaluator;
+import de.unistuttgart.graphengine.logic_engine.IncrementalEvaluationState;
 import de.unistuttgart.graphengine.logic_engine.LogicGraphEvaluator;
 import de.unistuttgart.graphengine.nodes.ConfigNode;
+import de.unistuttgart.graphengine.nodes.LogicNode;
 import de.unistuttgart.graphengine.nodes.Node;
 import de.unistuttgart.graphengine.nodes.SnapshotEntry;
 import io.quarkus.logging.Log;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,8 +23,13 @@ import java.util.Map;
  * This class holds the parsed graph definition and the last known snapshot ("its memory")
  * between executions, making the change detection process highly efficient.
  * <p>
+ * Evaluations are incremental: the node results of the previous execution are kept, and only
+ * the nodes downstream of provider values that changed are recalculated.
+ * <p>
  * Each instance is immutable after construction and thread-safe for the stored graph definition,
- * but maintains mutable state for the snapshot between evaluations.
+ * but maintains mutable state for the snapshot between evaluations. The nodes keep their results,
+ * the ConfigNode its new snapshot, and the incremental state its bookkeeping between evaluations,
+ * so evaluations of the same instance are serialized on the instance.
  */
 public class StatefulLogicGraph {
 
@@ -28,16 +37,50 @@ public class StatefulLogicGraph {
     private final ConfigNode configNode;
     private Map<String, SnapshotEntry> lastSnapshot;
     private final LogicGraphEvaluator evaluator;
+    private final BatchGraphEvaluator batchEvaluator;
+    private final IncrementalEvaluationState evaluationState;
+
+    /**
+     * Constructs a new stateful graph instance whose snapshot stores provider values as they are.
+     *
+     * @param graphDefinition The list of nodes representing the graph. Must not be null or empty.
+     * @throws GraphConstructionException if the graph definition is null, empty, or structurally invalid.
+     */
+    public StatefulLogicGraph(List<Node> graphDefinition) {
+        this(graphDefinition, false);
+    }
 
     /**
      * Constructs a new stateful graph instance.
      * <p>
      * It immediately validates the graph and locates the ConfigNode for efficient access.
+     * Every LogicNode is prepared once here, so that operators with constant operands
+     * (e.g. regex patterns or value sets) do not rebuild them on every evaluation.
      *
-     * @param graphDefinition The list of nodes representing the graph. Must not be null or empty.
+     * @param graphDefinition      The list of nodes representing the graph. Must not be null or empty.
+     * @param fingerprintSnapshots Whether the snapshot stores a fingerprint of each provider value
+     *                             instead of the value (see {@link ConfigNode#setFingerprintSnapshots(boolean)}).
      * @throws GraphConstructionException if the graph definition is null, empty, or structurally invalid.
      */
-    public StatefulLogicGraph(List<Node> graphDefinition) {
+    public StatefulLogicGraph(List<Node> graphDefinition, boolean fingerprintSnapshots) {
+        this(graphDefinition, fingerprintSnapshots, 0);
+    }
+
+    /**
+     * Constructs a new stateful graph instance that compiles its graph once it has been evaluated often.
+     * <p>
+     * It immediately validates the graph and locates the ConfigNode for efficient access.
+     * Every LogicNode is prepared once here, so that operators with constant operands
+     * (e.g. regex patterns or value sets) do not rebuild them on every evaluation.
+     *
+     * @param graphDefinition      The list of nodes representing the graph. Must not be null or empty.
+     * @param fingerprintSnapshots Whether the snapshot stores a fingerprint of each provider value
+     *                             instead of the value (see {@link ConfigNode#setFingerprintSnapshots(boolean)}).
+     * @param compilationThreshold The number of successful evaluations after which the graph is compiled
+     *                             into steps with inlined operators, or {@code 0} to always interpret it.
+     * @throws GraphConstructionException if the graph definition is null, empty, or structurally invalid.
+     */
+    public StatefulLogicGraph(List<Node> graphDefinition, boolean fingerprintSnapshots, int compilationThreshold) {
         if (graphDefinition == null) {
             throw new GraphConstructionException(
                 GraphConstructionException.ErrorType.NULL_INPUT,
@@ -56,9 +99,18 @@ public class StatefulLogicGraph {
         this.graphDefinition = List.copyOf(graphDefinition);
         this.lastSnapshot = new HashMap<>(); // Start with an empty memory
         this.evaluator = new LogicGraphEvaluator();
+        this.batchEvaluator = new BatchGraphEvaluator();
+        this.evaluationState = new IncrementalEvaluationState(compilationThreshold);
 
         // Find and validate ConfigNode presence
         this.configNode = findConfigNode(graphDefinition);
+        this.configNode.setFingerprintSnapshots(fingerprintSnapshots);
+
+        for (Node node : this.graphDefinition) {
+            if (node instanceof LogicNode logicNode) {
+                logicNode.prepare();
+            }
+        }
         
         Log.debugf("Successfully initialized StatefulLogicGraph");
     }
@@ -67,14 +119,15 @@ public class StatefulLogicGraph {
      * Executes the graph logic with the new live data against its stored snapshot.
      * <p>
      * After execution, it updates its internal snapshot for the next run, enabling
-     * efficient change detection across multiple evaluations.
+     * efficient change detection across multiple evaluations. The replaced snapshot map
+     * is handed back to the ConfigNode, which refills it in a later evaluation.
      *
      * @param sourceData The current data context from the source system.
      * @return The boolean result of the graph evaluation.
      * @throws GraphEvaluationException if a runtime error occurs during graph processing.
      * @throws GraphConstructionException if sourceData is null.
      */
-    public boolean evaluate(Map<String, JsonNode> sourceData) throws GraphEvaluationException {
+    public synchronized boolean evaluate(Map<String, JsonNode> sourceData) throws GraphEvaluationException {
         if (sourceData == null) {
             throw new GraphConstructionException(
                 GraphConstructionException.ErrorType.NULL_INPUT,
@@ -90,10 +143,12 @@ public class StatefulLogicGraph {
         dataContext.put("__snapshot", this.lastSnapshot);
 
         // Evaluate the graph
-        boolean finalResult = evaluator.evaluateGraph(this.graphDefinition, dataContext);
+        boolean finalResult = evaluator.evaluateGraph(this.graphDefinition, dataContext, this.evaluationState);
 
-        // Update snapshot for next evaluation
+        // Update snapshot for next evaluation and let the ConfigNode reuse the replaced map
+        Map<String, SnapshotEntry> replacedSnapshot = this.lastSnapshot;
         this.lastSnapshot = this.configNode.getNewSnapshotData();
+        this.configNode.recycleSnapshot(replacedSnapshot);
 
         Log.tracef("Graph evaluation completed with result: %b. Snapshot updated with %d entries.",
             finalResult, lastSnapshot.size());
@@ -101,6 +156,42 @@ public class StatefulLogicGraph {
         return finalResult;
     }
 
+    /**
+     * Evaluates the graph for each record of a batch, e.g. each entity of an ARC response,
+     * with a columnar evaluation (see {@link BatchGraphEvaluator}).
+     * <p>
+     * Every record is compared against the current snapshot, which is left unchanged: the result for a
+     * record is what {@link #evaluate(Map)} would return for it now, but no record affects the change
+     * detection of later evaluations. The next {@link #evaluate(Map)} calculates every node again.
+     *
+     * @param records The source data of each record, each as passed to {@link #evaluate(Map)}.
+     * @return The boolean result of the graph for each record, in the order of the records.
+     * @throws GraphEvaluationException if the evaluation fails for any record.
+     * @throws GraphConstructionException if records is null.
+     */
+    public synchronized boolean[] evaluateBatch(List<Map<String, JsonNode>> records) throws GraphEvaluationException {
+        if (records == null) {
+            throw new GraphConstructionException(
+                GraphConstructionException.ErrorType.NULL_INPUT,
+                "Records cannot be null"
+            );
+        }
+
+        List<Map<String, Object>> dataContexts = new ArrayList<>(records.size());
+        for (Map<String, JsonNode> record : records) {
+            Map<String, Object> dataContext = new HashMap<>(record);
+            dataContext.put("__snapshot", this.lastSnapshot);
+            dataContexts.add(dataContext);
+        }
+
+        try {
+            return batchEvaluator.evaluateBatch(this.graphDefinition, dataContexts);
+        } finally {
+            // The batch overwrote the node results that incremental evaluation reuses.
+            evaluationState.invalidate();
+        }
+    }
+
     /**
      * Finds and validates the ConfigNode within the graph definition.
      * <p>
@@ -155,13 +246,32 @@ public class StatefulLogicGraph {
         return graphDefinition.size();
     }
 
+    /**
+     * Returns the number of nodes calculated in the latest evaluation.
+     * Useful for monitoring how much of the graph incremental evaluation could skip.
+     *
+     * @return The number of nodes calculated; the remaining nodes reused their previous result.
+     */
+    public synchronized int getLastCalculatedNodeCount() {
+        return evaluationState.getLastCalculatedCount();
+    }
+
+    /**
+     * Tells whether the graph has been compiled after reaching its compilation threshold.
+     *
+     * @return {@code true} if evaluations run through the compiled graph.
+     */
+    public synchronized boolean isCompiled() {
+        return evaluationState.isCompiled();
+    }
+
     /**
      * Returns the current snapshot size.
      * Useful for debugging and monitoring change detection state.
      *
      * @return The number of entries in the current snapshot.
      */
-    public int getSnapshotSize() {
+    public synchronized int getSnapshotSize() {
         return lastSnapshot.size();
     }
 
@@ -0,0 +1,356 @@
+package de.unistuttgart.graphengine.logic_engine;
+
+import de.unistuttgart.graphengine.exception.GraphEvaluationException;
+import de.unistuttgart.graphengine.logic_operator.LogicOperator;
+import de.unistuttgart.graphengine.logic_operator.string_predicates.AbstractTwoStringOperator;
+import de.unistuttgart.graphengine.nodes.ConstantNode;
+import de.unistuttgart.graphengine.nodes.FinalNode;
+import de.unistuttgart.graphengine.nodes.LogicNode;
+import de.unistuttgart.graphengine.nodes.Node;
+import de.unistuttgart.graphengine.service.GraphTopologicalSorter;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A stateless service that evaluates one logic graph for many records at once, e.g. to check
+ * every entity of an ARC response against a precondition.
+ * <p>
+ * Instead of evaluating the whole graph once per record, it evaluates the graph once per node over all
+ * records: every node produces a column holding its result for each record. ProviderNodes extract their
+ * path once per record into their column, constants fill their column once, and the common operators are
+ * applied column-wise:
+ * <ul>
+ *   <li>AND, OR, NOT, EQUALS, NOT_EQUALS, IS_NULL and IS_NOT_NULL over the input columns</li>
+ *   <li>The numeric comparisons over primitive {@code double} views of their input columns, converting
+ *       each provider value once and a constant operand only once for all records</li>
+ *   <li>The two-string comparisons, including REGEX_MATCH with its prepared pattern</li>
+ * </ul>
+ * Every other node, and every record for which an operator meets an input it does not handle (e.g. a
+ * non-boolean input of AND), is calculated through the node itself, with the record's values set on its
+ * input nodes. The results are therefore the same as those of
+ * {@link LogicGraphEvaluator#evaluateGraph(List, Map)} for each record on its own.
+ * <p>
+ * A batch evaluation overwrites the calculated results of the graph's nodes.
+ */
+@ApplicationScoped
+public class BatchGraphEvaluator {
+
+    /**
+     * Marks a record whose result an operator could not compute column-wise.
+     */
+    private static final Object UNHANDLED = new Object();
+
+    private final GraphTopologicalSorter sorter = new GraphTopologicalSorter();
+
+    /**
+     * The results of one node for all records of a batch.
+     */
+    private static final class Column {
+
+        private final Object[] values;
+        private final boolean constant;
+        private double[] numbers;
+        private boolean[] numeric;
+
+        private Column(Object[] values, boolean constant) {
+            this.values = values;
+            this.constant = constant;
+        }
+
+        /**
+         * Returns the numeric value of every record, valid where {@link #numericMask()} is set.
+         * Computed once per column and shared by all comparisons reading it.
+         */
+        double[] numbers() {
+            if (numbers == null) {
+                numbers = new double[values.length];
+                numeric = new boolean[values.length];
+                if (constant) {
+                    if (values[0] instanceof Number number) {
+                        Arrays.fill(numbers, number.doubleValue());
+                        Arrays.fill(numeric, true);
+                    }
+                    return numbers;
+                }
+                for (int row = 0; row < values.length; row++) {
+                    if (values[row] instanceof Number number) {
+                        numbers[row] = number.doubleValue();
+                        numeric[row] = true;
+                    }
+                }
+            }
+            return numbers;
+        }
+
+        boolean[] numericMask() {
+            numbers();
+            return numeric;
+        }
+    }
+
+    /**
+     * Evaluates a graph for every data context of a batch.
+     *
+     * @param allNodesInGraph A non-empty list containing all nodes that constitute the graph.
+     * @param dataContexts    One data context per record, each as passed to {@link LogicGraphEvaluator#evaluateGraph(List, Map)}.
+     * @return The final result of the graph for each record, in the order of the data contexts.
+     * @throws GraphEvaluationException if the list of nodes is null or empty, or if the evaluation
+     * fails for any record.
+     */
+    public boolean[] evaluateBatch(List<Node> allNodesInGraph, List<? extends Map<String, Object>> dataContexts)
+            throws GraphEvaluationException {
+        if (allNodesInGraph == null || allNodesInGraph.isEmpty()) {
+            throw new GraphEvaluationException(
+                    GraphEvaluationException.ErrorType.INVALID_INPUT,
+                    "Invalid Input",
+                    "The list of graph nodes to evaluate cannot be null or empty.",
+                    null);
+        }
+        int rows = dataContexts.size();
+        if (rows == 0) {
+            return new boolean[0];
+        }
+
+        List<Node> sortedNodes = sorter.sort(allNodesInGraph).sortedNodes();
+        Map<Node, Integer> positions = new IdentityHashMap<>(sortedNodes.size());
+        for (int i = 0; i < sortedNodes.size(); i++) {
+            positions.put(sortedNodes.get(i), i);
+        }
+
+        Column[] columns = new Column[sortedNodes.size()];
+        for (int i = 0; i < sortedNodes.size(); i++) {
+            Node node = sortedNodes.get(i);
+            Column[] inputs = inputColumns(node, positions, columns);
+            columns[i] = inputs == null
+                    ? calculatePerRecord(node, null, dataContexts)
+                    : calculate(node, inputs, dataContexts);
+        }
+
+        Column finalColumn = columns[columns.length - 1];
+        boolean[] results = new boolean[rows];
+        for (int row = 0; row < rows; row++) {
+            if (!(finalColumn.values[row] instanceof Boolean result)) {
+                throw recordFailed(row, new IllegalStateException(
+                        "The final node produced " + finalColumn.values[row] + " instead of a boolean."));
+            }
+            results[row] = result;
+        }
+        Log.debugf("Batch evaluation of %d records over %d nodes completed.", rows, sortedNodes.size());
+        return results;
+    }
+
+    /**
+     * Returns the columns of a node's inputs, or {@code null} if an input is not part of the graph.
+     */
+    private static Column[] inputColumns(Node node, Map<Node, Integer> positions, Column[] columns) {
+        List<Node> inputs = node.getInputNodes() == null ? List.of() : node.getInputNodes();
+        Column[] inputColumns = new Column[inputs.size()];
+        for (int j = 0; j < inputs.size(); j++) {
+            Integer position = positions.get(inputs.get(j));
+            if (position == null) {
+                return null;
+            }
+            inputColumns[j] = columns[position];
+        }
+        return inputColumns;
+    }
+
+    private Column calculate(Node node, Column[] inputs, List<? extends Map<String, Object>> dataContexts)
+            throws GraphEvaluationException {
+        int rows = dataContexts.size();
+        if (node instanceof ConstantNode constant) {
+            Object[] values = new Object[rows];
+            Arrays.fill(values, constant.getValue());
+            return new Column(values, true);
+        }
+        if (node instanceof FinalNode) {
+            if (inputs.length == 0) {
+                Object[] values = new Object[rows];
+                Arrays.fill(values, Boolean.TRUE);
+                return new Column(values, true);
+            }
+            return new Column(inputs[0].values, inputs[0].constant);
+        }
+        if (node instanceof LogicNode logicNode && logicNode.getOperator() != null) {
+            Object[] values = calculateColumnWise(logicNode, inputs, rows);
+            if (values != null) {
+                fallBackWhereUnhandled(logicNode, inputs, values, dataContexts);
+                return new Column(values, false);
+            }
+        }
+        return calculatePerRecord(node, inputs, dataContexts);
+    }
+
+    /**
+     * Applies an operator to whole input columns. Records the operator does not handle are marked
+     * with {@link #UNHANDLED}.
+     *
+     * @return The result column, or {@code null} if the operator is not applied column-wise.
+     */
+    private static Object[] calculateColumnWise(LogicNode node, Column[] inputs, int rows) {
+        LogicOperator operator = node.getOperator();
+        Object[] values = new Object[rows];
+        switch (operator) {
+            case AND, OR -> {
+                boolean shortCircuitValue = operator == LogicOperator.OR;
+                for (int row = 0; row < rows; row++) {
+                    Object result = !shortCircuitValue;
+                    for (Column input : inputs) {
+                        Object value = input.values[row];
+                        if (!(value instanceof Boolean bool)) {
+                            result = UNHANDLED;
+                            break;
+                        }
+                        if (bool == shortCircuitValue) {
+                            result = shortCircuitValue;
+                            break;
+                        }
+                    }
+                    values[row] = result;
+                }
+            }
+            case NOT -> {
+                if (inputs.length == 0) {
+                    return null;
+                }
+                Object[] input = inputs[0].values;
+                for (int row = 0; row < rows; row++) {
+                    values[row] = input[row] instanceof Boolean bool ? (Object) !bool : UNHANDLED;
+                }
+            }
+            case GREATER_THAN, LESS_THAN, GREATER_OR_EQUAL, LESS_OR_EQUAL -> {
+                if (inputs.length < 2) {
+                    return null;
+                }
+                compareNumbers(operator, inputs[0], inputs[1], values);
+            }
+            case EQUALS, NOT_EQUALS -> {
+                if (inputs.length == 0) {
+                    return null;
+                }
+                boolean negate = operator == LogicOperator.NOT_EQUALS;
+                for (int row = 0; row < rows; row++) {
+                    values[row] = allEqual(inputs, row) != negate;
+                }
+            }
+            case IS_NULL, IS_NOT_NULL -> {
+                boolean expectNull = operator == LogicOperator.IS_NULL;
+                for (int row = 0; row < rows; row++) {
+                    boolean result = true;
+                    for (Column input : inputs) {
+                        if ((input.values[row] == null) != expectNull) {
+                            result = false;
+                            break;
+                        }
+                    }
+                    values[row] = result;
+                }
+            }
+            default -> {
+                if (!(operator.getOperationStrategy() instanceof AbstractTwoStringOperator stringOperator)
+                        || inputs.length < 2) {
+                    return null;
+                }
+                Object[] first = inputs[0].values;
+                Object[] second = inputs[1].values;
+                for (int row = 0; row < rows; row++) {
+                    values[row] = stringOperator.test(node, first[row], second[row]);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Compares two numeric columns. Records where either value is not a number compare as {@code false}.
+     * A constant operand is converted once.
+     */
+    private static void compareNumbers(LogicOperator operator, Column left, Column right, Object[] values) {
+        double[] leftNumbers = left.numbers();
+        boolean[] leftNumeric = left.numericMask();
+        double[] rightNumbers = right.numbers();
+        boolean[] rightNumeric = right.numericMask();
+        for (int row = 0; row < values.length; row++) {
+            if (!leftNumeric[row] || !rightNumeric[row]) {
+                values[row] = Boolean.FALSE;
+                continue;
+            }
+            double a = leftNumbers[row];
+            double b = rightNumbers[row];
+            values[row] = switch (operator) {
+                case GREATER_THAN -> a > b;
+                case LESS_THAN -> a < b;
+                case GREATER_OR_EQUAL -> a >= b;
+                default -> a <= b;
+            };
+        }
+    }
+
+    private static boolean allEqual(Column[] inputs, int row) {
+        Object reference = inputs[0].values[row];
+        for (int j = 1; j < inputs.length; j++) {
+            if (!Objects.equals(reference, inputs[j].values[row])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates the records an operator did not handle column-wise through the node itself.
+     */
+    private void fallBackWhereUnhandled(LogicNode node, Column[] inputs, Object[] values,
+                                        List<? extends Map<String, Object>> dataContexts)
+            throws GraphEvaluationException {
+        for (int row = 0; row < values.length; row++) {
+            if (values[row] == UNHANDLED) {
+                values[row] = calculateRecord(node, inputs, dataContexts, row);
+            }
+        }
+    }
+
+    /**
+     * Calculates a node for every record through the node itself.
+     *
+     * @param inputs The columns of the node's inputs, or {@code null} to leave its inputs untouched.
+     */
+    private Column calculatePerRecord(Node node, Column[] inputs, List<? extends Map<String, Object>> dataContexts)
+            throws GraphEvaluationException {
+        Object[] values = new Object[dataContexts.size()];
+        for (int row = 0; row < values.length; row++) {
+            values[row] = calculateRecord(node, inputs, dataContexts, row);
+        }
+        return new Column(values, false);
+    }
+
+    private Object calculateRecord(Node node, Column[] inputs, List<? extends Map<String, Object>> dataContexts,
+                                   int row) throws GraphEvaluationException {
+        if (inputs != null) {
+            List<Node> inputNodes = node.getInputNodes();
+            for (int j = 0; j < inputs.length; j++) {
+                inputNodes.get(j).setCalculatedResult(inputs[j].values[row]);
+            }
+        }
+        try {
+            node.calculate(dataContexts.get(row));
+        } catch (Exception e) {
+            throw recordFailed(row, e);
+        }
+        return node.getCalculatedResult();
+    }
+
+    private static GraphEvaluationException recordFailed(int row, Exception cause) {
+        Log.errorf(cause, "An unexpected error occurred during batch evaluation of record %d.", row);
+        return new GraphEvaluationException(
+                GraphEvaluationException.ErrorType.EXECUTION_FAILED,
+                "Evaluation Failed",
+                "An unexpected error occurred during graph evaluation of record " + row + ".",
+                cause);
+    }
+}
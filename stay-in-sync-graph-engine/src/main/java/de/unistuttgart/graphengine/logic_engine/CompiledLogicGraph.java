@@ -0,0 +1,205 @@
+package de.unistuttgart.graphengine.logic_engine;
+
+import de.unistuttgart.graphengine.exception.GraphEvaluationException;
+import de.unistuttgart.graphengine.logic_operator.LogicOperator;
+import de.unistuttgart.graphengine.nodes.ConstantNode;
+import de.unistuttgart.graphengine.nodes.FinalNode;
+import de.unistuttgart.graphengine.nodes.LogicNode;
+import de.unistuttgart.graphengine.nodes.Node;
+import io.quarkus.logging.Log;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The compiled form of a graph that is evaluated often, created by an {@link IncrementalEvaluationState}
+ * once its compilation threshold is reached.
+ * <p>
+ * Every node in the evaluation order is translated into a step that reads the results of its inputs from
+ * an array, by their position in the evaluation order, instead of walking the input node list and
+ * dispatching through {@link de.unistuttgart.graphengine.logic_operator.Operation#execute(LogicNode, Map)}.
+ * Constants, the FinalNode and the common boolean, comparison, equality and null-check operators are
+ * inlined into their step. An inlined step that meets an input it does not handle (e.g. a non-boolean
+ * input of AND) calculates its node through the operator instead, which yields exactly the result or
+ * exception of the interpreter. All other nodes, such as ProviderNodes, the ConfigNode and the remaining
+ * operators, are calculated as before.
+ * <p>
+ * Every step also stores its result on its node, so the node results seen by non-inlined nodes (e.g. the
+ * ConfigNode reading its providers) and by callers are the same as after an interpreted evaluation.
+ * <p>
+ * The steps are built from lambdas rather than generated bytecode, which also works in a native image.
+ */
+final class CompiledLogicGraph {
+
+    /**
+     * The calculation of one node, reading the results of its inputs from the result array.
+     */
+    @FunctionalInterface
+    private interface Step {
+        Object compute(Object[] results, Map<String, Object> dataContext) throws GraphEvaluationException;
+    }
+
+    private final List<Node> sortedNodes;
+    private final Step[] steps;
+    private final Object[] results;
+
+    private CompiledLogicGraph(List<Node> sortedNodes, Step[] steps) {
+        this.sortedNodes = sortedNodes;
+        this.steps = steps;
+        // Nodes skipped by the next incremental evaluation keep their current result.
+        this.results = new Object[sortedNodes.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = sortedNodes.get(i).getCalculatedResult();
+        }
+    }
+
+    /**
+     * Compiles a graph.
+     *
+     * @param sortedNodes    The nodes in evaluation order.
+     * @param inputPositions The positions of the inputs of each node in the evaluation order,
+     *                       {@code -1} for an input outside the graph.
+     * @return The compiled graph, starting from the current results of the nodes.
+     */
+    static CompiledLogicGraph compile(List<Node> sortedNodes, int[][] inputPositions) {
+        Step[] steps = new Step[sortedNodes.size()];
+        int inlinedCount = 0;
+        for (int i = 0; i < steps.length; i++) {
+            Node node = sortedNodes.get(i);
+            Step inlined = inline(node, inputPositions[i]);
+            if (inlined != null) {
+                inlinedCount++;
+            }
+            steps[i] = inlined != null ? inlined : interpreted(node);
+        }
+        Log.debugf("Compiled graph with %d nodes, %d of them inlined.", steps.length, inlinedCount);
+        return new CompiledLogicGraph(sortedNodes, steps);
+    }
+
+    /**
+     * Calculates the node at the given position and stores its result.
+     *
+     * @param position    The position of the node in the evaluation order.
+     * @param dataContext The runtime data context.
+     * @throws GraphEvaluationException if the calculation of the node fails.
+     */
+    void calculate(int position, Map<String, Object> dataContext) throws GraphEvaluationException {
+        Object result = steps[position].compute(results, dataContext);
+        results[position] = result;
+        sortedNodes.get(position).setCalculatedResult(result);
+    }
+
+    private static Step interpreted(Node node) {
+        return (results, dataContext) -> {
+            node.calculate(dataContext);
+            return node.getCalculatedResult();
+        };
+    }
+
+    /**
+     * Translates a node into an inlined step, or returns {@code null} if it is calculated as before.
+     */
+    private static Step inline(Node node, int[] inputs) {
+        for (int input : inputs) {
+            if (input < 0) {
+                return null;
+            }
+        }
+        if (node instanceof ConstantNode constant) {
+            return (results, dataContext) -> constant.getValue();
+        }
+        if (node instanceof FinalNode) {
+            if (inputs.length == 0) {
+                return (results, dataContext) -> Boolean.TRUE;
+            }
+            int input = inputs[0];
+            return (results, dataContext) -> results[input];
+        }
+        if (node instanceof LogicNode logicNode && logicNode.getOperator() != null) {
+            return inline(logicNode.getOperator(), inputs, interpreted(node));
+        }
+        return null;
+    }
+
+    private static Step inline(LogicOperator operator, int[] inputs, Step fallback) {
+        return switch (operator) {
+            case AND -> (results, dataContext) -> {
+                for (int input : inputs) {
+                    if (!(results[input] instanceof Boolean value)) {
+                        return fallback.compute(results, dataContext);
+                    }
+                    if (!value) {
+                        return Boolean.FALSE;
+                    }
+                }
+                return Boolean.TRUE;
+            };
+            case OR -> (results, dataContext) -> {
+                for (int input : inputs) {
+                    if (!(results[input] instanceof Boolean value)) {
+                        return fallback.compute(results, dataContext);
+                    }
+                    if (value) {
+                        return Boolean.TRUE;
+                    }
+                }
+                return Boolean.FALSE;
+            };
+            case NOT -> inputs.length == 0 ? null : (results, dataContext) ->
+                    results[inputs[0]] instanceof Boolean value ? !value : fallback.compute(results, dataContext);
+            case GREATER_THAN, LESS_THAN, GREATER_OR_EQUAL, LESS_OR_EQUAL ->
+                    inputs.length < 2 ? null : numericComparison(operator, inputs[0], inputs[1]);
+            case EQUALS -> inputs.length == 0 ? null : (results, dataContext) -> allEqual(results, inputs);
+            case NOT_EQUALS -> inputs.length == 0 ? null : (results, dataContext) -> !allEqual(results, inputs);
+            case IS_NULL -> (results, dataContext) -> {
+                for (int input : inputs) {
+                    if (results[input] != null) {
+                        return Boolean.FALSE;
+                    }
+                }
+                return Boolean.TRUE;
+            };
+            case IS_NOT_NULL -> (results, dataContext) -> {
+                for (int input : inputs) {
+                    if (results[input] == null) {
+                        return Boolean.FALSE;
+                    }
+                }
+                return Boolean.TRUE;
+            };
+            default -> null;
+        };
+    }
+
+    /**
+     * Inlines the numeric comparisons, which are false unless both operands are numbers.
+     */
+    private static Step numericComparison(LogicOperator operator, int left, int right) {
+        return switch (operator) {
+            case GREATER_THAN -> (results, dataContext) ->
+                    results[left] instanceof Number a && results[right] instanceof Number b
+                            && a.doubleValue() > b.doubleValue();
+            case LESS_THAN -> (results, dataContext) ->
+                    results[left] instanceof Number a && results[right] instanceof Number b
+                            && a.doubleValue() < b.doubleValue();
+            case GREATER_OR_EQUAL -> (results, dataContext) ->
+                    results[left] instanceof Number a && results[right] instanceof Number b
+                            && a.doubleValue() >= b.doubleValue();
+            case LESS_OR_EQUAL -> (results, dataContext) ->
+                    results[left] instanceof Number a && results[right] instanceof Number b
+                            && a.doubleValue() <= b.doubleValue();
+            default -> throw new IllegalArgumentException("Not a numeric comparison: " + operator);
+        };
+    }
+
+    private static boolean allEqual(Object[] results, int[] inputs) {
+        Object reference = results[inputs[0]];
+        for (int i = 1; i < inputs.length; i++) {
+            if (!Objects.equals(reference, results[inputs[i]])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,163 @@
+package de.unistuttgart.graphengine.logic_engine;
+
+import de.unistuttgart.graphengine.nodes.Node;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The memory of an incremental evaluation of one graph, kept between evaluations by its owner
+ * (e.g. a {@link de.unistuttgart.graphengine.cache.StatefulLogicGraph}).
+ * <p>
+ * It holds the evaluation order, computed once, the positions of every node's inputs in that
+ * order, and which nodes changed their result in the latest evaluation. With it,
+ * {@link LogicGraphEvaluator#evaluateGraph(List, Map, IncrementalEvaluationState)} recalculates
+ * a node only if it must always be calculated (see {@link Node#dependsOnlyOnInputs()}) or if
+ * one of its inputs changed, and reuses the previous result of every other node.
+ * <p>
+ * With a compilation threshold, the graph is compiled (see {@link CompiledLogicGraph}) after that many
+ * successful evaluations, and later evaluations calculate its nodes through the compiled steps.
+ * <p>
+ * Instances are not thread-safe, like the nodes of the graph they describe.
+ */
+public class IncrementalEvaluationState {
+
+    private final int compilationThreshold;
+    private List<Node> graph;
+    private List<Node> sortedNodes;
+    private int[][] inputPositions;
+    private boolean[] alwaysCalculate;
+    private boolean[] changed;
+    private boolean primed;
+    private int lastCalculatedCount;
+    private int evaluationCount;
+    private CompiledLogicGraph compiledGraph;
+
+    /**
+     * Creates a state whose graph is never compiled.
+     */
+    public IncrementalEvaluationState() {
+        this(0);
+    }
+
+    /**
+     * Creates a state whose graph is compiled after the given number of successful evaluations.
+     *
+     * @param compilationThreshold The number of evaluations before the graph is compiled, or {@code 0}
+     *                             to never compile it.
+     */
+    public IncrementalEvaluationState(int compilationThreshold) {
+        this.compilationThreshold = Math.max(0, compilationThreshold);
+    }
+
+    /**
+     * Checks whether this state was initialized for the given node list.
+     */
+    boolean isInitializedFor(List<Node> allNodesInGraph) {
+        return graph == allNodesInGraph && sortedNodes != null;
+    }
+
+    /**
+     * Records the evaluation order of a graph and resolves the input positions of its nodes.
+     * The next evaluation calculates every node.
+     *
+     * @param allNodesInGraph The node list the state belongs to.
+     * @param sortedNodes     The nodes in topological order.
+     */
+    void initialize(List<Node> allNodesInGraph, List<Node> sortedNodes) {
+        this.graph = allNodesInGraph;
+        this.sortedNodes = List.copyOf(sortedNodes);
+
+        int size = this.sortedNodes.size();
+        Map<Node, Integer> positions = new IdentityHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            positions.put(this.sortedNodes.get(i), i);
+        }
+
+        this.inputPositions = new int[size][];
+        this.alwaysCalculate = new boolean[size];
+        this.changed = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Node node = this.sortedNodes.get(i);
+            List<Node> inputs = node.getInputNodes() == null ? List.of() : node.getInputNodes();
+            int[] nodeInputs = new int[inputs.size()];
+            boolean unresolvedInput = false;
+            for (int j = 0; j < inputs.size(); j++) {
+                Integer position = positions.get(inputs.get(j));
+                // An input outside the graph cannot be tracked, so the node is always calculated.
+                unresolvedInput |= position == null;
+                nodeInputs[j] = position == null ? -1 : position;
+            }
+            this.inputPositions[i] = nodeInputs;
+            this.alwaysCalculate[i] = unresolvedInput || !node.dependsOnlyOnInputs();
+        }
+        this.primed = false;
+        this.evaluationCount = 0;
+        this.compiledGraph = null;
+    }
+
+    /**
+     * Forces the next evaluation to calculate every node, e.g. after an evaluation failed halfway.
+     */
+    public void invalidate() {
+        this.primed = false;
+    }
+
+    /**
+     * Returns the number of nodes calculated in the latest evaluation; the others reused their previous result.
+     */
+    public int getLastCalculatedCount() {
+        return lastCalculatedCount;
+    }
+
+    /**
+     * Tells whether the graph has been compiled and is now evaluated through its compiled steps.
+     */
+    public boolean isCompiled() {
+        return compiledGraph != null;
+    }
+
+    /**
+     * Returns the compiled graph, or {@code null} while the graph is interpreted.
+     */
+    CompiledLogicGraph compiledGraph() {
+        return compiledGraph;
+    }
+
+    List<Node> sortedNodes() {
+        return sortedNodes;
+    }
+
+    boolean isPrimed() {
+        return primed;
+    }
+
+    /**
+     * Decides whether the node at the given position has to be calculated in the current evaluation.
+     * Inputs precede the node in the evaluation order, so their change flags are already up to date.
+     */
+    boolean needsCalculation(int position) {
+        if (!primed || alwaysCalculate[position]) {
+            return true;
+        }
+        for (int input : inputPositions[position]) {
+            if (changed[input]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void markChanged(int position, boolean hasChanged) {
+        changed[position] = hasChanged;
+    }
+
+    void completeEvaluation(int calculatedCount) {
+        this.lastCalculatedCount = calculatedCount;
+        this.primed = true;
+        if (compiledGraph == null && compilationThreshold > 0 && ++evaluationCount >= compilationThreshold) {
+            this.compiledGraph = CompiledLogicGraph.compile(sortedNodes, inputPositions);
+        }
+    }
+}
@@ -8,12 +8,17 @@ import jakarta.enterprise.context.ApplicationScoped;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * A stateless utility service to evaluate a logic graph composed of Node objects.
  * This evaluator is responsible for executing the nodes of a given graph in the
  * correct topological order and returning the final boolean result. It does not
  * manage state (like snapshots) itself, making it a reusable component.
+ * <p>
+ * Callers that evaluate the same graph repeatedly can keep an {@link IncrementalEvaluationState}
+ * and use {@link #evaluateGraph(List, Map, IncrementalEvaluationState)}, which only recalculates
+ * the nodes downstream of inputs whose values changed.
  */
 @ApplicationScoped
 public class LogicGraphEvaluator {
@@ -38,14 +43,7 @@ public class LogicGraphEvaluator {
      */
     public boolean evaluateGraph(List<Node> allNodesInGraph, Map<String, Object> dataContext) throws GraphEvaluationException {
 
-        if (allNodesInGraph == null || allNodesInGraph.isEmpty()) {
-            Log.warn("Attempted to evaluate a null or empty graph. Throwing GraphEvaluationException.");
-            throw new GraphEvaluationException(
-                    GraphEvaluationException.ErrorType.INVALID_INPUT,
-                    "Invalid Input",
-                    "The list of graph nodes to evaluate cannot be null or empty.",
-                    null);
-        }
+        requireNonEmpty(allNodesInGraph);
         Log.debugf("Starting evaluation of graph with %d nodes and data context keys: %s", allNodesInGraph.size(),
                 dataContext.keySet());
 
@@ -88,4 +86,92 @@ public class LogicGraphEvaluator {
                     e);
         }
     }
+
+    /**
+     * Evaluates a graph incrementally, reusing the results of the previous evaluation where possible.
+     * <p>
+     * Nodes whose result may change without their inputs changing, such as {@code ProviderNode}s and
+     * the {@code ConfigNode}, are calculated on every evaluation (see {@link Node#dependsOnlyOnInputs()}).
+     * Every other node is only recalculated if the result of one of its inputs differs from the previous
+     * evaluation; otherwise it keeps its previous result. A node whose recalculated result equals the
+     * previous one does not mark its dependents as changed. The result is therefore the same as that of
+     * {@link #evaluateGraph(List, Map)}, while the work is proportional to what changed.
+     * <p>
+     * The first evaluation with a state, and the first one after a failed evaluation, calculate every node.
+     * Once the state has compiled the graph, the nodes are calculated through its compiled steps, with the
+     * same results (see {@link CompiledLogicGraph}).
+     *
+     * @param allNodesInGraph A non-empty list containing all nodes that constitute the graph. The same list
+     *                        instance must be passed on every call with the same state.
+     * @param dataContext     A map containing runtime data, see {@link #evaluateGraph(List, Map)}.
+     * @param state           The state of the previous evaluations of this graph.
+     * @return The final {@code boolean} result of the graph evaluation.
+     * @throws GraphEvaluationException if the provided list of nodes is null or empty, or if any
+     * unexpected runtime error occurs during the evaluation process.
+     */
+    public boolean evaluateGraph(List<Node> allNodesInGraph, Map<String, Object> dataContext,
+                                 IncrementalEvaluationState state) throws GraphEvaluationException {
+
+        requireNonEmpty(allNodesInGraph);
+
+        try {
+            if (!state.isInitializedFor(allNodesInGraph)) {
+                state.initialize(allNodesInGraph, sorter.sort(allNodesInGraph).sortedNodes());
+            }
+            List<Node> sortedNodes = state.sortedNodes();
+            CompiledLogicGraph compiledGraph = state.compiledGraph();
+
+            boolean fullEvaluation = !state.isPrimed();
+            if (fullEvaluation) {
+                for (Node node : allNodesInGraph) {
+                    node.setCalculatedResult(null);
+                }
+            }
+
+            int calculatedCount = 0;
+            for (int i = 0; i < sortedNodes.size(); i++) {
+                if (!state.needsCalculation(i)) {
+                    state.markChanged(i, false);
+                    continue;
+                }
+                Node node = sortedNodes.get(i);
+                Object previousResult = node.getCalculatedResult();
+                if (compiledGraph != null) {
+                    compiledGraph.calculate(i, dataContext);
+                } else {
+                    node.calculate(dataContext);
+                }
+                state.markChanged(i, fullEvaluation || !Objects.equals(previousResult, node.getCalculatedResult()));
+                calculatedCount++;
+            }
+
+            Node finalTargetNode = sortedNodes.get(sortedNodes.size() - 1);
+            boolean finalResult = (boolean) finalTargetNode.getCalculatedResult();
+            state.completeEvaluation(calculatedCount);
+            Log.debugf("Incremental graph evaluation completed. Calculated %d of %d nodes. Final result: %b",
+                    calculatedCount, sortedNodes.size(), finalResult);
+            return finalResult;
+
+        } catch (Exception e) {
+            // Partially updated results cannot be trusted by the next evaluation.
+            state.invalidate();
+            Log.errorf(e, "An unexpected error occurred during graph evaluation.");
+            throw new GraphEvaluationException(
+                    GraphEvaluationException.ErrorType.EXECUTION_FAILED,
+                    "Evaluation Failed",
+                    "An unexpected error occurred during graph evaluation.",
+                    e);
+        }
+    }
+
+    private static void requireNonEmpty(List<Node> allNodesInGraph) throws GraphEvaluationException {
+        if (allNodesInGraph == null || allNodesInGraph.isEmpty()) {
+            Log.warn("Attempted to evaluate a null or empty graph. Throwing GraphEvaluationException.");
+            throw new GraphEvaluationException(
+                    GraphEvaluationException.ErrorType.INVALID_INPUT,
+                    "Invalid Input",
+                    "The list of graph nodes to evaluate cannot be null or empty.",
+                    null);
+        }
+    }
 }
\ No newline at end of file
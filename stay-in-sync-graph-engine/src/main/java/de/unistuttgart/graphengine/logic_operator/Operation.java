@@ -21,6 +21,34 @@ public interface Operation {
      */
     Object execute(LogicNode node, Map<String, Object> dataContext) throws GraphEvaluationException;
 
+    /**
+     * Derives per-node state from the node's constant operands once, when the graph is built,
+     * so that {@link #execute(LogicNode, Map)} does not repeat the work on every evaluation
+     * (e.g. compiling a regular expression or hashing a constant set).
+     * <p>
+     * The returned state is stored on the node and available via {@link LogicNode#getPreparedState()}.
+     * Operations must produce the same results with and without prepared state.
+     *
+     * @param node The LogicNode to prepare, with its inputs already connected.
+     * @return The prepared state, or {@code null} if the operation has nothing to prepare.
+     */
+    default Object prepare(LogicNode node) {
+        return null;
+    }
+
+    /**
+     * Tells the evaluator whether the result of this operation is fully determined by the
+     * calculated results of the node's inputs. Only then may an incremental evaluation reuse
+     * the previous result of a node whose inputs did not change.
+     * <p>
+     * Operations that read the data context directly or depend on the current time must return {@code false}.
+     *
+     * @return {@code true} if equal input results always produce an equal result.
+     */
+    default boolean dependsOnlyOnInputs() {
+        return true;
+    }
+
     /**
      * Validates the node to ensure it is correctly configured for this operation
      * (e.g., correct number and type of inputs).
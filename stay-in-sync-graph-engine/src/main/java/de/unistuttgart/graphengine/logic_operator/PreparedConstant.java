@@ -0,0 +1,46 @@
+package de.unistuttgart.graphengine.logic_operator;
+
+import de.unistuttgart.graphengine.nodes.ConstantNode;
+import de.unistuttgart.graphengine.nodes.Node;
+
+import java.util.function.Function;
+
+/**
+ * A structure derived once from the value of a constant operand, such as a compiled pattern or a hash set.
+ * <p>
+ * The derived structure remembers the constant value it was built from. An operator only uses it when the
+ * operand's calculated result is that very value, so a constant changed after preparation, or an operand that
+ * is evaluated without preparation, falls back to the regular per-evaluation path.
+ *
+ * @param constantValue The value of the constant operand at preparation time.
+ * @param derived       The structure derived from the value; may be {@code null} if the value could not be
+ *                      converted (e.g. an invalid regular expression).
+ * @param <T>           The type of the derived structure.
+ */
+public record PreparedConstant<T>(Object constantValue, T derived) {
+
+    /**
+     * Derives a structure from an input node if it is a {@link ConstantNode}.
+     *
+     * @param input  The input node of the operator.
+     * @param derive The function deriving the structure from the constant value.
+     * @return The prepared constant, or {@code null} if the input is not a constant.
+     */
+    public static <T> PreparedConstant<T> of(Node input, Function<Object, T> derive) {
+        if (!(input instanceof ConstantNode constantNode) || constantNode.getValue() == null) {
+            return null;
+        }
+        Object value = constantNode.getValue();
+        return new PreparedConstant<>(value, derive.apply(value));
+    }
+
+    /**
+     * Checks whether the derived structure was built from the given operand value.
+     *
+     * @param value The calculated result of the operand.
+     * @return {@code true} if the structure can be used in place of converting the value.
+     */
+    public boolean appliesTo(Object value) {
+        return value == constantValue;
+    }
+}
@@ -2,6 +2,7 @@ package de.unistuttgart.graphengine.logic_operator.array_predicates;
 
 import de.unistuttgart.graphengine.exception.OperatorValidationException;
 import de.unistuttgart.graphengine.logic_operator.Operation;
+import de.unistuttgart.graphengine.logic_operator.PreparedConstant;
 import de.unistuttgart.graphengine.nodes.LogicNode;
 import de.unistuttgart.graphengine.nodes.Node;
 
@@ -14,6 +15,20 @@ import java.util.*;
  */
 public abstract class AbstractSetComparisonOperator implements Operation {
 
+    /**
+     * The sets built from constant inputs when the graph was prepared. Either side may be {@code null}.
+     */
+    private record PreparedSets(PreparedConstant<Set<Object>> source, PreparedConstant<Set<Object>> reference) {
+
+        Set<Object> sourceFor(Object value) {
+            return source != null && source.appliesTo(value) ? source.derived() : null;
+        }
+
+        Set<Object> referenceFor(Object value) {
+            return reference != null && reference.appliesTo(value) ? reference.derived() : null;
+        }
+    }
+
     /**
      * Validates that the node is correctly configured for a set-based comparison.
      * <p>
@@ -32,6 +47,24 @@ public abstract class AbstractSetComparisonOperator implements Operation {
         }
     }
 
+    /**
+     * Builds hash sets once for the inputs that are provided by ConstantNodes,
+     * so that they are not converted again on every evaluation.
+     *
+     * @param node The LogicNode to prepare.
+     * @return The prepared sets, or {@code null} if neither input is a ConstantNode.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        List<Node> inputs = node.getInputNodes();
+        if (inputs == null || inputs.size() != 2) {
+            return null;
+        }
+        PreparedConstant<Set<Object>> source = PreparedConstant.of(inputs.get(0), AbstractSetComparisonOperator::toSet);
+        PreparedConstant<Set<Object>> reference = PreparedConstant.of(inputs.get(1), AbstractSetComparisonOperator::toSet);
+        return source == null && reference == null ? null : new PreparedSets(source, reference);
+    }
+
     /**
      * Executes the set-based comparison using the Template Method design pattern.
      * <p>
@@ -45,6 +78,9 @@ public abstract class AbstractSetComparisonOperator implements Operation {
      * <li>It then delegates the specific comparison logic to the
      * {@link #compareSets(Set, Collection)} method, which is implemented by the subclass.</li>
      * </ol>
+     * Sets prepared from constant inputs are used instead of converting those inputs again. If only
+     * the reference is constant, the comparison is delegated to
+     * {@link #compareWithReferenceSet(Collection, Set)}, which does not need to hash the source.
      *
      * @param node        The LogicNode currently being evaluated.
      * @param dataContext The runtime data context.
@@ -64,7 +100,20 @@ public abstract class AbstractSetComparisonOperator implements Operation {
             return false;
         }
 
+        PreparedSets prepared = node.getPreparedState() instanceof PreparedSets sets ? sets : null;
+        Set<?> preparedSource = prepared != null ? prepared.sourceFor(sourceProvider) : null;
+        Set<?> preparedReference = prepared != null ? prepared.referenceFor(referenceProvider) : null;
+
+        if (preparedSource != null) {
+            Collection<?> reference = preparedReference != null ? preparedReference : toCollection(referenceProvider);
+            return reference != null && compareSets(preparedSource, reference);
+        }
+
         Collection<?> sourceCollection = toCollection(sourceProvider);
+        if (preparedReference != null) {
+            return sourceCollection != null && compareWithReferenceSet(sourceCollection, preparedReference);
+        }
+
         Collection<?> referenceCollection = toCollection(referenceProvider);
 
         if (sourceCollection == null || referenceCollection == null) {
@@ -100,6 +149,28 @@ public abstract class AbstractSetComparisonOperator implements Operation {
         return null;
     }
 
+    /**
+     * Converts a constant input into a hash set, or returns {@code null} if it is not collection-like.
+     */
+    private static Set<Object> toSet(Object obj) {
+        Collection<?> collection = toCollection(obj);
+        return collection == null ? null : new HashSet<>(collection);
+    }
+
+    /**
+     * Performs the comparison against a reference that has already been converted to a Set.
+     * The default implementation converts the source to a Set and delegates to
+     * {@link #compareSets(Set, Collection)}; subclasses can override it to probe the
+     * reference set directly instead.
+     *
+     * @param sourceCollection The source collection.
+     * @param referenceSet     The reference collection as a Set.
+     * @return The boolean result of the comparison.
+     */
+    protected boolean compareWithReferenceSet(Collection<?> sourceCollection, Set<?> referenceSet) {
+        return compareSets(new HashSet<>(sourceCollection), referenceSet);
+    }
+
     /**
      * Performs the specific set-based comparison between the source and reference collections.
      * This method must be implemented by the concrete subclass.
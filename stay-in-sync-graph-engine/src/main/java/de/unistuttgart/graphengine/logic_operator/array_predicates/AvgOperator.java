@@ -5,8 +5,6 @@ import de.unistuttgart.graphengine.logic_operator.Operation;
 import de.unistuttgart.graphengine.nodes.LogicNode;
 import de.unistuttgart.graphengine.nodes.Node;
 
-import java.lang.reflect.Array;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -62,40 +60,7 @@ public class AvgOperator implements Operation {
      */
     @Override
     public Object execute(LogicNode node, Map<String, Object> dataContext) {
-        List<Node> inputs = node.getInputNodes();
-        double sum = 0.0;
-        int count = 0;
-
-        for (Node inputNode : inputs) {
-            Object result = inputNode.getCalculatedResult();
-
-            if (result == null) {
-                continue; // Skip null results
-            }
-
-            // Handle Collections (Lists, Sets, etc.)
-            if (result instanceof Collection) {
-                Collection<?> collection = (Collection<?>) result;
-                for (Object item : collection) {
-                    if (item instanceof Number) {
-                        sum += ((Number) item).doubleValue();
-                        count++;
-                    }
-                }
-            }
-            // Handle Arrays
-            else if (result.getClass().isArray()) {
-                int length = Array.getLength(result);
-                for (int i = 0; i < length; i++) {
-                    Object item = Array.get(result, i);
-                    if (item instanceof Number) {
-                        sum += ((Number) item).doubleValue();
-                        count++;
-                    }
-                }
-            }
-        }
-        return (count == 0) ? 0.0 : sum / count;
+        return NumericAccumulator.of(node.getInputNodes()).average();
     }
 
     @Override
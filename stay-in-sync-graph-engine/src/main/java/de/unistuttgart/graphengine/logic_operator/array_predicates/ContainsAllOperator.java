@@ -1,6 +1,7 @@
 package de.unistuttgart.graphengine.logic_operator.array_predicates;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 
 public class ContainsAllOperator extends AbstractSetComparisonOperator {
@@ -10,6 +11,21 @@ public class ContainsAllOperator extends AbstractSetComparisonOperator {
         return sourceSet.containsAll(referenceCollection);
     }
 
+    @Override
+    protected boolean compareWithReferenceSet(Collection<?> sourceCollection, Set<?> referenceSet) {
+        if (referenceSet.isEmpty()) {
+            return true;
+        }
+        // Count the distinct reference elements found, stopping as soon as all of them are.
+        Set<Object> found = new HashSet<>();
+        for (Object item : sourceCollection) {
+            if (referenceSet.contains(item) && found.add(item) && found.size() == referenceSet.size()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Class<?> getReturnType(){
         return Boolean.class;
@@ -20,6 +20,19 @@ public class ContainsAnyOperator extends AbstractSetComparisonOperator {
         return false;
     }
 
+    @Override
+    protected boolean compareWithReferenceSet(Collection<?> sourceCollection, Set<?> referenceSet) {
+        if (referenceSet.isEmpty()) {
+            return false;
+        }
+        for (Object item : sourceCollection) {
+            if (referenceSet.contains(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Class<?> getReturnType(){
         return Boolean.class;
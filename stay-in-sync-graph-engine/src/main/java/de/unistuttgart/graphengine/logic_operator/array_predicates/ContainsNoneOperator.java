@@ -19,6 +19,19 @@ public class ContainsNoneOperator extends AbstractSetComparisonOperator {
         return true;
     }
 
+    @Override
+    protected boolean compareWithReferenceSet(Collection<?> sourceCollection, Set<?> referenceSet) {
+        if (referenceSet.isEmpty()) {
+            return true;
+        }
+        for (Object item : sourceCollection) {
+            if (referenceSet.contains(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public Class<?> getReturnType(){
         return Boolean.class;
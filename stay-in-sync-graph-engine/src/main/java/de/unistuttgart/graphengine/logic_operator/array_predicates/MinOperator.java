@@ -5,8 +5,6 @@ import de.unistuttgart.graphengine.logic_operator.Operation;
 import de.unistuttgart.graphengine.nodes.LogicNode;
 import de.unistuttgart.graphengine.nodes.Node;
 
-import java.lang.reflect.Array;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -61,44 +59,7 @@ public class MinOperator implements Operation {
      */
     @Override
     public Object execute(LogicNode node, Map<String, Object> dataContext) {
-        List<Node> inputs = node.getInputNodes();
-        Double minValue = null;
-
-        // Process each input node
-        for (Node inputNode : inputs) {
-            Object result = inputNode.getCalculatedResult();
-
-            if (result == null) {
-                continue; // Skip null results
-            }
-
-            // Handle Collections (Lists, Sets, etc.)
-            if (result instanceof Collection) {
-                Collection<?> collection = (Collection<?>) result;
-                for (Object item : collection) {
-                    if (item instanceof Number) {
-                        double currentValue = ((Number) item).doubleValue();
-                        if (minValue == null || currentValue < minValue) {
-                            minValue = currentValue;
-                        }
-                    }
-                }
-            }
-            // Handle Arrays
-            else if (result.getClass().isArray()) {
-                int length = Array.getLength(result);
-                for (int i = 0; i < length; i++) {
-                    Object item = Array.get(result, i);
-                    if (item instanceof Number) {
-                        double currentValue = ((Number) item).doubleValue();
-                        if (minValue == null || currentValue < minValue) {
-                            minValue = currentValue;
-                        }
-                    }
-                }
-            }
-        }
-        return minValue != null ? minValue : 0.0;
+        return NumericAccumulator.of(node.getInputNodes()).min();
     }
 
     @Override
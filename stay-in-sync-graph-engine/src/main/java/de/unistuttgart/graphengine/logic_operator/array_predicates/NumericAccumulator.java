@@ -0,0 +1,122 @@
+package de.unistuttgart.graphengine.logic_operator.array_predicates;
+
+import de.unistuttgart.graphengine.nodes.Node;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Collects the sum, count, minimum and maximum of all numeric values in the array/collection
+ * results of a node's inputs, shared by the SUM, AVG, MIN and MAX operations.
+ * <p>
+ * All values are accumulated as primitive doubles. Primitive {@code double[]}, {@code long[]} and
+ * {@code int[]} arrays as well as object arrays are read directly instead of boxing every element
+ * through {@link Array#get(Object, int)}. The rules are the same for every container:
+ * <ul>
+ *     <li>Only numeric values (instances of {@link Number}) are considered</li>
+ *     <li>Null inputs, non-array/collection inputs and non-numeric items are ignored</li>
+ * </ul>
+ */
+final class NumericAccumulator {
+
+    private double sum;
+    private int count;
+    private double min;
+    private double max;
+
+    private NumericAccumulator() {
+    }
+
+    /**
+     * Accumulates the calculated results of all given input nodes.
+     *
+     * @param inputs The input nodes of the LogicNode being evaluated.
+     * @return The accumulator holding the aggregates of all numeric values found.
+     */
+    static NumericAccumulator of(List<Node> inputs) {
+        NumericAccumulator accumulator = new NumericAccumulator();
+        for (Node inputNode : inputs) {
+            accumulator.addAll(inputNode.getCalculatedResult());
+        }
+        return accumulator;
+    }
+
+    private void addAll(Object result) {
+        if (result == null) {
+            return;
+        }
+        if (result instanceof Collection<?> collection) {
+            for (Object item : collection) {
+                addItem(item);
+            }
+        } else if (result instanceof double[] values) {
+            for (double value : values) {
+                add(value);
+            }
+        } else if (result instanceof long[] values) {
+            for (long value : values) {
+                add(value);
+            }
+        } else if (result instanceof int[] values) {
+            for (int value : values) {
+                add(value);
+            }
+        } else if (result instanceof Object[] items) {
+            for (Object item : items) {
+                addItem(item);
+            }
+        } else if (result.getClass().isArray()) {
+            // Remaining primitive arrays (float[], short[], byte[], ...) are rare enough for reflection.
+            int length = Array.getLength(result);
+            for (int i = 0; i < length; i++) {
+                addItem(Array.get(result, i));
+            }
+        }
+    }
+
+    private void addItem(Object item) {
+        if (item instanceof Number number) {
+            add(number.doubleValue());
+        }
+    }
+
+    private void add(double value) {
+        if (count == 0 || value > max) {
+            max = value;
+        }
+        if (count == 0 || value < min) {
+            min = value;
+        }
+        sum += value;
+        count++;
+    }
+
+    /**
+     * Returns the sum of all numeric values, or 0.0 if none were found.
+     */
+    double sum() {
+        return sum;
+    }
+
+    /**
+     * Returns the arithmetic mean of all numeric values, or 0.0 if none were found.
+     */
+    double average() {
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    /**
+     * Returns the smallest numeric value, or 0.0 if none were found.
+     */
+    double min() {
+        return count == 0 ? 0.0 : min;
+    }
+
+    /**
+     * Returns the largest numeric value, or 0.0 if none were found.
+     */
+    double max() {
+        return count == 0 ? 0.0 : max;
+    }
+}
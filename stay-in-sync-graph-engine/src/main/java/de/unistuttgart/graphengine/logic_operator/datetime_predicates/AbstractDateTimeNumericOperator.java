@@ -29,6 +29,14 @@ public abstract class AbstractDateTimeNumericOperator implements Operation {
         }
     }
 
+    /**
+     * Parses constant date-time inputs once and remembers the detected format of the others.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        return DateTimeInputs.prepare(node);
+    }
+
     /**
      * Orchestrates the execution by retrieving the pre-calculated results of its inputs,
      * ensuring they are a valid date-time and a number, and then delegating the actual
@@ -46,7 +54,7 @@ public abstract class AbstractDateTimeNumericOperator implements Operation {
         Object numberProvider = inputs.get(1).getCalculatedResult();
 
         // The DateTimeParserUtil is used to robustly convert the provided values
-        ZonedDateTime dateTime = DateTimeParserUtil.toZonedDateTime(dateTimeProvider);
+        ZonedDateTime dateTime = DateTimeParserUtil.toZonedDateTime(node, 0, dateTimeProvider);
 
         if (dateTime == null || !(numberProvider instanceof Number)) {
             return false;
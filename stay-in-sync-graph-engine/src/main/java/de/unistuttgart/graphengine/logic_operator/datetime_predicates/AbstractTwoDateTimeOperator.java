@@ -30,6 +30,14 @@ public abstract class AbstractTwoDateTimeOperator implements Operation {
         }
     }
 
+    /**
+     * Parses constant date-time inputs once and remembers the detected format of the others.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        return DateTimeInputs.prepare(node);
+    }
+
     /**
      * Orchestrates the execution by retrieving the pre-calculated results of its inputs,
      * ensuring they can be parsed into ZonedDateTime objects, and then delegating the
@@ -47,8 +55,8 @@ public abstract class AbstractTwoDateTimeOperator implements Operation {
         Object dateTimeProvider2 = inputs.get(1).getCalculatedResult();
 
         // The DateTimeParserUtil is used to robustly convert the provided values
-        ZonedDateTime dt1 = DateTimeParserUtil.toZonedDateTime(dateTimeProvider1);
-        ZonedDateTime dt2 = DateTimeParserUtil.toZonedDateTime(dateTimeProvider2);
+        ZonedDateTime dt1 = DateTimeParserUtil.toZonedDateTime(node, 0, dateTimeProvider1);
+        ZonedDateTime dt2 = DateTimeParserUtil.toZonedDateTime(node, 1, dateTimeProvider2);
 
         if (dt1 == null || dt2 == null) {
             return false;
@@ -29,6 +29,14 @@ public class AgeGreaterThanOperator implements Operation {
         }
     }
 
+    /**
+     * Parses constant date-time inputs once and remembers the detected format of the others.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        return DateTimeInputs.prepare(node);
+    }
+
     /**
      * Checks if the duration between a past date-time and the current time is greater than a given threshold.
      *
@@ -45,28 +53,33 @@ public class AgeGreaterThanOperator implements Operation {
         Object unitProvider = inputs.get(2).getCalculatedResult();
 
         // Use the central utility to parse all provided values into ZonedDateTime objects.
-        ZonedDateTime pastTimestamp = DateTimeParserUtil.toZonedDateTime(pastTimestampProvider);
+        ZonedDateTime pastTimestamp = DateTimeParserUtil.toZonedDateTime(node, 0, pastTimestampProvider);
 
         if (pastTimestamp == null || !(thresholdProvider instanceof Number) || !(unitProvider instanceof String)) {
             return false;
         }
 
         long thresholdValue = ((Number) thresholdProvider).longValue();
-        String unitString = ((String) unitProvider).toUpperCase();
+        ChronoUnit unit = DateTimeParserUtil.toChronoUnit((String) unitProvider);
+        if (unit == null) {
+            // The string is not a valid ChronoUnit name.
+            return false;
+        }
 
-        try {
-            ChronoUnit unit = ChronoUnit.valueOf(unitString);
-            // Calculate "now" in the same timezone as the input for accuracy.
-            ZonedDateTime now = ZonedDateTime.now(pastTimestamp.getZone());
+        // Calculate "now" in the same timezone as the input for accuracy.
+        ZonedDateTime now = ZonedDateTime.now(pastTimestamp.getZone());
 
-            long age = unit.between(pastTimestamp, now);
+        long age = unit.between(pastTimestamp, now);
 
-            return age > thresholdValue;
+        return age > thresholdValue;
+    }
 
-        } catch (IllegalArgumentException e) {
-            // This happens if the unitString is not a valid ChronoUnit enum name.
-            return false;
-        }
+    /**
+     * The result depends on the current time.
+     */
+    @Override
+    public boolean dependsOnlyOnInputs() {
+        return false;
     }
 
     @Override
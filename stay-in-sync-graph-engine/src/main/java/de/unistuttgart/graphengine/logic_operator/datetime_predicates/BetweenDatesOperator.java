@@ -26,6 +26,14 @@ public class BetweenDatesOperator implements Operation {
         }
     }
 
+    /**
+     * Parses constant date-time inputs once and remembers the detected format of the others.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        return DateTimeInputs.prepare(node);
+    }
+
     /**
      * Executes the comparison to check if a date falls inclusively between a start and an end date.
      * @param node        The LogicNode being evaluated.
@@ -41,9 +49,9 @@ public class BetweenDatesOperator implements Operation {
         Object endDateProvider = inputs.get(2).getCalculatedResult();
 
         // Use the central utility to parse all provided values into ZonedDateTime objects.
-        ZonedDateTime dateToCheck = DateTimeParserUtil.toZonedDateTime(dateToCheckProvider);
-        ZonedDateTime startDate = DateTimeParserUtil.toZonedDateTime(startDateProvider);
-        ZonedDateTime endDate = DateTimeParserUtil.toZonedDateTime(endDateProvider);
+        ZonedDateTime dateToCheck = DateTimeParserUtil.toZonedDateTime(node, 0, dateToCheckProvider);
+        ZonedDateTime startDate = DateTimeParserUtil.toZonedDateTime(node, 1, startDateProvider);
+        ZonedDateTime endDate = DateTimeParserUtil.toZonedDateTime(node, 2, endDateProvider);
 
         if (dateToCheck == null || startDate == null || endDate == null) {
             return false;
@@ -0,0 +1,81 @@
+package de.unistuttgart.graphengine.logic_operator.datetime_predicates;
+
+import de.unistuttgart.graphengine.logic_operator.PreparedConstant;
+import de.unistuttgart.graphengine.nodes.LogicNode;
+import de.unistuttgart.graphengine.nodes.Node;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * The prepared state of a date-time operator node: the parsed values of its constant inputs and,
+ * for every other input, the string format detected when it first provided a date-time.
+ * <p>
+ * An input such as a ProviderNode delivers the same format on every evaluation, so remembering
+ * the format lets it be parsed directly instead of detecting it again. If a value no longer
+ * matches the remembered format, the format is detected anew.
+ */
+public final class DateTimeInputs {
+
+    private final PreparedConstant<ZonedDateTime>[] constants;
+    private final DateTimeParserUtil.Format[] formats;
+
+    @SuppressWarnings("unchecked")
+    private DateTimeInputs(int inputCount) {
+        this.constants = new PreparedConstant[inputCount];
+        this.formats = new DateTimeParserUtil.Format[inputCount];
+    }
+
+    /**
+     * Creates the prepared state for a date-time operator node, parsing its constant inputs once.
+     * Suitable as the result of {@link de.unistuttgart.graphengine.logic_operator.Operation#prepare(LogicNode)}.
+     *
+     * @param node The LogicNode to prepare.
+     * @return The prepared state, or {@code null} if the node has no inputs.
+     */
+    public static DateTimeInputs prepare(LogicNode node) {
+        List<Node> inputs = node.getInputNodes();
+        if (inputs == null || inputs.isEmpty()) {
+            return null;
+        }
+        DateTimeInputs prepared = new DateTimeInputs(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            prepared.constants[i] = PreparedConstant.of(inputs.get(i), DateTimeParserUtil::toZonedDateTime);
+        }
+        return prepared;
+    }
+
+    /**
+     * Converts the calculated result of an input into a ZonedDateTime.
+     *
+     * @param index The index of the input.
+     * @param value The calculated result of the input.
+     * @return A ZonedDateTime instance, or null if conversion is not possible.
+     */
+    ZonedDateTime toZonedDateTime(int index, Object value) {
+        if (index >= formats.length) {
+            return DateTimeParserUtil.toZonedDateTime(value);
+        }
+        PreparedConstant<ZonedDateTime> constant = constants[index];
+        if (constant != null && constant.appliesTo(value)) {
+            return constant.derived();
+        }
+        if (!(value instanceof String text)) {
+            return DateTimeParserUtil.fromTemporal(value);
+        }
+
+        DateTimeParserUtil.Format format = formats[index];
+        if (format != null) {
+            ZonedDateTime parsed = DateTimeParserUtil.parse(text, format);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        DateTimeParserUtil.Format detected = DateTimeParserUtil.detectFormat(text);
+        if (detected == null || detected == format) {
+            return null;
+        }
+        formats[index] = detected;
+        return DateTimeParserUtil.parse(text, detected);
+    }
+}
@@ -1,14 +1,45 @@
 package de.unistuttgart.graphengine.logic_operator.datetime_predicates;
 
+import de.unistuttgart.graphengine.nodes.LogicNode;
+
+import java.text.ParsePosition;
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeParseException;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAccessor;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 public class DateTimeParserUtil {
 
+    /**
+     * The string formats accepted for date-time values.
+     */
+    public enum Format {
+        /** Full ISO 8601 date-time with offset or zone, e.g. "2025-10-02T14:30:00Z". */
+        ZONED_DATE_TIME(DateTimeFormatter.ISO_ZONED_DATE_TIME),
+        /** ISO 8601 date only, e.g. "2025-10-02", interpreted as midnight UTC. */
+        LOCAL_DATE(DateTimeFormatter.ISO_LOCAL_DATE);
+
+        private final DateTimeFormatter formatter;
+
+        Format(DateTimeFormatter formatter) {
+            this.formatter = formatter;
+        }
+    }
+
+    private static final Map<String, ChronoUnit> CHRONO_UNITS = new HashMap<>();
+
+    static {
+        for (ChronoUnit unit : ChronoUnit.values()) {
+            CHRONO_UNITS.put(unit.name(), unit);
+        }
+    }
+
     /**
      * Converts an object into a ZonedDateTime, if possible.
      * Supports both full ISO 8601 format (e.g., "2025-10-02T14:30:00Z")
@@ -19,6 +50,80 @@ public class DateTimeParserUtil {
      * @return A ZonedDateTime instance, or null if conversion is not possible.
      */
     public static ZonedDateTime toZonedDateTime(Object obj) {
+        if (obj instanceof String str) {
+            Format format = detectFormat(str);
+            return format == null ? null : parse(str, format);
+        }
+        return fromTemporal(obj);
+    }
+
+    /**
+     * Converts the calculated result of an input of a date-time operator into a ZonedDateTime.
+     * <p>
+     * If the node was prepared (see {@link DateTimeInputs}), constant inputs are returned pre-parsed and
+     * strings are parsed with the format detected for that input before, without trying other formats.
+     *
+     * @param node  The LogicNode being evaluated.
+     * @param index The index of the input.
+     * @param value The calculated result of the input.
+     * @return A ZonedDateTime instance, or null if conversion is not possible.
+     */
+    public static ZonedDateTime toZonedDateTime(LogicNode node, int index, Object value) {
+        if (node.getPreparedState() instanceof DateTimeInputs inputs) {
+            return inputs.toZonedDateTime(index, value);
+        }
+        return toZonedDateTime(value);
+    }
+
+    /**
+     * Determines the format of a date-time string without throwing exceptions.
+     *
+     * @param text The string to inspect.
+     * @return The format the whole string conforms to, or {@code null} if it matches none.
+     */
+    public static Format detectFormat(String text) {
+        for (Format format : Format.values()) {
+            ParsePosition position = new ParsePosition(0);
+            if (format.formatter.parseUnresolved(text, position) != null
+                    && position.getErrorIndex() < 0 && position.getIndex() == text.length()) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a string in a known format.
+     *
+     * @param text   The string to parse.
+     * @param format The format of the string, usually from {@link #detectFormat(String)}.
+     * @return A ZonedDateTime instance, or null if the string does not match the format
+     * or contains out-of-range values (e.g. February 30th).
+     */
+    public static ZonedDateTime parse(String text, Format format) {
+        try {
+            return format == Format.LOCAL_DATE
+                    ? LocalDate.parse(text, format.formatter).atStartOfDay(ZoneOffset.UTC)
+                    : ZonedDateTime.parse(text, format.formatter);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Resolves the name of a {@link ChronoUnit}, ignoring case.
+     *
+     * @param unit The name of the unit, e.g. "days".
+     * @return The unit, or {@code null} if there is no unit with that name.
+     */
+    public static ChronoUnit toChronoUnit(String unit) {
+        return CHRONO_UNITS.get(unit.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Converts a non-string value into a ZonedDateTime, if possible.
+     */
+    static ZonedDateTime fromTemporal(Object obj) {
         if (obj == null) return null;
 
         // Handle LocalDate separately before general TemporalAccessor check
@@ -34,22 +139,6 @@ public class DateTimeParserUtil {
                 return null;
             }
         }
-
-        if (obj instanceof String) {
-            String str = (String) obj;
-            try {
-                // Try parsing as full ZonedDateTime first
-                return ZonedDateTime.parse(str);
-            } catch (DateTimeParseException e) {
-                try {
-                    // If only date is provided, convert to midnight UTC
-                    LocalDate date = LocalDate.parse(str);
-                    return date.atStartOfDay(ZoneOffset.UTC);
-                } catch (DateTimeParseException e2) {
-                    return null; // Invalid format
-                }
-            }
-        }
         return null;
     }
-}
\ No newline at end of file
+}
@@ -29,6 +29,14 @@ public class WithinLastOperator implements Operation {
         }
     }
 
+    /**
+     * Parses constant date-time inputs once and remembers the detected format of the others.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        return DateTimeInputs.prepare(node);
+    }
+
     /**
      * Checks if a given date-time is within a recent time window extending from now into the past.
      * For example, "within the last 7 days".
@@ -46,31 +54,36 @@ public class WithinLastOperator implements Operation {
         Object unitProvider = inputs.get(2).getCalculatedResult();
 
         // // Use the central utility to parse all provided values into ZonedDateTime objects.
-        ZonedDateTime timestampToCheck = DateTimeParserUtil.toZonedDateTime(timestampProvider);
+        ZonedDateTime timestampToCheck = DateTimeParserUtil.toZonedDateTime(node, 0, timestampProvider);
 
         if (timestampToCheck == null || !(valueProvider instanceof Number) || !(unitProvider instanceof String)) {
             return false;
         }
 
         long value = ((Number) valueProvider).longValue();
-        String unitString = ((String) unitProvider).toUpperCase();
+        ChronoUnit unit = DateTimeParserUtil.toChronoUnit((String) unitProvider);
+        if (unit == null) {
+            // The string is not a valid ChronoUnit name.
+            return false;
+        }
 
-        try {
-            ChronoUnit unit = ChronoUnit.valueOf(unitString);
-            // Calculate "now" in the same timezone as the input for accuracy.
-            ZonedDateTime now = ZonedDateTime.now(timestampToCheck.getZone());
-            ZonedDateTime windowStart = now.minus(value, unit);
+        // Calculate "now" in the same timezone as the input for accuracy.
+        ZonedDateTime now = ZonedDateTime.now(timestampToCheck.getZone());
+        ZonedDateTime windowStart = now.minus(value, unit);
 
-            // Check if timestamp is on or after the window start AND on or before now.
-            boolean isOnOrAfterWindowStart = !timestampToCheck.isBefore(windowStart);
-            boolean isOnOrBeforeNow = !timestampToCheck.isAfter(now);
+        // Check if timestamp is on or after the window start AND on or before now.
+        boolean isOnOrAfterWindowStart = !timestampToCheck.isBefore(windowStart);
+        boolean isOnOrBeforeNow = !timestampToCheck.isAfter(now);
 
-            return isOnOrAfterWindowStart && isOnOrBeforeNow;
+        return isOnOrAfterWindowStart && isOnOrBeforeNow;
+    }
 
-        } catch (IllegalArgumentException e) {
-            // This happens if the unitString is not a valid ChronoUnit enum name.
-            return false;
-        }
+    /**
+     * The result depends on the current time.
+     */
+    @Override
+    public boolean dependsOnlyOnInputs() {
+        return false;
     }
 
     @Override
@@ -29,6 +29,14 @@ public class WithinNextOperator implements Operation {
         }
     }
 
+    /**
+     * Parses constant date-time inputs once and remembers the detected format of the others.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        return DateTimeInputs.prepare(node);
+    }
+
     /**
      * Checks if a given date-time is within a future time window extending from now.
      * For example, "within the next 2 hours".
@@ -46,31 +54,36 @@ public class WithinNextOperator implements Operation {
         Object unitProvider = inputs.get(2).getCalculatedResult();
 
         // Use the utility to parse the first value into a ZonedDateTime.
-        ZonedDateTime timestampToCheck = DateTimeParserUtil.toZonedDateTime(timestampValue);
+        ZonedDateTime timestampToCheck = DateTimeParserUtil.toZonedDateTime(node, 0, timestampValue);
 
         if (timestampToCheck == null || !(valueProvider instanceof Number) || !(unitProvider instanceof String)) {
             return false;
         }
 
         long value = ((Number) valueProvider).longValue();
-        String unitString = ((String) unitProvider).toUpperCase();
+        ChronoUnit unit = DateTimeParserUtil.toChronoUnit((String) unitProvider);
+        if (unit == null) {
+            // The string is not a valid ChronoUnit name.
+            return false;
+        }
 
-        try {
-            ChronoUnit unit = ChronoUnit.valueOf(unitString);
-            // Calculate "now" in the same timezone as the input for accuracy.
-            ZonedDateTime now = ZonedDateTime.now(timestampToCheck.getZone());
-            ZonedDateTime windowEnd = now.plus(value, unit);
+        // Calculate "now" in the same timezone as the input for accuracy.
+        ZonedDateTime now = ZonedDateTime.now(timestampToCheck.getZone());
+        ZonedDateTime windowEnd = now.plus(value, unit);
 
-            // Check if timestamp is on or after now AND on or before the window end.
-            boolean isOnOrAfterNow = !timestampToCheck.isBefore(now);
-            boolean isOnOrBeforeWindowEnd = !timestampToCheck.isAfter(windowEnd);
+        // Check if timestamp is on or after now AND on or before the window end.
+        boolean isOnOrAfterNow = !timestampToCheck.isBefore(now);
+        boolean isOnOrBeforeWindowEnd = !timestampToCheck.isAfter(windowEnd);
 
-            return isOnOrAfterNow && isOnOrBeforeWindowEnd;
+        return isOnOrAfterNow && isOnOrBeforeWindowEnd;
+    }
 
-        } catch (IllegalArgumentException e) {
-            // This happens if the unitString is not a valid ChronoUnit enum name.
-            return false;
-        }
+    /**
+     * The result depends on the current time.
+     */
+    @Override
+    public boolean dependsOnlyOnInputs() {
+        return false;
     }
 
     @Override
@@ -44,15 +44,11 @@ public class ExistsOperator implements Operation {
 
         for (Node inputNode : node.getInputNodes()) {
             ProviderNode provider = (ProviderNode) inputNode;
-            String fullPath = provider.getJsonPath();
-
-            String[] parts = fullPath.split("\\.", 2);
-            if (parts.length == 0) {
+            String sourceKey = provider.getSourceKey();
+            if (sourceKey == null) {
                 return false;
             }
 
-            String sourceKey = parts[0];
-
             Object sourceDataAsObject = dataContext.get(sourceKey);
             if (sourceDataAsObject == null) {
                 return false;
@@ -63,14 +59,23 @@ public class ExistsOperator implements Operation {
                 return false;
             }
             JsonNode sourceObject = (JsonNode) sourceDataAsObject;
-            String internalJsonPath = (parts.length > 1) ? parts[1] : "";
 
-            if (!valueExtractor.pathExists(sourceObject, internalJsonPath)) {
+            if (!valueExtractor.pathExists(sourceObject, provider.getCompiledPath())) {
                 return false;
             }
         }
         return true;
     }
+
+    /**
+     * Reads the data context directly, since a missing path and an explicit null
+     * both yield a {@code null} input result.
+     */
+    @Override
+    public boolean dependsOnlyOnInputs() {
+        return false;
+    }
+
     @Override
     public Class<?> getReturnType() {
         return Boolean.class;
@@ -2,6 +2,7 @@ package de.unistuttgart.graphengine.logic_operator.general_predicates;
 
 import de.unistuttgart.graphengine.exception.OperatorValidationException;
 import de.unistuttgart.graphengine.logic_operator.Operation;
+import de.unistuttgart.graphengine.logic_operator.PreparedConstant;
 import de.unistuttgart.graphengine.nodes.ConstantNode;
 import de.unistuttgart.graphengine.nodes.LogicNode;
 import de.unistuttgart.graphengine.nodes.Node;
@@ -50,6 +51,22 @@ public class InSetOperator implements Operation {
         }
     }
 
+    /**
+     * Builds the set of allowed values once from the ConstantNode, so that
+     * {@link #execute(LogicNode, Map)} does not rebuild it on every evaluation.
+     *
+     * @param node The LogicNode to prepare.
+     * @return The prepared set, or {@code null} if the second input is not a ConstantNode.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        List<Node> inputs = node.getInputNodes();
+        if (inputs == null || inputs.size() != 2) {
+            return null;
+        }
+        return PreparedConstant.of(inputs.get(1), InSetOperator::toSet);
+    }
+
     /**
      * Executes the set-membership check.
      *
@@ -68,6 +85,12 @@ public class InSetOperator implements Operation {
         // 2. Retrieve the object with the allowed values
         Object allowedValuesObject = inputs.get(1).getCalculatedResult();
 
+        // The set built from the ConstantNode when the graph was prepared, if available.
+        if (node.getPreparedState() instanceof PreparedConstant<?> prepared && prepared.appliesTo(allowedValuesObject)
+                && prepared.derived() instanceof Set<?> allowedSet) {
+            return allowedSet.contains(valueToCheck);
+        }
+
         // 3. Convert the object into a collection, whether it's an array or a list.
         Collection<?> allowedValues;
         if (allowedValuesObject instanceof Collection) {
@@ -86,4 +109,17 @@ public class InSetOperator implements Operation {
     public Class<?> getReturnType(){
         return Boolean.class;
     }
+
+    /**
+     * Builds the lookup set for a constant array or collection of allowed values.
+     */
+    private static Set<Object> toSet(Object values) {
+        if (values instanceof Collection<?> collection) {
+            return new HashSet<>(collection);
+        }
+        if (values instanceof Object[] array) {
+            return new HashSet<>(Arrays.asList(array));
+        }
+        return null;
+    }
 }
\ No newline at end of file
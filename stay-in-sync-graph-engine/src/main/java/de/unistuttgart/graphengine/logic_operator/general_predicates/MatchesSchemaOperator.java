@@ -6,11 +6,10 @@ import com.networknt.schema.ValidationMessage;
 import de.unistuttgart.graphengine.exception.GraphEvaluationException;
 import de.unistuttgart.graphengine.exception.OperatorValidationException;
 import de.unistuttgart.graphengine.logic_operator.Operation;
+import de.unistuttgart.graphengine.logic_operator.PreparedConstant;
 import de.unistuttgart.graphengine.nodes.LogicNode;
-
 import de.unistuttgart.graphengine.service.SchemaCache;
 import io.quarkus.logging.Log;
-import jakarta.inject.Inject;
 
 import java.util.Map;
 import java.util.Set;
@@ -25,8 +24,9 @@ import java.util.Set;
  * </ul>
  * <p>
  * The operation returns {@code true} if the JSON document conforms to the provided
- * schema, and {@code false} otherwise. Schema compilation is optimized through caching
- * to avoid repeated parsing of identical schema strings.
+ * schema, and {@code false} otherwise. A schema provided by a ConstantNode is compiled
+ * when the graph is built and referenced by the node; other schemas are compiled through
+ * a bounded {@link SchemaCache} to avoid repeated parsing of identical schema strings.
  * <p>
  * This implementation uses the JSON Schema Draft 7 specification for validation.
  *
@@ -39,8 +39,49 @@ public class MatchesSchemaOperator implements Operation {
      * Cache service for compiled JSON schemas to improve performance by avoiding
      * repeated compilation of identical schema strings.
      */
-    @Inject
-    SchemaCache schemaCache;
+    private final SchemaCache schemaCache;
+
+    /**
+     * Creates the operation with the cache shared by all MATCHES_SCHEMA operations.
+     */
+    public MatchesSchemaOperator() {
+        this(SchemaCache.shared());
+    }
+
+    /**
+     * Creates the operation with the given schema cache.
+     *
+     * @param schemaCache The cache compiling and holding the schemas.
+     */
+    public MatchesSchemaOperator(SchemaCache schemaCache) {
+        this.schemaCache = schemaCache;
+    }
+
+    /**
+     * Compiles the schema once if it is provided by a ConstantNode, so that the first evaluation
+     * does not pay for the compilation. An invalid constant schema is prepared as {@code null}
+     * and reported on every evaluation, as without preparation.
+     *
+     * @param node The LogicNode to prepare.
+     * @return The prepared schema, or {@code null} if the schema is not a constant string.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        if (node.getInputNodes() == null || node.getInputNodes().size() != 2) {
+            return null;
+        }
+        return PreparedConstant.of(node.getInputNodes().get(1),
+                value -> value instanceof String schemaString ? compileOrNull(node, schemaString) : null);
+    }
+
+    private JsonSchema compileOrNull(LogicNode node, String schemaString) {
+        try {
+            return schemaCache.getCompiledSchema(schemaString);
+        } catch (Exception e) {
+            Log.warnf("Node '%s': Constant JSON schema cannot be compiled: %s", node.getName(), e.getMessage());
+            return null;
+        }
+    }
 
     /**
      * Validates that the LogicNode is correctly configured for the MATCHES_SCHEMA operation.
@@ -117,8 +158,11 @@ public class MatchesSchemaOperator implements Operation {
         String schemaString = (String) schemaInput;
 
         try {
-            // Use cached compilation for performance optimization
-            JsonSchema compiledSchema = schemaCache.getCompiledSchema(schemaString);
+            // Use the schema compiled at preparation, or the cached compilation otherwise
+            JsonSchema compiledSchema = node.getPreparedState() instanceof PreparedConstant<?> prepared
+                    && prepared.appliesTo(schemaString) && prepared.derived() instanceof JsonSchema schema
+                    ? schema
+                    : schemaCache.getCompiledSchema(schemaString);
 
             // Perform the actual validation
             Set<ValidationMessage> validationErrors = compiledSchema.validate(jsonData);
@@ -63,12 +63,9 @@ public class NotExistsOperator implements Operation {
         for (Node input : node.getInputNodes()) {
             if (input instanceof ProviderNode) {
                 ProviderNode pNode = (ProviderNode) input;
-                String fullPath = pNode.getJsonPath();
+                String sourceKey = pNode.getSourceKey();
+                if (sourceKey == null) continue;
 
-                String[] parts = fullPath.split("\\.", 2);
-                if (parts.length == 0) continue;
-
-                String sourceKey = parts[0];
                 Object sourceDataAsObject = dataContext.get(sourceKey);
 
                 // If the source key itself doesn't exist, the path doesn't exist. Continue.
@@ -82,9 +79,7 @@ public class NotExistsOperator implements Operation {
                 }
                 JsonNode sourceObject = (JsonNode) sourceDataAsObject;
 
-                String internalJsonPath = (parts.length > 1) ? parts[1] : "";
-
-                if (valueExtractor.pathExists(sourceObject, internalJsonPath)) {
+                if (valueExtractor.pathExists(sourceObject, pNode.getCompiledPath())) {
                     return false;
                 }
             }
@@ -93,6 +88,15 @@ public class NotExistsOperator implements Operation {
         return true;
     }
 
+    /**
+     * Reads the data context directly, since a missing path and an explicit null
+     * both yield a {@code null} input result.
+     */
+    @Override
+    public boolean dependsOnlyOnInputs() {
+        return false;
+    }
+
     @Override
     public Class<?> getReturnType(){
         return Boolean.class;
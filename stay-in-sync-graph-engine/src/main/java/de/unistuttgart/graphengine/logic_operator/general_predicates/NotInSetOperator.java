@@ -2,6 +2,7 @@ package de.unistuttgart.graphengine.logic_operator.general_predicates;
 
 import de.unistuttgart.graphengine.exception.OperatorValidationException;
 import de.unistuttgart.graphengine.logic_operator.Operation;
+import de.unistuttgart.graphengine.logic_operator.PreparedConstant;
 import de.unistuttgart.graphengine.nodes.ConstantNode;
 import de.unistuttgart.graphengine.nodes.LogicNode;
 import de.unistuttgart.graphengine.nodes.Node;
@@ -50,6 +51,22 @@ public class NotInSetOperator implements Operation {
         }
     }
 
+    /**
+     * Builds the set of disallowed values once from the ConstantNode, so that
+     * {@link #execute(LogicNode, Map)} does not rebuild it on every evaluation.
+     *
+     * @param node The LogicNode to prepare.
+     * @return The prepared set, or {@code null} if the second input is not a ConstantNode.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        List<Node> inputs = node.getInputNodes();
+        if (inputs == null || inputs.size() != 2) {
+            return null;
+        }
+        return PreparedConstant.of(inputs.get(1), NotInSetOperator::toSet);
+    }
+
     /**
      * Executes the set-exclusion check on the pre-calculated values of its inputs.
      *
@@ -65,6 +82,12 @@ public class NotInSetOperator implements Operation {
         Object valueToCheck = inputs.get(0).getCalculatedResult();
         Object disallowedValuesObject = inputs.get(1).getCalculatedResult();
 
+        // The set built from the ConstantNode when the graph was prepared, if available.
+        if (node.getPreparedState() instanceof PreparedConstant<?> prepared && prepared.appliesTo(disallowedValuesObject)
+                && prepared.derived() instanceof Set<?> disallowedSet) {
+            return !disallowedSet.contains(valueToCheck);
+        }
+
         Collection<?> disallowedValues;
         if (disallowedValuesObject instanceof Collection) {
             disallowedValues = (Collection<?>) disallowedValuesObject;
@@ -80,4 +103,17 @@ public class NotInSetOperator implements Operation {
     public Class<?> getReturnType(){
         return Boolean.class;
     }
+
+    /**
+     * Builds the lookup set for a constant array or collection of disallowed values.
+     */
+    private static Set<Object> toSet(Object values) {
+        if (values instanceof Collection<?> collection) {
+            return new HashSet<>(collection);
+        }
+        if (values instanceof Object[] array) {
+            return new HashSet<>(Arrays.asList(array));
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -42,17 +42,41 @@ public abstract class AbstractTwoStringOperator implements Operation {
     @Override
     public Object execute(LogicNode node, Map<String, Object> dataContext) {
         List<Node> inputs = node.getInputNodes();
+        return test(node, inputs.get(0).getCalculatedResult(), inputs.get(1).getCalculatedResult());
+    }
 
-        Object value1 = inputs.get(0).getCalculatedResult();
-        Object value2 = inputs.get(1).getCalculatedResult();
-
+    /**
+     * Applies the comparison to two input values, as {@link #execute(LogicNode, Map)} does to the
+     * results of the node's inputs. Used by evaluations that keep input values outside the nodes,
+     * e.g. in the columns of a batch evaluation.
+     *
+     * @param node   The LogicNode being evaluated.
+     * @param value1 The value of the first input.
+     * @param value2 The value of the second input.
+     * @return The result of the comparison, {@code false} if any value is null or not a string.
+     */
+    public boolean test(LogicNode node, Object value1, Object value2) {
         // The comparison is only possible if both provided values are strings.
         if (!(value1 instanceof String) || !(value2 instanceof String)) {
             return false;
         }
 
         // Delegate the actual comparison to the subclass.
-        return compareStrings((String) value1, (String) value2);
+        return compareStrings(node, (String) value1, (String) value2);
+    }
+
+    /**
+     * Performs the comparison for a specific node. Subclasses that keep prepared state
+     * (see {@link Operation#prepare(LogicNode)}) override this to use it; by default
+     * it delegates to {@link #compareStrings(String, String)}.
+     *
+     * @param node The LogicNode being evaluated.
+     * @param str1 The first string input.
+     * @param str2 The second string input.
+     * @return The boolean result of the comparison.
+     */
+    protected boolean compareStrings(LogicNode node, String str1, String str2) {
+        return compareStrings(str1, str2);
     }
 
     /**
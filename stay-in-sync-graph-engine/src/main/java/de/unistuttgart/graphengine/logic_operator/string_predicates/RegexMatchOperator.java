@@ -1,9 +1,37 @@
 package de.unistuttgart.graphengine.logic_operator.string_predicates;
 
+import de.unistuttgart.graphengine.logic_operator.PreparedConstant;
+import de.unistuttgart.graphengine.nodes.LogicNode;
+
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 public class RegexMatchOperator extends AbstractTwoStringOperator {
 
+    /**
+     * Compiles the pattern once if it is provided by a ConstantNode.
+     * An invalid constant pattern is prepared as {@code null}, so it is not recompiled on every evaluation.
+     *
+     * @param node The LogicNode to prepare.
+     * @return The prepared pattern, or {@code null} if the pattern is not a constant string.
+     */
+    @Override
+    public Object prepare(LogicNode node) {
+        if (node.getInputNodes() == null || node.getInputNodes().size() != 2) {
+            return null;
+        }
+        return PreparedConstant.of(node.getInputNodes().get(1), value -> value instanceof String regex ? compile(regex) : null);
+    }
+
+    @Override
+    protected boolean compareStrings(LogicNode node, String str1, String str2) {
+        if (node.getPreparedState() instanceof PreparedConstant<?> prepared && prepared.appliesTo(str2)) {
+            // A null pattern marks an invalid regex, which cannot match.
+            return prepared.derived() instanceof Pattern pattern && pattern.matcher(str1).matches();
+        }
+        return compareStrings(str1, str2);
+    }
+
     /**
      * Checks if the first string matches the regular expression pattern provided by the second string.
      * @param str1 The string to be tested.
@@ -20,8 +48,16 @@ public class RegexMatchOperator extends AbstractTwoStringOperator {
         }
     }
 
+    private static Pattern compile(String regex) {
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
     @Override
     public Class<?> getReturnType(){
         return Boolean.class;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package de.unistuttgart.graphengine.nodes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, pre-parsed form of a dot-separated path such as {@code "sensors[0].temperature"}.
+ * <p>
+ * The path is split into segments once, with array indices already parsed to integers, so that
+ * navigating it on every evaluation does no string processing. A compiled path can be shared
+ * between threads and reused for any number of reads.
+ * <p>
+ * Path conventions are the same as in {@link JsonPathValueExtractor}:
+ * <ul>
+ *     <li>{@code "/"}, {@code "$"}, or an empty string refer to the root itself.</li>
+ *     <li>A segment of the form {@code "name[i]"} or {@code "[i]"} selects element {@code i}
+ *     of an array. A segment with a malformed index never resolves.</li>
+ * </ul>
+ */
+public final class CompiledJsonPath {
+
+    /**
+     * Returned by {@link #read(Object)} when the path cannot be followed.
+     */
+    public static final Object MISSING = new Object() {
+        @Override
+        public String toString() {
+            return "MISSING";
+        }
+    };
+
+    private static final int NO_INDEX = -1;
+    private static final int INVALID_INDEX = -2;
+
+    /**
+     * One step of the path.
+     *
+     * @param field The field to select, or {@code null} if the segment only selects an array element.
+     * @param index The array element to select, {@link #NO_INDEX}, or {@link #INVALID_INDEX}.
+     */
+    private record Segment(String field, int index) {
+    }
+
+    private final String path;
+    private final Segment[] segments;
+
+    private CompiledJsonPath(String path, Segment[] segments) {
+        this.path = path;
+        this.segments = segments;
+    }
+
+    /**
+     * Parses a path into its segments.
+     *
+     * @param path The dot-separated path. Must not be null.
+     * @return The compiled path.
+     */
+    public static CompiledJsonPath compile(String path) {
+        String trimmedPath = path.trim();
+        if (trimmedPath.equals("/") || trimmedPath.equals("$") || trimmedPath.isEmpty()) {
+            return new CompiledJsonPath(trimmedPath, new Segment[0]);
+        }
+
+        String[] parts = trimmedPath.split("\\.");
+        Segment[] segments = new Segment[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            segments[i] = parseSegment(parts[i]);
+        }
+        return new CompiledJsonPath(trimmedPath, segments);
+    }
+
+    private static Segment parseSegment(String segment) {
+        int bracketIndex = segment.indexOf('[');
+        if (bracketIndex == -1 || segment.charAt(segment.length() - 1) != ']') {
+            return new Segment(segment, NO_INDEX);
+        }
+
+        String fieldName = bracketIndex > 0 ? segment.substring(0, bracketIndex) : null;
+        int arrayIndex;
+        try {
+            arrayIndex = Integer.parseInt(segment.substring(bracketIndex + 1, segment.length() - 1));
+        } catch (NumberFormatException e) {
+            arrayIndex = INVALID_INDEX;
+        }
+        return new Segment(fieldName, arrayIndex < 0 ? INVALID_INDEX : arrayIndex);
+    }
+
+    /**
+     * @return {@code true} if this path refers to the root itself.
+     */
+    public boolean isRoot() {
+        return segments.length == 0;
+    }
+
+    /**
+     * Navigates the path within a Jackson tree.
+     *
+     * @param rootNode The node to start from.
+     * @return The target node, or a {@link MissingNode} if the path does not exist.
+     */
+    public JsonNode resolve(JsonNode rootNode) {
+        JsonNode currentNode = rootNode;
+        for (Segment segment : segments) {
+            if (segment.field() != null) {
+                currentNode = currentNode.path(segment.field());
+            }
+            if (segment.index() == NO_INDEX) {
+                continue;
+            }
+            if (segment.index() == INVALID_INDEX || !currentNode.isArray() || segment.index() >= currentNode.size()) {
+                return MissingNode.getInstance();
+            }
+            currentNode = currentNode.get(segment.index());
+        }
+        return currentNode;
+    }
+
+    /**
+     * Navigates the path within a structure of {@link Map}s, {@link List}s and Jackson nodes,
+     * which may be mixed, without copying any of them.
+     *
+     * @param root The value to start from.
+     * @return The value at the path, which may be {@code null} or a {@link JsonNode},
+     * or {@link #MISSING} if the path does not exist.
+     */
+    public Object read(Object root) {
+        Object current = root;
+        for (Segment segment : segments) {
+            if (segment.field() != null) {
+                current = field(current, segment.field());
+                if (current == MISSING) {
+                    return MISSING;
+                }
+            }
+            if (segment.index() != NO_INDEX) {
+                current = segment.index() == INVALID_INDEX ? MISSING : element(current, segment.index());
+                if (current == MISSING) {
+                    return MISSING;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static Object field(Object container, String name) {
+        if (container instanceof JsonNode jsonNode) {
+            JsonNode value = jsonNode.path(name);
+            return value.isMissingNode() ? MISSING : value;
+        }
+        if (container instanceof Map<?, ?> map) {
+            Object value = map.get(name);
+            return value != null || map.containsKey(name) ? value : MISSING;
+        }
+        return MISSING;
+    }
+
+    private static Object element(Object container, int index) {
+        if (container instanceof JsonNode jsonNode) {
+            return jsonNode.isArray() && index < jsonNode.size() ? jsonNode.get(index) : MISSING;
+        }
+        if (container instanceof List<?> list) {
+            return index < list.size() ? list.get(index) : MISSING;
+        }
+        return MISSING;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
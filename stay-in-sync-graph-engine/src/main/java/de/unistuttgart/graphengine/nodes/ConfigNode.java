@@ -1,5 +1,7 @@
 package de.unistuttgart.graphengine.nodes;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -18,6 +20,7 @@ import java.util.Objects;
  *   <li><b>Change Detection Modes:</b> Supports OR (any change) and AND (all changed) logic</li>
  *   <li><b>Time Window:</b> Optional time-based filtering for change detection</li>
  *   <li><b>First Execution Handling:</b> Returns true on first run while initializing snapshot</li>
+ *   <li><b>Fingerprint Snapshots:</b> Optionally stores a {@link ValueFingerprint} of each value instead of the value</li>
  * </ul>
  * <p>
  * <b>Behavior on First Execution:</b><br>
@@ -34,6 +37,7 @@ import java.util.Objects;
  *
  * @see ProviderNode
  * @see SnapshotEntry
+ * @see ValueFingerprint
  * @see de.unistuttgart.graphengine.cache.StatefulLogicGraph
  */
 public class ConfigNode extends Node {
@@ -70,6 +74,12 @@ public class ConfigNode extends Node {
     /** Optional test time override for deterministic testing. If null, uses system time. */
     private Long testTime = null;
 
+    /** Whether snapshot entries hold a fingerprint of each provider value instead of the value itself. */
+    private boolean fingerprintSnapshots = false;
+
+    /** A snapshot map from an earlier evaluation that is no longer in use and is refilled by the next one. */
+    private Map<String, SnapshotEntry> recycledSnapshot;
+
     /**
      * Performs the change detection logic by comparing current provider node values
      * against the stored snapshot.
@@ -90,7 +100,10 @@ public class ConfigNode extends Node {
      */
     @Override
     public void calculate(Map<String, Object> dataContext) {
-        this.newSnapshotData = new HashMap<>();
+        @SuppressWarnings("unchecked")
+        Map<String, SnapshotEntry> oldSnapshot = (Map<String, SnapshotEntry>) dataContext.get("__snapshot");
+
+        this.newSnapshotData = takeSnapshotMap(oldSnapshot);
         long now = getCurrentTime();
 
         if (!active) {
@@ -99,10 +112,8 @@ public class ConfigNode extends Node {
             return;
         }
 
-        @SuppressWarnings("unchecked")
-        Map<String, SnapshotEntry> oldSnapshot = (Map<String, SnapshotEntry>) dataContext.get("__snapshot");
         if (oldSnapshot == null) {
-            oldSnapshot = new HashMap<>();
+            oldSnapshot = Map.of();
         }
 
         boolean hasAtLeastOneChange = false;
@@ -115,15 +126,15 @@ public class ConfigNode extends Node {
                     providerNodeCount++;
                     ProviderNode pNode = (ProviderNode) input;
                     String key = pNode.getJsonPath();
-                    Object liveValue = pNode.getCalculatedResult();
+                    Object snapshotValue = toSnapshotValue(pNode.getCalculatedResult());
                     SnapshotEntry oldEntry = oldSnapshot.get(key);
 
-                    boolean isChanged = (oldEntry == null) || !Objects.equals(oldEntry.value(), liveValue);
+                    boolean isChanged = (oldEntry == null) || hasChanged(oldEntry.value(), snapshotValue);
 
                     if (isChanged) {
                         hasAtLeastOneChange = true;
                         changeCount++;
-                        newSnapshotData.put(key, new SnapshotEntry(liveValue, now));
+                        newSnapshotData.put(key, new SnapshotEntry(snapshotValue, now));
                     } else {
                         newSnapshotData.put(key, oldEntry);
                     }
@@ -156,13 +167,57 @@ public class ConfigNode extends Node {
             for (Node input : this.getInputNodes()) {
                 if (input instanceof ProviderNode) {
                     ProviderNode pNode = (ProviderNode) input;
-                    Object liveValue = pNode.getCalculatedResult();
-                    newSnapshotData.put(pNode.getJsonPath(), new SnapshotEntry(liveValue, now));
+                    Object snapshotValue = toSnapshotValue(pNode.getCalculatedResult());
+                    newSnapshotData.put(pNode.getJsonPath(), new SnapshotEntry(snapshotValue, now));
                 }
             }
         }
     }
 
+    /**
+     * Provides the map that receives the new snapshot: the recycled map of an earlier evaluation,
+     * cleared, or a new map if there is none or it is the old snapshot still being read.
+     *
+     * @param oldSnapshot The snapshot of the previous evaluation, may be null
+     * @return An empty map for the new snapshot
+     */
+    private Map<String, SnapshotEntry> takeSnapshotMap(Map<String, SnapshotEntry> oldSnapshot) {
+        Map<String, SnapshotEntry> snapshotMap = this.recycledSnapshot;
+        this.recycledSnapshot = null;
+        if (snapshotMap == null || snapshotMap == oldSnapshot) {
+            return new HashMap<>();
+        }
+        snapshotMap.clear();
+        return snapshotMap;
+    }
+
+    /**
+     * Converts a provider value into the form stored in the snapshot.
+     *
+     * @param liveValue The current value of a provider node
+     * @return The value's fingerprint if fingerprint snapshots are enabled, otherwise the value itself
+     */
+    private Object toSnapshotValue(Object liveValue) {
+        return fingerprintSnapshots ? ValueFingerprint.of(liveValue) : liveValue;
+    }
+
+    /**
+     * Compares a snapshot value with the current one. If only one of them is a fingerprint,
+     * e.g. after fingerprint snapshots were switched on, the other one is fingerprinted as well.
+     *
+     * @param oldValue The value stored in the previous snapshot
+     * @param snapshotValue The current value, as returned by {@link #toSnapshotValue(Object)}
+     * @return True if the value changed
+     */
+    private static boolean hasChanged(Object oldValue, Object snapshotValue) {
+        if (snapshotValue instanceof ValueFingerprint && !(oldValue instanceof ValueFingerprint)) {
+            oldValue = ValueFingerprint.of(oldValue);
+        } else if (oldValue instanceof ValueFingerprint && !(snapshotValue instanceof ValueFingerprint)) {
+            snapshotValue = ValueFingerprint.of(snapshotValue);
+        }
+        return !Objects.equals(oldValue, snapshotValue);
+    }
+
     /**
      * Evaluates change detection using standard mode (without time window).
      * <p>
@@ -223,6 +278,21 @@ public class ConfigNode extends Node {
         return this.newSnapshotData;
     }
 
+    /**
+     * Hands back a snapshot map that is no longer in use, so that the next evaluation refills it
+     * instead of allocating a new map. The caller must not read or keep the map afterwards.
+     * <p>
+     * {@link de.unistuttgart.graphengine.cache.StatefulLogicGraph} recycles each snapshot once it
+     * has been replaced by a newer one.
+     *
+     * @param snapshot A snapshot previously returned by {@link #getNewSnapshotData()}
+     */
+    public void recycleSnapshot(Map<String, SnapshotEntry> snapshot) {
+        if (snapshot != this.newSnapshotData) {
+            this.recycledSnapshot = snapshot;
+        }
+    }
+
     /**
      * Gets the current time in milliseconds.
      * <p>
@@ -292,6 +362,29 @@ public class ConfigNode extends Node {
         this.active = active;
     }
 
+    /**
+     * Checks if snapshot entries hold a {@link ValueFingerprint} of each provider value
+     * instead of the value itself.
+     *
+     * @return True if fingerprint snapshots are enabled, false otherwise
+     */
+    @JsonIgnore
+    public boolean isFingerprintSnapshots() {
+        return fingerprintSnapshots;
+    }
+
+    /**
+     * Sets whether snapshot entries hold a {@link ValueFingerprint} of each provider value.
+     * <p>
+     * Fingerprints make comparisons constant-time and keep large values out of the snapshot,
+     * at the cost of hashing every value and a negligible chance of missing a change.
+     *
+     * @param fingerprintSnapshots Whether to store fingerprints instead of values
+     */
+    public void setFingerprintSnapshots(boolean fingerprintSnapshots) {
+        this.fingerprintSnapshots = fingerprintSnapshots;
+    }
+
     /**
      * Checks if time window filtering is enabled.
      *
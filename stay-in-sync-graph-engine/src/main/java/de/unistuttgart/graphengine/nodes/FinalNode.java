@@ -37,6 +37,14 @@ public class FinalNode extends Node {
         }
     }
 
+    /**
+     * The FinalNode only passes its input through.
+     */
+    @Override
+    public boolean dependsOnlyOnInputs() {
+        return true;
+    }
+
     @Override
     public Class<?> getOutputType() {
         return Boolean.class;
@@ -2,10 +2,10 @@ package de.unistuttgart.graphengine.nodes;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
-import com.fasterxml.jackson.databind.node.MissingNode;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class JsonPathValueExtractor {
@@ -18,6 +18,8 @@ public class JsonPathValueExtractor {
      *     <li>{@code "/"}, {@code "$"}, or an empty string: Returns the root node itself.</li>
      *     <li>Dot-separated path (e.g., "a.b.c"): Navigates through the JSON structure.</li>
      * </ul>
+     * The path is parsed on every call; callers that extract the same path repeatedly should
+     * compile it once and use {@link #extractValue(JsonNode, CompiledJsonPath)}.
      *
      * @param rootNode The root JsonNode from which to extract the value.
      * @param pathToExtract The path string.
@@ -25,13 +27,28 @@ public class JsonPathValueExtractor {
      *         Returns an empty Optional if the path is invalid or the value is missing/null.
      */
     public Optional<Object> extractValue(JsonNode rootNode, String pathToExtract) {
-        if (rootNode == null || rootNode.isMissingNode() || pathToExtract == null) {
+        if (pathToExtract == null) {
+            return Optional.empty();
+        }
+        return extractValue(rootNode, CompiledJsonPath.compile(pathToExtract));
+    }
+
+    /**
+     * Extracts a single value from the root Jackson JsonNode based on a compiled path.
+     *
+     * @param rootNode The root JsonNode from which to extract the value.
+     * @param path The compiled path.
+     * @return An Optional containing the extracted Java object or the root JsonNode itself.
+     *         Returns an empty Optional if the path is invalid or the value is missing/null.
+     * @see #extractValue(JsonNode, String)
+     */
+    public Optional<Object> extractValue(JsonNode rootNode, CompiledJsonPath path) {
+        if (rootNode == null || rootNode.isMissingNode() || path == null) {
             return Optional.empty();
         }
 
         // Handle a path that refers to the root object itself.
-        String trimmedPath = pathToExtract.trim();
-        if (trimmedPath.equals("/") || trimmedPath.equals("$") || trimmedPath.isEmpty()) {
+        if (path.isRoot()) {
             // Check if the root itself is null before converting
             if (rootNode.isNull()) {
                 return Optional.empty();
@@ -45,7 +62,7 @@ public class JsonPathValueExtractor {
             return Optional.of(convertJsonNodeToJavaObject(rootNode));
         }
 
-        JsonNode targetNode = navigateTo(rootNode, trimmedPath);
+        JsonNode targetNode = path.resolve(rootNode);
 
         if (targetNode.isMissingNode() || targetNode.isNull()) {
             return Optional.empty();
@@ -54,6 +71,30 @@ public class JsonPathValueExtractor {
         return Optional.of(convertJsonNodeToJavaObject(targetNode));
     }
 
+    /**
+     * Extracts a single value from a structure of Maps and Lists, which may contain Jackson nodes,
+     * based on a compiled path. Plain Java values are returned as they are; Jackson nodes are
+     * converted like the target of a non-root path in {@link #extractValue(JsonNode, CompiledJsonPath)}.
+     *
+     * @param root The root Map from which to extract the value.
+     * @param path The compiled path.
+     * @return An Optional containing the extracted value.
+     *         Returns an empty Optional if the path does not exist or the value is null.
+     */
+    public Optional<Object> extractValue(Map<?, ?> root, CompiledJsonPath path) {
+        if (root == null || path == null) {
+            return Optional.empty();
+        }
+        Object value = path.read(root);
+        if (value instanceof JsonNode jsonNode) {
+            return jsonNode.isNull() ? Optional.empty() : Optional.of(convertJsonNodeToJavaObject(jsonNode));
+        }
+        if (value == CompiledJsonPath.MISSING || value == null) {
+            return Optional.empty();
+        }
+        return Optional.of(value);
+    }
+
     /**
      * Checks if a given path exists within a JsonNode. A path exists if it can be
      * fully navigated, even if the resulting value is explicitly null.
@@ -64,64 +105,27 @@ public class JsonPathValueExtractor {
      * @return {@code true} if the path exists, {@code false} otherwise.
      */
     public boolean pathExists(JsonNode rootNode, String pathToExtract) {
-        if (rootNode == null || rootNode.isMissingNode() || pathToExtract == null) {
+        if (pathToExtract == null) {
             return false;
         }
-
-        // Handle root-path conventions for existence check.
-        String trimmedPath = pathToExtract.trim();
-        if (trimmedPath.equals("/") || trimmedPath.equals("$") || trimmedPath.isEmpty()) {
-            // The path to the root exists as long as the root is not a "MissingNode".
-            // A root that is 'null' still exists.
-            return !rootNode.isMissingNode();
-        }
-
-        JsonNode targetNode = navigateTo(rootNode, trimmedPath);
-        return !targetNode.isMissingNode();
+        return pathExists(rootNode, CompiledJsonPath.compile(pathToExtract));
     }
 
     /**
-     * Navigates through a JsonNode using a dot-separated path string.
-     * Supports array index notation like "sensors[0]" or "items[2]".
-     * @return The target JsonNode, or a MissingNode if the path is invalid.
+     * Checks if a compiled path exists within a JsonNode.
+     *
+     * @param rootNode The root JsonNode to search within.
+     * @param path  The compiled path.
+     * @return {@code true} if the path exists, {@code false} otherwise.
+     * @see #pathExists(JsonNode, String)
      */
-    private JsonNode navigateTo(JsonNode rootNode, String path) {
-        JsonNode currentNode = rootNode;
-        String[] segments = path.split("\\.");
-        
-        for (String segment : segments) {
-            // Check if segment contains array index notation: e.g., "sensors[0]"
-            int bracketIndex = segment.indexOf('[');
-            
-            if (bracketIndex != -1 && segment.charAt(segment.length() - 1) == ']') {
-                // Extract field name and index
-                String fieldName = segment.substring(0, bracketIndex);
-                String indexStr = segment.substring(bracketIndex + 1, segment.length() - 1);
-                
-                try {
-                    int arrayIndex = Integer.parseInt(indexStr);
-                    
-                    // Navigate to the field first (if field name is not empty)
-                    if (bracketIndex > 0) {
-                        currentNode = currentNode.path(fieldName);
-                    }
-                    
-                    // Then navigate to the array element
-                    if (currentNode.isArray() && arrayIndex >= 0 && arrayIndex < currentNode.size()) {
-                        currentNode = currentNode.get(arrayIndex);
-                    } else {
-                        return MissingNode.getInstance();
-                    }
-                } catch (NumberFormatException e) {
-                    // Invalid index format
-                    return MissingNode.getInstance();
-                }
-            } else {
-                // Regular field access without array index
-                currentNode = currentNode.path(segment);
-            }
+    public boolean pathExists(JsonNode rootNode, CompiledJsonPath path) {
+        if (rootNode == null || rootNode.isMissingNode() || path == null) {
+            return false;
         }
-        return currentNode;
+        // The path to the root exists as long as the root is not a "MissingNode".
+        // A root that is 'null' still exists.
+        return !path.resolve(rootNode).isMissingNode();
     }
 
     /**
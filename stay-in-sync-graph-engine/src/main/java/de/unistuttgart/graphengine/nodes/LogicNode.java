@@ -1,5 +1,6 @@
 package de.unistuttgart.graphengine.nodes;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import de.unistuttgart.graphengine.exception.GraphEvaluationException;
 import de.unistuttgart.graphengine.exception.NodeConfigurationException;
 import de.unistuttgart.graphengine.logic_operator.LogicOperator;
@@ -16,6 +17,12 @@ public class LogicNode extends Node {
 
     private LogicOperator operator;
 
+    /**
+     * State derived by the operation from this node's constant operands, see {@link Operation#prepare(LogicNode)}.
+     * Not part of the graph definition and therefore excluded from serialization.
+     */
+    private Object preparedState;
+
     /**
      * Constructor for mappers, creating a node with its essential properties.
      * Inputs are set later in a second pass.
@@ -80,6 +87,27 @@ public class LogicNode extends Node {
         }
     }
 
+    /**
+     * Lets the operation derive its per-node state from the constant operands.
+     * Must be called after the inputs have been connected; calling it again replaces the state.
+     */
+    public void prepare() {
+        this.preparedState = operator == null ? null : operator.getOperationStrategy().prepare(this);
+    }
+
+    @JsonIgnore
+    public Object getPreparedState() {
+        return preparedState;
+    }
+
+    /**
+     * Delegates to {@link Operation#dependsOnlyOnInputs()} of the configured operator.
+     */
+    @Override
+    public boolean dependsOnlyOnInputs() {
+        return operator != null && operator.getOperationStrategy().dependsOnlyOnInputs();
+    }
+
     @Override
     public Class<?> getOutputType() {
         if (operator == null) {
@@ -94,5 +122,6 @@ public class LogicNode extends Node {
 
     public void setOperator(LogicOperator operator) {
         this.operator = operator;
+        this.preparedState = null;
     }
 }
\ No newline at end of file
@@ -61,6 +61,18 @@ public abstract class Node {
 
     public abstract Class<?> getOutputType();
 
+    /**
+     * Tells an incremental evaluation whether this node's result is fully determined by the
+     * calculated results of its inputs, so that it can be reused while none of them changed.
+     * Nodes that read the data context, hold state or depend on the time must return {@code false},
+     * which is the default; they are calculated on every evaluation.
+     *
+     * @return {@code true} if equal input results always produce an equal result.
+     */
+    public boolean dependsOnlyOnInputs() {
+        return false;
+    }
+
     public int getId() {
         return id;
     }
@@ -1,10 +1,10 @@
 package de.unistuttgart.graphengine.nodes;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.JsonNode;
 import de.unistuttgart.graphengine.exception.GraphEvaluationException;
 import de.unistuttgart.graphengine.exception.NodeConfigurationException;
 
-import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
 
@@ -15,6 +15,9 @@ import java.util.Optional;
  */
 // Important for mappers/frameworks
 public class ProviderNode extends Node {
+
+    private static final JsonPathValueExtractor VALUE_EXTRACTOR = new JsonPathValueExtractor();
+
     public ProviderNode() {
     }
 
@@ -32,6 +35,23 @@ public class ProviderNode extends Node {
 
     public void setJsonPath(String jsonPath) {
         this.jsonPath = jsonPath;
+        compilePath();
+    }
+
+    /**
+     * Returns the key of the data source in the data context, i.e. the first segment of the jsonPath.
+     */
+    @JsonIgnore
+    public String getSourceKey() {
+        return sourceKey;
+    }
+
+    /**
+     * Returns the part of the jsonPath below the data source, compiled once when the path is set.
+     */
+    @JsonIgnore
+    public CompiledJsonPath getCompiledPath() {
+        return compiledPath;
     }
 
     /**
@@ -44,6 +64,12 @@ public class ProviderNode extends Node {
      */
     private String jsonPath;
 
+    /**
+     * Derived from {@link #jsonPath} whenever it is set, so that evaluations do not parse the path again.
+     */
+    private String sourceKey;
+    private CompiledJsonPath compiledPath;
+
     /**
      * Constructs a new ProviderNode with a specific jsonPath.
      *
@@ -65,21 +91,33 @@ public class ProviderNode extends Node {
         }
 
         this.jsonPath = jsonPath;
+        compilePath();
+    }
+
+    private void compilePath() {
+        if (jsonPath == null) {
+            this.sourceKey = null;
+            this.compiledPath = null;
+            return;
+        }
+        int separator = jsonPath.indexOf('.');
+        this.sourceKey = separator >= 0 ? jsonPath.substring(0, separator) : jsonPath;
+        this.compiledPath = CompiledJsonPath.compile(separator >= 0 ? jsonPath.substring(separator + 1) : "");
     }
 
     /**
      * Calculates the value for this node by extracting it from the data context.
      * <p>
-     * This method expects the {@code dataContext} to contain a {@link JsonNode} under the key "source".
-     * It then uses the node's {@code jsonPath} (e.g., "source.sensor.temperature") to navigate
-     * within this {@code JsonNode} to find and extract the final value.
+     * This method expects the {@code dataContext} to contain a {@link JsonNode} or a {@link Map} under
+     * the key "source". It then uses the node's {@code jsonPath} (e.g., "source.sensor.temperature"),
+     * compiled once when the path was set, to navigate within this value to find and extract the final value.
      * <p>
      * If the path does not resolve to a value, the node's calculated result is set to {@code null}.
      *
      * @param dataContext A map where keys are logical names (like "source") and values are the
      * corresponding data objects.
      * @throws GraphEvaluationException if the "source" key is missing from the dataContext or if the
-     * corresponding value is not a {@link JsonNode}.
+     * corresponding value is neither a {@link JsonNode} nor a {@link Map}.
      */
     @Override
     public void calculate(Map<String, Object> dataContext) throws GraphEvaluationException {
@@ -96,27 +134,21 @@ public class ProviderNode extends Node {
             );
         }
 
-        // Check the type before casting to prevent ClassCastException
-        if (!(sourceObject instanceof JsonNode)) {
+        // Navigate the source without copying it, whether it is a Jackson tree or a plain map.
+        Optional<Object> result;
+        if (sourceObject instanceof JsonNode sourceScope) {
+            result = VALUE_EXTRACTOR.extractValue(sourceScope, compiledPath);
+        } else if (sourceObject instanceof Map<?, ?> sourceMap) {
+            result = VALUE_EXTRACTOR.extractValue(sourceMap, compiledPath);
+        } else {
             throw new GraphEvaluationException(
                     GraphEvaluationException.ErrorType.TYPE_MISMATCH,
                     "Invalid DataContext Type",
-                    "The value for 'source' in dataContext must be a JsonNode, but was " + sourceObject.getClass().getName(),
+                    "The value for 'source' in dataContext must be a JsonNode or a Map, but was " + sourceObject.getClass().getName(),
                     null
             );
         }
 
-        JsonNode sourceScope = (JsonNode) sourceObject;
-
-        // Create the internal path (without the first "source" part)
-        String[] jsonPathKeys = jsonPath.split("\\.");
-        String[] remainingPathParts = Arrays.copyOfRange(jsonPathKeys, 1, jsonPathKeys.length);
-        String internalPath = String.join(".", remainingPathParts);
-
-        // Use JsonPathValueExtractor for navigation and conversion
-        JsonPathValueExtractor extractor = new JsonPathValueExtractor();
-        Optional<Object> result = extractor.extractValue(sourceScope, internalPath);
-
         this.setCalculatedResult(result.orElse(null));
     }
 
@@ -0,0 +1,234 @@
+package de.unistuttgart.graphengine.nodes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A compact 128-bit structural fingerprint of a provider value, stored in a {@link SnapshotEntry}
+ * instead of the value itself when a {@link ConfigNode} uses fingerprint snapshots.
+ * <p>
+ * Two fingerprints are compared in constant time, and the snapshot no longer keeps whole payload
+ * subtrees reachable between evaluations. The fingerprint is computed in a single streaming pass
+ * over a canonical form of the value:
+ * <ul>
+ *   <li>Jackson nodes and the plain Java values converted from them hash alike, so {@code "a"}
+ *       and a {@code TextNode("a")} or a {@code List} and an equal {@code ArrayNode} match</li>
+ *   <li>Integral numbers hash by their value regardless of their Java type; floating-point numbers
+ *       by their double bits, so {@code 5} and {@code 5.0} still differ as they do with {@code equals}</li>
+ *   <li>Object fields are combined independently of their order, like {@code Map.equals}</li>
+ *   <li>Lists and arrays are combined in order</li>
+ * </ul>
+ * Values of any other type contribute their class name and {@code hashCode()}.
+ * <p>
+ * Like any hash, distinct values may collide, so a change may be missed. With 128 bits this is
+ * negligible in practice, but it is why fingerprint snapshots are optional.
+ *
+ * @param high The upper 64 bits of the fingerprint.
+ * @param low  The lower 64 bits of the fingerprint.
+ */
+@RegisterForReflection
+public record ValueFingerprint(long high, long low) {
+
+    private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private static final int TAG_NULL = 1;
+    private static final int TAG_BOOLEAN = 2;
+    private static final int TAG_INTEGRAL = 3;
+    private static final int TAG_BIG_INTEGER = 4;
+    private static final int TAG_DECIMAL = 5;
+    private static final int TAG_FLOATING = 6;
+    private static final int TAG_STRING = 7;
+    private static final int TAG_ARRAY = 8;
+    private static final int TAG_OBJECT = 9;
+    private static final int TAG_OTHER = 10;
+
+    /**
+     * Computes the fingerprint of a value.
+     *
+     * @param value The value to fingerprint, may be {@code null}.
+     * @return The fingerprint of the value.
+     */
+    public static ValueFingerprint of(Object value) {
+        Hasher hasher = new Hasher();
+        hasher.putValue(value);
+        return hasher.finish();
+    }
+
+    /**
+     * A streaming 128-bit hash in the style of MurmurHash3, with two 64-bit lanes.
+     */
+    private static final class Hasher {
+
+        private long h1 = SEED_1;
+        private long h2 = SEED_2;
+        private long length;
+
+        void putValue(Object value) {
+            if (value == null) {
+                put(TAG_NULL);
+            } else if (value instanceof JsonNode json) {
+                putJson(json);
+            } else if (value instanceof String text) {
+                putString(text);
+            } else if (value instanceof Boolean bool) {
+                put(TAG_BOOLEAN);
+                put(bool ? 1 : 0);
+            } else if (value instanceof Number number) {
+                putNumber(number);
+            } else if (value instanceof Map<?, ?> map) {
+                putObject(map.size(), map.entrySet().iterator());
+            } else if (value instanceof Collection<?> collection) {
+                put(TAG_ARRAY);
+                put(collection.size());
+                for (Object item : collection) {
+                    putValue(item);
+                }
+            } else if (value instanceof Object[] items) {
+                put(TAG_ARRAY);
+                put(items.length);
+                for (Object item : items) {
+                    putValue(item);
+                }
+            } else {
+                put(TAG_OTHER);
+                putString(value.getClass().getName());
+                put(value.hashCode());
+            }
+        }
+
+        private void putJson(JsonNode json) {
+            switch (json.getNodeType()) {
+                case NULL, MISSING -> put(TAG_NULL);
+                case BOOLEAN -> {
+                    put(TAG_BOOLEAN);
+                    put(json.booleanValue() ? 1 : 0);
+                }
+                case NUMBER -> putNumber(json.numberValue());
+                case STRING -> putString(json.textValue());
+                case ARRAY -> {
+                    put(TAG_ARRAY);
+                    put(json.size());
+                    for (JsonNode item : json) {
+                        putValue(item);
+                    }
+                }
+                case OBJECT -> putObject(json.size(), json.fields());
+                default -> {
+                    put(TAG_OTHER);
+                    putString(json.getNodeType().name());
+                    putString(json.toString());
+                }
+            }
+        }
+
+        private void putNumber(Number number) {
+            if (number instanceof Integer || number instanceof Long
+                    || number instanceof Short || number instanceof Byte) {
+                put(TAG_INTEGRAL);
+                put(number.longValue());
+            } else if (number instanceof BigInteger bigInteger) {
+                if (bigInteger.bitLength() < Long.SIZE) {
+                    put(TAG_INTEGRAL);
+                    put(bigInteger.longValue());
+                } else {
+                    put(TAG_BIG_INTEGER);
+                    putString(bigInteger.toString());
+                }
+            } else if (number instanceof BigDecimal decimal) {
+                put(TAG_DECIMAL);
+                putString(decimal.stripTrailingZeros().toString());
+            } else {
+                put(TAG_FLOATING);
+                put(Double.doubleToLongBits(number.doubleValue()));
+            }
+        }
+
+        private void putString(String text) {
+            put(TAG_STRING);
+            int length = text.length();
+            put(length);
+            int i = 0;
+            for (; i + 4 <= length; i += 4) {
+                put((long) text.charAt(i)
+                        | (long) text.charAt(i + 1) << 16
+                        | (long) text.charAt(i + 2) << 32
+                        | (long) text.charAt(i + 3) << 48);
+            }
+            long tail = 0;
+            for (int shift = 0; i < length; i++, shift += 16) {
+                tail |= (long) text.charAt(i) << shift;
+            }
+            put(tail);
+        }
+
+        /**
+         * Hashes every field on its own and sums the results, so the field order does not matter.
+         */
+        private void putObject(int size, Iterator<? extends Map.Entry<?, ?>> fields) {
+            long savedH1 = h1;
+            long savedH2 = h2;
+            long savedLength = length;
+            long sumHigh = 0;
+            long sumLow = 0;
+            while (fields.hasNext()) {
+                Map.Entry<?, ?> field = fields.next();
+                h1 = SEED_1;
+                h2 = SEED_2;
+                length = 0;
+                putValue(field.getKey());
+                putValue(field.getValue());
+                ValueFingerprint fieldFingerprint = finish();
+                sumHigh += fieldFingerprint.high();
+                sumLow += fieldFingerprint.low();
+            }
+            h1 = savedH1;
+            h2 = savedH2;
+            length = savedLength;
+
+            put(TAG_OBJECT);
+            put(size);
+            put(sumHigh);
+            put(sumLow);
+        }
+
+        private void put(long value) {
+            length++;
+            h1 ^= Long.rotateLeft(value * C1, 31) * C2;
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52DCE729;
+            h2 ^= Long.rotateLeft(value * C2, 33) * C1;
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495AB5;
+        }
+
+        ValueFingerprint finish() {
+            long high = h1 ^ length;
+            long low = h2 ^ length;
+            high += low;
+            low += high;
+            high = fmix64(high);
+            low = fmix64(low);
+            high += low;
+            low += high;
+            return new ValueFingerprint(high, low);
+        }
+
+        private static long fmix64(long k) {
+            k ^= k >>> 33;
+            k *= 0xFF51AFD7ED558CCDL;
+            k ^= k >>> 33;
+            k *= 0xC4CEB9FE1A85EC53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
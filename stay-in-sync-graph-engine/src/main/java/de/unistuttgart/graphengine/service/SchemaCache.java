@@ -1,36 +1,170 @@
 package de.unistuttgart.graphengine.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.SpecVersion;
-import jakarta.enterprise.context.ApplicationScoped;
+import de.unistuttgart.graphengine.cache.GraphHasher;
+import io.quarkus.logging.Log;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 
-@ApplicationScoped
+/**
+ * Thread-safe, bounded cache of compiled JSON schemas (Draft 7), used by the MATCHES_SCHEMA operator.
+ * <p>
+ * Schemas are keyed by the SHA-256 hash of their text, so the cache does not keep the schema texts
+ * themselves and a lookup compares fixed-size keys. A schema provided by a ConstantNode is compiled
+ * once when its graph is built (see {@code MatchesSchemaOperator#prepare}) and referenced by the node,
+ * so evaluations neither compile nor look it up.
+ * <p>
+ * <b>Memory Management:</b> The cache is bounded by the number of schemas and by the total number of
+ * characters of their texts, and evicts with the W-TinyLFU policy. Both bounds are enforced with a single
+ * weight: every schema weighs its length, but at least {@code maxWeight / maxEntries}.
+ * <p>
+ * <b>Metrics:</b> Hits, misses, evictions and the compile time of every schema are recorded in
+ * {@link #stats()}; the sync node publishes them.
+ * <p>
+ * Operators are created with their {@link de.unistuttgart.graphengine.logic_operator.LogicOperator}
+ * constant rather than by CDI, so they share the instance returned by {@link #shared()}, configured by
+ * {@code graphengine.schema-cache.max-entries} and {@code graphengine.schema-cache.max-weight}.
+ */
 public class SchemaCache {
-    private final Map<String, JsonSchema> cache = new ConcurrentHashMap<>();
+
+    static final long DEFAULT_MAX_ENTRIES = 1_000;
+    static final long DEFAULT_MAX_WEIGHT = 16_777_216;
+
+    /**
+     * A compiled schema with the length of its text, which approximates its retained size.
+     */
+    private record CompiledSchema(JsonSchema schema, int length) {
+    }
+
+    private static final ThreadLocal<MessageDigest> DIGEST_THREAD_LOCAL =
+            ThreadLocal.withInitial(GraphHasher::createMessageDigest);
+
+    private final Cache<String, CompiledSchema> cache;
     private final JsonSchemaFactory factory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7);
 
+    /**
+     * Creates a cache with the default bounds.
+     */
+    public SchemaCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * Creates a cache with the given bounds.
+     *
+     * @param maxEntries The maximum number of cached schemas.
+     * @param maxWeight  The maximum total number of characters of all cached schemas.
+     */
+    public SchemaCache(long maxEntries, long maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException(
+                    "Schema cache bounds must be positive: " + maxEntries + " entries, weight " + maxWeight);
+        }
+        int minimumWeight = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxWeight / maxEntries));
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String key, CompiledSchema schema) -> Math.max(minimumWeight, schema.length()))
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cache shared by all MATCHES_SCHEMA operations.
+     *
+     * @return The shared cache.
+     */
+    public static SchemaCache shared() {
+        return SharedInstance.INSTANCE;
+    }
+
+    /**
+     * Returns the compiled form of a schema, compiling it on the first request.
+     *
+     * @param schemaString The JSON schema text.
+     * @return The compiled schema.
+     * @throws RuntimeException if the schema cannot be compiled.
+     */
     public JsonSchema getCompiledSchema(String schemaString) {
-        return cache.computeIfAbsent(schemaString, this::compileSchema);
+        return cache.get(contentHash(schemaString), hash -> compileSchema(schemaString)).schema();
     }
 
-    private JsonSchema compileSchema(String schemaString) {
+    private CompiledSchema compileSchema(String schemaString) {
+        long start = System.nanoTime();
         try {
-            return factory.getSchema(schemaString);
+            JsonSchema schema = factory.getSchema(schemaString);
+            Log.debugf("Compiled JSON schema of %d characters in %.2f ms",
+                    schemaString.length(), (System.nanoTime() - start) / 1_000_000.0);
+            return new CompiledSchema(schema, schemaString.length());
         } catch (Exception e) {
             throw new RuntimeException("Failed to compile schema: " + schemaString, e);
         }
     }
 
-    // Optional: Cache-Management
+    private static String contentHash(String schemaString) {
+        MessageDigest digest = DIGEST_THREAD_LOCAL.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(schemaString.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns the statistics of the cache, including the number and total time of schema compilations
+     * ({@link CacheStats#loadCount()}, {@link CacheStats#totalLoadTime()}).
+     *
+     * @return A snapshot of the cache statistics.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the total weight of all cached schemas.
+     *
+     * @return The weighted size of the cache.
+     */
+    public long getWeightedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    /**
+     * Removes all cached schemas. Schemas already referenced by prepared nodes stay in use.
+     */
     public void clearCache() {
-        cache.clear();
+        cache.invalidateAll();
     }
 
+    /**
+     * Returns the current number of cached schemas.
+     *
+     * @return The number of cached schemas.
+     */
     public int getCacheSize() {
-        return cache.size();
+        return cache.asMap().size();
+    }
+
+    /**
+     * Creates the shared cache on first use, with the bounds configured for the application.
+     */
+    private static final class SharedInstance {
+
+        private static final SchemaCache INSTANCE = create();
+
+        private static SchemaCache create() {
+            Config config = ConfigProvider.getConfig();
+            return new SchemaCache(
+                    config.getOptionalValue("graphengine.schema-cache.max-entries", Long.class)
+                            .orElse(DEFAULT_MAX_ENTRIES),
+                    config.getOptionalValue("graphengine.schema-cache.max-weight", Long.class)
+                            .orElse(DEFAULT_MAX_WEIGHT));
+        }
     }
 }
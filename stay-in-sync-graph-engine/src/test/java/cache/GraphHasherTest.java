@@ -5,7 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.unistuttgart.graphengine.cache.GraphHasher;
 import de.unistuttgart.graphengine.exception.GraphSerializationException;
 import de.unistuttgart.graphengine.nodes.ConstantNode;
+import de.unistuttgart.graphengine.logic_operator.LogicOperator;
 import de.unistuttgart.graphengine.nodes.FinalNode;
+import de.unistuttgart.graphengine.nodes.LogicNode;
 import de.unistuttgart.graphengine.nodes.Node;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -58,6 +60,24 @@ public class GraphHasherTest {
         assertNotEquals(hash1, hash2);
     }
 
+    @Test
+    @DisplayName("should not include prepared operator state in the hash")
+    void testPreparedStateNotHashed() {
+        ConstantNode value = new ConstantNode("Value", "SN1234");
+        value.setId(1);
+        ConstantNode pattern = new ConstantNode("Pattern", "^[A-Z]{2}[0-9]{4}$");
+        pattern.setId(2);
+        LogicNode regex = new LogicNode("Regex", LogicOperator.REGEX_MATCH, value, pattern);
+        regex.setId(3);
+        List<Node> graph = Arrays.asList(value, pattern, regex);
+
+        String before = graphHasher.hash(graph);
+        regex.prepare();
+
+        assertNotNull(regex.getPreparedState());
+        assertEquals(before, graphHasher.hash(graph));
+    }
+
     @Test
     @DisplayName("should throw exception when graph nodes are null")
     void testNullGraphNodes() {
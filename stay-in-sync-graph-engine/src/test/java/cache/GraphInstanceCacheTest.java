@@ -126,6 +126,39 @@ public class GraphInstanceCacheTest {
         assertEquals(1, cache.getCacheSize());
     }
 
+    @Test
+    @DisplayName("should remove only superseded instances of a transformation")
+    void testRemoveSuperseded() {
+        cache.getOrCreate(1L, "hash123", testGraph);
+        StatefulLogicGraph current = cache.getOrCreate(1L, "hash456", testGraph);
+        cache.getOrCreate(2L, "hash123", testGraph);
+
+        int removed = cache.removeSuperseded(1L, "hash456");
+
+        assertEquals(1, removed);
+        assertEquals(2, cache.getCacheSize());
+        assertSame(current, cache.getOrCreate(1L, "hash456", testGraph));
+        assertEquals(1, cache.remove(1L));
+    }
+
+    @Test
+    @DisplayName("should evict instances beyond the weight bound and keep the index consistent")
+    void testWeightBound() {
+        GraphInstanceCache bounded = new GraphInstanceCache(4);
+
+        for (long id = 1; id <= 10; id++) {
+            bounded.getOrCreate(id, "hash" + id, testGraph);
+        }
+
+        assertTrue(bounded.getCacheSize() <= 2);
+        int removed = 0;
+        for (long id = 1; id <= 10; id++) {
+            removed += bounded.remove(id);
+        }
+        assertTrue(removed <= 2);
+        assertEquals(0, bounded.getCacheSize());
+    }
+
     @Test
     @DisplayName("should clear all cache entries")
     void testClear() {
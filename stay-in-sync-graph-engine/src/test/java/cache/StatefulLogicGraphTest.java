@@ -10,6 +10,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -191,6 +195,153 @@ public class StatefulLogicGraphTest {
         assertTrue(result3);
     }
 
+    @Test
+    @DisplayName("should detect changes in provider node values with fingerprint snapshots")
+    void testChangeDetection_WithFingerprintSnapshots() {
+        ProviderNode provider = new ProviderNode("source.system.value");
+        provider.setId(2);
+
+        ConfigNode configNode = new ConfigNode();
+        configNode.setId(1);
+        configNode.setInputNodes(Arrays.asList(provider));
+
+        FinalNode finalNode = new FinalNode();
+        finalNode.setId(0);
+        finalNode.setInputNodes(Arrays.asList(configNode));
+
+        List<Node> graph = Arrays.asList(provider, configNode, finalNode);
+        StatefulLogicGraph statefulGraph = new StatefulLogicGraph(graph, true);
+
+        Map<String, JsonNode> sourceData1 = new HashMap<>();
+        sourceData1.put("source", parseJson("{\"system\": {\"value\": {\"a\": [1, 2], \"b\": \"x\"}}}"));
+
+        Map<String, JsonNode> sourceData2 = new HashMap<>();
+        sourceData2.put("source", parseJson("{\"system\": {\"value\": {\"b\": \"x\", \"a\": [1, 2]}}}"));
+
+        Map<String, JsonNode> sourceData3 = new HashMap<>();
+        sourceData3.put("source", parseJson("{\"system\": {\"value\": {\"a\": [1, 3], \"b\": \"x\"}}}"));
+
+        assertTrue(statefulGraph.evaluate(sourceData1));
+        assertFalse(statefulGraph.evaluate(sourceData2));
+        assertTrue(statefulGraph.evaluate(sourceData3));
+        assertFalse(statefulGraph.evaluate(sourceData3));
+        assertTrue(configNode.isFingerprintSnapshots());
+        assertEquals(1, statefulGraph.getSnapshotSize());
+    }
+
+    @Test
+    @DisplayName("should compile the graph after the compilation threshold and keep detecting changes")
+    void testChangeDetection_WithCompilationThreshold() {
+        ProviderNode provider = new ProviderNode("source.system.value");
+        provider.setId(2);
+
+        ConfigNode configNode = new ConfigNode();
+        configNode.setId(1);
+        configNode.setInputNodes(Arrays.asList(provider));
+
+        FinalNode finalNode = new FinalNode();
+        finalNode.setId(0);
+        finalNode.setInputNodes(Arrays.asList(configNode));
+
+        List<Node> graph = Arrays.asList(provider, configNode, finalNode);
+        StatefulLogicGraph statefulGraph = new StatefulLogicGraph(graph, false, 2);
+
+        Map<String, JsonNode> sourceData1 = new HashMap<>();
+        sourceData1.put("source", parseJson("{\"system\": {\"value\": 1}}"));
+
+        Map<String, JsonNode> sourceData2 = new HashMap<>();
+        sourceData2.put("source", parseJson("{\"system\": {\"value\": 2}}"));
+
+        assertTrue(statefulGraph.evaluate(sourceData1));
+        assertFalse(statefulGraph.isCompiled());
+        assertFalse(statefulGraph.evaluate(sourceData1));
+        assertTrue(statefulGraph.isCompiled());
+        assertTrue(statefulGraph.evaluate(sourceData2));
+        assertFalse(statefulGraph.evaluate(sourceData2));
+    }
+
+    @Test
+    @DisplayName("should evaluate a batch against the current snapshot without updating it")
+    void testEvaluateBatch() {
+        ProviderNode provider = new ProviderNode("source.system.value");
+        provider.setId(2);
+
+        ConfigNode configNode = new ConfigNode();
+        configNode.setId(1);
+        configNode.setInputNodes(Arrays.asList(provider));
+
+        FinalNode finalNode = new FinalNode();
+        finalNode.setId(0);
+        finalNode.setInputNodes(Arrays.asList(configNode));
+
+        List<Node> graph = Arrays.asList(provider, configNode, finalNode);
+        StatefulLogicGraph statefulGraph = new StatefulLogicGraph(graph);
+
+        Map<String, JsonNode> sourceData1 = new HashMap<>();
+        sourceData1.put("source", parseJson("{\"system\": {\"value\": 1}}"));
+
+        Map<String, JsonNode> sourceData2 = new HashMap<>();
+        sourceData2.put("source", parseJson("{\"system\": {\"value\": 2}}"));
+
+        assertTrue(statefulGraph.evaluate(sourceData1));
+
+        assertArrayEquals(new boolean[]{false, true, false},
+                statefulGraph.evaluateBatch(List.of(sourceData1, sourceData2, sourceData1)));
+
+        // The batch did not replace the snapshot of the first evaluation.
+        assertFalse(statefulGraph.evaluate(sourceData1));
+        assertTrue(statefulGraph.evaluate(sourceData2));
+        assertFalse(statefulGraph.evaluate(sourceData2));
+
+        assertThrows(GraphConstructionException.class, () -> statefulGraph.evaluateBatch(null));
+    }
+
+    @Test
+    @DisplayName("should serialize concurrent evaluations so that unchanged data is detected only once")
+    void testConcurrentEvaluations() throws Exception {
+        ProviderNode provider = new ProviderNode("source.system.value");
+        provider.setId(2);
+
+        ConfigNode configNode = new ConfigNode();
+        configNode.setId(1);
+        configNode.setInputNodes(Arrays.asList(provider));
+
+        FinalNode finalNode = new FinalNode();
+        finalNode.setId(0);
+        finalNode.setInputNodes(Arrays.asList(configNode));
+
+        List<Node> graph = Arrays.asList(provider, configNode, finalNode);
+        StatefulLogicGraph statefulGraph = new StatefulLogicGraph(graph);
+
+        Map<String, JsonNode> sourceData = new HashMap<>();
+        sourceData.put("source", parseJson("{\"system\": {\"value\": 42}}"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> evaluations = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                evaluations.add(() -> {
+                    int changes = 0;
+                    for (int i = 0; i < 200; i++) {
+                        if (statefulGraph.evaluate(sourceData)) {
+                            changes++;
+                        }
+                    }
+                    return changes;
+                });
+            }
+            int changes = 0;
+            for (Future<Integer> result : executor.invokeAll(evaluations)) {
+                changes += result.get();
+            }
+
+            assertEquals(1, changes);
+            assertEquals(1, statefulGraph.getSnapshotSize());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     @DisplayName("should return ConfigNode name")
     void testGetConfigNodeName() {
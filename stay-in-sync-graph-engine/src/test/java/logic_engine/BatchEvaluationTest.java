@@ -0,0 +1,202 @@
+package logic_engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.unistuttgart.graphengine.exception.GraphEvaluationException;
+import de.unistuttgart.graphengine.logic_engine.BatchGraphEvaluator;
+import de.unistuttgart.graphengine.logic_engine.LogicGraphEvaluator;
+import de.unistuttgart.graphengine.logic_operator.LogicOperator;
+import de.unistuttgart.graphengine.nodes.ConstantNode;
+import de.unistuttgart.graphengine.nodes.FinalNode;
+import de.unistuttgart.graphengine.nodes.LogicNode;
+import de.unistuttgart.graphengine.nodes.Node;
+import de.unistuttgart.graphengine.nodes.ProviderNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differential tests of the batch evaluation: every record of a batch must yield the same result,
+ * or the same failure, as an evaluation of the graph for that record alone.
+ */
+@DisplayName("Batch graph evaluation")
+public class BatchEvaluationTest {
+
+    private static final int PROVIDER_COUNT = 4;
+    private static final Object[] VALUES = {1, 5, 10.5, -3L, "x", "abc", "xab", true, false, null};
+    private static final LogicOperator[] OPERATORS = {
+            LogicOperator.AND, LogicOperator.OR, LogicOperator.NOT, LogicOperator.XOR,
+            LogicOperator.GREATER_THAN, LogicOperator.LESS_THAN,
+            LogicOperator.GREATER_OR_EQUAL, LogicOperator.LESS_OR_EQUAL,
+            LogicOperator.EQUALS, LogicOperator.NOT_EQUALS,
+            LogicOperator.IS_NULL, LogicOperator.IS_NOT_NULL,
+            LogicOperator.STRING_CONTAINS, LogicOperator.STRING_STARTS_WITH, LogicOperator.EXISTS};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LogicGraphEvaluator evaluator;
+    private BatchGraphEvaluator batchEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        evaluator = new LogicGraphEvaluator();
+        batchEvaluator = new BatchGraphEvaluator();
+    }
+
+    /**
+     * Builds a random graph over providers {@code source.p0} to {@code source.p3}, built like the graphs
+     * of {@link CompiledEvaluationTest}.
+     */
+    private List<Node> randomGraph(long seed) {
+        Random random = new Random(seed);
+        List<Node> nodes = new ArrayList<>();
+        List<Node> booleanNodes = new ArrayList<>();
+        for (int i = 0; i < PROVIDER_COUNT; i++) {
+            nodes.add(new ProviderNode("source.p" + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            // Constants cannot be null, the last value.
+            nodes.add(new ConstantNode("c" + i, VALUES[random.nextInt(VALUES.length - 1)]));
+        }
+        for (boolean value : new boolean[]{true, false}) {
+            ConstantNode constant = new ConstantNode(String.valueOf(value), value);
+            nodes.add(constant);
+            booleanNodes.add(constant);
+        }
+        int logicNodeCount = 4 + random.nextInt(12);
+        for (int i = 0; i < logicNodeCount; i++) {
+            LogicOperator operator = OPERATORS[random.nextInt(OPERATORS.length)];
+            boolean booleanOperator = operator == LogicOperator.AND || operator == LogicOperator.OR
+                    || operator == LogicOperator.NOT || operator == LogicOperator.XOR;
+            boolean stringOperator = operator == LogicOperator.STRING_CONTAINS
+                    || operator == LogicOperator.STRING_STARTS_WITH;
+            int inputCount = operator == LogicOperator.NOT || operator == LogicOperator.EXISTS
+                    ? 1 : stringOperator ? 2 : 2 + random.nextInt(2);
+            Node[] inputs = new Node[inputCount];
+            for (int j = 0; j < inputCount; j++) {
+                List<Node> candidates = booleanOperator && random.nextInt(8) != 0 ? booleanNodes : nodes;
+                inputs[j] = random.nextBoolean()
+                        ? candidates.get(candidates.size() - 1 - random.nextInt(Math.min(4, candidates.size())))
+                        : candidates.get(random.nextInt(candidates.size()));
+            }
+            LogicNode logicNode = new LogicNode("n" + i, operator, inputs);
+            nodes.add(logicNode);
+            booleanNodes.add(logicNode);
+        }
+        FinalNode finalNode = new FinalNode();
+        finalNode.setInputNodes(List.of(nodes.get(nodes.size() - 1)));
+        nodes.add(finalNode);
+        return nodes;
+    }
+
+    private Map<String, Object> randomContext(Random random) {
+        ObjectNode source = objectMapper.createObjectNode();
+        for (int i = 0; i < PROVIDER_COUNT; i++) {
+            int choice = random.nextInt(VALUES.length + 1);
+            if (choice < VALUES.length) {
+                source.set("p" + i, objectMapper.valueToTree(VALUES[choice]));
+            }
+            // Otherwise the path is missing.
+        }
+        Map<String, Object> dataContext = new HashMap<>();
+        dataContext.put("source", source);
+        return dataContext;
+    }
+
+    @Test
+    @DisplayName("should produce the result of a separate evaluation for every record")
+    void testEvaluateBatch_OnRandomGraphs_ShouldMatchPerRecordEvaluation() {
+        int evaluatedRecords = 0;
+        for (long seed = 0; seed < 300; seed++) {
+            List<Node> graph = randomGraph(seed);
+            Random inputs = new Random(seed);
+            List<Map<String, Object>> dataContexts = new ArrayList<>();
+            for (int row = 0; row < 16; row++) {
+                dataContexts.add(randomContext(inputs));
+            }
+
+            // A failing record fails the whole batch, so the records evaluating successfully are batched on their own.
+            List<Map<String, Object>> successfulContexts = new ArrayList<>();
+            List<Boolean> expected = new ArrayList<>();
+            for (Map<String, Object> dataContext : dataContexts) {
+                try {
+                    expected.add(evaluator.evaluateGraph(graph, dataContext));
+                    successfulContexts.add(dataContext);
+                } catch (GraphEvaluationException e) {
+                    // Covered by the batch of all records below.
+                }
+            }
+
+            if (successfulContexts.size() < dataContexts.size()) {
+                assertThrows(GraphEvaluationException.class,
+                        () -> batchEvaluator.evaluateBatch(graph, dataContexts), "seed " + seed);
+            }
+            boolean[] actual = batchEvaluator.evaluateBatch(graph, successfulContexts);
+            assertEquals(expected.size(), actual.length, "seed " + seed);
+            for (int row = 0; row < actual.length; row++) {
+                assertEquals(expected.get(row), actual[row], "seed " + seed + ", record " + row);
+            }
+            evaluatedRecords += actual.length;
+        }
+        assertTrue(evaluatedRecords > 1000, "Too few successfully evaluated records: " + evaluatedRecords);
+    }
+
+    @Test
+    @DisplayName("should compare numeric provider values against a constant for every record")
+    void testEvaluateBatch_WithNumericComparison_ShouldReturnResultPerRecord() throws Exception {
+        ProviderNode temperature = new ProviderNode("source.temperature");
+        ConstantNode limit = new ConstantNode("limit", 20);
+        LogicNode greater = new LogicNode("greater", LogicOperator.GREATER_THAN, temperature, limit);
+        FinalNode finalNode = new FinalNode();
+        finalNode.setInputNodes(List.of(greater));
+        List<Node> graph = List.of(temperature, limit, greater, finalNode);
+
+        List<Map<String, Object>> dataContexts = List.of(
+                Map.of("source", objectMapper.readTree("{\"temperature\": 25}")),
+                Map.of("source", objectMapper.readTree("{\"temperature\": 12.5}")),
+                Map.of("source", objectMapper.readTree("{\"temperature\": \"hot\"}")),
+                Map.of("source", objectMapper.readTree("{}")),
+                Map.of("source", objectMapper.readTree("{\"temperature\": 20.5}")));
+
+        assertArrayEquals(new boolean[]{true, false, false, false, true},
+                batchEvaluator.evaluateBatch(graph, dataContexts));
+    }
+
+    @Test
+    @DisplayName("should return an empty result for an empty batch")
+    void testEvaluateBatch_WithNoRecords_ShouldReturnEmptyResult() {
+        ConstantNode truth = new ConstantNode("truth", true);
+        FinalNode finalNode = new FinalNode();
+        finalNode.setInputNodes(List.of(truth));
+
+        assertEquals(0, batchEvaluator.evaluateBatch(List.of(truth, finalNode), List.of()).length);
+    }
+
+    @Test
+    @DisplayName("should fail the batch if an operator rejects the input of a record")
+    void testEvaluateBatch_WithNonBooleanInputToAnd_ShouldFail() throws Exception {
+        ProviderNode a = new ProviderNode("source.a");
+        ConstantNode truth = new ConstantNode("truth", true);
+        LogicNode and = new LogicNode("and", LogicOperator.AND, truth, a);
+        FinalNode finalNode = new FinalNode();
+        finalNode.setInputNodes(List.of(and));
+        List<Node> graph = List.of(a, truth, and, finalNode);
+
+        List<Map<String, Object>> dataContexts = List.of(
+                Map.of("source", objectMapper.readTree("{\"a\": true}")),
+                Map.of("source", objectMapper.readTree("{\"a\": 1}")));
+
+        GraphEvaluationException exception = assertThrows(GraphEvaluationException.class,
+                () -> batchEvaluator.evaluateBatch(graph, dataContexts));
+        assertEquals(GraphEvaluationException.ErrorType.EXECUTION_FAILED, exception.getErrorType());
+        GraphEvaluationException cause = assertInstanceOf(GraphEvaluationException.class, exception.getCause());
+        assertEquals(GraphEvaluationException.ErrorType.TYPE_MISMATCH, cause.getErrorType());
+    }
+}
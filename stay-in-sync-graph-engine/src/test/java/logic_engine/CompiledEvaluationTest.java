@@ -0,0 +1,203 @@
+package logic_engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.unistuttgart.graphengine.exception.GraphEvaluationException;
+import de.unistuttgart.graphengine.logic_engine.IncrementalEvaluationState;
+import de.unistuttgart.graphengine.logic_engine.LogicGraphEvaluator;
+import de.unistuttgart.graphengine.logic_operator.LogicOperator;
+import de.unistuttgart.graphengine.nodes.ConstantNode;
+import de.unistuttgart.graphengine.nodes.FinalNode;
+import de.unistuttgart.graphengine.nodes.LogicNode;
+import de.unistuttgart.graphengine.nodes.Node;
+import de.unistuttgart.graphengine.nodes.ProviderNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differential tests of the compiled evaluation tier: every graph is evaluated by the interpreter
+ * and, in an identical copy, through the compiled graph, and both must agree on every node result
+ * and on failures.
+ */
+@DisplayName("Compiled graph evaluation")
+public class CompiledEvaluationTest {
+
+    private static final int PROVIDER_COUNT = 4;
+    private static final Object[] VALUES = {1, 5, 10.5, -3L, "x", "abc", true, false, null};
+    private static final LogicOperator[] OPERATORS = {
+            LogicOperator.AND, LogicOperator.OR, LogicOperator.NOT, LogicOperator.XOR,
+            LogicOperator.GREATER_THAN, LogicOperator.LESS_THAN,
+            LogicOperator.GREATER_OR_EQUAL, LogicOperator.LESS_OR_EQUAL,
+            LogicOperator.EQUALS, LogicOperator.NOT_EQUALS,
+            LogicOperator.IS_NULL, LogicOperator.IS_NOT_NULL,
+            LogicOperator.IS_TRUE, LogicOperator.STRING_CONTAINS, LogicOperator.EXISTS};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LogicGraphEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        evaluator = new LogicGraphEvaluator();
+    }
+
+    /**
+     * Builds a random graph over providers {@code source.p0} to {@code source.p3}. Boolean operators mostly
+     * combine boolean nodes, but every input may be picked from all earlier nodes, so operators also see
+     * values they reject.
+     */
+    private List<Node> randomGraph(long seed) {
+        Random random = new Random(seed);
+        List<Node> nodes = new ArrayList<>();
+        List<Node> booleanNodes = new ArrayList<>();
+        for (int i = 0; i < PROVIDER_COUNT; i++) {
+            nodes.add(new ProviderNode("source.p" + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            // Constants cannot be null, the last value.
+            nodes.add(new ConstantNode("c" + i, VALUES[random.nextInt(VALUES.length - 1)]));
+        }
+        for (boolean value : new boolean[]{true, false}) {
+            ConstantNode constant = new ConstantNode(String.valueOf(value), value);
+            nodes.add(constant);
+            booleanNodes.add(constant);
+        }
+        int logicNodeCount = 4 + random.nextInt(12);
+        for (int i = 0; i < logicNodeCount; i++) {
+            LogicOperator operator = OPERATORS[random.nextInt(OPERATORS.length)];
+            boolean booleanOperator = operator == LogicOperator.AND || operator == LogicOperator.OR
+                    || operator == LogicOperator.NOT || operator == LogicOperator.XOR;
+            int inputCount = operator == LogicOperator.NOT || operator == LogicOperator.EXISTS
+                    ? 1 : 2 + random.nextInt(2);
+            Node[] inputs = new Node[inputCount];
+            for (int j = 0; j < inputCount; j++) {
+                List<Node> candidates = booleanOperator && random.nextInt(8) != 0 ? booleanNodes : nodes;
+                // Prefer recent nodes, so that logic nodes are combined into deeper graphs.
+                inputs[j] = random.nextBoolean()
+                        ? candidates.get(candidates.size() - 1 - random.nextInt(Math.min(4, candidates.size())))
+                        : candidates.get(random.nextInt(candidates.size()));
+            }
+            LogicNode logicNode = new LogicNode("n" + i, operator, inputs);
+            nodes.add(logicNode);
+            booleanNodes.add(logicNode);
+        }
+        FinalNode finalNode = new FinalNode();
+        finalNode.setInputNodes(List.of(nodes.get(nodes.size() - 1)));
+        nodes.add(finalNode);
+        return nodes;
+    }
+
+    private Map<String, Object> randomContext(Random random) {
+        ObjectNode source = objectMapper.createObjectNode();
+        for (int i = 0; i < PROVIDER_COUNT; i++) {
+            int choice = random.nextInt(VALUES.length + 1);
+            if (choice < VALUES.length) {
+                source.set("p" + i, objectMapper.valueToTree(VALUES[choice]));
+            }
+            // Otherwise the path is missing.
+        }
+        Map<String, Object> dataContext = new HashMap<>();
+        dataContext.put("source", source);
+        return dataContext;
+    }
+
+    @Test
+    @DisplayName("should produce the same node results and failures as the interpreter")
+    void testEvaluate_OnRandomGraphs_ShouldMatchInterpreter() {
+        int compiledEvaluations = 0;
+        for (long seed = 0; seed < 300; seed++) {
+            List<Node> interpretedGraph = randomGraph(seed);
+            List<Node> compiledGraph = randomGraph(seed);
+            IncrementalEvaluationState state = new IncrementalEvaluationState(1);
+            Random inputs = new Random(seed);
+
+            for (int round = 0; round < 12; round++) {
+                Map<String, Object> dataContext = randomContext(inputs);
+                boolean compiled = state.isCompiled();
+
+                Boolean expected = null;
+                GraphEvaluationException expectedFailure = null;
+                try {
+                    expected = evaluator.evaluateGraph(interpretedGraph, dataContext);
+                } catch (GraphEvaluationException e) {
+                    expectedFailure = e;
+                }
+
+                if (expectedFailure != null) {
+                    assertThrows(GraphEvaluationException.class,
+                            () -> evaluator.evaluateGraph(compiledGraph, dataContext, state),
+                            "seed " + seed + ", round " + round);
+                    continue;
+                }
+                boolean actual = evaluator.evaluateGraph(compiledGraph, dataContext, state);
+                assertEquals(expected, actual, "seed " + seed + ", round " + round);
+                for (int i = 0; i < interpretedGraph.size(); i++) {
+                    Object expectedResult = interpretedGraph.get(i).getCalculatedResult();
+                    Object actualResult = compiledGraph.get(i).getCalculatedResult();
+                    assertTrue(Objects.equals(expectedResult, actualResult),
+                            "seed " + seed + ", round " + round + ", node " + interpretedGraph.get(i).getName()
+                                    + ": expected " + expectedResult + " but was " + actualResult);
+                }
+                if (compiled) {
+                    compiledEvaluations++;
+                }
+            }
+        }
+        assertTrue(compiledEvaluations > 500, "Too few compiled evaluations: " + compiledEvaluations);
+    }
+
+    @Test
+    @DisplayName("should compile the graph once the threshold is reached")
+    void testEvaluate_WhenThresholdReached_ShouldCompile() throws Exception {
+        ProviderNode a = new ProviderNode("source.a");
+        ConstantNode ten = new ConstantNode("ten", 10);
+        LogicNode greater = new LogicNode("greater", LogicOperator.GREATER_THAN, a, ten);
+        FinalNode finalNode = new FinalNode();
+        finalNode.setInputNodes(List.of(greater));
+        List<Node> graph = List.of(a, ten, greater, finalNode);
+        IncrementalEvaluationState state = new IncrementalEvaluationState(2);
+
+        Map<String, Object> high = Map.of("source", objectMapper.readTree("{\"a\": 20}"));
+        Map<String, Object> low = Map.of("source", objectMapper.readTree("{\"a\": 5}"));
+
+        assertTrue(evaluator.evaluateGraph(graph, high, state));
+        assertFalse(state.isCompiled());
+        assertTrue(evaluator.evaluateGraph(graph, high, state));
+        assertTrue(state.isCompiled());
+
+        // Skipped nodes keep the results from before the compilation.
+        assertTrue(evaluator.evaluateGraph(graph, high, state));
+        assertEquals(2, state.getLastCalculatedCount());
+        assertFalse(evaluator.evaluateGraph(graph, low, state));
+        assertEquals(4, state.getLastCalculatedCount());
+    }
+
+    @Test
+    @DisplayName("should report the interpreter's failure for inputs an inlined operator rejects")
+    void testEvaluate_WithNonBooleanInputToAnd_ShouldFailLikeInterpreter() throws Exception {
+        ProviderNode a = new ProviderNode("source.a");
+        ConstantNode truth = new ConstantNode("truth", true);
+        LogicNode and = new LogicNode("and", LogicOperator.AND, truth, a);
+        FinalNode finalNode = new FinalNode();
+        finalNode.setInputNodes(List.of(and));
+        List<Node> graph = List.of(a, truth, and, finalNode);
+        IncrementalEvaluationState state = new IncrementalEvaluationState(1);
+
+        assertTrue(evaluator.evaluateGraph(graph, Map.of("source", objectMapper.readTree("{\"a\": true}")), state));
+        assertTrue(state.isCompiled());
+
+        GraphEvaluationException exception = assertThrows(GraphEvaluationException.class,
+                () -> evaluator.evaluateGraph(graph, Map.of("source", objectMapper.readTree("{\"a\": 1}")), state));
+        GraphEvaluationException cause = assertInstanceOf(GraphEvaluationException.class, exception.getCause());
+        assertEquals(GraphEvaluationException.ErrorType.TYPE_MISMATCH, cause.getErrorType());
+    }
+}
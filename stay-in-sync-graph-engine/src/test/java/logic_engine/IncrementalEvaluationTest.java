@@ -0,0 +1,131 @@
+package logic_engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.graphengine.logic_engine.IncrementalEvaluationState;
+import de.unistuttgart.graphengine.logic_engine.LogicGraphEvaluator;
+import de.unistuttgart.graphengine.logic_operator.LogicOperator;
+import de.unistuttgart.graphengine.nodes.ConstantNode;
+import de.unistuttgart.graphengine.nodes.FinalNode;
+import de.unistuttgart.graphengine.nodes.LogicNode;
+import de.unistuttgart.graphengine.nodes.Node;
+import de.unistuttgart.graphengine.nodes.ProviderNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Incremental graph evaluation")
+public class IncrementalEvaluationTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LogicGraphEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        evaluator = new LogicGraphEvaluator();
+    }
+
+    private Map<String, Object> context(String json) {
+        try {
+            Map<String, Object> dataContext = new HashMap<>();
+            dataContext.put("source", objectMapper.readTree(json));
+            return dataContext;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse test JSON: " + json, e);
+        }
+    }
+
+    /**
+     * Builds {@code (source.a > 10) AND (source.b == "x")}: 2 providers, 2 constants,
+     * 3 logic nodes and the final node.
+     */
+    private List<Node> createGraph() {
+        ProviderNode a = new ProviderNode("source.a");
+        ProviderNode b = new ProviderNode("source.b");
+        ConstantNode ten = new ConstantNode("ten", 10);
+        ConstantNode x = new ConstantNode("x", "x");
+        LogicNode greater = new LogicNode("greater", LogicOperator.GREATER_THAN, a, ten);
+        LogicNode equals = new LogicNode("equals", LogicOperator.EQUALS, b, x);
+        LogicNode and = new LogicNode("and", LogicOperator.AND, greater, equals);
+        FinalNode finalNode = new FinalNode();
+        finalNode.setInputNodes(List.of(and));
+        return List.of(a, b, ten, x, greater, equals, and, finalNode);
+    }
+
+    @Test
+    @DisplayName("should only recalculate nodes downstream of changed provider values")
+    void testEvaluate_WhenOneProviderChanges_ShouldSkipCleanSubgraph() throws Exception {
+        List<Node> graph = createGraph();
+        IncrementalEvaluationState state = new IncrementalEvaluationState();
+
+        assertTrue(evaluator.evaluateGraph(graph, context("{\"a\": 20, \"b\": \"x\"}"), state));
+        assertEquals(8, state.getLastCalculatedCount());
+
+        // Nothing changed: only providers and constants are read again.
+        assertTrue(evaluator.evaluateGraph(graph, context("{\"a\": 20, \"b\": \"x\"}"), state));
+        assertEquals(4, state.getLastCalculatedCount());
+
+        // Only "a" changed, and "greater" keeps its result: "and" and the final node are skipped.
+        assertTrue(evaluator.evaluateGraph(graph, context("{\"a\": 30, \"b\": \"x\"}"), state));
+        assertEquals(5, state.getLastCalculatedCount());
+
+        // Only "b" changed and flips the result: "equals", "and" and the final node are recalculated.
+        assertFalse(evaluator.evaluateGraph(graph, context("{\"a\": 30, \"b\": \"y\"}"), state));
+        assertEquals(7, state.getLastCalculatedCount());
+    }
+
+    @Test
+    @DisplayName("should produce the same results as a full evaluation")
+    void testEvaluate_OverSequenceOfInputs_ShouldMatchFullEvaluation() throws Exception {
+        List<Node> incrementalGraph = createGraph();
+        List<Node> fullGraph = createGraph();
+        IncrementalEvaluationState state = new IncrementalEvaluationState();
+
+        List<String> inputs = List.of(
+                "{\"a\": 20, \"b\": \"x\"}",
+                "{\"a\": 5, \"b\": \"x\"}",
+                "{\"a\": 5, \"b\": \"x\"}",
+                "{\"b\": \"x\"}",
+                "{\"a\": 11, \"b\": \"x\"}",
+                "{\"a\": 11}",
+                "{\"a\": 11, \"b\": \"x\"}");
+        for (String input : inputs) {
+            assertEquals(evaluator.evaluateGraph(fullGraph, context(input)),
+                    evaluator.evaluateGraph(incrementalGraph, context(input), state), input);
+        }
+    }
+
+    @Test
+    @DisplayName("should always recalculate operators that read the data context directly")
+    void testEvaluate_WithExistsOperator_ShouldDetectExplicitNullVersusMissing() throws Exception {
+        ProviderNode a = new ProviderNode("source.a");
+        LogicNode exists = new LogicNode("exists", LogicOperator.EXISTS, a);
+        FinalNode finalNode = new FinalNode();
+        finalNode.setInputNodes(List.of(exists));
+        List<Node> graph = List.of(a, exists, finalNode);
+        IncrementalEvaluationState state = new IncrementalEvaluationState();
+
+        // The provider yields null in both cases, but the path only exists in the first.
+        assertTrue(evaluator.evaluateGraph(graph, context("{\"a\": null}"), state));
+        assertFalse(evaluator.evaluateGraph(graph, context("{}"), state));
+    }
+
+    @Test
+    @DisplayName("should calculate every node again after the state was invalidated")
+    void testEvaluate_AfterInvalidate_ShouldCalculateAllNodes() throws Exception {
+        List<Node> graph = createGraph();
+        IncrementalEvaluationState state = new IncrementalEvaluationState();
+        evaluator.evaluateGraph(graph, context("{\"a\": 20, \"b\": \"x\"}"), state);
+
+        state.invalidate();
+        evaluator.evaluateGraph(graph, context("{\"a\": 20, \"b\": \"x\"}"), state);
+
+        assertEquals(8, state.getLastCalculatedCount());
+    }
+}
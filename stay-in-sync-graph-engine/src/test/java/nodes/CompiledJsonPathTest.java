@@ -0,0 +1,111 @@
+package nodes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.graphengine.nodes.CompiledJsonPath;
+import de.unistuttgart.graphengine.nodes.JsonPathValueExtractor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompiledJsonPath Tests")
+public class CompiledJsonPathTest {
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+    }
+
+    private JsonNode parseJson(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse test JSON: " + json, e);
+        }
+    }
+
+    @Test
+    @DisplayName("should treat '/', '$' and empty paths as the root")
+    void testCompile_WithRootPaths_ShouldBeRoot() {
+        assertTrue(CompiledJsonPath.compile("/").isRoot());
+        assertTrue(CompiledJsonPath.compile("$").isRoot());
+        assertTrue(CompiledJsonPath.compile("  ").isRoot());
+        assertFalse(CompiledJsonPath.compile("a").isRoot());
+    }
+
+    @Test
+    @DisplayName("should resolve fields and array indices in a JsonNode")
+    void testResolve_WithFieldsAndIndices_ShouldFindTarget() {
+        JsonNode root = parseJson("{\"sensors\": [{\"temp\": 20}, {\"temp\": 25}], \"matrix\": [[1, 2]]}");
+
+        assertEquals(25, CompiledJsonPath.compile("sensors[1].temp").resolve(root).asInt());
+        assertTrue(CompiledJsonPath.compile("sensors[2].temp").resolve(root).isMissingNode());
+        assertTrue(CompiledJsonPath.compile("sensors[x].temp").resolve(root).isMissingNode());
+        assertTrue(CompiledJsonPath.compile("sensors[-1]").resolve(root).isMissingNode());
+        assertEquals(2, CompiledJsonPath.compile("matrix[0].[1]").resolve(root).asInt());
+    }
+
+    @Test
+    @DisplayName("should read from maps and lists without converting them")
+    void testRead_WithMapsAndLists_ShouldReturnOriginalValues() {
+        List<Object> items = List.of(Map.of("id", 1), Map.of("id", 2));
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("items", items);
+        nested.put("empty", null);
+        Map<String, Object> root = Map.of("order", nested);
+
+        assertSame(items, CompiledJsonPath.compile("order.items").read(root));
+        assertEquals(2, CompiledJsonPath.compile("order.items[1].id").read(root));
+        assertNull(CompiledJsonPath.compile("order.empty").read(root));
+        assertSame(CompiledJsonPath.MISSING, CompiledJsonPath.compile("order.unknown").read(root));
+        assertSame(CompiledJsonPath.MISSING, CompiledJsonPath.compile("order.items[5]").read(root));
+        assertSame(root, CompiledJsonPath.compile("$").read(root));
+    }
+
+    @Test
+    @DisplayName("should continue into JsonNodes held by maps")
+    void testRead_WithJsonNodeInsideMap_ShouldNavigateIntoIt() {
+        Map<String, Object> root = Map.of("payload", parseJson("{\"values\": [3, 4]}"));
+
+        Object value = CompiledJsonPath.compile("payload.values[1]").read(root);
+
+        assertInstanceOf(JsonNode.class, value);
+        assertEquals(4, ((JsonNode) value).asInt());
+    }
+
+    @Test
+    @DisplayName("should extract the same values as the string-based extractor")
+    void testExtractValue_WithCompiledPath_ShouldMatchStringPath() {
+        JsonNode root = parseJson("{\"a\": {\"b\": [1, 2, 3], \"c\": null, \"d\": \"text\"}}");
+        JsonPathValueExtractor extractor = new JsonPathValueExtractor();
+
+        for (String path : List.of("a.b", "a.b[2]", "a.c", "a.d", "a.missing", "a..b", "a.b[", "/")) {
+            assertEquals(extractor.extractValue(root, path), extractor.extractValue(root, CompiledJsonPath.compile(path)), path);
+            assertEquals(extractor.pathExists(root, path), extractor.pathExists(root, CompiledJsonPath.compile(path)), path);
+        }
+    }
+
+    @Test
+    @DisplayName("should convert JsonNode values when extracting from a map")
+    void testExtractValue_FromMap_ShouldConvertJsonNodes() {
+        JsonPathValueExtractor extractor = new JsonPathValueExtractor();
+        Map<String, Object> root = Map.of("json", parseJson("{\"list\": [1, 2]}"), "plain", "value");
+
+        Optional<Object> list = extractor.extractValue(root, CompiledJsonPath.compile("json.list"));
+        Optional<Object> plain = extractor.extractValue(root, CompiledJsonPath.compile("plain"));
+
+        assertEquals(Optional.of(Arrays.asList(1, 2)), list);
+        assertEquals(Optional.of("value"), plain);
+        assertTrue(extractor.extractValue(root, CompiledJsonPath.compile("json.none")).isEmpty());
+    }
+}
@@ -349,4 +349,101 @@ public class ConfigNodeTest {
         // ASSERT
         assertEquals(oldTimestamp, configNode.getNewSnapshotData().get("source.system1.value1").timestamp());
     }
-}
\ No newline at end of file
+
+    // ===== FINGERPRINT SNAPSHOT TESTS =====
+
+    @Test
+    @DisplayName("should store fingerprints instead of values when fingerprint snapshots are enabled")
+    void testCalculate_WithFingerprintSnapshots_ShouldStoreFingerprints() {
+        // ARRANGE
+        configNode.setFingerprintSnapshots(true);
+
+        // ACT
+        configNode.calculate(dataContext);
+
+        // ASSERT
+        assertTrue((Boolean) configNode.getCalculatedResult());
+        assertEquals(ValueFingerprint.of("test_value_1"),
+                configNode.getNewSnapshotData().get("source.system1.value1").value());
+    }
+
+    @Test
+    @DisplayName("should detect changes and non-changes with fingerprint snapshots")
+    void testCalculate_WithFingerprintSnapshots_ShouldDetectChanges() {
+        // ARRANGE
+        configNode.setFingerprintSnapshots(true);
+        configNode.calculate(dataContext);
+        dataContext.put("__snapshot", configNode.getNewSnapshotData());
+
+        // ACT & ASSERT: no change
+        configNode.calculate(dataContext);
+        assertFalse((Boolean) configNode.getCalculatedResult());
+
+        // ACT & ASSERT: one value changed
+        dataContext.put("__snapshot", configNode.getNewSnapshotData());
+        providerNode2.setCalculatedResult(List.of("changed"));
+        configNode.calculate(dataContext);
+        assertTrue((Boolean) configNode.getCalculatedResult());
+    }
+
+    @Test
+    @DisplayName("should compare plain snapshot values with fingerprints after enabling fingerprint snapshots")
+    void testCalculate_WhenFingerprintsEnabledOverPlainSnapshot_ShouldCompareFingerprints() {
+        // ARRANGE
+        Map<String, SnapshotEntry> oldSnapshot = new HashMap<>();
+        oldSnapshot.put("source.system1.value1", new SnapshotEntry("test_value_1", 1000L));
+        oldSnapshot.put("source.system2.value2", new SnapshotEntry("test_value_2", 1000L));
+        dataContext.put("__snapshot", oldSnapshot);
+        configNode.setFingerprintSnapshots(true);
+
+        // ACT
+        configNode.calculate(dataContext);
+
+        // ASSERT
+        assertFalse((Boolean) configNode.getCalculatedResult());
+    }
+
+    // ===== SNAPSHOT MAP REUSE TESTS =====
+
+    @Test
+    @DisplayName("should refill a recycled snapshot map instead of allocating a new one")
+    void testCalculate_WithRecycledSnapshot_ShouldReuseMap() {
+        // ARRANGE
+        configNode.calculate(dataContext);
+        Map<String, SnapshotEntry> first = configNode.getNewSnapshotData();
+        dataContext.put("__snapshot", first);
+        configNode.calculate(dataContext);
+        Map<String, SnapshotEntry> second = configNode.getNewSnapshotData();
+        configNode.recycleSnapshot(first);
+
+        // ACT
+        providerNode1.setCalculatedResult("new_value");
+        dataContext.put("__snapshot", second);
+        configNode.calculate(dataContext);
+
+        // ASSERT
+        assertSame(first, configNode.getNewSnapshotData());
+        assertTrue((Boolean) configNode.getCalculatedResult());
+        assertEquals("new_value", first.get("source.system1.value1").value());
+        assertEquals(2, first.size());
+    }
+
+    @Test
+    @DisplayName("should not refill a recycled map that is still the old snapshot")
+    void testCalculate_WhenRecycledMapIsOldSnapshot_ShouldAllocateNewMap() {
+        // ARRANGE
+        Map<String, SnapshotEntry> oldSnapshot = new HashMap<>();
+        oldSnapshot.put("source.system1.value1", new SnapshotEntry("test_value_1", 1000L));
+        oldSnapshot.put("source.system2.value2", new SnapshotEntry("test_value_2", 1000L));
+        configNode.recycleSnapshot(oldSnapshot);
+        dataContext.put("__snapshot", oldSnapshot);
+
+        // ACT
+        configNode.calculate(dataContext);
+
+        // ASSERT
+        assertNotSame(oldSnapshot, configNode.getNewSnapshotData());
+        assertFalse((Boolean) configNode.getCalculatedResult());
+        assertEquals(2, oldSnapshot.size());
+    }
+}
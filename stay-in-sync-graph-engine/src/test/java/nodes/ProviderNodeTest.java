@@ -10,6 +10,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -178,6 +179,24 @@ public class ProviderNodeTest {
         assertEquals(25.5, node.getCalculatedResult());
     }
 
+    @Test
+    @DisplayName("should extract value from a Map source without converting it to a JsonNode")
+    void testCalculate_WithMapSource_ShouldExtractValue() {
+        // ARRANGE
+        ProviderNode node = new ProviderNode("source.system1.sensors[1].temperature");
+        dataContext.put("source", Map.of(
+                "system1", Map.of(
+                        "sensors", List.of(Map.of("temperature", 20.0), Map.of("temperature", 25.5))
+                )
+        ));
+
+        // ACT
+        node.calculate(dataContext);
+
+        // ASSERT
+        assertEquals(25.5, node.getCalculatedResult());
+    }
+
     @Test
     @DisplayName("should set null when path does not exist")
     void testCalculate_WithNonExistentPath_ShouldSetNull(){
@@ -0,0 +1,86 @@
+package nodes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.graphengine.nodes.ValueFingerprint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ValueFingerprint Tests")
+public class ValueFingerprintTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("should produce equal fingerprints for equal values")
+    void testOf_WithEqualValues_ShouldBeEqual() {
+        assertEquals(ValueFingerprint.of("abc"), ValueFingerprint.of(new String("abc")));
+        assertEquals(ValueFingerprint.of(List.of(1, "x", true)), ValueFingerprint.of(Arrays.asList(1, "x", true)));
+        assertEquals(ValueFingerprint.of(null), ValueFingerprint.of(null));
+    }
+
+    @Test
+    @DisplayName("should distinguish values of different content or type")
+    void testOf_WithDifferentValues_ShouldDiffer() {
+        assertNotEquals(ValueFingerprint.of("abc"), ValueFingerprint.of("abd"));
+        assertNotEquals(ValueFingerprint.of("abcd"), ValueFingerprint.of("abcd\u0000"));
+        assertNotEquals(ValueFingerprint.of(5), ValueFingerprint.of(5.0));
+        assertNotEquals(ValueFingerprint.of("5"), ValueFingerprint.of(5));
+        assertNotEquals(ValueFingerprint.of(null), ValueFingerprint.of(""));
+        assertNotEquals(ValueFingerprint.of(List.of(1, 2)), ValueFingerprint.of(List.of(2, 1)));
+        assertNotEquals(ValueFingerprint.of(List.of(List.of(1), 2)), ValueFingerprint.of(List.of(1, List.of(2))));
+    }
+
+    @Test
+    @DisplayName("should ignore the order of object fields")
+    void testOf_WithReorderedFields_ShouldBeEqual() throws Exception {
+        Map<String, Object> ab = new LinkedHashMap<>();
+        ab.put("a", 1);
+        ab.put("b", List.of("x"));
+        Map<String, Object> ba = new LinkedHashMap<>();
+        ba.put("b", List.of("x"));
+        ba.put("a", 1);
+
+        assertEquals(ValueFingerprint.of(ab), ValueFingerprint.of(ba));
+        assertEquals(ValueFingerprint.of(objectMapper.readTree("{\"a\": 1, \"b\": {\"c\": 2}}")),
+                ValueFingerprint.of(objectMapper.readTree("{\"b\": {\"c\": 2}, \"a\": 1}")));
+    }
+
+    @Test
+    @DisplayName("should not confuse swapped field values")
+    void testOf_WithSwappedFieldValues_ShouldDiffer() throws Exception {
+        assertNotEquals(ValueFingerprint.of(objectMapper.readTree("{\"a\": 1, \"b\": 2}")),
+                ValueFingerprint.of(objectMapper.readTree("{\"a\": 2, \"b\": 1}")));
+    }
+
+    @Test
+    @DisplayName("should hash Jackson nodes like the Java values converted from them")
+    void testOf_WithJsonNodeAndJavaValue_ShouldBeEqual() throws Exception {
+        assertEquals(ValueFingerprint.of("abc"), ValueFingerprint.of(objectMapper.readTree("\"abc\"")));
+        assertEquals(ValueFingerprint.of(42), ValueFingerprint.of(objectMapper.readTree("42")));
+        assertEquals(ValueFingerprint.of(List.of(1, "x", false)), ValueFingerprint.of(objectMapper.readTree("[1, \"x\", false]")));
+        assertEquals(ValueFingerprint.of(Map.of("a", 1)), ValueFingerprint.of(objectMapper.readTree("{\"a\": 1}")));
+    }
+
+    @Test
+    @DisplayName("should detect a change deep inside a large document")
+    void testOf_WithDeepChange_ShouldDiffer() throws Exception {
+        StringBuilder original = new StringBuilder("{\"items\": [");
+        for (int i = 0; i < 1000; i++) {
+            original.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append(", \"name\": \"item").append(i).append("\"}");
+        }
+        original.append("]}");
+        String changed = original.toString().replace("\"item500\"", "\"item5OO\"");
+
+        assertEquals(ValueFingerprint.of(objectMapper.readTree(original.toString())),
+                ValueFingerprint.of(objectMapper.readTree(original.toString())));
+        assertNotEquals(ValueFingerprint.of(objectMapper.readTree(original.toString())),
+                ValueFingerprint.of(objectMapper.readTree(changed)));
+    }
+}
@@ -0,0 +1,236 @@
+package predicates;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import de.unistuttgart.graphengine.exception.GraphEvaluationException;
+import de.unistuttgart.graphengine.logic_operator.LogicOperator;
+import de.unistuttgart.graphengine.logic_operator.PreparedConstant;
+import de.unistuttgart.graphengine.logic_operator.datetime_predicates.DateTimeInputs;
+import de.unistuttgart.graphengine.nodes.ConstantNode;
+import de.unistuttgart.graphengine.nodes.LogicNode;
+import de.unistuttgart.graphengine.nodes.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that operators with constant operands prepare their derived state once
+ * and produce the same results with and without it.
+ */
+@DisplayName("Operator preparation")
+public class OperatorPreparationTest {
+
+    /**
+     * An input node whose result is set directly, standing in for a ProviderNode.
+     */
+    private static final class ValueNode extends Node {
+        ValueNode(Object value) {
+            setName("value");
+            setCalculatedResult(value);
+        }
+
+        @Override
+        public void calculate(Map<String, Object> dataContext) {
+        }
+
+        @Override
+        public Class<?> getOutputType() {
+            return Object.class;
+        }
+    }
+
+    private static ConstantNode constant(Object value) throws Exception {
+        ConstantNode node = new ConstantNode("constant", value);
+        node.calculate(Map.of());
+        return node;
+    }
+
+    /**
+     * Evaluates the operator once on a prepared node and once on an unprepared node
+     * with the same inputs, asserts that both agree and returns the result.
+     */
+    private static Object evaluateBothWays(LogicOperator operator, Node input0, Node input1) throws Exception {
+        LogicNode prepared = new LogicNode("prepared", operator, input0, input1);
+        prepared.prepare();
+        LogicNode unprepared = new LogicNode("unprepared", operator, input0, input1);
+
+        prepared.calculate(Map.of());
+        unprepared.calculate(Map.of());
+        assertEquals(unprepared.getCalculatedResult(), prepared.getCalculatedResult());
+        return prepared.getCalculatedResult();
+    }
+
+    @Test
+    @DisplayName("REGEX_MATCH should compile a constant pattern once")
+    void testRegexMatch_WithConstantPattern_ShouldPreparePattern() throws Exception {
+        ConstantNode pattern = constant("^[A-Z]{2}[0-9]{4}$");
+        LogicNode node = new LogicNode("regex", LogicOperator.REGEX_MATCH, new ValueNode("SN1234"), pattern);
+        node.prepare();
+
+        PreparedConstant<?> prepared = assertInstanceOf(PreparedConstant.class, node.getPreparedState());
+        assertInstanceOf(Pattern.class, prepared.derived());
+
+        assertEquals(true, evaluateBothWays(LogicOperator.REGEX_MATCH, new ValueNode("SN1234"), pattern));
+        assertEquals(false, evaluateBothWays(LogicOperator.REGEX_MATCH, new ValueNode("sn1234"), pattern));
+    }
+
+    @Test
+    @DisplayName("REGEX_MATCH should prepare an invalid constant pattern as never matching")
+    void testRegexMatch_WithInvalidConstantPattern_ShouldReturnFalse() throws Exception {
+        ConstantNode pattern = constant("[a-z");
+
+        assertEquals(false, evaluateBothWays(LogicOperator.REGEX_MATCH, new ValueNode("a"), pattern));
+    }
+
+    @Test
+    @DisplayName("REGEX_MATCH should not prepare anything for a dynamic pattern")
+    void testRegexMatch_WithDynamicPattern_ShouldNotPrepare() throws Exception {
+        LogicNode node = new LogicNode("regex", LogicOperator.REGEX_MATCH, new ValueNode("abc"), new ValueNode("a.c"));
+        node.prepare();
+
+        assertNull(node.getPreparedState());
+        node.calculate(Map.of());
+        assertEquals(true, node.getCalculatedResult());
+    }
+
+    @Test
+    @DisplayName("should fall back to the regular path if the constant changed after preparation")
+    void testRegexMatch_WhenConstantChangedAfterPreparation_ShouldUseNewValue() throws Exception {
+        ConstantNode pattern = constant("a+");
+        LogicNode node = new LogicNode("regex", LogicOperator.REGEX_MATCH, new ValueNode("bbb"), pattern);
+        node.prepare();
+
+        pattern.setValue("b+");
+        pattern.calculate(Map.of());
+        node.calculate(Map.of());
+
+        assertEquals(true, node.getCalculatedResult());
+    }
+
+    @Test
+    @DisplayName("IN_SET and NOTIN_SET should hash the constant set once")
+    void testInSet_WithConstantSet_ShouldPrepareSet() throws Exception {
+        ConstantNode allowed = constant(new Object[]{"A", "B", "C"});
+        LogicNode node = new LogicNode("inSet", LogicOperator.IN_SET, new ValueNode("B"), allowed);
+        node.prepare();
+
+        assertNotNull(node.getPreparedState());
+        assertEquals(true, evaluateBothWays(LogicOperator.IN_SET, new ValueNode("B"), allowed));
+        assertEquals(false, evaluateBothWays(LogicOperator.IN_SET, new ValueNode("D"), allowed));
+        assertEquals(false, evaluateBothWays(LogicOperator.NOTIN_SET, new ValueNode("B"), allowed));
+        assertEquals(true, evaluateBothWays(LogicOperator.NOTIN_SET, new ValueNode(null), allowed));
+    }
+
+    @Test
+    @DisplayName("set comparisons should agree with and without prepared sets")
+    void testSetComparisons_WithConstantInputs_ShouldMatchUnpreparedResults() throws Exception {
+        List<Object> sources = List.of(
+                List.of("a", "b", "c"),
+                List.of("a", "a", "b"),
+                List.of(),
+                new String[]{"c", "d"},
+                "not a collection");
+        List<Object> references = List.of(
+                List.of("a", "b"),
+                new String[]{"b", "b"},
+                List.of(),
+                List.of("x"));
+        List<LogicOperator> operators = List.of(
+                LogicOperator.CONTAINS_ALL, LogicOperator.CONTAINS_ANY, LogicOperator.CONTAINS_NONE);
+
+        for (LogicOperator operator : operators) {
+            for (Object source : sources) {
+                for (Object reference : references) {
+                    // Constant reference, dynamic source.
+                    evaluateBothWays(operator, new ValueNode(source), constant(reference));
+                    // Constant source, dynamic reference.
+                    evaluateBothWays(operator, constant(source), new ValueNode(reference));
+                    // Both constant.
+                    evaluateBothWays(operator, constant(source), constant(reference));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("CONTAINS_ALL should count duplicate source elements only once")
+    void testContainsAll_WithConstantReference_ShouldIgnoreDuplicates() throws Exception {
+        ConstantNode reference = constant(List.of("a", "b"));
+
+        assertEquals(false, evaluateBothWays(LogicOperator.CONTAINS_ALL, new ValueNode(List.of("a", "a")), reference));
+        assertEquals(true, evaluateBothWays(LogicOperator.CONTAINS_ALL, new ValueNode(List.of("b", "x", "a")), reference));
+    }
+
+    @Test
+    @DisplayName("date-time operators should parse constant date-times once")
+    void testDateTimeOperators_WithConstantInput_ShouldPrepareDateTimeInputs() throws Exception {
+        ConstantNode deadline = constant("2025-10-02T14:30:00Z");
+        LogicNode node = new LogicNode("before", LogicOperator.BEFORE, new ValueNode("2025-10-01"), deadline);
+        node.prepare();
+
+        assertInstanceOf(DateTimeInputs.class, node.getPreparedState());
+        assertEquals(true, evaluateBothWays(LogicOperator.BEFORE, new ValueNode("2025-10-01"), deadline));
+        assertEquals(false, evaluateBothWays(LogicOperator.AFTER, new ValueNode("2025-10-01"), deadline));
+        assertEquals(true, evaluateBothWays(LogicOperator.SAME_DAY, new ValueNode("2025-10-02T08:00:00Z"), deadline));
+    }
+
+    @Test
+    @DisplayName("date-time operators should detect the format again when an input switches formats")
+    void testDateTimeOperators_WhenInputChangesFormat_ShouldMatchUnpreparedResults() throws Exception {
+        ConstantNode deadline = constant("2025-10-02");
+        ValueNode input = new ValueNode("2025-10-01T23:00:00+02:00");
+        LogicNode prepared = new LogicNode("prepared", LogicOperator.BEFORE, input, deadline);
+        prepared.prepare();
+        LogicNode unprepared = new LogicNode("unprepared", LogicOperator.BEFORE, input, deadline);
+
+        List<Object> values = List.of(
+                "2025-10-01T23:00:00+02:00",
+                "2025-10-01",
+                "2025-10-03",
+                "2025-02-30",
+                "garbage",
+                "2025-10-02T23:00:00+02:00");
+        for (Object value : values) {
+            input.setCalculatedResult(value);
+            prepared.calculate(Map.of());
+            unprepared.calculate(Map.of());
+            assertEquals(unprepared.getCalculatedResult(), prepared.getCalculatedResult(), String.valueOf(value));
+        }
+    }
+
+    @Test
+    @DisplayName("MATCHES_SCHEMA should compile a constant schema when the node is prepared")
+    void testMatchesSchema_WithConstantSchema_ShouldPrepareSchema() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ConstantNode schema = constant("{\"type\": \"object\", \"required\": [\"id\"]}");
+        LogicNode node = new LogicNode("schema", LogicOperator.MATCHES_SCHEMA,
+                new ValueNode(objectMapper.readTree("{\"id\": 1}")), schema);
+        node.prepare();
+
+        PreparedConstant<?> prepared = assertInstanceOf(PreparedConstant.class, node.getPreparedState());
+        assertInstanceOf(JsonSchema.class, prepared.derived());
+
+        assertEquals(true, evaluateBothWays(LogicOperator.MATCHES_SCHEMA,
+                new ValueNode(objectMapper.readTree("{\"id\": 1}")), schema));
+        assertEquals(false, evaluateBothWays(LogicOperator.MATCHES_SCHEMA,
+                new ValueNode(objectMapper.readTree("{\"name\": \"a\"}")), schema));
+    }
+
+    @Test
+    @DisplayName("MATCHES_SCHEMA should report an invalid constant schema on evaluation, as without preparation")
+    void testMatchesSchema_WithInvalidConstantSchema_ShouldFailOnEvaluation() throws Exception {
+        ConstantNode schema = constant("{not a schema");
+        LogicNode node = new LogicNode("schema", LogicOperator.MATCHES_SCHEMA,
+                new ValueNode(new ObjectMapper().readTree("{}")), schema);
+        node.prepare();
+
+        PreparedConstant<?> prepared = assertInstanceOf(PreparedConstant.class, node.getPreparedState());
+        assertNull(prepared.derived());
+        assertThrows(GraphEvaluationException.class, () -> node.calculate(Map.of()));
+    }
+}
@@ -62,6 +62,22 @@ public class MaxOperatorTest {
         });
     }
 
+    @Test
+    @DisplayName("should return the maximum of primitive array inputs")
+    void testExecute_WithPrimitiveArrayInputs_ShouldReturnMaximum() {
+        // ARRANGE
+        when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1, mockInputNode2, mockInputNode3));
+        when(mockInputNode1.getCalculatedResult()).thenReturn(new double[]{1.5, 7.5});
+        when(mockInputNode2.getCalculatedResult()).thenReturn(new int[]{3, 2});
+        when(mockInputNode3.getCalculatedResult()).thenReturn(new long[]{1L, 1L});
+
+        // ACT & ASSERT
+        assertDoesNotThrow(() -> {
+            Object result = operation.execute(mockLogicNode, null);
+            assertEquals(7.5, (Double) result);
+        });
+    }
+
     @Test
     @DisplayName("should return correct maximum from single array input")
     void testExecute_WithSingleArrayInput_ShouldReturnMaximum() {
@@ -61,6 +61,22 @@ public class SumOperatorTest {
         });
     }
 
+    @Test
+    @DisplayName("should return the sum of primitive array inputs")
+    void testExecute_WithPrimitiveArrayInputs_ShouldReturnSum() {
+        // ARRANGE
+        when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1, mockInputNode2, mockInputNode3));
+        when(mockInputNode1.getCalculatedResult()).thenReturn(new double[]{1.5, 7.5});
+        when(mockInputNode2.getCalculatedResult()).thenReturn(new int[]{3, 2});
+        when(mockInputNode3.getCalculatedResult()).thenReturn(new long[]{1L, 1L});
+
+        // ACT & ASSERT
+        assertDoesNotThrow(() -> {
+            Object result = operation.execute(mockLogicNode, null);
+            assertEquals(16.5, (Double) result);
+        });
+    }
+
     @Test
     @DisplayName("should return 0.0 if inputs are not collections or arrays")
     void testExecute_WithNonCollectionInput_ShouldReturnZero() {
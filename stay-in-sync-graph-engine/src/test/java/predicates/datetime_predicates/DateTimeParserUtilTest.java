@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -227,4 +228,38 @@ public class DateTimeParserUtilTest {
         assertEquals(12, result.getMonthValue());
         assertEquals(31, result.getDayOfMonth());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should detect the format of a date-time string without parsing it")
+    void testDetectFormat_WithSupportedAndUnsupportedStrings_ShouldReturnMatchingFormat() {
+        assertEquals(DateTimeParserUtil.Format.ZONED_DATE_TIME, DateTimeParserUtil.detectFormat("2025-10-02T14:30:00Z"));
+        assertEquals(DateTimeParserUtil.Format.LOCAL_DATE, DateTimeParserUtil.detectFormat("2025-10-02"));
+        assertNull(DateTimeParserUtil.detectFormat("2025-10-02T14:30:00"));
+        assertNull(DateTimeParserUtil.detectFormat("2025-10-02 trailing"));
+        assertNull(DateTimeParserUtil.detectFormat("not a date"));
+    }
+
+    @Test
+    @DisplayName("should return null instead of throwing for out-of-range values")
+    void testParse_WithInvalidDayOfMonth_ShouldReturnNull() {
+        assertEquals(DateTimeParserUtil.Format.LOCAL_DATE, DateTimeParserUtil.detectFormat("2025-02-30"));
+        assertNull(DateTimeParserUtil.parse("2025-02-30", DateTimeParserUtil.Format.LOCAL_DATE));
+        assertNull(DateTimeParserUtil.toZonedDateTime("2025-02-30"));
+    }
+
+    @Test
+    @DisplayName("should return null when a string does not match the given format")
+    void testParse_WithMismatchingFormat_ShouldReturnNull() {
+        assertNull(DateTimeParserUtil.parse("2025-10-02", DateTimeParserUtil.Format.ZONED_DATE_TIME));
+        assertNull(DateTimeParserUtil.parse("2025-10-02T14:30:00Z", DateTimeParserUtil.Format.LOCAL_DATE));
+    }
+
+    @Test
+    @DisplayName("should resolve time unit names ignoring case")
+    void testToChronoUnit_WithVariousNames_ShouldResolveKnownUnits() {
+        assertEquals(ChronoUnit.DAYS, DateTimeParserUtil.toChronoUnit("days"));
+        assertEquals(ChronoUnit.HOURS, DateTimeParserUtil.toChronoUnit("HOURS"));
+        assertEquals(ChronoUnit.HALF_DAYS, DateTimeParserUtil.toChronoUnit("Half_Days"));
+        assertNull(DateTimeParserUtil.toChronoUnit("fortnights"));
+    }
+}
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 /**
@@ -57,12 +58,23 @@ public class ExistsOperatorTest {
         dataContext.put("source", sourceNode);
     }
 
+    /**
+     * Stubs the source key and compiled path of a mocked ProviderNode the way
+     * {@link ProviderNode#setJsonPath(String)} derives them from the jsonPath.
+     */
+    private static void stubJsonPath(ProviderNode provider, String jsonPath) {
+        ProviderNode compiled = new ProviderNode();
+        compiled.setJsonPath(jsonPath);
+        lenient().when(provider.getSourceKey()).thenReturn(compiled.getSourceKey());
+        lenient().when(provider.getCompiledPath()).thenReturn(compiled.getCompiledPath());
+    }
+
     @Test
     @DisplayName("should return true when the specified path exists")
     void testExecute_WhenPathExists_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.temperature");
+        stubJsonPath(mockInputNode1, "source.sensor.temperature");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -76,7 +88,7 @@ public class ExistsOperatorTest {
     void testExecute_WhenPathExistsWithNullValue_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.pressure");
+        stubJsonPath(mockInputNode1, "source.sensor.pressure");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -90,7 +102,7 @@ public class ExistsOperatorTest {
     void testExecute_WhenPathDoesNotExist_ShouldReturnFalse() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.nonexistent"); // This path is missing
+        stubJsonPath(mockInputNode1, "source.sensor.nonexistent"); // This path is missing
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -104,8 +116,8 @@ public class ExistsOperatorTest {
     void testExecute_WhenMultiplePathsExist_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1, mockInputNode2));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.temperature");
-        when(mockInputNode2.getJsonPath()).thenReturn("source.sensor.humidity");
+        stubJsonPath(mockInputNode1, "source.sensor.temperature");
+        stubJsonPath(mockInputNode2, "source.sensor.humidity");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -119,8 +131,8 @@ public class ExistsOperatorTest {
     void testExecute_WhenOneOfMultiplePathsDoesNotExist_ShouldReturnFalse() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1, mockInputNode2));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.temperature"); // exists
-        when(mockInputNode2.getJsonPath()).thenReturn("source.sensor.nonexistent"); // does not exist
+        stubJsonPath(mockInputNode1, "source.sensor.temperature"); // exists
+        stubJsonPath(mockInputNode2, "source.sensor.nonexistent"); // does not exist
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -150,7 +162,7 @@ public class ExistsOperatorTest {
     void testExecute_WhenSourceKeyIsMissing_ShouldReturnFalse() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("missing_source.sensor.temperature");
+        stubJsonPath(mockInputNode1, "missing_source.sensor.temperature");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -164,7 +176,7 @@ public class ExistsOperatorTest {
     void testExecute_WhenSourceValueIsNull_ShouldReturnFalse() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.temperature");
+        stubJsonPath(mockInputNode1, "source.sensor.temperature");
 
         dataContext.put("source", null); // Null source value
 
@@ -180,7 +192,7 @@ public class ExistsOperatorTest {
     void testExecute_WhenSourceValueIsNotJsonNode_ShouldReturnFalse() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.temperature");
+        stubJsonPath(mockInputNode1, "source.sensor.temperature");
 
         dataContext.put("source", "not a json node"); // String instead of JsonNode
 
@@ -196,7 +208,7 @@ public class ExistsOperatorTest {
     void testExecute_WhenPathIsJustSourceKey_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source");
+        stubJsonPath(mockInputNode1, "source");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -210,7 +222,7 @@ public class ExistsOperatorTest {
     void testExecute_WhenPathHasNoParts_ShouldReturnFalse() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn(""); // Empty path
+        stubJsonPath(mockInputNode1, ""); // Empty path
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -289,7 +301,7 @@ public class ExistsOperatorTest {
         dataContext.put("other_source", otherSourceNode);
 
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("other_source.value");
+        stubJsonPath(mockInputNode1, "other_source.value");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -310,7 +322,7 @@ public class ExistsOperatorTest {
         dataContext.put("source", deepNode);
 
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.level1.level2.level3.value");
+        stubJsonPath(mockInputNode1, "source.level1.level2.level3.value");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,12 +53,23 @@ public class NotExistsOperatorTest {
         dataContext.put("source", sourceNode);
     }
 
+    /**
+     * Stubs the source key and compiled path of a mocked ProviderNode the way
+     * {@link ProviderNode#setJsonPath(String)} derives them from the jsonPath.
+     */
+    private static void stubJsonPath(ProviderNode provider, String jsonPath) {
+        ProviderNode compiled = new ProviderNode();
+        compiled.setJsonPath(jsonPath);
+        lenient().when(provider.getSourceKey()).thenReturn(compiled.getSourceKey());
+        lenient().when(provider.getCompiledPath()).thenReturn(compiled.getCompiledPath());
+    }
+
     @Test
     @DisplayName("should return true when the specified path does not exist")
     void testExecute_WhenPathDoesNotExist_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.pressure");
+        stubJsonPath(mockInputNode1, "source.sensor.pressure");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -71,7 +83,7 @@ public class NotExistsOperatorTest {
     void testExecute_WhenPathExists_ShouldReturnFalse() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.temperature");
+        stubJsonPath(mockInputNode1, "source.sensor.temperature");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -85,8 +97,8 @@ public class NotExistsOperatorTest {
     void testExecute_WhenOneOfMultiplePathsExists_ShouldReturnFalse() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1, mockInputNode2));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.pressure"); // existiert nicht
-        when(mockInputNode2.getJsonPath()).thenReturn("source.sensor.temperature"); // existiert
+        stubJsonPath(mockInputNode1, "source.sensor.pressure"); // existiert nicht
+        stubJsonPath(mockInputNode2, "source.sensor.temperature"); // existiert
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -100,8 +112,8 @@ public class NotExistsOperatorTest {
     void testExecute_WhenAllMultiplePathsDoNotExist_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1, mockInputNode2));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.pressure"); // existiert nicht
-        when(mockInputNode2.getJsonPath()).thenReturn("source.sensor.humidity"); // existiert nicht
+        stubJsonPath(mockInputNode1, "source.sensor.pressure"); // existiert nicht
+        stubJsonPath(mockInputNode2, "source.sensor.humidity"); // existiert nicht
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -124,7 +136,7 @@ public class NotExistsOperatorTest {
     void testExecute_WhenDataContextIsEmpty_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.temperature");
+        stubJsonPath(mockInputNode1, "source.sensor.temperature");
 
         // ACT
         Object result = operation.execute(mockLogicNode, Collections.emptyMap());
@@ -138,7 +150,7 @@ public class NotExistsOperatorTest {
     void testExecute_WhenSourceKeyIsMissing_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("missing_source.sensor.temperature");
+        stubJsonPath(mockInputNode1, "missing_source.sensor.temperature");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -152,7 +164,7 @@ public class NotExistsOperatorTest {
     void testExecute_WhenSourceValueIsNull_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.temperature");
+        stubJsonPath(mockInputNode1, "source.sensor.temperature");
 
         dataContext.put("source", null); // Null source value
 
@@ -168,7 +180,7 @@ public class NotExistsOperatorTest {
     void testExecute_WhenSourceValueIsNotJsonNode_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.temperature");
+        stubJsonPath(mockInputNode1, "source.sensor.temperature");
 
         dataContext.put("source", "not a json node"); // String instead of JsonNode
 
@@ -184,7 +196,7 @@ public class NotExistsOperatorTest {
     void testExecute_WhenPathHasNoParts_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn(""); // Empty path
+        stubJsonPath(mockInputNode1, ""); // Empty path
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -198,7 +210,7 @@ public class NotExistsOperatorTest {
     void testExecute_WhenInputIsNotProviderNode_ShouldSkip() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1, mockInvalidInputNode));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.nonexistent"); // doesn't exist
+        stubJsonPath(mockInputNode1, "source.sensor.nonexistent"); // doesn't exist
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -280,7 +292,7 @@ public class NotExistsOperatorTest {
         dataContext.put("other_source", otherSourceNode);
 
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("other_source.missing_path");
+        stubJsonPath(mockInputNode1, "other_source.missing_path");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -294,7 +306,7 @@ public class NotExistsOperatorTest {
     void testExecute_WhenPathIsJustSourceKeyAndExists_ShouldReturnFalse() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1));
-        when(mockInputNode1.getJsonPath()).thenReturn("source");
+        stubJsonPath(mockInputNode1, "source");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
@@ -308,8 +320,8 @@ public class NotExistsOperatorTest {
     void testExecute_WithMultipleNonExistingPaths_ShouldReturnTrue() {
         // ARRANGE
         when(mockLogicNode.getInputNodes()).thenReturn(List.of(mockInputNode1, mockInputNode2));
-        when(mockInputNode1.getJsonPath()).thenReturn("source.sensor.pressure");
-        when(mockInputNode2.getJsonPath()).thenReturn("source.sensor.altitude");
+        stubJsonPath(mockInputNode1, "source.sensor.pressure");
+        stubJsonPath(mockInputNode2, "source.sensor.altitude");
 
         // ACT
         Object result = operation.execute(mockLogicNode, dataContext);
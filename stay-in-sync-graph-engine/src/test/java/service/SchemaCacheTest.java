@@ -0,0 +1,87 @@
+package service;
+
+import com.networknt.schema.JsonSchema;
+import de.unistuttgart.graphengine.service.SchemaCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaCacheTest {
+
+    private SchemaCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SchemaCache();
+    }
+
+    private static String schemaRequiring(String property) {
+        return "{\"type\": \"object\", \"required\": [\"" + property + "\"]}";
+    }
+
+    @Test
+    @DisplayName("should compile a schema once and reuse it for equal schema texts")
+    void testGetCompiledSchema_WithEqualText_ShouldCompileOnce() {
+        JsonSchema first = cache.getCompiledSchema(schemaRequiring("id"));
+        // An equal text in a different String instance.
+        JsonSchema second = cache.getCompiledSchema(new String(schemaRequiring("id")));
+
+        assertSame(first, second);
+        assertEquals(1, cache.getCacheSize());
+        assertEquals(1, cache.stats().loadSuccessCount());
+        assertEquals(1, cache.stats().hitCount());
+        assertTrue(cache.stats().totalLoadTime() > 0);
+    }
+
+    @Test
+    @DisplayName("should compile different schema texts separately")
+    void testGetCompiledSchema_WithDifferentTexts_ShouldCompileEach() {
+        assertNotSame(cache.getCompiledSchema(schemaRequiring("id")), cache.getCompiledSchema(schemaRequiring("name")));
+        assertEquals(2, cache.getCacheSize());
+        assertEquals(schemaRequiring("id").length() + schemaRequiring("name").length(), cache.getWeightedSize());
+    }
+
+    @Test
+    @DisplayName("should evict schemas beyond the entry bound")
+    void testEntryBound() {
+        SchemaCache bounded = new SchemaCache(2, 1_000_000);
+
+        for (int i = 0; i < 10; i++) {
+            bounded.getCompiledSchema(schemaRequiring("p" + i));
+        }
+
+        assertTrue(bounded.getCacheSize() <= 2);
+        assertTrue(bounded.stats().evictionCount() >= 8);
+    }
+
+    @Test
+    @DisplayName("should evict schemas beyond the weight bound")
+    void testWeightBound() {
+        int length = schemaRequiring("p0").length();
+        SchemaCache bounded = new SchemaCache(1_000, 3L * length);
+
+        for (int i = 0; i < 10; i++) {
+            bounded.getCompiledSchema(schemaRequiring("p" + i));
+        }
+
+        assertTrue(bounded.getCacheSize() <= 3);
+        assertTrue(bounded.getWeightedSize() <= 3L * length);
+    }
+
+    @Test
+    @DisplayName("should fail for an invalid schema and record the failed compilation")
+    void testGetCompiledSchema_WithInvalidSchema_ShouldThrow() {
+        assertThrows(RuntimeException.class, () -> cache.getCompiledSchema("{not a schema"));
+        assertEquals(0, cache.getCacheSize());
+        assertEquals(1, cache.stats().loadFailureCount());
+    }
+
+    @Test
+    @DisplayName("should reject non-positive bounds")
+    void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new SchemaCache(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new SchemaCache(10, 0));
+    }
+}
@@ -3,4 +3,9 @@ package de.unistuttgart.stayinsync.transport.dto;
 import java.util.Map;
 
 public record SyncDataMessageDTO(String arcAlias, Long requestConfigId, Map<String, Object> jsonData) {
+
+    /**
+     * The AMQP header carrying the time a message was published, in epoch milliseconds.
+     */
+    public static final String PUBLISHED_AT_HEADER = "x-published-at";
 }
@@ -1,11 +1,19 @@
 package de.unistuttgart.stayinsync.transport.dto;
 
+/**
+ * A transformation script as deployed to the sync nodes.
+ *
+ * @param maxCpuTimeMillis       The CPU time an execution of the script may use, or {@code null} for the sync node's default.
+ * @param maxHeapAllocationBytes The bytes an execution of the script may allocate, or {@code null} for the sync node's default.
+ */
 public record TransformationScriptDTO(
         Long id,
         String name,
         String hash,
         String javascriptCode,
         String generatedSdkCode,
-        String generatedSdkHash
+        String generatedSdkHash,
+        Long maxCpuTimeMillis,
+        Long maxHeapAllocationBytes
 ) {
 }
@@ -0,0 +1,151 @@
+package de.unistuttgart.stayinsync.transport.logging;
+
+import org.jboss.logmanager.ExtHandler;
+import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.handlers.SocketHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+
+/**
+ * Writes the records of a handler from a bounded queue on a background thread and counts the records it
+ * discards because the queue is full.
+ * <p>
+ * The asynchronous socket handler configured by Quarkus discards records silently when its queue overflows.
+ * {@link #wrapSocketHandlers(int)} replaces the socket handlers of the running log manager by instances of this
+ * handler, so that slow socket I/O still never blocks the logging threads, but every discarded record shows up
+ * in {@link #getDroppedCount()}. The socket handler itself must then be configured to be synchronous.
+ */
+public class CountingAsyncHandler extends ExtHandler {
+
+    private final Handler delegate;
+    private final BlockingQueue<ExtLogRecord> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Creates the handler and starts its writer thread.
+     *
+     * @param delegate    The handler the records are written to.
+     * @param queueLength The maximum number of records waiting to be written.
+     */
+    public CountingAsyncHandler(Handler delegate, int queueLength) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueLength));
+        this.writer = new Thread(this::writeQueuedRecords, "log-handler-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Replaces every socket handler of the root logger, including nested ones, by a counting asynchronous
+     * handler writing to it.
+     *
+     * @param queueLength The queue length of the installed handlers.
+     * @return The installed handlers; empty if no socket handler is configured.
+     */
+    public static List<CountingAsyncHandler> wrapSocketHandlers(int queueLength) {
+        List<CountingAsyncHandler> installed = new ArrayList<>();
+        Logger root = Logger.getLogger("");
+        for (Handler handler : root.getHandlers()) {
+            if (handler instanceof SocketHandler) {
+                CountingAsyncHandler wrapper = new CountingAsyncHandler(handler, queueLength);
+                root.addHandler(wrapper);
+                root.removeHandler(handler);
+                installed.add(wrapper);
+            } else if (handler instanceof ExtHandler parent) {
+                wrapNestedSocketHandlers(parent, queueLength, installed);
+            }
+        }
+        return installed;
+    }
+
+    private static void wrapNestedSocketHandlers(ExtHandler parent, int queueLength, List<CountingAsyncHandler> installed) {
+        if (parent instanceof CountingAsyncHandler) {
+            return;
+        }
+        Handler[] handlers = parent.getHandlers();
+        boolean replaced = false;
+        for (int i = 0; i < handlers.length; i++) {
+            if (handlers[i] instanceof SocketHandler) {
+                CountingAsyncHandler wrapper = new CountingAsyncHandler(handlers[i], queueLength);
+                handlers[i] = wrapper;
+                installed.add(wrapper);
+                replaced = true;
+            } else if (handlers[i] instanceof ExtHandler nested) {
+                wrapNestedSocketHandlers(nested, queueLength, installed);
+            }
+        }
+        if (replaced) {
+            parent.setHandlers(handlers);
+        }
+    }
+
+    /**
+     * Returns the number of records discarded because the queue was full or the handler was closed.
+     *
+     * @return The number of discarded records.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    protected void doPublish(ExtLogRecord record) {
+        // The writer thread formats the record, so everything taken from the logging thread is copied now.
+        record.copyAll();
+        if (closed || !queue.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    private void writeQueuedRecords() {
+        try {
+            while (!closed) {
+                ExtLogRecord record = queue.poll(1, TimeUnit.SECONDS);
+                if (record != null) {
+                    write(record);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(ExtLogRecord record) {
+        try {
+            delegate.publish(record);
+        } catch (RuntimeException e) {
+            reportError("Writing a log record failed", e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ExtLogRecord record;
+        while ((record = queue.poll()) != null) {
+            write(record);
+        }
+        delegate.close();
+    }
+}
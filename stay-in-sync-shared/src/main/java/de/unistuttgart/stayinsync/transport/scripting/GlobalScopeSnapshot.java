@@ -0,0 +1,42 @@
+package de.unistuttgart.stayinsync.transport.scripting;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The JavaScript code that pooled GraalJS contexts use to reset their global scope between executions.
+ * <p>
+ * Evaluated right after a context is created, the script takes a snapshot of the global scope and evaluates to
+ * a function that restores it: globals added since are removed (or cleared, if a top-level {@code var} made
+ * them non-deletable) and overwritten globals are restored. The function returns {@code false} if the scope
+ * could not be restored, in which case the context must be closed. Top-level {@code let}, {@code const} and
+ * {@code class} declarations and modifications of built-in prototypes are not undone.
+ */
+public final class GlobalScopeSnapshot {
+
+    /**
+     * The name of the script, used as the name of its source.
+     */
+    public static final String NAME = "global-scope-snapshot.js";
+
+    /**
+     * The code of the script.
+     */
+    public static final String SCRIPT = load();
+
+    private GlobalScopeSnapshot() {
+    }
+
+    private static String load() {
+        try (InputStream in = GlobalScopeSnapshot.class.getResourceAsStream(NAME)) {
+            if (in == null) {
+                throw new IllegalStateException("Script resource " + NAME + " is missing from the classpath.");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Script resource " + NAME + " could not be read.", e);
+        }
+    }
+}
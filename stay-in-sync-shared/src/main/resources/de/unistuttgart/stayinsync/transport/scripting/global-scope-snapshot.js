@@ -0,0 +1,45 @@
+// Takes a snapshot of the global scope and evaluates to a function that restores it and returns whether that
+// succeeded. The built-ins it uses are captured with the snapshot, so scripts cannot tamper with them.
+(function (global) {
+    'use strict';
+    const ownKeys = Reflect.ownKeys;
+    const getOwnPropertyDescriptor = Reflect.getOwnPropertyDescriptor;
+    const defineProperty = Reflect.defineProperty;
+    const deleteProperty = Reflect.deleteProperty;
+    const setPrototypeOf = Reflect.setPrototypeOf;
+    const baselineKeys = ownKeys(global);
+    const baselineDescriptors = [];
+    const isBaselineKey = Object.create(null);
+    const clearedValue = Object.create(null);
+    clearedValue.value = undefined;
+    for (let i = 0; i < baselineKeys.length; i++) {
+        const descriptor = getOwnPropertyDescriptor(global, baselineKeys[i]);
+        setPrototypeOf(descriptor, null);
+        baselineDescriptors[i] = descriptor;
+        isBaselineKey[baselineKeys[i]] = true;
+    }
+    return function resetGlobalScope() {
+        const keys = ownKeys(global);
+        for (let i = 0; i < keys.length; i++) {
+            const key = keys[i];
+            if (isBaselineKey[key] === true || deleteProperty(global, key)) {
+                continue;
+            }
+            const descriptor = getOwnPropertyDescriptor(global, key);
+            if (!descriptor.writable || !defineProperty(global, key, clearedValue)) {
+                return false;
+            }
+        }
+        for (let i = 0; i < baselineKeys.length; i++) {
+            const expected = baselineDescriptors[i];
+            const actual = getOwnPropertyDescriptor(global, baselineKeys[i]);
+            if (actual === undefined || actual.value !== expected.value
+                    || actual.get !== expected.get || actual.set !== expected.set) {
+                if (!defineProperty(global, baselineKeys[i], expected)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    };
+})(globalThis)